@@ -6,6 +6,7 @@ import edu.illinois.library.cantaloupe.cache.CacheFactory;
 import edu.illinois.library.cantaloupe.cache.CacheWorkerRunner;
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
 import edu.illinois.library.cantaloupe.logging.LoggerUtil;
+import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
 import edu.illinois.library.cantaloupe.script.DelegateScriptDisabledException;
 import edu.illinois.library.cantaloupe.script.ScriptEngineFactory;
 import org.restlet.data.Protocol;
@@ -123,6 +124,16 @@ public class EntryServlet extends ServerServlet {
         handleVmArguments();
         ConfigurationFactory.getInstance().startWatching();
         CacheWorkerRunner.start();
+        if (ProcessorFactory.isWarmUpEnabled()) {
+            final Thread warmUpThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ProcessorFactory.warmUp();
+                }
+            }, "processor-warmup");
+            warmUpThread.setDaemon(true);
+            warmUpThread.start();
+        }
         try {
             ScriptEngineFactory.getScriptEngine().startWatching();
         } catch (DelegateScriptDisabledException e) {
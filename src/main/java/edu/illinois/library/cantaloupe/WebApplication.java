@@ -9,6 +9,8 @@ import edu.illinois.library.cantaloupe.resource.AbstractResource;
 import edu.illinois.library.cantaloupe.resource.LandingResource;
 import edu.illinois.library.cantaloupe.resource.admin.AdminResource;
 import edu.illinois.library.cantaloupe.resource.api.ApiResource;
+import edu.illinois.library.cantaloupe.resource.api.FramesResource;
+import edu.illinois.library.cantaloupe.resource.api.WarmupResource;
 import org.apache.velocity.app.Velocity;
 import org.apache.velocity.runtime.RuntimeConstants;
 import org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader;
@@ -29,6 +31,7 @@ import org.restlet.routing.Template;
 import org.restlet.security.ChallengeAuthenticator;
 import org.restlet.security.MapVerifier;
 import org.restlet.service.CorsService;
+import org.restlet.service.EncoderService;
 import org.restlet.service.StatusService;
 
 import java.io.FileNotFoundException;
@@ -117,14 +120,20 @@ public class WebApplication extends Application {
             "auth.basic.secret";
     public static final String BASIC_AUTH_USERNAME_CONFIG_KEY =
             "auth.basic.username";
+    public static final String COMPRESSION_ENABLED_CONFIG_KEY =
+            "endpoint.compression.enabled";
+    public static final String COMPRESSION_MIN_SIZE_CONFIG_KEY =
+            "endpoint.compression.min_size";
 
     public static final String ADMIN_PATH = "/admin";
     public static final String CACHE_PATH = "/cache";
     public static final String CONFIGURATION_PATH = "/configuration";
+    public static final String FRAMES_PATH = "/frames";
     public static final String IIIF_PATH = "/iiif";
     public static final String IIIF_1_PATH = "/iiif/1";
     public static final String IIIF_2_PATH = "/iiif/2";
     public static final String STATIC_ROOT_PATH = "/static";
+    public static final String WARMUP_PATH = "/warmup";
 
     static {
         Velocity.setProperty(RuntimeConstants.RESOURCE_LOADER, "classpath");
@@ -144,6 +153,26 @@ public class WebApplication extends Application {
         corsService.setAllowedOrigins(new HashSet<>(Collections.singletonList("*")));
         corsService.setAllowedCredentials(true);
         this.getServices().add(corsService);
+        configureEncoderService();
+    }
+
+    /**
+     * Configures the encoder service to compress JSON responses for clients
+     * that accept compressed responses. Images are already compressed, so
+     * they are excluded.
+     */
+    private void configureEncoderService() {
+        final Configuration config = ConfigurationFactory.getInstance();
+        final EncoderService encoderService = getEncoderService();
+        encoderService.setEnabled(
+                config.getBoolean(COMPRESSION_ENABLED_CONFIG_KEY, false));
+        encoderService.setMinimumSize(
+                config.getLong(COMPRESSION_MIN_SIZE_CONFIG_KEY, 1000));
+        encoderService.getAcceptedMediaTypes().clear();
+        encoderService.getAcceptedMediaTypes().add(MediaType.APPLICATION_JSON);
+        encoderService.getAcceptedMediaTypes().add(
+                new MediaType("application/ld+json"));
+        encoderService.getIgnoredMediaTypes().add(MediaType.IMAGE_ALL);
     }
 
     private ChallengeAuthenticator createAdminAuthenticator()
@@ -292,6 +321,15 @@ public class WebApplication extends Application {
             apiAuth.setNext(ApiResource.class);
             router.attach(CONFIGURATION_PATH, apiAuth);
             router.attach(CACHE_PATH + "/{identifier}", apiAuth);
+
+            ChallengeAuthenticator warmupAuth = createApiAuthenticator();
+            warmupAuth.setNext(WarmupResource.class);
+            router.attach(WARMUP_PATH, warmupAuth);
+            router.attach(WARMUP_PATH + "/{task}", warmupAuth);
+
+            ChallengeAuthenticator framesAuth = createApiAuthenticator();
+            framesAuth.setNext(FramesResource.class);
+            router.attach(FRAMES_PATH + "/{identifier}", framesAuth);
         } catch (ConfigurationException e) {
             getLogger().log(Level.WARNING, e.getMessage());
         }
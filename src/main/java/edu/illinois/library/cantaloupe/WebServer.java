@@ -2,6 +2,11 @@ package edu.illinois.library.cantaloupe;
 
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
+import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.SecureRequestCustomizer;
@@ -9,6 +14,7 @@ import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.webapp.WebAppContext;
 
 /**
@@ -18,11 +24,15 @@ import org.eclipse.jetty.webapp.WebAppContext;
  */
 public class WebServer {
 
+    static final String ACCEPT_QUEUE_SIZE_CONFIG_KEY =
+            "http.accept_queue_size";
     static final String HTTP_ENABLED_CONFIG_KEY = "http.enabled";
     static final String HTTP_HOST_CONFIG_KEY = "http.host";
+    static final String HTTP_HTTP2_ENABLED_CONFIG_KEY = "http.http2.enabled";
     static final String HTTP_PORT_CONFIG_KEY = "http.port";
     static final String HTTPS_ENABLED_CONFIG_KEY = "https.enabled";
     static final String HTTPS_HOST_CONFIG_KEY = "https.host";
+    static final String HTTPS_HTTP2_ENABLED_CONFIG_KEY = "https.http2.enabled";
     static final String HTTPS_KEY_PASSWORD_CONFIG_KEY = "https.key_password";
     static final String HTTPS_KEY_STORE_PASSWORD_CONFIG_KEY =
             "https.key_store_password";
@@ -31,19 +41,34 @@ public class WebServer {
     static final String HTTPS_KEY_STORE_TYPE_CONFIG_KEY =
             "https.key_store_type";
     static final String HTTPS_PORT_CONFIG_KEY = "https.port";
-
+    static final String MAX_THREADS_CONFIG_KEY = "http.max_threads";
+    static final String MIN_THREADS_CONFIG_KEY = "http.min_threads";
+    static final String OUTPUT_BUFFER_SIZE_CONFIG_KEY =
+            "http.output_buffer_size";
+    static final String SELECTORS_CONFIG_KEY = "http.selectors";
+
+    private static final int DEFAULT_MAX_THREADS = 200;
+    private static final int DEFAULT_MIN_THREADS = 8;
+    private static final int DEFAULT_OUTPUT_BUFFER_SIZE = 32768;
     private static final int IDLE_TIMEOUT = 30000;
 
+    private int acceptQueueSize;
     private boolean httpEnabled;
     private String httpHost;
+    private boolean http2Enabled;
     private int httpPort;
     private boolean httpsEnabled;
     private String httpsHost;
+    private boolean https2Enabled;
     private String httpsKeyPassword;
     private String httpsKeyStorePassword;
     private String httpsKeyStorePath;
     private String httpsKeyStoreType;
     private int httpsPort;
+    private int maxThreads;
+    private int minThreads;
+    private int outputBufferSize;
+    private int selectors;
     private Server server;
 
     static {
@@ -60,11 +85,16 @@ public class WebServer {
     public WebServer() {
         final Configuration config = ConfigurationFactory.getInstance();
         if (config != null) {
+            acceptQueueSize = config.getInt(ACCEPT_QUEUE_SIZE_CONFIG_KEY, 0);
             httpEnabled = config.getBoolean(HTTP_ENABLED_CONFIG_KEY, false);
             httpHost = config.getString(HTTP_HOST_CONFIG_KEY, "0.0.0.0");
+            http2Enabled = config.getBoolean(HTTP_HTTP2_ENABLED_CONFIG_KEY,
+                    false);
             httpPort = config.getInt(HTTP_PORT_CONFIG_KEY, 8182);
             httpsEnabled = config.getBoolean(HTTPS_ENABLED_CONFIG_KEY, false);
             httpsHost = config.getString(HTTPS_HOST_CONFIG_KEY, "0.0.0.0");
+            https2Enabled = config.getBoolean(HTTPS_HTTP2_ENABLED_CONFIG_KEY,
+                    false);
             httpsKeyPassword = config.getString(HTTPS_KEY_PASSWORD_CONFIG_KEY);
             httpsKeyStorePassword =
                     config.getString(HTTPS_KEY_STORE_PASSWORD_CONFIG_KEY);
@@ -73,9 +103,24 @@ public class WebServer {
             httpsKeyStoreType =
                     config.getString(HTTPS_KEY_STORE_TYPE_CONFIG_KEY);
             httpsPort = config.getInt(HTTPS_PORT_CONFIG_KEY, 8183);
+            maxThreads = config.getInt(MAX_THREADS_CONFIG_KEY,
+                    DEFAULT_MAX_THREADS);
+            minThreads = config.getInt(MIN_THREADS_CONFIG_KEY,
+                    DEFAULT_MIN_THREADS);
+            outputBufferSize = config.getInt(OUTPUT_BUFFER_SIZE_CONFIG_KEY,
+                    DEFAULT_OUTPUT_BUFFER_SIZE);
+            selectors = config.getInt(SELECTORS_CONFIG_KEY, -1);
         }
     }
 
+    /**
+     * @return Size of the TCP accept queue, or 0 to use the operating
+     *         system default.
+     */
+    public int getAcceptQueueSize() {
+        return acceptQueueSize;
+    }
+
     public String getHttpHost() {
         return httpHost;
     }
@@ -108,14 +153,61 @@ public class WebServer {
         return httpsPort;
     }
 
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public int getMinThreads() {
+        return minThreads;
+    }
+
+    /**
+     * @return Size of the response output buffer in bytes.
+     */
+    public int getOutputBufferSize() {
+        return outputBufferSize;
+    }
+
+    /**
+     * @return Number of selector threads per connector, or -1 to have Jetty
+     *         choose based on the number of CPU cores.
+     */
+    public int getSelectors() {
+        return selectors;
+    }
+
+    /**
+     * @return Whether the HTTP connector accepts cleartext HTTP/2 (h2c) in
+     *         addition to HTTP/1.1.
+     */
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
     public boolean isHttpEnabled() {
         return httpEnabled;
     }
 
+    /**
+     * @return Whether the HTTPS connector negotiates HTTP/2 (h2) via ALPN in
+     *         addition to HTTP/1.1.
+     */
+    public boolean isHttps2Enabled() {
+        return https2Enabled;
+    }
+
     public boolean isHttpsEnabled() {
         return httpsEnabled;
     }
 
+    public void setAcceptQueueSize(int size) {
+        this.acceptQueueSize = size;
+    }
+
+    public void setHttp2Enabled(boolean enabled) {
+        this.http2Enabled = enabled;
+    }
+
     public void setHttpEnabled(boolean enabled) {
         this.httpEnabled = enabled;
     }
@@ -128,6 +220,10 @@ public class WebServer {
         this.httpPort = port;
     }
 
+    public void setHttps2Enabled(boolean enabled) {
+        this.https2Enabled = enabled;
+    }
+
     public void setHttpsEnabled(boolean enabled) {
         this.httpsEnabled = enabled;
     }
@@ -156,6 +252,22 @@ public class WebServer {
         this.httpsPort = port;
     }
 
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public void setMinThreads(int minThreads) {
+        this.minThreads = minThreads;
+    }
+
+    public void setOutputBufferSize(int size) {
+        this.outputBufferSize = size;
+    }
+
+    public void setSelectors(int selectors) {
+        this.selectors = selectors;
+    }
+
     /**
      * Starts the HTTP and/or HTTPS servers.
      *
@@ -163,7 +275,10 @@ public class WebServer {
      */
     public void start() throws Exception {
         stop();
-        server = new Server();
+        final QueuedThreadPool threadPool =
+                new QueuedThreadPool(getMaxThreads(), getMinThreads());
+        threadPool.setName("jetty");
+        server = new Server(threadPool);
 
         final WebAppContext context = new WebAppContext();
         context.setContextPath("/");
@@ -181,24 +296,53 @@ public class WebServer {
 
         // Initialize the HTTP server
         if (isHttpEnabled()) {
-            ServerConnector connector = new ServerConnector(server);
+            final HttpConfiguration httpConfig = newHttpConfiguration();
+            final ConnectionFactory[] factories;
+            if (isHttp2Enabled()) {
+                factories = new ConnectionFactory[] {
+                        new HttpConnectionFactory(httpConfig),
+                        new HTTP2CServerConnectionFactory(httpConfig) };
+            } else {
+                factories = new ConnectionFactory[] {
+                        new HttpConnectionFactory(httpConfig) };
+            }
+            ServerConnector connector = newServerConnector(factories);
             connector.setHost(getHttpHost());
             connector.setPort(getHttpPort());
-            connector.setIdleTimeout(IDLE_TIMEOUT);
             server.addConnector(connector);
         }
         // Initialize the HTTPS server
         if (isHttpsEnabled()) {
-            HttpConfiguration httpsConfig = new HttpConfiguration();
+            HttpConfiguration httpsConfig = newHttpConfiguration();
             httpsConfig.addCustomizer(new SecureRequestCustomizer());
             SslContextFactory sslContextFactory = new SslContextFactory();
 
             sslContextFactory.setKeyStorePath(getHttpsKeyStorePath());
             sslContextFactory.setKeyStorePassword(getHttpsKeyStorePassword());
             sslContextFactory.setKeyManagerPassword(getHttpsKeyPassword());
-            ServerConnector sslConnector = new ServerConnector(server,
-                    new SslConnectionFactory(sslContextFactory, "HTTP/1.1"),
-                    new HttpConnectionFactory(httpsConfig));
+
+            final ConnectionFactory[] factories;
+            if (isHttps2Enabled()) {
+                // HTTP/2 requires ALPN, and forbids some ciphers that are
+                // acceptable for HTTP/1.1.
+                sslContextFactory.setCipherComparator(HTTP2Cipher.COMPARATOR);
+                sslContextFactory.setUseCipherSuitesOrder(true);
+
+                final ALPNServerConnectionFactory alpn =
+                        new ALPNServerConnectionFactory();
+                alpn.setDefaultProtocol("http/1.1");
+                factories = new ConnectionFactory[] {
+                        new SslConnectionFactory(sslContextFactory,
+                                alpn.getProtocol()),
+                        alpn,
+                        new HTTP2ServerConnectionFactory(httpsConfig),
+                        new HttpConnectionFactory(httpsConfig) };
+            } else {
+                factories = new ConnectionFactory[] {
+                        new SslConnectionFactory(sslContextFactory, "HTTP/1.1"),
+                        new HttpConnectionFactory(httpsConfig) };
+            }
+            ServerConnector sslConnector = newServerConnector(factories);
             sslConnector.setHost(getHttpsHost());
             sslConnector.setPort(getHttpsPort());
             server.addConnector(sslConnector);
@@ -207,6 +351,21 @@ public class WebServer {
         server.start();
     }
 
+    private HttpConfiguration newHttpConfiguration() {
+        final HttpConfiguration config = new HttpConfiguration();
+        config.setOutputBufferSize(getOutputBufferSize());
+        return config;
+    }
+
+    private ServerConnector newServerConnector(ConnectionFactory... factories) {
+        // -1 acceptors tells Jetty to choose based on the number of CPU cores.
+        final ServerConnector connector = new ServerConnector(server, -1,
+                getSelectors(), factories);
+        connector.setAcceptQueueSize(getAcceptQueueSize());
+        connector.setIdleTimeout(IDLE_TIMEOUT);
+        return connector;
+    }
+
     public void stop() throws Exception {
         if (server != null) {
             server.stop();
@@ -2,11 +2,11 @@ package edu.illinois.library.cantaloupe.cache;
 
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.HashKey;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.Operation;
 import edu.illinois.library.cantaloupe.image.OperationList;
 import edu.illinois.library.cantaloupe.processor.ImageInfo;
-import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -20,7 +20,6 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.charset.Charset;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -30,15 +29,13 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -131,25 +128,24 @@ class FilesystemCache implements SourceCache, DerivativeCache {
                 getLogger(ConcurrentFileOutputStream.class);
 
         private File destinationFile;
-        private Set imagesBeingWritten;
+        private Set<HashKey> imagesBeingWritten;
         private boolean isClosed = false;
-        private Object toRemove;
+        private HashKey toRemove;
         private File tempFile;
 
         /**
          * @param tempFile Pathname of the temp file to write to.
          * @param destinationFile Pathname to move tempFile to when it is done
          *                        being written.
-         * @param imagesBeingWritten Set of OperationLists for all images
-         *                           currently being written.
-         * @param toRemove Object to remove from the set when done.
+         * @param imagesBeingWritten Set of keys of all images currently
+         *                           being written.
+         * @param toRemove Key to remove from the set when done.
          * @throws FileNotFoundException
          */
-        @SuppressWarnings("unchecked")
         ConcurrentFileOutputStream(File tempFile,
                                    File destinationFile,
-                                   Set imagesBeingWritten,
-                                   Object toRemove)
+                                   Set<HashKey> imagesBeingWritten,
+                                   HashKey toRemove)
                 throws FileNotFoundException {
             super(tempFile);
             imagesBeingWritten.add(toRemove);
@@ -172,7 +168,8 @@ class FilesystemCache implements SourceCache, DerivativeCache {
                     try {
                         // Close super in order to release its handle on
                         // tempFile.
-                        logger.debug("close(): closing stream for {}", toRemove);
+                        logger.debug("close(): closing stream for {}",
+                                destinationFile.getName());
                         super.close();
                     } catch (IOException e) {
                         logger.warn("close(): {}", e.getMessage());
@@ -233,35 +230,35 @@ class FilesystemCache implements SourceCache, DerivativeCache {
 
     /** Set of operation lists for which image files are currently being
      * written from any thread. */
-    private final Set<OperationList> derivativeImagesBeingWritten =
-            new ConcurrentSkipListSet<>();
+    private final Set<HashKey> derivativeImagesBeingWritten =
+            ConcurrentHashMap.newKeySet();
 
     /** Set of Operations for which image files are currently being purged by
      * purge(OperationList) from any thread. */
-    private final Set<OperationList> imagesBeingPurged =
-            new ConcurrentSkipListSet<>();
+    private final Set<HashKey> imagesBeingPurged =
+            ConcurrentHashMap.newKeySet();
 
     /** Set of identifiers for which info files are currently being purged by
      * purgeImage(Identifier) from any thread. */
-    private final Set<Identifier> infosBeingPurged =
-            new ConcurrentSkipListSet<>();
+    private final Set<HashKey> infosBeingPurged =
+            ConcurrentHashMap.newKeySet();
 
     /** Set of identifiers for which info files are currently being read in
      * any thread. */
-    private final Set<Identifier> infosBeingRead =
-            new ConcurrentSkipListSet<>();
+    private final Set<HashKey> infosBeingRead =
+            ConcurrentHashMap.newKeySet();
 
     /** Set of identifiers for which info files are currently being written
      * from any thread. */
-    private final Set<Identifier> infosBeingWritten =
-            new ConcurrentSkipListSet<>();
+    private final Set<HashKey> infosBeingWritten =
+            ConcurrentHashMap.newKeySet();
 
     private long minCleanableAge = 1000 * 60 * 10;
 
     /** Set of identifiers for which image files are currently being written
      * from any thread. */
-    private final Set<Identifier> sourceImagesBeingWritten =
-            new ConcurrentSkipListSet<>();
+    private final Set<HashKey> sourceImagesBeingWritten =
+            ConcurrentHashMap.newKeySet();
 
     private final AtomicBoolean cleaningInProgress = new AtomicBoolean(false);
 
@@ -307,25 +304,32 @@ class FilesystemCache implements SourceCache, DerivativeCache {
      * string.
      */
     static String getHashedStringBasedSubdirectory(String uniqueString) {
+        return getHashedStringBasedSubdirectory(HashKey.of(uniqueString));
+    }
+
+    /**
+     * @param identifier Identifier from which to derive the path.
+     * @return Directory path composed of fragments of the identifier's
+     *         {@link Identifier#getKey() key}, which is the same as that
+     *         returned by {@link #getHashedStringBasedSubdirectory(String)}
+     *         for its string value.
+     */
+    static String getHashedStringBasedSubdirectory(Identifier identifier) {
+        return getHashedStringBasedSubdirectory(identifier.getKey());
+    }
+
+    private static String getHashedStringBasedSubdirectory(HashKey key) {
+        final String sum = key.toString();
+        final Configuration config = ConfigurationFactory.getInstance();
+        final int depth = config.getInt(DIRECTORY_DEPTH_CONFIG_KEY, 3);
+        final int nameLength =
+                config.getInt(DIRECTORY_NAME_LENGTH_CONFIG_KEY, 2);
+
         final StringBuilder path = new StringBuilder();
-        try {
-            // Use a fast algo. Collisions don't matter.
-            final MessageDigest digest = MessageDigest.getInstance("MD5");
-            digest.update(uniqueString.getBytes(Charset.forName("UTF8")));
-            final String sum = Hex.encodeHexString(digest.digest());
-
-            final Configuration config = ConfigurationFactory.getInstance();
-            final int depth = config.getInt(DIRECTORY_DEPTH_CONFIG_KEY, 3);
-            final int nameLength =
-                    config.getInt(DIRECTORY_NAME_LENGTH_CONFIG_KEY, 2);
-
-            for (int i = 0; i < depth; i++) {
-                final int offset = i * nameLength;
-                path.append(File.separator);
-                path.append(sum.substring(offset, offset + nameLength));
-            }
-        } catch (NoSuchAlgorithmException e) {
-            logger.error(e.getMessage(), e);
+        for (int i = 0; i < depth; i++) {
+            final int offset = i * nameLength;
+            path.append(File.separator);
+            path.append(sum.substring(offset, offset + nameLength));
         }
         return path.toString();
     }
@@ -442,7 +446,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         final String cacheRoot =
                 StringUtils.stripEnd(getRootDerivativeImagePathname(), File.separator);
         final String subfolderPath = StringUtils.stripEnd(
-                getHashedStringBasedSubdirectory(ops.getIdentifier().toString()),
+                getHashedStringBasedSubdirectory(ops.getIdentifier()),
                 File.separator);
         final String identifierFilename =
                 filenameSafe(ops.getIdentifier().toString());
@@ -481,7 +485,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         }
 
         final File cacheFolder = new File(getRootDerivativeImagePathname() +
-                getHashedStringBasedSubdirectory(identifier.toString()));
+                getHashedStringBasedSubdirectory(identifier));
         final File[] files =
                 cacheFolder.listFiles(new IdentifierFilter(identifier));
         ArrayList<File> fileList;
@@ -506,7 +510,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
     @Override
     public File getImageFile(Identifier identifier) throws CacheException {
         synchronized (lock7) {
-            while (sourceImagesBeingWritten.contains(identifier)) {
+            while (sourceImagesBeingWritten.contains(identifier.getKey())) {
                 try {
                     lock7.wait();
                 } catch (InterruptedException e) {
@@ -536,7 +540,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
     @Override
     public ImageInfo getImageInfo(Identifier identifier) throws CacheException {
         synchronized (lock2) {
-            while (infosBeingWritten.contains(identifier)) {
+            while (infosBeingWritten.contains(identifier.getKey())) {
                 try {
                     lock2.wait();
                 } catch (InterruptedException e) {
@@ -546,7 +550,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         }
 
         try {
-            infosBeingRead.add(identifier);
+            infosBeingRead.add(identifier.getKey());
             final File cacheFile = getInfoFile(identifier);
             if (cacheFile != null && cacheFile.exists()) {
                 if (!isExpired(cacheFile)) {
@@ -567,7 +571,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         } catch (IOException e) {
             throw new CacheException(e.getMessage(), e);
         } finally {
-            infosBeingRead.remove(identifier);
+            infosBeingRead.remove(identifier.getKey());
         }
         return null;
     }
@@ -604,7 +608,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         // If the image is being written in another thread, it may (or may not)
         // be present in the sourceImagesBeingWritten set. If so, return a null
         // output stream to avoid interfering.
-        if (sourceImagesBeingWritten.contains(identifier)) {
+        if (sourceImagesBeingWritten.contains(identifier.getKey())) {
             logger.info("getImageOutputStream(Identifier): miss, but cache " +
                     "file for {} is being written in another thread, so not " +
                     "caching", identifier);
@@ -613,7 +617,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
 
         // identifier will be removed from this set when the non-null output
         // stream returned by this method is closed.
-        sourceImagesBeingWritten.add(identifier);
+        sourceImagesBeingWritten.add(identifier.getKey());
 
         // If the image is being written simultaneously in another process,
         // there may (or may not) be a temp file on the filesystem. If so,
@@ -640,7 +644,8 @@ class FilesystemCache implements SourceCache, DerivativeCache {
             }
             final File destFile = getSourceImageFile(identifier);
             return new ConcurrentFileOutputStream(
-                    tempFile, destFile, sourceImagesBeingWritten, identifier);
+                    tempFile, destFile, sourceImagesBeingWritten,
+                    identifier.getKey());
         } catch (IOException e) {
             throw new CacheException(e.getMessage(), e);
         }
@@ -675,7 +680,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         // If the image is being written in another thread, it will
         // be present in the derivativeImagesBeingWritten set. If so,
         // return a null output stream to avoid interfering.
-        if (derivativeImagesBeingWritten.contains(ops)) {
+        if (derivativeImagesBeingWritten.contains(ops.getKey())) {
             logger.info("getImageOutputStream(OperationList): miss, " +
                     "but cache file for {} is being written in " +
                     "another thread, so not caching", ops);
@@ -690,11 +695,11 @@ class FilesystemCache implements SourceCache, DerivativeCache {
 
             // ops will be removed from this set when the returned output
             // stream is closed.
-            derivativeImagesBeingWritten.add(ops);
+            derivativeImagesBeingWritten.add(ops.getKey());
             try {
                 return new ConcurrentFileOutputStream(tempFile,
                         getDerivativeImageFile(ops),
-                        derivativeImagesBeingWritten, ops);
+                        derivativeImagesBeingWritten, ops.getKey());
             } catch (IOException e) {
                 throw new CacheException(e.getMessage(), e);
             }
@@ -709,7 +714,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         final String cacheRoot =
                 StringUtils.stripEnd(getRootInfoPathname(), File.separator);
         final String subfolderPath = StringUtils.stripEnd(
-                getHashedStringBasedSubdirectory(identifier.toString()),
+                getHashedStringBasedSubdirectory(identifier),
                 File.separator);
         final String identifierFilename = filenameSafe(identifier.toString());
         final String pathname = cacheRoot + subfolderPath + File.separator +
@@ -732,7 +737,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         final String cacheRoot = StringUtils.stripEnd(
                 getRootSourceImagePathname(), File.separator);
         final String subfolderPath = StringUtils.stripEnd(
-                getHashedStringBasedSubdirectory(identifier.toString()),
+                getHashedStringBasedSubdirectory(identifier),
                 File.separator);
         final String identifierFilename = filenameSafe(identifier.toString());
         final String baseName = cacheRoot + subfolderPath + File.separator +
@@ -817,7 +822,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
             return;
         }
         synchronized (lock1) {
-            while (imagesBeingPurged.contains(opList)) {
+            while (imagesBeingPurged.contains(opList.getKey())) {
                 try {
                     lock1.wait();
                 } catch (InterruptedException e) {
@@ -826,7 +831,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
             }
         }
         try {
-            imagesBeingPurged.add(opList);
+            imagesBeingPurged.add(opList.getKey());
             logger.info("purge(OperationList): purging {}...", opList);
 
             File file = getDerivativeImageFile(opList);
@@ -839,7 +844,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
                 }
             }
         } finally {
-            imagesBeingPurged.remove(opList);
+            imagesBeingPurged.remove(opList.getKey());
         }
     }
 
@@ -927,7 +932,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
             return;
         }
         synchronized (lock6) {
-            while (infosBeingPurged.contains(identifier)) {
+            while (infosBeingPurged.contains(identifier.getKey())) {
                 try {
                     lock6.wait();
                 } catch (InterruptedException e) {
@@ -936,7 +941,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
             }
         }
         try {
-            infosBeingPurged.add(identifier);
+            infosBeingPurged.add(identifier.getKey());
             logger.info("purgeImage(): purging {}...", identifier);
 
             // Delete the source image
@@ -972,7 +977,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
                 logger.warn(e.getMessage());
             }
         } finally {
-            infosBeingPurged.remove(identifier);
+            infosBeingPurged.remove(identifier.getKey());
         }
     }
 
@@ -980,8 +985,8 @@ class FilesystemCache implements SourceCache, DerivativeCache {
     public void putImageInfo(Identifier identifier, ImageInfo imageInfo)
             throws CacheException {
         synchronized (lock3) {
-            while (infosBeingWritten.contains(identifier) ||
-                    infosBeingRead.contains(identifier)) {
+            while (infosBeingWritten.contains(identifier.getKey()) ||
+                    infosBeingRead.contains(identifier.getKey())) {
                 try {
                     lock3.wait();
                 } catch (InterruptedException e) {
@@ -990,7 +995,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
             }
         }
         try {
-            infosBeingWritten.add(identifier);
+            infosBeingWritten.add(identifier.getKey());
 
             final File destFile = getInfoFile(identifier);
             final File tempFile = getInfoTempFile(identifier);
@@ -1020,7 +1025,7 @@ class FilesystemCache implements SourceCache, DerivativeCache {
         } catch (IOException e) {
             throw new CacheException(e.getMessage(), e);
         } finally {
-            infosBeingWritten.remove(identifier);
+            infosBeingWritten.remove(identifier.getKey());
         }
     }
 
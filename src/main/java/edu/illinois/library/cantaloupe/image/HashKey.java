@@ -0,0 +1,83 @@
+package edu.illinois.library.cantaloupe.image;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * <p>Immutable 128-bit digest of a string, suitable for use as a compact cache
+ * key. Equality, hash code, and ordering are computed from the digest
+ * alone, which makes them much cheaper than operating on the string.</p>
+ *
+ * <p>The digest is MD5, which is the same one used by
+ * {@link edu.illinois.library.cantaloupe.cache.FilesystemCache} to derive
+ * subdirectory names, so that it can be reused for that purpose.</p>
+ */
+public final class HashKey implements Comparable<HashKey> {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+    private final long high;
+    private final long low;
+
+    /**
+     * @param string String to digest.
+     * @return Key of the given string.
+     */
+    public static HashKey of(String string) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("MD5");
+            final byte[] bytes = digest.digest(string.getBytes(CHARSET));
+            long high = 0, low = 0;
+            for (int i = 0; i < 8; i++) {
+                high = (high << 8) | (bytes[i] & 0xff);
+                low = (low << 8) | (bytes[i + 8] & 0xff);
+            }
+            return new HashKey(high, low);
+        } catch (NoSuchAlgorithmException e) {
+            // All Java platforms are required to support MD5.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HashKey(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    @Override
+    public int compareTo(HashKey other) {
+        final int result = Long.compare(high, other.high);
+        return (result != 0) ? result : Long.compare(low, other.low);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof HashKey) {
+            final HashKey other = (HashKey) obj;
+            return high == other.high && low == other.low;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    /**
+     * @return 32-character lowercase hexadecimal representation of the
+     *         digest.
+     */
+    @Override
+    public String toString() {
+        final char[] chars = new char[32];
+        for (int i = 0; i < 16; i++) {
+            chars[15 - i] = HEX_CHARS[(int) (high >>> (i * 4)) & 0xf];
+            chars[31 - i] = HEX_CHARS[(int) (low >>> (i * 4)) & 0xf];
+        }
+        return new String(chars);
+    }
+
+}
@@ -5,7 +5,10 @@ package edu.illinois.library.cantaloupe.image;
  */
 public class Identifier implements Comparable<Identifier> {
 
-    private String value;
+    private final String value;
+
+    /** Lazily computed by {@link #getKey()}. */
+    private volatile HashKey key;
 
     /**
      * @param value Identifier value
@@ -16,24 +19,35 @@ public class Identifier implements Comparable<Identifier> {
 
     @Override
     public int compareTo(Identifier identifier) {
-        int last = this.toString().compareTo(identifier.toString());
-        return (last == 0) ?
-                this.toString().compareTo(identifier.toString()) : last;
+        return value.compareTo(identifier.value);
     }
 
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof Identifier) {
-            return this.toString().equals(obj.toString());
+            return value.equals(((Identifier) obj).value);
         } else if (obj instanceof String) {
-            return this.toString().equals(obj);
+            return value.equals(obj);
         }
         return super.equals(obj);
     }
 
+    /**
+     * @return 128-bit digest of the value, which is computed once and then
+     *         retained.
+     */
+    public HashKey getKey() {
+        HashKey key = this.key;
+        if (key == null) {
+            key = HashKey.of(value);
+            this.key = key;
+        }
+        return key;
+    }
+
     @Override
     public int hashCode(){
-        return this.toString().hashCode();
+        return value.hashCode();
     }
 
     /**
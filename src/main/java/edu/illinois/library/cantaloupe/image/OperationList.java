@@ -4,6 +4,7 @@ import edu.illinois.library.cantaloupe.image.watermark.Watermark;
 import org.apache.commons.lang3.StringUtils;
 
 import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -19,11 +20,19 @@ import java.util.Map;
  * order to pass them off into {@link
  * edu.illinois.library.cantaloupe.processor.Processor processors} and
  * {@link edu.illinois.library.cantaloupe.cache.Cache caches}.</p>
+ *
+ * <p>Equality, hash code, and ordering are based on a {@link #getKey() key}
+ * that is computed once and retained until the instance is modified via one
+ * of its own mutator methods. Modifying the contained operations or options
+ * directly does not reset the key, so that should be done before the
+ * instance is used as a cache key.</p>
  */
 public class OperationList implements Comparable<OperationList>,
         Iterable<Operation> {
 
     private Identifier identifier;
+    /** Lazily computed by {@link #getKey()}. */
+    private volatile HashKey key;
     private List<Operation> operations = new ArrayList<>();
     private Map<String,Object> options = new HashMap<>();
     private Format outputFormat;
@@ -48,16 +57,18 @@ public class OperationList implements Comparable<OperationList>,
     public void add(Operation op) {
         if (op != null) {
             operations.add(op);
+            key = null;
         }
     }
 
     public void clear() {
         operations.clear();
+        key = null;
     }
 
     @Override
     public int compareTo(OperationList ops) {
-        return this.toString().compareTo(ops.toString());
+        return getKey().compareTo(ops.getKey());
     }
 
     /**
@@ -76,7 +87,7 @@ public class OperationList implements Comparable<OperationList>,
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof OperationList) {
-            return obj.toString().equals(this.toString());
+            return getKey().equals(((OperationList) obj).getKey());
         }
         return super.equals(obj);
     }
@@ -85,6 +96,19 @@ public class OperationList implements Comparable<OperationList>,
         return identifier;
     }
 
+    /**
+     * @return 128-bit digest of {@link #toString()}, which is computed once
+     *         and then retained until the instance is modified.
+     */
+    public HashKey getKey() {
+        HashKey key = this.key;
+        if (key == null) {
+            key = HashKey.of(toString());
+            this.key = key;
+        }
+        return key;
+    }
+
     /**
      * @return Map of auxiliary options separate from the basic
      * crop/scale/etc., such as URI query variables, etc.
@@ -151,6 +175,83 @@ public class OperationList implements Comparable<OperationList>,
         return true;
     }
 
+    /**
+     * <p>Reduces the operations to a canonical form, so that requests that
+     * would produce identical images (and therefore share a derivative cache
+     * entry) are represented identically. Specifically:</p>
+     *
+     * <ul>
+     *     <li>{@link Crop crops} that cover the full extent of the image are
+     *     made {@link Crop#isFull() full};</li>
+     *     <li>{@link Scale scales} that would not change the size of the
+     *     image are made no-ops, and other scales that preserve the aspect
+     *     ratio are expressed as an {@link Scale.Mode#ASPECT_FIT_WIDTH
+     *     aspect-fit-width} scale to the resulting width, as long as that
+     *     produces the same resulting size;</li>
+     *     <li>{@link Rotate rotations} of 360 degrees are made 0.</li>
+     * </ul>
+     *
+     * <p>This should be invoked once all operations have been added.</p>
+     *
+     * @param fullSize Full size of the source image.
+     */
+    public void normalize(Dimension fullSize) {
+        key = null;
+        Dimension size = new Dimension(fullSize);
+        for (int i = 0; i < operations.size(); i++) {
+            final Operation op = operations.get(i);
+            if (op instanceof Crop) {
+                final Crop crop = (Crop) op;
+                if (!crop.isFull() && crop.getRectangle(size).equals(
+                        new Rectangle(0, 0, size.width, size.height))) {
+                    crop.setFull(true);
+                }
+            } else if (op instanceof Scale) {
+                operations.set(i, normalize((Scale) op, size));
+            } else if (op instanceof Rotate) {
+                final Rotate rotate = (Rotate) op;
+                if (Math.abs(rotate.getDegrees() - 360) < 0.0001f) {
+                    rotate.setDegrees(0);
+                }
+            }
+            size = operations.get(i).getResultingSize(size);
+        }
+    }
+
+    /**
+     * @param scale Scale to normalize.
+     * @param size Size of the image to which the scale will be applied.
+     * @return Canonical equivalent of the given scale, which may be the same
+     *         instance.
+     */
+    private static Scale normalize(Scale scale, Dimension size) {
+        if (scale.isNoOp()) {
+            return scale;
+        }
+        final Dimension resultingSize = scale.getResultingSize(size);
+        if (resultingSize.equals(size)) {
+            final Scale noOpScale = new Scale();
+            noOpScale.setFilter(scale.getFilter());
+            return noOpScale;
+        }
+        if (scale.getMode() == Scale.Mode.ASPECT_FIT_WIDTH &&
+                scale.getPercent() == null) {
+            return scale;
+        }
+        final Scale widthScale = new Scale(resultingSize.width, null,
+                Scale.Mode.ASPECT_FIT_WIDTH);
+        widthScale.setFilter(scale.getFilter());
+        if (widthScale.getResultingSize(size).equals(resultingSize)) {
+            return widthScale;
+        }
+        return scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return getKey().hashCode();
+    }
+
     @Override
     public Iterator iterator() {
         return operations.iterator();
@@ -158,10 +259,12 @@ public class OperationList implements Comparable<OperationList>,
 
     public void setIdentifier(Identifier identifier) {
         this.identifier = identifier;
+        key = null;
     }
 
     public void setOutputFormat(Format outputFormat) {
         this.outputFormat = outputFormat;
+        key = null;
     }
 
     /**
@@ -0,0 +1,135 @@
+package edu.illinois.library.cantaloupe.image.redaction;
+
+import edu.illinois.library.cantaloupe.cache.Cache;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.util.ExpiringLruMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Bounded in-memory cache of the redactions of images, keyed by
+ * identifier, which is consulted by
+ * {@link RedactionService#redactionsFor} before invoking the delegate
+ * script.</p>
+ *
+ * <p>Without it, the delegate script is invoked for every tile of an image.
+ * As it is keyed only by identifier, it must only be enabled when the
+ * delegate script's <code>redactions</code> method depends on nothing but the
+ * identifier.</p>
+ *
+ * <p>Entries expire after {@link Cache#TTL_CONFIG_KEY}, and are removed when
+ * their image is purged via the API.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public final class RedactionCache {
+
+    private static Logger logger = LoggerFactory.
+            getLogger(RedactionCache.class);
+
+    static final String ENABLED_CONFIG_KEY = "redaction.cache.enabled";
+    static final String MAX_SIZE_CONFIG_KEY = "redaction.cache.max_size";
+
+    private static final int DEFAULT_MAX_SIZE = 10000;
+
+    private static final RedactionCache instance = new RedactionCache();
+
+    /**
+     * Regions of redactions, which, unlike redactions, are immutable.
+     */
+    private final ExpiringLruMap<Identifier,List<Rectangle>> regions =
+            new ExpiringLruMap<>(DEFAULT_MAX_SIZE);
+
+    /**
+     * @return The shared instance.
+     */
+    public static RedactionCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return Whether {@link #ENABLED_CONFIG_KEY} is <code>true</code>.
+     */
+    static boolean isEnabled() {
+        return ConfigurationFactory.getInstance().
+                getBoolean(ENABLED_CONFIG_KEY, false);
+    }
+
+    private RedactionCache() {}
+
+    /**
+     * @param identifier Identifier of the image.
+     * @return New instances of the non-expired redactions of the image
+     *         (possibly an empty list), or null if the cache is disabled or
+     *         does not contain them.
+     */
+    List<Redaction> get(Identifier identifier) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final long ttlMsec = 1000 * ConfigurationFactory.getInstance().
+                getLong(Cache.TTL_CONFIG_KEY, 0);
+        final List<Rectangle> imageRegions =
+                regions.get(identifier, ttlMsec);
+        if (imageRegions == null) {
+            return null;
+        }
+        // Redactions are mutable operations, so new ones are returned.
+        final List<Redaction> redactions =
+                new ArrayList<>(imageRegions.size());
+        for (Rectangle region : imageRegions) {
+            redactions.add(new Redaction(new Rectangle(region)));
+        }
+        return redactions;
+    }
+
+    /**
+     * Adds redactions. Does nothing if the cache is disabled.
+     *
+     * @param identifier Identifier of the image.
+     * @param redactions Redactions of the image, which may be empty.
+     */
+    void put(Identifier identifier, List<Redaction> redactions) {
+        if (!isEnabled()) {
+            return;
+        }
+        final List<Rectangle> imageRegions =
+                new ArrayList<>(redactions.size());
+        for (Redaction redaction : redactions) {
+            imageRegions.add(new Rectangle(redaction.getRegion()));
+        }
+        regions.setMaxSize(ConfigurationFactory.getInstance().
+                getInt(MAX_SIZE_CONFIG_KEY, DEFAULT_MAX_SIZE));
+        regions.put(identifier, imageRegions);
+    }
+
+    /**
+     * Removes all redactions.
+     */
+    public void purge() {
+        regions.clear();
+    }
+
+    /**
+     * Removes the redactions of the image with the given identifier.
+     *
+     * @param identifier
+     */
+    public void purge(Identifier identifier) {
+        regions.remove(identifier);
+        logger.debug("purge(): purged {}", identifier);
+    }
+
+    /**
+     * @return Number of entries in the cache, including expired ones.
+     */
+    int size() {
+        return regions.size();
+    }
+
+}
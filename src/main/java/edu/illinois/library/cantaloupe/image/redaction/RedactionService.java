@@ -32,7 +32,8 @@ public abstract class RedactionService {
 
     /**
      * Factory method that returns a list of {@link Redaction redactions}
-     * based on the given parameters.
+     * based on the given parameters, from the {@link RedactionCache} if
+     * possible.
      *
      * @param identifier Image identifier.
      * @param requestHeaders
@@ -51,7 +52,12 @@ public abstract class RedactionService {
                                                 Map<String,String> cookies)
             throws IOException, ScriptException,
             DelegateScriptDisabledException, ConfigurationException {
-        final List<Redaction> redactions = new ArrayList<>();
+        List<Redaction> redactions =
+                RedactionCache.getInstance().get(identifier);
+        if (redactions != null) {
+            return redactions;
+        }
+        redactions = new ArrayList<>();
 
         final List<Map<String,Long>> defs = getRedactionDefsFromScript(
                 identifier, requestHeaders, clientIp, cookies);
@@ -64,6 +70,7 @@ public abstract class RedactionService {
                                 def.get("height").intValue())));
             }
         }
+        RedactionCache.getInstance().put(identifier, redactions);
         return redactions;
     }
 
@@ -18,6 +18,8 @@ import edu.illinois.library.cantaloupe.resource.iiif.ProcessorFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -94,8 +96,37 @@ abstract class AbstractJava2dProcessor extends AbstractImageIoProcessor {
         return qualities;
     }
 
+    /**
+     * @param opList Operations to apply to an image.
+     * @param imageSize Size of the cropped image.
+     * @param reductionFactor Reduction factor already applied to the image.
+     * @return Scale operation that will downscale the image before any other
+     *         operation alters it, after which redactions can be applied
+     *         instead of before; or <code>null</code> if there is none.
+     */
+    private static Scale getRedactingScale(OperationList opList,
+                                           Dimension imageSize,
+                                           ReductionFactor reductionFactor) {
+        for (Operation op : opList) {
+            if (op instanceof Scale) {
+                final Dimension scaledSize = Java2dUtil.getScaledSize(
+                        imageSize, (Scale) op, reductionFactor);
+                if (scaledSize.width < imageSize.width &&
+                        scaledSize.height < imageSize.height) {
+                    return (Scale) op;
+                }
+                return null;
+            } else if ((op instanceof Transpose || op instanceof Rotate ||
+                    op instanceof Color) && !op.isNoOp()) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     /**
      * Convenience method for processors that use a Java 2D pipeline.
+     * Equivalent to {@link #transform} followed by writing the result.
      *
      * @param sourceImage Image to process.
      * @param readerHints Hints from the image reader. May be <code>null</code>.
@@ -123,6 +154,42 @@ abstract class AbstractJava2dProcessor extends AbstractImageIoProcessor {
                      final float sharpenValue,
                      final OutputStream outputStream)
             throws IOException, ProcessorException {
+        final BufferedImage image = transform(sourceImage, readerHints,
+                opList, imageInfo, reductionFactor, orientation, normalize,
+                upscaleFilter, downscaleFilter, sharpenValue);
+        new ImageWriter(opList).
+                write(image, opList.getOutputFormat(), outputStream);
+        image.flush();
+    }
+
+    /**
+     * Applies the operations in an operation list to an image, without
+     * encoding the result.
+     *
+     * @param sourceImage Image to process.
+     * @param readerHints Hints from the image reader. May be <code>null</code>.
+     * @param opList Operations to apply to the image.
+     * @param imageInfo Information about the source image.
+     * @param reductionFactor May be <code>null</code>.
+     * @param normalize Whether to normalize the dynamic range of the resulting
+     *                  image.
+     * @param upscaleFilter Upscale filter to use.
+     * @param downscaleFilter Downscale filter to use.
+     * @param sharpenValue Sharpen amount from 0-1.
+     * @return Resulting image.
+     * @throws IOException
+     */
+    BufferedImage transform(final BufferedImage sourceImage,
+                            final Set<ImageReader.Hint> readerHints,
+                            final OperationList opList,
+                            final ImageInfo imageInfo,
+                            ReductionFactor reductionFactor,
+                            final Orientation orientation,
+                            final boolean normalize,
+                            final Scale.Filter upscaleFilter,
+                            final Scale.Filter downscaleFilter,
+                            final float sharpenValue)
+            throws IOException {
         if (reductionFactor == null) {
             reductionFactor = new ReductionFactor();
         }
@@ -147,15 +214,34 @@ abstract class AbstractJava2dProcessor extends AbstractImageIoProcessor {
             }
         }
 
-        // Redactions happen immediately after cropping.
+        // Redactions happen immediately after cropping, unless the image is
+        // about to be downscaled, in which case they happen immediately
+        // after that, when there are fewer pixels to fill, at the cost of
+        // slightly larger redactions (see Java2dUtil.applyRedactions()).
+        // Images that none of them intersect (like most tiles) are not
+        // touched at all.
         List<Redaction> redactions = new ArrayList<>();
         for (Operation op : opList) {
             if (op instanceof Redaction) {
                 redactions.add((Redaction) op);
             }
         }
-        image = Java2dUtil.applyRedactions(image, crop, reductionFactor,
-                redactions);
+        List<Rectangle> redactedRegions = new ArrayList<>();
+        Scale redactingScale = null;
+        if (!redactions.isEmpty()) {
+            redactedRegions = Java2dUtil.getRedactedRegions(
+                    new Dimension(image.getWidth(), image.getHeight()),
+                    crop, reductionFactor, redactions);
+            if (!redactedRegions.isEmpty()) {
+                redactingScale = getRedactingScale(opList,
+                        new Dimension(image.getWidth(), image.getHeight()),
+                        reductionFactor);
+                if (redactingScale == null) {
+                    image = Java2dUtil.applyRedactions(image,
+                            redactedRegions);
+                }
+            }
+        }
 
         // Apply most remaining operations.
         for (Operation op : opList) {
@@ -168,7 +254,13 @@ abstract class AbstractJava2dProcessor extends AbstractImageIoProcessor {
                             (upOrDown > 1) ? upscaleFilter : downscaleFilter;
                     scale.setFilter(filter);
                 }
+                final Dimension unscaledSize =
+                        new Dimension(image.getWidth(), image.getHeight());
                 image = Java2dUtil.scaleImage(image, scale, reductionFactor);
+                if (scale == redactingScale) {
+                    image = Java2dUtil.applyRedactions(image, unscaledSize,
+                            scale.getFilter(), redactedRegions);
+                }
             } else if (op instanceof Transpose) {
                 image = Java2dUtil.transposeImage(image, (Transpose) op);
             } else if (op instanceof Rotate) {
@@ -194,10 +286,7 @@ abstract class AbstractJava2dProcessor extends AbstractImageIoProcessor {
                 }
             }
         }
-
-        new ImageWriter(opList).
-                write(image, opList.getOutputFormat(), outputStream);
-        image.flush();
+        return image;
     }
 
 }
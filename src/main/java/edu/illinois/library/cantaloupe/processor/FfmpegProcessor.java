@@ -22,14 +22,22 @@ import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathFactory;
 import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -39,16 +47,21 @@ import java.util.concurrent.Executors;
  * and the ffprobe tool to get video information. Works with ffmpeg 2.8 (other
  * versions untested).
  */
-class FfmpegProcessor extends AbstractJava2dProcessor implements FileProcessor {
+class FfmpegProcessor extends AbstractJava2dProcessor
+        implements FileProcessor, MultiFrameProcessor {
 
     private static Logger logger = LoggerFactory.
             getLogger(FfmpegProcessor.class);
 
     static final String DOWNSCALE_FILTER_CONFIG_KEY =
             "FfmpegProcessor.downscale_filter";
+    static final String FRAME_CACHE_MAX_SIZE_CONFIG_KEY =
+            "FfmpegProcessor.frame_cache.max_size";
     static final String PATH_TO_BINARIES_CONFIG_KEY =
             "FfmpegProcessor.path_to_binaries";
     static final String SHARPEN_CONFIG_KEY = "FfmpegProcessor.sharpen";
+    static final String SNAP_TO_KEYFRAMES_CONFIG_KEY =
+            "FfmpegProcessor.snap_to_keyframes";
     static final String UPSCALE_FILTER_CONFIG_KEY =
             "FfmpegProcessor.upscale_filter";
 
@@ -73,6 +86,47 @@ class FfmpegProcessor extends AbstractJava2dProcessor implements FileProcessor {
         return path;
     }
 
+    /**
+     * @param keyframeTimes Sorted keyframe times.
+     * @param time Time in seconds.
+     * @return Time of the keyframe nearest to the given time, or the given
+     *         time if there are no keyframes.
+     */
+    static double getNearestKeyframeTime(List<Double> keyframeTimes,
+                                         double time) {
+        if (keyframeTimes == null || keyframeTimes.isEmpty()) {
+            return time;
+        }
+        int index = Collections.binarySearch(keyframeTimes, time);
+        if (index >= 0) {
+            return keyframeTimes.get(index);
+        }
+        index = -index - 1; // insertion point
+        if (index == 0) {
+            return keyframeTimes.get(0);
+        } else if (index == keyframeTimes.size()) {
+            return keyframeTimes.get(index - 1);
+        }
+        final double before = keyframeTimes.get(index - 1);
+        final double after = keyframeTimes.get(index);
+        return (time - before <= after - time) ? before : after;
+    }
+
+    /**
+     * @param time Value of the <code>time</code> option.
+     * @return Time in seconds, or null if the argument is null or invalid.
+     */
+    static Double parseTime(String time) {
+        // prevent arbitrary input
+        if (time != null && time.matches("[0-9][0-9]:[0-5][0-9]:[0-5][0-9]")) {
+            final String[] parts = time.split(":");
+            return Integer.parseInt(parts[0]) * 3600.0 +
+                    Integer.parseInt(parts[1]) * 60.0 +
+                    Integer.parseInt(parts[2]);
+        }
+        return null;
+    }
+
     @Override
     public Set<Format> getAvailableOutputFormats() {
         final Set<Format> outputFormats = new HashSet<>();
@@ -118,8 +172,19 @@ class FfmpegProcessor extends AbstractJava2dProcessor implements FileProcessor {
             expr = xpath.compile("//stream[@index=\"0\"]/@height");
             int height = (int) Math.round((double) expr.evaluate(doc, XPathConstants.NUMBER));
 
-            return new ImageInfo(width, height, width, height,
+            final ImageInfo info = new ImageInfo(width, height, width, height,
                     getSourceFormat());
+            if (ConfigurationFactory.getInstance().
+                    getBoolean(SNAP_TO_KEYFRAMES_CONFIG_KEY, false)) {
+                try {
+                    info.setKeyframeTimes(readKeyframeTimes());
+                } catch (IOException e) {
+                    // Seeking will still work, just not snap to keyframes.
+                    logger.warn("getImageInfo(): failed to read keyframes: {}",
+                            e.getMessage());
+                }
+            }
+            return info;
         } catch (SAXException e) {
             throw new ProcessorException("Failed to parse XML. Command: " +
                     StringUtils.join(command, " "), e);
@@ -136,11 +201,51 @@ class FfmpegProcessor extends AbstractJava2dProcessor implements FileProcessor {
         }
     }
 
+    /**
+     * @param time Time of the frame in seconds, or null for the first frame.
+     * @return Key of the frame in the {@link VideoFrameCache}.
+     */
+    String getFrameKey(Double time) {
+        return sourceFile.getAbsolutePath() + "#" +
+                sourceFile.lastModified() + "#" +
+                ((time != null) ? formatTime(time) : "");
+    }
+
+    /**
+     * @param time Time in seconds.
+     * @return Time formatted for the <code>-ss</code> argument. Keyframe
+     *         times are reported by ffprobe with six decimal places, so they
+     *         survive the round trip exactly.
+     */
+    private static String formatTime(double time) {
+        return String.format(Locale.US, "%.6f", time);
+    }
+
     @Override
     public File getSourceFile() {
         return this.sourceFile;
     }
 
+    /**
+     * @param opList Operation list containing an optional <code>time</code>
+     *               option.
+     * @param imageInfo Info containing the keyframe times, if indexed.
+     * @return Time of the frame to extract in seconds, or null for the first
+     *         frame. If {@link #SNAP_TO_KEYFRAMES_CONFIG_KEY} is
+     *         <code>true</code> and the keyframes have been indexed, this is
+     *         the time of the nearest keyframe, which can be decoded without
+     *         decoding any other frames.
+     */
+    Double getFrameTime(OperationList opList, ImageInfo imageInfo) {
+        Double time = parseTime((String) opList.getOptions().get("time"));
+        if (time != null && imageInfo != null &&
+                ConfigurationFactory.getInstance().
+                        getBoolean(SNAP_TO_KEYFRAMES_CONFIG_KEY, false)) {
+            time = getNearestKeyframeTime(imageInfo.getKeyframeTimes(), time);
+        }
+        return time;
+    }
+
     @Override
     public void process(final OperationList opList,
                         final ImageInfo imageInfo,
@@ -150,9 +255,23 @@ class FfmpegProcessor extends AbstractJava2dProcessor implements FileProcessor {
             throw new UnsupportedOutputFormatException();
         }
 
+        final Double time = getFrameTime(opList, imageInfo);
+        final String frameKey = getFrameKey(time);
+        final BufferedImage cachedFrame =
+                VideoFrameCache.getInstance().get(frameKey);
+        if (cachedFrame != null) {
+            logger.debug("process(): using cached frame {}", frameKey);
+            try {
+                postProcess(cachedFrame, opList, imageInfo, outputStream);
+            } catch (IOException e) {
+                throw new ProcessorException(e.getMessage(), e);
+            }
+            return;
+        }
+
         final ByteArrayOutputStream errorBucket = new ByteArrayOutputStream();
         try {
-            final ProcessBuilder pb = getProcessBuilder(opList);
+            final ProcessBuilder pb = getProcessBuilder(time);
             logger.info("Invoking {}", StringUtils.join(pb.command(), " "));
             final Process process = pb.start();
 
@@ -165,13 +284,9 @@ class FfmpegProcessor extends AbstractJava2dProcessor implements FileProcessor {
                         new InputStreamStreamSource(processInputStream),
                         Format.BMP);
                 final BufferedImage image = reader.read();
-                final Configuration config = ConfigurationFactory.getInstance();
                 try {
-                    postProcess(image, null, opList, imageInfo,
-                            null, Orientation.ROTATE_0, false,
-                            getUpscaleFilter(), getDownscaleFilter(),
-                            config.getFloat(SHARPEN_CONFIG_KEY, 0f),
-                            outputStream);
+                    VideoFrameCache.getInstance().put(frameKey, image);
+                    postProcess(image, opList, imageInfo, outputStream);
                     final int code = process.waitFor();
                     if (code != 0) {
                         logger.error("ffmpeg returned with code {}", code);
@@ -196,35 +311,262 @@ class FfmpegProcessor extends AbstractJava2dProcessor implements FileProcessor {
         }
     }
 
+    /**
+     * Extracts all of the distinct frames that are not already in the
+     * {@link VideoFrameCache} with a single invocation of ffmpeg, which
+     * seeks to each one separately, and writes them to temporary files.
+     */
+    @Override
+    public List<BufferedImage> process(final List<OperationList> opLists,
+                                       final ImageInfo imageInfo,
+                                       final List<OutputStream> outputStreams)
+            throws ProcessorException {
+        for (OperationList opList : opLists) {
+            if (!getAvailableOutputFormats().contains(opList.getOutputFormat())) {
+                throw new UnsupportedOutputFormatException();
+            }
+        }
+
+        // Frame key -> frame time. The first frame has a null time.
+        final Map<String,Double> times = new LinkedHashMap<>();
+        // Frame key -> number of operation lists using the frame.
+        final Map<String,Integer> numUses = new HashMap<>();
+        final List<String> keys = new ArrayList<>(opLists.size());
+        for (OperationList opList : opLists) {
+            final Double time = getFrameTime(opList, imageInfo);
+            final String key = getFrameKey(time);
+            keys.add(key);
+            times.put(key, time);
+            numUses.put(key, numUses.containsKey(key) ?
+                    numUses.get(key) + 1 : 1);
+        }
+
+        final Map<String,BufferedImage> frames = new HashMap<>();
+        final Map<String,Double> uncachedTimes = new LinkedHashMap<>();
+        for (Map.Entry<String,Double> entry : times.entrySet()) {
+            final BufferedImage frame =
+                    VideoFrameCache.getInstance().get(entry.getKey());
+            if (frame != null) {
+                frames.put(entry.getKey(), frame);
+            } else {
+                uncachedTimes.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        try {
+            if (!uncachedTimes.isEmpty()) {
+                frames.putAll(extractFrames(uncachedTimes));
+            }
+            final Configuration config = ConfigurationFactory.getInstance();
+            final List<BufferedImage> results = new ArrayList<>(opLists.size());
+            for (int i = 0; i < opLists.size(); i++) {
+                final String key = keys.get(i);
+                BufferedImage frame = frames.get(key);
+                // transform() may draw on the frame, so frames that are used
+                // more than once have to be copied.
+                final int remainingUses = numUses.get(key) - 1;
+                numUses.put(key, remainingUses);
+                if (remainingUses > 0) {
+                    frame = VideoFrameCache.copy(frame);
+                }
+                final OperationList opList = opLists.get(i);
+                final BufferedImage result = transform(frame, null, opList,
+                        imageInfo, null, Orientation.ROTATE_0, false,
+                        getUpscaleFilter(), getDownscaleFilter(),
+                        config.getFloat(SHARPEN_CONFIG_KEY, 0f));
+                if (outputStreams.get(i) != null) {
+                    new ImageWriter(opList).write(result,
+                            opList.getOutputFormat(), outputStreams.get(i));
+                }
+                results.add(result);
+            }
+            return results;
+        } catch (IOException | InterruptedException e) {
+            throw new ProcessorException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param times Map of frame keys to frame times, or null for the first
+     *              frame.
+     * @return Map of frame keys to frames, which have also been added to the
+     *         {@link VideoFrameCache}.
+     */
+    private Map<String,BufferedImage> extractFrames(Map<String,Double> times)
+            throws IOException, InterruptedException, ProcessorException {
+        final List<String> keys = new ArrayList<>(times.keySet());
+        final List<File> files = new ArrayList<>(keys.size());
+        final ByteArrayOutputStream errorBucket = new ByteArrayOutputStream();
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                files.add(File.createTempFile("cantaloupe-ffmpeg-", ".bmp"));
+            }
+
+            // ffmpeg -nostdin -v quiet -y [-ss <time>] -i <file> ...
+            //     -map 0:v:0 -vframes 1 -an -vcodec bmp <temp file> ...
+            final List<String> command = new ArrayList<>();
+            command.add(getPath("ffmpeg"));
+            command.add("-nostdin");
+            command.add("-v");
+            command.add("quiet");
+            command.add("-y");
+            for (String key : keys) {
+                final Double time = times.get(key);
+                if (time != null) {
+                    command.add("-ss");
+                    command.add(formatTime(time));
+                }
+                command.add("-i");
+                command.add(sourceFile.getAbsolutePath());
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                command.add("-map");
+                command.add(i + ":v:0");
+                command.add("-vframes");
+                command.add("1");
+                command.add("-an");
+                command.add("-vcodec");
+                command.add("bmp");
+                command.add(files.get(i).getAbsolutePath());
+            }
+
+            final ProcessBuilder pb = new ProcessBuilder(command);
+            pb.redirectErrorStream(true);
+            logger.info("Invoking {}", StringUtils.join(pb.command(), " "));
+            final Process process = pb.start();
+            try (final InputStream processInputStream = process.getInputStream()) {
+                executorService.submit(
+                        new StreamCopier(processInputStream, errorBucket));
+                final int code = process.waitFor();
+                if (code != 0) {
+                    logger.error("ffmpeg returned with code {}", code);
+                    final String errorStr = errorBucket.toString();
+                    throw new ProcessorException((errorStr.length() > 0) ?
+                            errorStr : "ffmpeg returned with code " + code);
+                }
+            } finally {
+                process.destroy();
+            }
+
+            final Map<String,BufferedImage> frames = new HashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                final ImageReader reader =
+                        new ImageReader(files.get(i), Format.BMP);
+                try {
+                    final BufferedImage frame = reader.read();
+                    VideoFrameCache.getInstance().put(keys.get(i), frame);
+                    frames.put(keys.get(i), frame);
+                } finally {
+                    reader.dispose();
+                }
+            }
+            return frames;
+        } finally {
+            for (File file : files) {
+                if (!file.delete()) {
+                    logger.warn("extractFrames(): failed to delete {}", file);
+                }
+            }
+        }
+    }
+
+    private void postProcess(BufferedImage frame,
+                             OperationList opList,
+                             ImageInfo imageInfo,
+                             OutputStream outputStream)
+            throws IOException, ProcessorException {
+        final Configuration config = ConfigurationFactory.getInstance();
+        postProcess(frame, null, opList, imageInfo,
+                null, Orientation.ROTATE_0, false,
+                getUpscaleFilter(), getDownscaleFilter(),
+                config.getFloat(SHARPEN_CONFIG_KEY, 0f),
+                outputStream);
+    }
+
+    /**
+     * Reads the presentation times of the keyframes of the first video
+     * stream. Only keyframes are decoded, but the whole file is read, so this
+     * is done only once, by {@link #getImageInfo()}, whose result is cached.
+     *
+     * @return Sorted keyframe times in seconds.
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    List<Double> readKeyframeTimes() throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        // ffprobe -v quiet -select_streams v:0 -skip_frame nokey -show_frames
+        //     -show_entries frame=best_effort_timestamp_time
+        //     -print_format csv=print_section=0 <file>
+        command.add(getPath("ffprobe"));
+        command.add("-v");
+        command.add("quiet");
+        command.add("-select_streams");
+        command.add("v:0");
+        command.add("-skip_frame");
+        command.add("nokey");
+        command.add("-show_frames");
+        command.add("-show_entries");
+        command.add("frame=best_effort_timestamp_time");
+        command.add("-print_format");
+        command.add("csv=print_section=0");
+        command.add(sourceFile.getAbsolutePath());
+
+        final ProcessBuilder pb = new ProcessBuilder(command);
+        pb.redirectErrorStream(true);
+        logger.info("Invoking {}", StringUtils.join(pb.command(), " "));
+        final long msec = System.currentTimeMillis();
+        final Process process = pb.start();
+
+        final List<Double> times = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String value = line.split(",")[0].trim();
+                try {
+                    times.add(Double.parseDouble(value));
+                } catch (NumberFormatException e) {
+                    // e.g. "N/A"
+                    logger.debug("readKeyframeTimes(): skipping {}", line);
+                }
+            }
+        } finally {
+            process.waitFor();
+            process.destroy();
+        }
+        Collections.sort(times);
+        logger.debug("readKeyframeTimes(): read {} keyframes in {} msec",
+                times.size(), System.currentTimeMillis() - msec);
+        return times;
+    }
+
     @Override
     public void setSourceFile(File sourceFile) {
         this.sourceFile = sourceFile;
     }
 
     /**
-     * @param opList
+     * @param time Time of the frame to extract in seconds, or null for the
+     *             first frame.
      * @return Command string
      */
-    private ProcessBuilder getProcessBuilder(OperationList opList) {
+    private ProcessBuilder getProcessBuilder(Double time) {
         final List<String> command = new ArrayList<>();
         command.add(getPath("ffmpeg"));
-        command.add("-i");
-        command.add(sourceFile.getAbsolutePath());
 
         // Seeking (to a particular time) is supported via a "time" URL query
-        // parameter which gets injected into an -ss flag. FFmpeg supports
-        // additional syntax, but this will do for now.
+        // parameter which gets injected into an -ss flag. Placed before -i,
+        // it causes ffmpeg to seek in the input to the nearest preceding
+        // keyframe and decode only from there, rather than decoding
+        // everything up to it. (This is frame-accurate since ffmpeg 2.1.)
         // https://trac.ffmpeg.org/wiki/Seeking
-        if (opList.getOptions().size() > 0) {
-            String time = (String) opList.getOptions().get("time");
-            // prevent arbitrary input
-            if (time != null &&
-                    time.matches("[0-9][0-9]:[0-5][0-9]:[0-5][0-9]")) {
-                command.add("-ss");
-                command.add(time);
-            }
+        if (time != null) {
+            command.add("-ss");
+            command.add(formatTime(time));
         }
 
+        command.add("-i");
+        command.add(sourceFile.getAbsolutePath());
         command.add("-nostdin");
         command.add("-v");
         command.add("quiet");
@@ -0,0 +1,347 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Pool of resident <code>gm batch</code> processes, used by
+ * {@link GraphicsMagickProcessor} when
+ * {@link GraphicsMagickProcessor#BATCH_ENABLED_CONFIG_KEY} is
+ * <code>true</code>.</p>
+ *
+ * <p>Running <code>gm convert</code> for every request incurs the cost of a
+ * fork/exec and of initializing GraphicsMagick and its codecs, plus, via
+ * im4java, the creation of several threads. A batch process pays these costs
+ * once, and then executes commands written to its standard input, one per
+ * line, responding to each with a line of feedback indicating whether it
+ * succeeded. Since standard input is the command channel, images are read
+ * from and written to files.</p>
+ *
+ * <p>Up to {@link GraphicsMagickProcessor#BATCH_WORKERS_CONFIG_KEY} workers
+ * are started on demand. Workers are health-checked when they are borrowed
+ * and returned: those that have exited, or that exited in the middle of a
+ * command, are discarded. Workers that have executed
+ * {@link GraphicsMagickProcessor#BATCH_MAX_JOBS_CONFIG_KEY} commands are
+ * recycled, in case of leaks. Workers whose commands exceed
+ * {@link GraphicsMagickProcessor#BATCH_TIMEOUT_CONFIG_KEY} are destroyed.
+ * (Workers exit on their own when the application does, as their standard
+ * input is closed.)</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+final class GraphicsMagickBatchPool {
+
+    /**
+     * Resident <code>gm batch</code> process.
+     */
+    static class Worker {
+
+        private final BufferedReader outputReader;
+        private final BufferedWriter commandWriter;
+        private String lastError;
+        private int numJobs = 0;
+        private final Process process;
+
+        /**
+         * @param command Command that starts a process that reads commands
+         *                from its standard input and responds to each with
+         *                {@link GraphicsMagickBatchPool#PASS_TEXT} or
+         *                {@link GraphicsMagickBatchPool#FAIL_TEXT} on its
+         *                standard output.
+         */
+        Worker(List<String> command) throws IOException {
+            logger.info("Worker(): invoking {}",
+                    StringUtils.join(command, " "));
+            // Standard error is merged into standard output, so that error
+            // messages are read in order with the feedback lines that follow
+            // them, and so that it doesn't need to be drained separately.
+            process = new ProcessBuilder(command).
+                    redirectErrorStream(true).start();
+            commandWriter = new BufferedWriter(new OutputStreamWriter(
+                    process.getOutputStream(), StandardCharsets.UTF_8));
+            outputReader = new BufferedReader(new InputStreamReader(
+                    process.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        void destroy() {
+            process.destroyForcibly();
+        }
+
+        /**
+         * @param args Arguments of a <code>gm</code> command, excluding
+         *             <code>gm</code> itself.
+         * @param timeoutMsec Time after which the worker will be destroyed
+         *                    if the command has not completed.
+         * @return Whether the command succeeded.
+         * @throws IOException If the worker did not respond, in which case it
+         *                     is no longer usable.
+         */
+        boolean execute(List<String> args, long timeoutMsec)
+                throws IOException {
+            numJobs++;
+            lastError = null;
+            final AtomicBoolean isTimedOut = new AtomicBoolean(false);
+            final ScheduledFuture<?> watchdog = watchdogExecutor.schedule(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            isTimedOut.set(true);
+                            destroy();
+                        }
+                    }, timeoutMsec, TimeUnit.MILLISECONDS);
+            try {
+                commandWriter.write(toCommandLine(args));
+                commandWriter.newLine();
+                commandWriter.flush();
+
+                String line;
+                while ((line = outputReader.readLine()) != null) {
+                    line = line.trim();
+                    if (PASS_TEXT.equals(line)) {
+                        return true;
+                    } else if (FAIL_TEXT.equals(line)) {
+                        return false;
+                    } else if (line.length() > 0) {
+                        logger.debug("execute(): {}", line);
+                        lastError = line;
+                    }
+                }
+            } catch (IOException e) {
+                // The streams are closed when the process exits.
+                logger.debug("execute(): {}", e.getMessage());
+            } finally {
+                watchdog.cancel(false);
+            }
+            if (isTimedOut.get()) {
+                throw new IOException("gm " + args.get(0) +
+                        " timed out after " + timeoutMsec + " msec");
+            }
+            throw new IOException("gm batch exited unexpectedly");
+        }
+
+        /**
+         * @return Last line written to standard error (or standard output)
+         *         during the last command, which will generally be the reason
+         *         for its failure. May be null.
+         */
+        String getLastError() {
+            return lastError;
+        }
+
+        int getNumJobs() {
+            return numJobs;
+        }
+
+        boolean isAlive() {
+            return process.isAlive();
+        }
+
+    }
+
+    private static Logger logger = LoggerFactory.
+            getLogger(GraphicsMagickBatchPool.class);
+
+    static final String FAIL_TEXT = "FAIL";
+    static final String PASS_TEXT = "PASS";
+
+    private static final Pattern UNQUOTED_ARGUMENT =
+            Pattern.compile("[A-Za-z0-9!#%+,./:=@_-]+");
+
+    private static final GraphicsMagickBatchPool instance =
+            new GraphicsMagickBatchPool();
+
+    /**
+     * Destroys workers whose commands have exceeded their deadline.
+     */
+    private static final ScheduledThreadPoolExecutor watchdogExecutor =
+            new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread =
+                            new Thread(runnable, "gm-batch-watchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    static {
+        watchdogExecutor.setRemoveOnCancelPolicy(true);
+    }
+
+    private final Deque<Worker> idleWorkers = new ArrayDeque<>();
+    private int numWorkers = 0;
+
+    /**
+     * @return The shared instance.
+     */
+    static GraphicsMagickBatchPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param args Command arguments.
+     * @return Command line that <code>gm batch</code>, with its default
+     *         (Unix) escaping, will split into the given arguments.
+     */
+    static String toCommandLine(List<String> args) {
+        final List<String> quotedArgs = new ArrayList<>(args.size());
+        for (String arg : args) {
+            if (UNQUOTED_ARGUMENT.matcher(arg).matches()) {
+                quotedArgs.add(arg);
+            } else {
+                quotedArgs.add("\"" + arg.replace("\\", "\\\\").
+                        replace("\"", "\\\"") + "\"");
+            }
+        }
+        return StringUtils.join(quotedArgs, " ");
+    }
+
+    private GraphicsMagickBatchPool() {}
+
+    /**
+     * @param timeoutMsec Maximum time to wait for a worker to become
+     *                    available.
+     * @return Idle or new worker.
+     * @throws IOException If no worker became available in time, or a new
+     *                     one could not be started.
+     */
+    private Worker borrowWorker(long timeoutMsec)
+            throws IOException, InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMsec;
+        synchronized (this) {
+            while (true) {
+                while (!idleWorkers.isEmpty()) {
+                    final Worker worker = idleWorkers.pop();
+                    if (worker.isAlive()) {
+                        return worker;
+                    }
+                    logger.warn("borrowWorker(): discarding a worker that " +
+                            "has exited");
+                    numWorkers--;
+                }
+                if (numWorkers < getMaxWorkers()) {
+                    numWorkers++;
+                    break;
+                }
+                final long remainingMsec =
+                        deadline - System.currentTimeMillis();
+                if (remainingMsec <= 0) {
+                    throw new IOException("Timed out after " + timeoutMsec +
+                            " msec waiting for a gm batch worker");
+                }
+                wait(remainingMsec);
+            }
+        }
+        try {
+            return new Worker(getCommand());
+        } catch (IOException e) {
+            synchronized (this) {
+                numWorkers--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return Command to start a worker.
+     */
+    private List<String> getCommand() {
+        return Arrays.asList(GraphicsMagickProcessor.getPath("gm"), "batch",
+                "-echo", "off",
+                "-feedback", "on",
+                "-pass", PASS_TEXT,
+                "-fail", FAIL_TEXT,
+                "-prompt", "off",
+                "-stop-on-error", "off",
+                "-");
+    }
+
+    private int getMaxJobs() {
+        return ConfigurationFactory.getInstance().getInt(
+                GraphicsMagickProcessor.BATCH_MAX_JOBS_CONFIG_KEY, 1000);
+    }
+
+    /**
+     * @return Value of {@link GraphicsMagickProcessor#BATCH_TIMEOUT_CONFIG_KEY}
+     *         in milliseconds.
+     */
+    private long getTimeoutMsec() {
+        return 1000 * Math.max(1, ConfigurationFactory.getInstance().getInt(
+                GraphicsMagickProcessor.BATCH_TIMEOUT_CONFIG_KEY, 60));
+    }
+
+    private int getMaxWorkers() {
+        return Math.max(1, ConfigurationFactory.getInstance().getInt(
+                GraphicsMagickProcessor.BATCH_WORKERS_CONFIG_KEY,
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Executes a command in an idle worker, waiting for one to become
+     * available if necessary. Both the wait and the command are limited to
+     * {@link GraphicsMagickProcessor#BATCH_TIMEOUT_CONFIG_KEY}; a worker
+     * whose command times out is destroyed.
+     *
+     * @param args Arguments of a <code>gm</code> command, excluding
+     *             <code>gm</code> itself, such as <code>convert</code> and
+     *             its arguments. Images must be read from and written to
+     *             files.
+     * @throws IOException If the command failed.
+     * @throws InterruptedException
+     */
+    void execute(List<String> args) throws IOException, InterruptedException {
+        final long timeoutMsec = getTimeoutMsec();
+        final Worker worker = borrowWorker(timeoutMsec);
+        boolean isUsable = false;
+        try {
+            final boolean succeeded = worker.execute(args, timeoutMsec);
+            isUsable = true;
+            if (!succeeded) {
+                final String error = worker.getLastError();
+                throw new IOException((error != null) ?
+                        error : "gm " + args.get(0) + " failed");
+            }
+        } finally {
+            returnWorker(worker, isUsable);
+        }
+    }
+
+    /**
+     * @param worker Worker to return.
+     * @param isUsable Whether the worker responded to its last command.
+     */
+    private synchronized void returnWorker(Worker worker, boolean isUsable) {
+        if (isUsable && worker.isAlive() &&
+                worker.getNumJobs() < getMaxJobs()) {
+            idleWorkers.push(worker);
+        } else {
+            logger.debug("returnWorker(): retiring a worker after {} jobs",
+                    worker.getNumJobs());
+            worker.destroy();
+            numWorkers--;
+        }
+        notifyAll();
+    }
+
+}
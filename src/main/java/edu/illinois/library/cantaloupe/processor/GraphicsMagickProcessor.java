@@ -10,6 +10,8 @@ import edu.illinois.library.cantaloupe.image.OperationList;
 import edu.illinois.library.cantaloupe.image.Rotate;
 import edu.illinois.library.cantaloupe.image.Scale;
 import edu.illinois.library.cantaloupe.image.Transpose;
+import edu.illinois.library.cantaloupe.processor.imageio.ImageWriter;
+import edu.illinois.library.cantaloupe.resolver.FileStreamSource;
 import org.apache.commons.lang3.StringUtils;
 import org.im4java.process.ArrayListOutputConsumer;
 import org.im4java.process.Pipe;
@@ -24,6 +26,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -48,6 +52,14 @@ class GraphicsMagickProcessor extends AbstractMagickProcessor
     private static Logger logger = LoggerFactory.
             getLogger(GraphicsMagickProcessor.class);
 
+    static final String BATCH_ENABLED_CONFIG_KEY =
+            "GraphicsMagickProcessor.batch.enabled";
+    static final String BATCH_MAX_JOBS_CONFIG_KEY =
+            "GraphicsMagickProcessor.batch.max_jobs_per_worker";
+    static final String BATCH_TIMEOUT_CONFIG_KEY =
+            "GraphicsMagickProcessor.batch.timeout_seconds";
+    static final String BATCH_WORKERS_CONFIG_KEY =
+            "GraphicsMagickProcessor.batch.workers";
     static final String BACKGROUND_COLOR_CONFIG_KEY =
             "GraphicsMagickProcessor.background_color";
     static final String NORMALIZE_CONFIG_KEY =
@@ -56,14 +68,16 @@ class GraphicsMagickProcessor extends AbstractMagickProcessor
     static final String PATH_TO_BINARIES_CONFIG_KEY =
             "GraphicsMagickProcessor.path_to_binaries";
 
+    private static final Object lock = new Object();
+
     // Lazy-initialized by getFormats()
-    private static HashMap<Format, Set<Format>> supportedFormats;
+    private static volatile HashMap<Format, Set<Format>> supportedFormats;
 
     /**
      * @param binaryName Name of an executable
      * @return
      */
-    private static String getPath(String binaryName) {
+    static String getPath(String binaryName) {
         String path = ConfigurationFactory.getInstance().
                 getString(PATH_TO_BINARIES_CONFIG_KEY);
         if (path != null && path.length() > 0) {
@@ -77,82 +91,96 @@ class GraphicsMagickProcessor extends AbstractMagickProcessor
 
     /**
      * @return Map of available output formats for all known source formats,
-     * based on information reported by <code>gm version</code>.
+     * which is read only once, and shared by all instances.
+     * @see ProcessorFactory#warmUp()
      */
     private static HashMap<Format, Set<Format>> getFormats() {
         if (supportedFormats == null) {
-            final Set<Format> formats = new HashSet<>();
-            final Set<Format> outputFormats = new HashSet<>();
-
-            // Get the output of the `gm version` command, which contains
-            // a list of all optional formats.
-            final ProcessBuilder pb = new ProcessBuilder();
-            final List<String> command = new ArrayList<>();
-            command.add(getPath("gm"));
-            command.add("version");
-            pb.command(command);
-            final String commandString = StringUtils.join(pb.command(), " ");
-
-            try {
-                logger.info("getFormats(): invoking {}", commandString);
-                final Process process = pb.start();
-
-                try (final InputStream processInputStream = process.getInputStream()) {
-                    BufferedReader stdInput = new BufferedReader(
-                            new InputStreamReader(processInputStream));
-                    String s;
-                    boolean read = false;
-                    while ((s = stdInput.readLine()) != null) {
-                        if (s.contains("Feature Support")) {
-                            read = true; // start reading
-                        } else if (s.contains("Host type:")) {
-                            break; // stop reading
-                        }
-                        if (read) {
-                            s = s.trim();
-                            if (s.startsWith("JPEG-2000 ") && s.endsWith(" yes")) {
-                                formats.add(Format.JP2);
-                                outputFormats.add(Format.JP2);
-                            } else if (s.startsWith("JPEG ") && s.endsWith(" yes")) {
-                                formats.add(Format.JPG);
-                                outputFormats.add(Format.JPG);
-                            } else if (s.startsWith("PNG ") && s.endsWith(" yes")) {
-                                formats.add(Format.PNG);
-                                outputFormats.add(Format.PNG);
-                            } else if (s.startsWith("Ghostscript") && s.endsWith(" yes")) {
-                                outputFormats.add(Format.PDF);
-                            } else if (s.startsWith("TIFF ") && s.endsWith(" yes")) {
-                                formats.add(Format.TIF);
-                                outputFormats.add(Format.TIF);
-                            } else if (s.startsWith("WebP ") && s.endsWith(" yes")) {
-                                formats.add(Format.WEBP);
-                                outputFormats.add(Format.WEBP);
-                            }
+            synchronized (lock) {
+                if (supportedFormats == null) {
+                    supportedFormats = readFormats();
+                }
+            }
+        }
+        return supportedFormats;
+    }
+
+    /**
+     * @return Map of available output formats for all known source formats,
+     * based on information reported by <code>gm version</code>.
+     */
+    private static HashMap<Format, Set<Format>> readFormats() {
+        final Set<Format> formats = new HashSet<>();
+        final Set<Format> outputFormats = new HashSet<>();
+
+        // Get the output of the `gm version` command, which contains
+        // a list of all optional formats.
+        final ProcessBuilder pb = new ProcessBuilder();
+        final List<String> command = new ArrayList<>();
+        command.add(getPath("gm"));
+        command.add("version");
+        pb.command(command);
+        final String commandString = StringUtils.join(pb.command(), " ");
+
+        try {
+            logger.info("readFormats(): invoking {}", commandString);
+            final Process process = pb.start();
+
+            try (final InputStream processInputStream = process.getInputStream()) {
+                BufferedReader stdInput = new BufferedReader(
+                        new InputStreamReader(processInputStream));
+                String s;
+                boolean read = false;
+                while ((s = stdInput.readLine()) != null) {
+                    if (s.contains("Feature Support")) {
+                        read = true; // start reading
+                    } else if (s.contains("Host type:")) {
+                        break; // stop reading
+                    }
+                    if (read) {
+                        s = s.trim();
+                        if (s.startsWith("JPEG-2000 ") && s.endsWith(" yes")) {
+                            formats.add(Format.JP2);
+                            outputFormats.add(Format.JP2);
+                        } else if (s.startsWith("JPEG ") && s.endsWith(" yes")) {
+                            formats.add(Format.JPG);
+                            outputFormats.add(Format.JPG);
+                        } else if (s.startsWith("PNG ") && s.endsWith(" yes")) {
+                            formats.add(Format.PNG);
+                            outputFormats.add(Format.PNG);
+                        } else if (s.startsWith("Ghostscript") && s.endsWith(" yes")) {
+                            outputFormats.add(Format.PDF);
+                        } else if (s.startsWith("TIFF ") && s.endsWith(" yes")) {
+                            formats.add(Format.TIF);
+                            outputFormats.add(Format.TIF);
+                        } else if (s.startsWith("WebP ") && s.endsWith(" yes")) {
+                            formats.add(Format.WEBP);
+                            outputFormats.add(Format.WEBP);
                         }
                     }
-                    process.waitFor();
-
-                    // Add formats that are not listed in the output of
-                    // "gm version" but are definitely available
-                    // (http://www.graphicsmagick.org/formats.html)
-                    formats.add(Format.BMP);
-                    formats.add(Format.GIF);
-                    // GIF output is buggy in GM 1.3.21 (returned images have
-                    // improper dimensions).
-                    //outputFormats.add(Format.GIF);
-                } catch (InterruptedException e) {
-                    logger.error("getFormats(): ", e.getMessage());
                 }
-            } catch (IOException e) {
-                logger.error("getFormats(): ", e.getMessage());
-            }
+                process.waitFor();
 
-            supportedFormats = new HashMap<>();
-            for (Format format : formats) {
-                supportedFormats.put(format, outputFormats);
+                // Add formats that are not listed in the output of
+                // "gm version" but are definitely available
+                // (http://www.graphicsmagick.org/formats.html)
+                formats.add(Format.BMP);
+                formats.add(Format.GIF);
+                // GIF output is buggy in GM 1.3.21 (returned images have
+                // improper dimensions).
+                //outputFormats.add(Format.GIF);
+            } catch (InterruptedException e) {
+                logger.error("readFormats(): ", e.getMessage());
             }
+        } catch (IOException e) {
+            logger.error("readFormats(): ", e.getMessage());
         }
-        return supportedFormats;
+
+        final HashMap<Format, Set<Format>> map = new HashMap<>();
+        for (Format format : formats) {
+            map.put(format, outputFormats);
+        }
+        return map;
     }
 
     GraphicsMagickProcessor() {
@@ -172,12 +200,23 @@ class GraphicsMagickProcessor extends AbstractMagickProcessor
         return formats;
     }
 
+    /**
+     * @param ops
+     * @param fullSize
+     * @param source Pathname of the source image, or <code>-</code> to read
+     *               it from standard input.
+     * @param destination Pathname of the derivative image, or <code>-</code>
+     *                    to write it to standard output.
+     * @return Arguments of a <code>gm convert</code> command.
+     */
     private List<String> getConvertArguments(final OperationList ops,
-                                             final Dimension fullSize) {
+                                             final Dimension fullSize,
+                                             final String source,
+                                             final String destination) {
         final List<String> args = new ArrayList<>();
         args.add("gm");
         args.add("convert");
-        args.add(format.getPreferredExtension() + ":-"); // read from stdin
+        args.add(format.getPreferredExtension() + ":" + source);
 
         // Normalization needs to happen before cropping to maintain the
         // intensity of cropped regions relative to the full image.
@@ -286,8 +325,14 @@ class GraphicsMagickProcessor extends AbstractMagickProcessor
             args.add(Double.toString(sharpenValue));
         }
 
-        // Write to stdout.
-        args.add(ops.getOutputFormat().getPreferredExtension() + ":-");
+        // Write a progressive JPEG or interlaced PNG, if so configured.
+        if (ImageWriter.isProgressive(ops.getOutputFormat())) {
+            args.add("-interlace");
+            args.add("Plane");
+        }
+
+        args.add(ops.getOutputFormat().getPreferredExtension() + ":" +
+                destination);
 
         return args;
     }
@@ -331,8 +376,16 @@ class GraphicsMagickProcessor extends AbstractMagickProcessor
             throw new UnsupportedOutputFormatException();
         }
 
+        if (ConfigurationFactory.getInstance().
+                getBoolean(BATCH_ENABLED_CONFIG_KEY, false)) {
+            processInBatch(ops, imageInfo, outputStream);
+            return;
+        }
+
         try (InputStream inputStream = streamSource.newInputStream()) {
-            final List<String> args = getConvertArguments(ops, imageInfo.getSize());
+            // Read from stdin and write to stdout.
+            final List<String> args = getConvertArguments(
+                    ops, imageInfo.getSize(), "-", "-");
             final ProcessStarter cmd = new ProcessStarter();
             cmd.setInputProvider(new Pipe(inputStream, null));
             cmd.setOutputConsumer(new Pipe(null, outputStream));
@@ -343,4 +396,55 @@ class GraphicsMagickProcessor extends AbstractMagickProcessor
         }
     }
 
+    /**
+     * Variant of {@link #process} that executes the command in a resident
+     * worker from the {@link GraphicsMagickBatchPool}. The source image is
+     * read from the file behind the stream source if there is one, such as
+     * a source cache file, and is otherwise spooled to a temporary file. The
+     * derivative image is read from a temporary file.
+     */
+    private void processInBatch(final OperationList ops,
+                                final ImageInfo imageInfo,
+                                final OutputStream outputStream)
+            throws ProcessorException {
+        File tempSourceFile = null;
+        File derivativeFile = null;
+        try {
+            File sourceFile;
+            if (streamSource instanceof FileStreamSource) {
+                sourceFile = ((FileStreamSource) streamSource).getFile();
+            } else {
+                tempSourceFile = File.createTempFile("cantaloupe-gm-",
+                        "." + format.getPreferredExtension());
+                try (InputStream inputStream = streamSource.newInputStream()) {
+                    Files.copy(inputStream, tempSourceFile.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+                sourceFile = tempSourceFile;
+            }
+            derivativeFile = File.createTempFile("cantaloupe-gm-",
+                    "." + ops.getOutputFormat().getPreferredExtension());
+            final List<String> args = getConvertArguments(ops,
+                    imageInfo.getSize(), sourceFile.getAbsolutePath(),
+                    derivativeFile.getAbsolutePath());
+            logger.info("processInBatch(): executing {}",
+                    StringUtils.join(args, " "));
+            // The worker is already running gm.
+            GraphicsMagickBatchPool.getInstance().
+                    execute(args.subList(1, args.size()));
+            Files.copy(derivativeFile.toPath(), outputStream);
+        } catch (Exception e) {
+            throw new ProcessorException(e.getMessage(), e);
+        } finally {
+            if (tempSourceFile != null && !tempSourceFile.delete()) {
+                logger.warn("processInBatch(): failed to delete {}",
+                        tempSourceFile);
+            }
+            if (derivativeFile != null && !derivativeFile.delete()) {
+                logger.warn("processInBatch(): failed to delete {}",
+                        derivativeFile);
+            }
+        }
+    }
+
 }
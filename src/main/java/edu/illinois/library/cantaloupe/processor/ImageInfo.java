@@ -134,6 +134,11 @@ public final class ImageInfo {
      * Ordered list of subimages. The main image is at index 0.
      */
     private List<Image> images = new ArrayList<>();
+    /**
+     * Sorted presentation times of the keyframes of a video, in seconds.
+     * Null for non-videos and when not indexed.
+     */
+    private List<Double> keyframeTimes;
     private String mediaType;
 
     public static ImageInfo fromJson(File jsonFile) throws IOException {
@@ -259,6 +264,14 @@ public final class ImageInfo {
         return images;
     }
 
+    /**
+     * @return Sorted presentation times of the keyframes of a video, in
+     *         seconds, or null if unknown.
+     */
+    public List<Double> getKeyframeTimes() {
+        return keyframeTimes;
+    }
+
     /**
      * @return Orientatino of the main image.
      */
@@ -314,6 +327,14 @@ public final class ImageInfo {
         return Format.UNKNOWN;
     }
 
+    /**
+     * @param keyframeTimes Sorted presentation times of the keyframes of a
+     *                      video, in seconds.
+     */
+    public void setKeyframeTimes(List<Double> keyframeTimes) {
+        this.keyframeTimes = keyframeTimes;
+    }
+
     @JsonIgnore
     public void setSourceFormat(Format sourceFormat) {
         if (sourceFormat == null) {
@@ -10,6 +10,8 @@ import edu.illinois.library.cantaloupe.image.OperationList;
 import edu.illinois.library.cantaloupe.image.Rotate;
 import edu.illinois.library.cantaloupe.image.Scale;
 import edu.illinois.library.cantaloupe.image.Transpose;
+import edu.illinois.library.cantaloupe.processor.imageio.ImageWriter;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.im4java.process.ArrayListOutputConsumer;
 import org.im4java.process.Pipe;
@@ -50,6 +52,8 @@ class ImageMagickProcessor extends AbstractMagickProcessor implements StreamProc
 
     static final String BACKGROUND_COLOR_CONFIG_KEY =
             "ImageMagickProcessor.background_color";
+    static final String IDENTIFY_MAX_BYTES_CONFIG_KEY =
+            "ImageMagickProcessor.identify.max_bytes";
     static final String NORMALIZE_CONFIG_KEY = "ImageMagickProcessor.normalize";
     static final String PATH_TO_BINARIES_CONFIG_KEY =
             "ImageMagickProcessor.path_to_binaries";
@@ -61,7 +65,7 @@ class ImageMagickProcessor extends AbstractMagickProcessor implements StreamProc
     private static final Object lock = new Object();
 
     // Lazy-initialized by getFormats()
-    protected static HashMap<Format, Set<Format>> supportedFormats;
+    protected static volatile HashMap<Format, Set<Format>> supportedFormats;
 
     static {
         // Tell ProcessStarter where to find the binaries.
@@ -234,15 +238,56 @@ class ImageMagickProcessor extends AbstractMagickProcessor implements StreamProc
             args.add(Double.toString(sharpenValue));
         }
 
+        // Write a progressive JPEG or interlaced PNG, if so configured.
+        if (ImageWriter.isProgressive(ops.getOutputFormat())) {
+            args.add("-interlace");
+            args.add("Plane");
+        }
+
         // Write to stdout.
         args.add(ops.getOutputFormat().getPreferredExtension() + ":-");
 
         return args;
     }
 
+    /**
+     * <p>Reads the image dimensions using <code>identify -ping</code>, which
+     * only needs to read the image's header.</p>
+     *
+     * <p>If {@link #IDENTIFY_MAX_BYTES_CONFIG_KEY} is greater than zero, only
+     * that many bytes of the source image are fed to <code>identify</code>.
+     * This is enough for most images, whose dimensions are near the
+     * beginning. If it isn't, the whole image is fed to it instead.</p>
+     */
     @Override
     public ImageInfo getImageInfo() throws ProcessorException {
-        try (InputStream inputStream = streamSource.newInputStream()) {
+        final long maxBytes = ConfigurationFactory.getInstance().
+                getLong(IDENTIFY_MAX_BYTES_CONFIG_KEY, 0);
+        if (maxBytes > 0) {
+            try {
+                return identify(maxBytes);
+            } catch (Exception e) {
+                logger.debug("getImageInfo(): failed to identify the first " +
+                        "{} bytes; trying the whole image: {}",
+                        maxBytes, e.getMessage());
+            }
+        }
+        try {
+            return identify(0);
+        } catch (Exception e) {
+            throw new ProcessorException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param maxBytes Maximum number of bytes of the source image to read, or
+     *                 0 to read all of them.
+     * @return Info of the source image.
+     */
+    private ImageInfo identify(long maxBytes) throws Exception {
+        try (InputStream inputStream = (maxBytes > 0) ?
+                new BoundedInputStream(streamSource.newInputStream(), maxBytes) :
+                streamSource.newInputStream()) {
             final List<String> args = new ArrayList<>();
             if (isUsingVersion7()) {
                 args.add("magick");
@@ -258,7 +303,7 @@ class ImageMagickProcessor extends AbstractMagickProcessor implements StreamProc
             final ProcessStarter cmd = new ProcessStarter();
             cmd.setInputProvider(new Pipe(inputStream, null));
             cmd.setOutputConsumer(consumer);
-            logger.info("getImageInfo(): invoking {}",
+            logger.info("identify(): invoking {}",
                     StringUtils.join(args, " ").replace("\n", ","));
             cmd.run(args);
 
@@ -267,8 +312,6 @@ class ImageMagickProcessor extends AbstractMagickProcessor implements StreamProc
             final int height = Integer.parseInt(output.get(1));
             return new ImageInfo(width, height, width, height,
                     getSourceFormat());
-        } catch (Exception e) {
-            throw new ProcessorException(e.getMessage(), e);
         }
     }
 
@@ -290,91 +333,105 @@ class ImageMagickProcessor extends AbstractMagickProcessor implements StreamProc
 
     /**
      * @return Map of available output formats for all known source formats,
-     * based on information reported by <code>identify -list format</code>.
+     * which is read only once, and shared by all instances.
+     * @see ProcessorFactory#warmUp()
      */
     private static HashMap<Format, Set<Format>> getFormats() {
         if (supportedFormats == null) {
-            final Set<Format> formats = new HashSet<>();
-            final Set<Format> outputFormats = new HashSet<>();
-
-            // Retrieve the output of the `identify -list format` command,
-            // which contains a list of all supported formats.
-            final ProcessBuilder pb = new ProcessBuilder();
-            final List<String> command = new ArrayList<>();
-            if (isUsingVersion7()) {
-                command.add(getPath("magick"));
-                command.add("identify");
-            } else {
-                command.add(getPath("identify"));
+            synchronized (lock) {
+                if (supportedFormats == null) {
+                    supportedFormats = readFormats();
+                }
             }
-            command.add("-list");
-            command.add("format");
-            pb.command(command);
-            final String commandString = StringUtils.join(pb.command(), " ");
+        }
+        return supportedFormats;
+    }
 
-            try {
-                logger.info("getFormats(): invoking {}", commandString);
-                final Process process = pb.start();
-
-                try (final InputStream processInputStream = process.getInputStream()) {
-                    BufferedReader stdInput = new BufferedReader(
-                            new InputStreamReader(processInputStream));
-                    String s;
-                    while ((s = stdInput.readLine()) != null) {
-                        s = s.trim();
-                        if (s.startsWith("BMP")) {
-                            formats.add(Format.BMP);
-                            if (s.contains(" rw")) {
-                                outputFormats.add(Format.BMP);
-                            }
-                        } else if (s.startsWith("GIF")) {
-                            formats.add(Format.GIF);
-                            if (s.contains(" rw")) {
-                                outputFormats.add(Format.GIF);
-                            }
-                        } else if (s.startsWith("JP2")) {
-                            formats.add(Format.JP2);
-                            if (s.contains(" rw")) {
-                                outputFormats.add(Format.JP2);
-                            }
-                        } else if (s.startsWith("JPEG")) {
-                            formats.add(Format.JPG);
-                            if (s.contains(" rw")) {
-                                outputFormats.add(Format.JPG);
-                            }
-                        } else if (s.startsWith("PNG")) {
-                            formats.add(Format.PNG);
-                            if (s.contains(" rw")) {
-                                outputFormats.add(Format.PNG);
-                            }
-                        } else if (s.startsWith("PDF") && s.contains(" rw")) {
-                            outputFormats.add(Format.PDF);
-                        } else if (s.startsWith("TIFF")) {
-                            formats.add(Format.TIF);
-                            if (s.contains(" rw")) {
-                                outputFormats.add(Format.TIF);
-                            }
-                        } else if (s.startsWith("WEBP")) {
-                            formats.add(Format.WEBP);
-                            if (s.contains(" rw")) {
-                                outputFormats.add(Format.WEBP);
-                            }
+    /**
+     * @return Map of available output formats for all known source formats,
+     * based on information reported by <code>identify -list format</code>.
+     */
+    private static HashMap<Format, Set<Format>> readFormats() {
+        final Set<Format> formats = new HashSet<>();
+        final Set<Format> outputFormats = new HashSet<>();
+
+        // Retrieve the output of the `identify -list format` command,
+        // which contains a list of all supported formats.
+        final ProcessBuilder pb = new ProcessBuilder();
+        final List<String> command = new ArrayList<>();
+        if (isUsingVersion7()) {
+            command.add(getPath("magick"));
+            command.add("identify");
+        } else {
+            command.add(getPath("identify"));
+        }
+        command.add("-list");
+        command.add("format");
+        pb.command(command);
+        final String commandString = StringUtils.join(pb.command(), " ");
+
+        try {
+            logger.info("readFormats(): invoking {}", commandString);
+            final Process process = pb.start();
+
+            try (final InputStream processInputStream = process.getInputStream()) {
+                BufferedReader stdInput = new BufferedReader(
+                        new InputStreamReader(processInputStream));
+                String s;
+                while ((s = stdInput.readLine()) != null) {
+                    s = s.trim();
+                    if (s.startsWith("BMP")) {
+                        formats.add(Format.BMP);
+                        if (s.contains(" rw")) {
+                            outputFormats.add(Format.BMP);
+                        }
+                    } else if (s.startsWith("GIF")) {
+                        formats.add(Format.GIF);
+                        if (s.contains(" rw")) {
+                            outputFormats.add(Format.GIF);
+                        }
+                    } else if (s.startsWith("JP2")) {
+                        formats.add(Format.JP2);
+                        if (s.contains(" rw")) {
+                            outputFormats.add(Format.JP2);
+                        }
+                    } else if (s.startsWith("JPEG")) {
+                        formats.add(Format.JPG);
+                        if (s.contains(" rw")) {
+                            outputFormats.add(Format.JPG);
+                        }
+                    } else if (s.startsWith("PNG")) {
+                        formats.add(Format.PNG);
+                        if (s.contains(" rw")) {
+                            outputFormats.add(Format.PNG);
+                        }
+                    } else if (s.startsWith("PDF") && s.contains(" rw")) {
+                        outputFormats.add(Format.PDF);
+                    } else if (s.startsWith("TIFF")) {
+                        formats.add(Format.TIF);
+                        if (s.contains(" rw")) {
+                            outputFormats.add(Format.TIF);
+                        }
+                    } else if (s.startsWith("WEBP")) {
+                        formats.add(Format.WEBP);
+                        if (s.contains(" rw")) {
+                            outputFormats.add(Format.WEBP);
                         }
                     }
-                    process.waitFor();
-                } catch (InterruptedException e) {
-                    logger.error("getFormats(): {}", e.getMessage());
                 }
-            } catch (IOException e) {
-                logger.error("getFormats(): {}", e.getMessage());
+                process.waitFor();
+            } catch (InterruptedException e) {
+                logger.error("readFormats(): {}", e.getMessage());
             }
+        } catch (IOException e) {
+            logger.error("readFormats(): {}", e.getMessage());
+        }
 
-            supportedFormats = new HashMap<>();
-            for (Format format : formats) {
-                supportedFormats.put(format, outputFormats);
-            }
+        final HashMap<Format, Set<Format>> map = new HashMap<>();
+        for (Format format : formats) {
+            map.put(format, outputFormats);
         }
-        return supportedFormats;
+        return map;
     }
 
     @Override
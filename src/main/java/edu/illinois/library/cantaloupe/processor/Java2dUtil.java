@@ -5,7 +5,6 @@ import com.mortennobel.imagescaling.ResampleOp;
 import edu.illinois.library.cantaloupe.config.ConfigurationException;
 import edu.illinois.library.cantaloupe.image.Color;
 import edu.illinois.library.cantaloupe.image.Crop;
-import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Sharpen;
 import edu.illinois.library.cantaloupe.image.redaction.Redaction;
 import edu.illinois.library.cantaloupe.image.watermark.ImageWatermark;
@@ -16,27 +15,21 @@ import edu.illinois.library.cantaloupe.image.Transpose;
 import edu.illinois.library.cantaloupe.image.watermark.StringWatermark;
 import edu.illinois.library.cantaloupe.image.watermark.Watermark;
 import edu.illinois.library.cantaloupe.image.watermark.WatermarkService;
-import edu.illinois.library.cantaloupe.processor.imageio.ImageReader;
 import edu.illinois.library.cantaloupe.util.Stopwatch;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.awt.BasicStroke;
 import java.awt.Dimension;
 import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
-import java.awt.Shape;
-import java.awt.font.FontRenderContext;
-import java.awt.font.GlyphVector;
 import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorConvertOp;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -75,30 +68,33 @@ public abstract class Java2dUtil {
                                          final ReductionFactor reductionFactor,
                                          final List<Redaction> redactions) {
         if (baseImage != null && redactions.size() > 0) {
-            final Stopwatch watch = new Stopwatch();
             final Dimension imageSize = new Dimension(
                     baseImage.getWidth(), baseImage.getHeight());
+            applyRedactions(baseImage, getRedactedRegions(imageSize,
+                    appliedCrop, reductionFactor, redactions));
+        }
+        return baseImage;
+    }
 
+    /**
+     * Fills the given regions of the given image in black.
+     *
+     * @param baseImage Image to redact.
+     * @param regions Regions to redact, from
+     *                {@link #getRedactedRegions}. If empty, the image will
+     *                not be touched.
+     * @return Input image with redactions applied.
+     */
+    static BufferedImage applyRedactions(final BufferedImage baseImage,
+                                         final List<Rectangle> regions) {
+        if (baseImage != null && regions.size() > 0) {
+            final Stopwatch watch = new Stopwatch();
             final Graphics2D g2d = baseImage.createGraphics();
             g2d.setColor(java.awt.Color.BLACK);
-
-            for (final Redaction redaction : redactions) {
-                final Rectangle redactionRegion =
-                        redaction.getResultingRegion(imageSize, appliedCrop);
-                redactionRegion.x *= reductionFactor.getScale();
-                redactionRegion.y *= reductionFactor.getScale();
-                redactionRegion.width *= reductionFactor.getScale();
-                redactionRegion.height *= reductionFactor.getScale();
-
-                if (!redactionRegion.isEmpty()) {
-                    logger.debug("applyRedactions(): applying {} at {},{}/{}x{}",
-                            redaction, redactionRegion.x, redactionRegion.y,
-                            redactionRegion.width, redactionRegion.height);
-                    g2d.fill(redactionRegion);
-                } else {
-                    logger.debug("applyRedactions(): {} is outside crop area; skipping",
-                            redaction);
-                }
+            for (final Rectangle region : regions) {
+                logger.debug("applyRedactions(): applying at {},{}/{}x{}",
+                        region.x, region.y, region.width, region.height);
+                g2d.fill(region);
             }
             g2d.dispose();
             logger.debug("applyRedactions() executed in {} msec",
@@ -107,6 +103,96 @@ public abstract class Java2dUtil {
         return baseImage;
     }
 
+    /**
+     * <p>Redacts regions from an image that has been downscaled since they
+     * were computed. Filling them in the smaller image is cheaper than
+     * filling them before scaling. Each region is scaled, rounded outward,
+     * and padded by the sampling radius of the filter, so that pixels that
+     * the filter would have blended with redacted pixels are redacted as
+     * well.</p>
+     *
+     * <p>This deliberately redacts more than redacting before scaling
+     * would: up to <code>ceil(sampling radius) + 1</code> output pixels on
+     * each side of a region (4 for {@link Scale.Filter#LANCZOS3}) that would
+     * otherwise have been a blend of redacted and unredacted content are
+     * filled instead. The alternative, leaving them unpadded, would let
+     * redacted content bleed into them.</p>
+     *
+     * @param scaledImage Image to redact.
+     * @param unscaledSize Size of the image before it was scaled.
+     * @param filter Filter with which the image was scaled. If
+     *               <code>null</code>, {@link #DEFAULT_DOWNSCALE_FILTER} is
+     *               assumed, as in {@link #scaleImage}.
+     * @param regions Regions of the unscaled image to redact, from
+     *                {@link #getRedactedRegions}.
+     * @return Input image with redactions applied.
+     */
+    static BufferedImage applyRedactions(final BufferedImage scaledImage,
+                                         final Dimension unscaledSize,
+                                         Scale.Filter filter,
+                                         final List<Rectangle> regions) {
+        if (filter == null) {
+            filter = DEFAULT_DOWNSCALE_FILTER;
+        }
+        final double xScale =
+                scaledImage.getWidth() / (double) unscaledSize.width;
+        final double yScale =
+                scaledImage.getHeight() / (double) unscaledSize.height;
+        final int padding = (int) Math.ceil(
+                filter.getResampleFilter().getSamplingRadius()) + 1;
+
+        final List<Rectangle> scaledRegions = new ArrayList<>();
+        for (Rectangle region : regions) {
+            final int x1 = (int) Math.floor(region.x * xScale) - padding;
+            final int y1 = (int) Math.floor(region.y * yScale) - padding;
+            final int x2 = (int) Math.ceil(
+                    (region.x + region.width) * xScale) + padding;
+            final int y2 = (int) Math.ceil(
+                    (region.y + region.height) * yScale) + padding;
+            scaledRegions.add(new Rectangle(x1, y1, x2 - x1, y2 - y1));
+        }
+        return applyRedactions(scaledImage, scaledRegions);
+    }
+
+    /**
+     * Computes the regions of an image that the given redactions cover,
+     * without touching the image. This is cheap enough to be used to skip
+     * redacting images (like most tiles) that none of the redactions
+     * intersect.
+     *
+     * @param imageSize Size of the image.
+     * @param appliedCrop Crop already applied to the image.
+     * @param reductionFactor Reduction factor already applied to the image.
+     * @param redactions Redactions to apply.
+     * @return Regions of the image to redact. Empty if none of the redactions
+     *         intersect the image.
+     */
+    static List<Rectangle> getRedactedRegions(
+            final Dimension imageSize,
+            final Crop appliedCrop,
+            final ReductionFactor reductionFactor,
+            final List<Redaction> redactions) {
+        final Rectangle imageBounds = new Rectangle(imageSize);
+        final List<Rectangle> regions = new ArrayList<>(redactions.size());
+        for (final Redaction redaction : redactions) {
+            final Rectangle redactionRegion =
+                    redaction.getResultingRegion(imageSize, appliedCrop);
+            redactionRegion.x *= reductionFactor.getScale();
+            redactionRegion.y *= reductionFactor.getScale();
+            redactionRegion.width *= reductionFactor.getScale();
+            redactionRegion.height *= reductionFactor.getScale();
+
+            if (!redactionRegion.isEmpty() &&
+                    redactionRegion.intersects(imageBounds)) {
+                regions.add(redactionRegion);
+            } else {
+                logger.debug("getRedactedRegions(): {} is outside crop " +
+                        "area; skipping", redaction);
+            }
+        }
+        return regions;
+    }
+
     /**
      * Applies the given watermark to the given image. The watermark may be a
      * string ({@link StringWatermark}) or an image ({@link ImageWatermark}).
@@ -225,14 +311,13 @@ public abstract class Java2dUtil {
 
     /**
      * @param watermark
-     * @return Watermark image.
+     * @return Watermark image, which is shared and must not be modified.
      * @throws IOException
+     * @see WatermarkCache#getImage(java.io.File)
      */
     static BufferedImage getWatermarkImage(ImageWatermark watermark)
             throws IOException {
-        final ImageReader reader =
-                new ImageReader(watermark.getImage(), Format.PNG);
-        return reader.read();
+        return WatermarkCache.getInstance().getImage(watermark.getImage());
     }
 
     /**
@@ -304,7 +389,6 @@ public abstract class Java2dUtil {
             final Graphics2D g2d = baseImage.createGraphics();
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
                     RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.drawImage(baseImage, 0, 0, null);
             g2d.drawImage(overlayImage, overlayX, overlayY, null);
             g2d.dispose();
             logger.debug("overlayImage() executed in {} msec",
@@ -339,95 +423,62 @@ public abstract class Java2dUtil {
         if (overlayString != null && overlayString.length() > 0) {
             final Stopwatch watch = new Stopwatch();
 
-            final Graphics2D g2d = baseImage.createGraphics();
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                    RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.drawImage(baseImage, 0, 0, null);
-            g2d.setFont(font);
-
-            // Graphics2D.drawString() does not understand newlines, so each
-            // line has to be drawn separately.
-            final String[] lines = StringUtils.split(overlayString, "\n");
-            final FontMetrics fm = g2d.getFontMetrics();
-            // The total height is the sum of the height of all lines.
-            final int lineHeight = fm.getHeight();
-            final int totalHeight = lineHeight * lines.length;
-            int maxWidth = 0;
-            final int[] lineWidths = new int[lines.length];
-            for (int i = 0; i < lines.length; i++) {
-                final int lineWidth = fm.stringWidth(lines[i]);
-                lineWidths[i] = lineWidth;
-                if (lineWidth > maxWidth) {
-                    maxWidth = lineWidth;
-                }
-            }
+            final WatermarkCache.StringLayer layer =
+                    WatermarkCache.getInstance().getStringLayer(overlayString,
+                            font, fillColor, strokeColor, strokeWidth,
+                            WatermarkCache.Alignment.forPosition(position));
+            final int maxWidth = layer.getBlockWidth();
+            final int totalHeight = layer.getBlockHeight();
 
             // Only draw the text if it will fit completely within the image in
             // both dimensions.
             if (maxWidth + inset <= baseImage.getWidth() &&
                     totalHeight + inset <= baseImage.getHeight()) {
-                for (int i = 0; i < lines.length; i++) {
-                    int x, y;
-                    switch (position) {
-                        case TOP_LEFT:
-                            x = inset;
-                            y = inset + lineHeight * i;
-                            break;
-                        case TOP_RIGHT:
-                            x = baseImage.getWidth() - lineWidths[i] - inset;
-                            y = inset + lineHeight * i;
-                            break;
-                        case BOTTOM_LEFT:
-                            x = inset;
-                            y = baseImage.getHeight() - totalHeight - inset +
-                                    lineHeight * i;
-                            break;
-                        // case BOTTOM_RIGHT: will be handled in default:
-                        case TOP_CENTER:
-                            x = (baseImage.getWidth() - lineWidths[i]) / 2;
-                            y = inset + lineHeight * i;
-                            break;
-                        case BOTTOM_CENTER:
-                            x = (baseImage.getWidth() - lineWidths[i]) / 2;
-                            y = baseImage.getHeight() - totalHeight - inset +
-                                    lineHeight * i;
-                            break;
-                        case LEFT_CENTER:
-                            x = inset;
-                            y = (baseImage.getHeight() - totalHeight) / 2 +
-                                    lineHeight * i;
-                            break;
-                        case RIGHT_CENTER:
-                            x = baseImage.getWidth() - lineWidths[i] - inset;
-                            y = (baseImage.getHeight() - totalHeight) / 2 +
-                                    lineHeight * i;
-                            break;
-                        case CENTER:
-                            x = (baseImage.getWidth() - lineWidths[i]) / 2;
-                            y = (baseImage.getHeight() - totalHeight) / 2;
-                            break;
-                        default: // bottom right
-                            x = baseImage.getWidth() - lineWidths[i] - inset;
-                            y = baseImage.getHeight() - totalHeight - inset +
-                                    lineHeight * i;
-                            break;
-                    }
-                    y += lineHeight * 0.8; // TODO: this is arbitrary fudge
-
-                    // Draw the text outline.
-                    if (strokeWidth > 0.001f) {
-                        final FontRenderContext frc = g2d.getFontRenderContext();
-                        final GlyphVector gv = font.createGlyphVector(frc, lines[i]);
-                        final Shape shape = gv.getOutline(x, y);
-                        g2d.setStroke(new BasicStroke(strokeWidth));
-                        g2d.setPaint(strokeColor);
-                        g2d.draw(shape);
-                    }
-
-                    // Draw the text.
-                    g2d.setPaint(fillColor);
-                    g2d.drawString(lines[i], x, y);
+                int x, y;
+                switch (position) {
+                    case TOP_LEFT:
+                        x = inset;
+                        y = inset;
+                        break;
+                    case TOP_RIGHT:
+                        x = baseImage.getWidth() - maxWidth - inset;
+                        y = inset;
+                        break;
+                    case BOTTOM_LEFT:
+                        x = inset;
+                        y = baseImage.getHeight() - totalHeight - inset;
+                        break;
+                    // case BOTTOM_RIGHT: will be handled in default:
+                    case TOP_CENTER:
+                        x = (baseImage.getWidth() - maxWidth) / 2;
+                        y = inset;
+                        break;
+                    case BOTTOM_CENTER:
+                        x = (baseImage.getWidth() - maxWidth) / 2;
+                        y = baseImage.getHeight() - totalHeight - inset;
+                        break;
+                    case LEFT_CENTER:
+                        x = inset;
+                        y = (baseImage.getHeight() - totalHeight) / 2;
+                        break;
+                    case RIGHT_CENTER:
+                        x = baseImage.getWidth() - maxWidth - inset;
+                        y = (baseImage.getHeight() - totalHeight) / 2;
+                        break;
+                    case CENTER:
+                        x = (baseImage.getWidth() - maxWidth) / 2;
+                        y = (baseImage.getHeight() - totalHeight) / 2;
+                        break;
+                    default: // bottom right
+                        x = baseImage.getWidth() - maxWidth - inset;
+                        y = baseImage.getHeight() - totalHeight - inset;
+                        break;
                 }
+
+                final Graphics2D g2d = baseImage.createGraphics();
+                g2d.drawImage(layer.getImage(), x - layer.getPadding(),
+                        y - layer.getPadding(), null);
+                g2d.dispose();
                 logger.debug("overlayString() executed in {} msec",
                         watch.timeElapsed());
             } else {
@@ -435,7 +486,6 @@ public abstract class Java2dUtil {
                         maxWidth + inset, totalHeight + inset,
                         baseImage.getWidth(), baseImage.getHeight());
             }
-            g2d.dispose();
         }
         return baseImage;
     }
@@ -546,6 +596,38 @@ public abstract class Java2dUtil {
         return scaleImage(inImage, scale, new ReductionFactor(0));
     }
 
+    /**
+     * @param sourceSize Size of the image to scale.
+     * @param scale Requested size ignoring any reduction factor.
+     * @param rf Reduction factor that has already been applied to the image.
+     * @return Size that {@link #scaleImage(BufferedImage, Scale,
+     *         ReductionFactor)} will scale the image to.
+     */
+    static Dimension getScaledSize(final Dimension sourceSize,
+                                   final Scale scale,
+                                   final ReductionFactor rf) {
+        // Calculate the size that the image will need to be scaled to based
+        // on the source image size, scale, and already-applied reduction
+        // factor.
+        Dimension targetSize;
+        if (scale.getPercent() != null) {
+            targetSize = new Dimension();
+            targetSize.width = (int) Math.round(sourceSize.width *
+                    (scale.getPercent() / rf.getScale()));
+            targetSize.height = (int) Math.round(sourceSize.height *
+                    (scale.getPercent() / rf.getScale()));
+        } else {
+            targetSize = scale.getResultingSize(sourceSize);
+        }
+
+        // com.mortennobel.imagescaling.ResampleFilter requires a target size
+        // of at least 3 pixels on a side.
+        // OpenSeadragon has been known to request smaller.
+        targetSize.width = (targetSize.width < 3) ? 3 : targetSize.width;
+        targetSize.height = (targetSize.height < 3) ? 3 : targetSize.height;
+        return targetSize;
+    }
+
     /**
      * Scales an image, taking an already-applied reduction factor into
      * account. In other words, the dimensions of the input image have already
@@ -609,26 +691,7 @@ public abstract class Java2dUtil {
 
         final Dimension sourceSize = new Dimension(
                 inImage.getWidth(), inImage.getHeight());
-
-        // Calculate the size that the image will need to be scaled to based
-        // on the source image size, scale, and already-applied reduction
-        // factor.
-        Dimension targetSize;
-        if (scale.getPercent() != null) {
-            targetSize = new Dimension();
-            targetSize.width = (int) Math.round(sourceSize.width *
-                    (scale.getPercent() / rf.getScale()));
-            targetSize.height = (int) Math.round(sourceSize.height *
-                    (scale.getPercent() / rf.getScale()));
-        } else {
-            targetSize = scale.getResultingSize(sourceSize);
-        }
-
-        // com.mortennobel.imagescaling.ResampleFilter requires a target size
-        // of at least 3 pixels on a side.
-        // OpenSeadragon has been known to request smaller.
-        targetSize.width = (targetSize.width < 3) ? 3 : targetSize.width;
-        targetSize.height = (targetSize.height < 3) ? 3 : targetSize.height;
+        final Dimension targetSize = getScaledSize(sourceSize, scale, rf);
 
         BufferedImage scaledImage = inImage;
         if (!scale.isNoOp() && (targetSize.width != sourceSize.width &&
@@ -0,0 +1,42 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.image.OperationList;
+
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Interface to be implemented by processors that can render several frames
+ * (of a video) or pages (of a document) of a source image at once, paying
+ * the cost of opening and decoding it only once.
+ */
+public interface MultiFrameProcessor extends Processor {
+
+    /**
+     * <p>Equivalent to invoking {@link #process(OperationList, ImageInfo,
+     * OutputStream)} with each of the given operation lists, in order.</p>
+     *
+     * <p>The frame or page of each operation list is selected by the same
+     * option as in {@link #process(OperationList, ImageInfo, OutputStream)},
+     * such as <code>time</code> or <code>page</code>.</p>
+     *
+     * <p>The resulting images are also returned before they are encoded,
+     * so that callers that combine them don't have to decode them again.</p>
+     *
+     * @param opLists Operation lists to apply.
+     * @param sourceInfo Information about the source image.
+     * @param outputStreams Output streams to write the results to, one per
+     *                      operation list. Will not be closed. Elements may be
+     *                      <code>null</code>, in which case the corresponding
+     *                      result is not encoded.
+     * @return Resulting images, one per operation list.
+     * @throws UnsupportedOutputFormatException
+     * @throws ProcessorException
+     */
+    List<BufferedImage> process(List<OperationList> opLists,
+                                ImageInfo sourceInfo,
+                                List<OutputStream> outputStreams)
+            throws ProcessorException;
+
+}
@@ -19,7 +19,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -28,7 +30,7 @@ import java.util.Set;
  * processing steps.
  */
 class PdfBoxProcessor extends AbstractJava2dProcessor
-        implements FileProcessor, StreamProcessor {
+        implements FileProcessor, MultiFrameProcessor, StreamProcessor {
 
     private static Logger logger = LoggerFactory.
             getLogger(PdfBoxProcessor.class);
@@ -103,52 +105,134 @@ class PdfBoxProcessor extends AbstractJava2dProcessor
         return streamSource;
     }
 
+    /**
+     * @param opList
+     * @return Index of the page selected by the <code>page</code> URI query
+     *         option, or 0 if it is absent or invalid.
+     */
+    private int getPageIndex(OperationList opList) {
+        // This processor supports a "page" URI query option.
+        Integer page = 1;
+        String pageStr = (String) opList.getOptions().get("page");
+        if (pageStr != null) {
+            try {
+                page = Integer.parseInt(pageStr);
+            } catch (NumberFormatException e) {
+                logger.info("Page number from URI query string is not " +
+                        "an integer; using page 1.");
+            }
+        }
+        page = Math.max(page, 1);
+        return page - 1;
+    }
+
+    /**
+     * @param opList
+     * @param imageInfo
+     * @return Reduction factor with which to rasterize the page. If the op
+     *         list contains a scale operation, this enables using a
+     *         scale-appropriate rasterization DPI.
+     */
+    private ReductionFactor getReductionFactor(OperationList opList,
+                                               ImageInfo imageInfo) {
+        Scale scale = new Scale();
+        for (Operation op : opList) {
+            if (op instanceof Scale) {
+                scale = (Scale) op;
+                break;
+            }
+        }
+        ReductionFactor reductionFactor = new ReductionFactor();
+        Float pct = scale.getResultingScale(imageInfo.getSize());
+        if (pct != null) {
+            reductionFactor = ReductionFactor.forScale(pct);
+        }
+        return reductionFactor;
+    }
+
     @Override
     public void process(OperationList opList,
                         ImageInfo imageInfo,
                         OutputStream outputStream) throws ProcessorException {
         try {
-            // If the op list contains a scale operation, see if we can use
-            // a reduction factor in order to use a scale-appropriate
-            // rasterization DPI.
-            Scale scale = new Scale();
-            for (Operation op : opList) {
-                if (op instanceof Scale) {
-                    scale = (Scale) op;
-                    break;
-                }
-            }
-            ReductionFactor reductionFactor = new ReductionFactor();
-            Float pct = scale.getResultingScale(imageInfo.getSize());
-            if (pct != null) {
-                reductionFactor = ReductionFactor.forScale(pct);
-            }
+            final ReductionFactor reductionFactor =
+                    getReductionFactor(opList, imageInfo);
+            final BufferedImage image = readImage(getPageIndex(opList),
+                    reductionFactor.factor);
+            postProcess(image, opList, imageInfo, reductionFactor,
+                    outputStream);
+        } catch (IOException e) {
+            throw new ProcessorException(e.getMessage(), e);
+        }
+    }
 
-            // This processor supports a "page" URI query option.
-            Integer page = 1;
-            String pageStr = (String) opList.getOptions().get("page");
-            if (pageStr != null) {
-                try {
-                    page = Integer.parseInt(pageStr);
-                } catch (NumberFormatException e) {
-                    logger.info("Page number from URI query string is not " +
-                            "an integer; using page 1.");
-                }
+    /**
+     * Loads the document once, and renders each of the pages from it.
+     */
+    @Override
+    public List<BufferedImage> process(List<OperationList> opLists,
+                                       ImageInfo imageInfo,
+                                       List<OutputStream> outputStreams)
+            throws ProcessorException {
+        InputStream inputStream = null;
+        PDDocument doc = null;
+        try {
+            if (sourceFile != null) {
+                doc = PDDocument.load(sourceFile);
+            } else {
+                inputStream = streamSource.newInputStream();
+                doc = PDDocument.load(inputStream);
             }
-            page = Math.max(page, 1);
-
-            final BufferedImage image = readImage(page - 1, reductionFactor.factor);
             final Configuration config = ConfigurationFactory.getInstance();
-            postProcess(image, null, opList, imageInfo,
-                    reductionFactor, Orientation.ROTATE_0, false,
-                    getUpscaleFilter(), getDownscaleFilter(),
-                    config.getFloat(SHARPEN_CONFIG_KEY, 0f),
-                    outputStream);
+            final PDFRenderer renderer = new PDFRenderer(doc);
+            final List<BufferedImage> results = new ArrayList<>(opLists.size());
+            for (int i = 0; i < opLists.size(); i++) {
+                final OperationList opList = opLists.get(i);
+                final ReductionFactor reductionFactor =
+                        getReductionFactor(opList, imageInfo);
+                final BufferedImage image = renderPage(renderer,
+                        getPageIndex(opList), reductionFactor.factor);
+                final BufferedImage result = transform(image, null, opList,
+                        imageInfo, reductionFactor, Orientation.ROTATE_0,
+                        false, getUpscaleFilter(), getDownscaleFilter(),
+                        config.getFloat(SHARPEN_CONFIG_KEY, 0f));
+                if (outputStreams.get(i) != null) {
+                    new ImageWriter(opList).write(result,
+                            opList.getOutputFormat(), outputStreams.get(i));
+                }
+                results.add(result);
+            }
+            return results;
         } catch (IOException e) {
             throw new ProcessorException(e.getMessage(), e);
+        } finally {
+            try {
+                if (doc != null) {
+                    doc.close();
+                }
+                if (inputStream != null) {
+                    inputStream.close();
+                }
+            } catch (IOException e) {
+                logger.error("process(): {}", e.getMessage());
+            }
         }
     }
 
+    private void postProcess(BufferedImage image,
+                             OperationList opList,
+                             ImageInfo imageInfo,
+                             ReductionFactor reductionFactor,
+                             OutputStream outputStream)
+            throws IOException, ProcessorException {
+        final Configuration config = ConfigurationFactory.getInstance();
+        postProcess(image, null, opList, imageInfo,
+                reductionFactor, Orientation.ROTATE_0, false,
+                getUpscaleFilter(), getDownscaleFilter(),
+                config.getFloat(SHARPEN_CONFIG_KEY, 0f),
+                outputStream);
+    }
+
     private BufferedImage readImage() throws IOException {
         return readImage(0, 0);
     }
@@ -162,10 +246,6 @@ class PdfBoxProcessor extends AbstractJava2dProcessor
      */
     private BufferedImage readImage(int pageIndex,
                                     int reductionFactor) throws IOException {
-        float dpi = getDpi(reductionFactor);
-        logger.debug("readImage(): using a DPI of {} ({}x reduction factor)",
-                Math.round(dpi), reductionFactor);
-
         InputStream inputStream = null;
         PDDocument doc = null;
         try {
@@ -176,14 +256,8 @@ class PdfBoxProcessor extends AbstractJava2dProcessor
                 doc = PDDocument.load(inputStream);
             }
 
-            // If the given page index is out of bounds, the renderer will
-            // throw an exception. In that case, render the first page.
-            PDFRenderer renderer = new PDFRenderer(doc);
-            try {
-                return renderer.renderImageWithDPI(pageIndex, dpi);
-            } catch (IndexOutOfBoundsException e) {
-                return renderer.renderImageWithDPI(0, dpi);
-            }
+            return renderPage(new PDFRenderer(doc), pageIndex,
+                    reductionFactor);
         } finally {
             try {
                 if (doc != null) {
@@ -197,6 +271,31 @@ class PdfBoxProcessor extends AbstractJava2dProcessor
         }
     }
 
+    /**
+     * @param renderer Renderer of the document.
+     * @param pageIndex
+     * @param reductionFactor Scale factor by which to reduce the image (or
+     *                        enlarge it if negative).
+     * @return Rasterized page, or the first page if the given page index is
+     *         out of bounds.
+     * @throws IOException
+     */
+    private BufferedImage renderPage(PDFRenderer renderer,
+                                     int pageIndex,
+                                     int reductionFactor) throws IOException {
+        float dpi = getDpi(reductionFactor);
+        logger.debug("renderPage(): using a DPI of {} ({}x reduction factor)",
+                Math.round(dpi), reductionFactor);
+
+        // If the given page index is out of bounds, the renderer will
+        // throw an exception. In that case, render the first page.
+        try {
+            return renderer.renderImageWithDPI(pageIndex, dpi);
+        } catch (IndexOutOfBoundsException e) {
+            return renderer.renderImageWithDPI(0, dpi);
+        }
+    }
+
     private float getDpi(int reductionFactor) {
         float dpi = ConfigurationFactory.getInstance().
                 getFloat(DPI_CONFIG_KEY, 150);
@@ -2,6 +2,8 @@ package edu.illinois.library.cantaloupe.processor;
 
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
 import edu.illinois.library.cantaloupe.image.Format;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -14,8 +16,12 @@ import java.util.Set;
  */
 public abstract class ProcessorFactory {
 
+    private static Logger logger = LoggerFactory.
+            getLogger(ProcessorFactory.class);
+
     public static final String FALLBACK_PROCESSOR_CONFIG_KEY =
             "processor.fallback";
+    public static final String WARM_UP_CONFIG_KEY = "processor.warm_up";
 
     public static Set<Processor> getAllProcessors() {
         return new HashSet<Processor>(Arrays.asList(
@@ -29,6 +35,22 @@ public abstract class ProcessorFactory {
                 new PdfBoxProcessor()));
     }
 
+    /**
+     * Retrieves a processor for images that have already been rendered by
+     * another processor, such as derivative images in a derivative cache.
+     * Its source will not be set.
+     *
+     * @param format Format of the rendered images.
+     * @return Instance suitable for reprocessing images in the given format.
+     * @throws UnsupportedSourceFormatException If the format can't be read.
+     */
+    public static StreamProcessor getDerivativeProcessor(final Format format)
+            throws UnsupportedSourceFormatException {
+        final Java2dProcessor processor = new Java2dProcessor();
+        processor.setSourceFormat(format);
+        return processor;
+    }
+
     /**
      * Retrieves the best-match processor for the given source format. Its
      * source will not be set.
@@ -77,4 +99,61 @@ public abstract class ProcessorFactory {
                 getString(FALLBACK_PROCESSOR_CONFIG_KEY);
     }
 
+    /**
+     * @return Whether {@link #WARM_UP_CONFIG_KEY} is <code>true</code>.
+     */
+    public static boolean isWarmUpEnabled() {
+        return ConfigurationFactory.getInstance().
+                getBoolean(WARM_UP_CONFIG_KEY, false);
+    }
+
+    /**
+     * <p>Instantiates every processor assigned to a format, as well as the
+     * fallback processor, and asks it for its available output formats.</p>
+     *
+     * <p>Some processors (like {@link ImageMagickProcessor} and
+     * {@link GraphicsMagickProcessor}) have to invoke an external program to
+     * find out which formats they support. They do this only once, but
+     * otherwise the first request to use them would have to wait for it.
+     * This method should be called at startup, in the background.</p>
+     */
+    public static void warmUp() {
+        final Set<String> processorNames = new HashSet<>();
+        final String fallbackName = getFallbackProcessorName();
+        if (fallbackName != null && fallbackName.length() > 0) {
+            processorNames.add(fallbackName);
+        }
+        for (Format format : Format.values()) {
+            if (!Format.UNKNOWN.equals(format)) {
+                final String name = getAssignedProcessorName(format);
+                if (name != null) {
+                    processorNames.add(name);
+                }
+            }
+        }
+
+        for (String name : processorNames) {
+            final long msec = System.currentTimeMillis();
+            try {
+                final Class class_ = Class.forName(
+                        ProcessorFactory.class.getPackage().getName() +
+                                "." + name);
+                final Processor processor = (Processor) class_.newInstance();
+                for (Format format : Format.values()) {
+                    try {
+                        processor.setSourceFormat(format);
+                        processor.getAvailableOutputFormats();
+                    } catch (UnsupportedSourceFormatException e) {
+                        // Not a problem.
+                    }
+                }
+                logger.info("warmUp(): warmed up {} in {} msec", name,
+                        System.currentTimeMillis() - msec);
+            } catch (Exception | LinkageError e) {
+                logger.warn("warmUp(): failed to warm up {}: {}", name,
+                        e.getMessage());
+            }
+        }
+    }
+
 }
@@ -0,0 +1,103 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.image.Scale;
+import edu.illinois.library.cantaloupe.processor.imageio.ImageReader;
+import edu.illinois.library.cantaloupe.processor.imageio.ImageWriter;
+import edu.illinois.library.cantaloupe.resolver.StreamSource;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Composites already-rendered images, such as tiles from a derivative cache,
+ * into a single image, which can then be scaled and written out.
+ */
+public class TileMosaic {
+
+    private BufferedImage image;
+    private final Dimension size;
+
+    /**
+     * @param format Format of the tiles and the output image.
+     * @return Whether the format can be both read and written.
+     */
+    public static boolean isSupported(Format format) {
+        return ImageReader.supportedFormats().contains(format) &&
+                ImageWriter.supportedFormats().contains(format);
+    }
+
+    /**
+     * @param size Size of the mosaic.
+     */
+    public TileMosaic(Dimension size) {
+        this.size = size;
+    }
+
+    /**
+     * Draws a tile into the mosaic. Parts of the tile that fall outside of
+     * the mosaic are clipped.
+     *
+     * @param source Source of the tile image.
+     * @param format Format of the tile image.
+     * @param bounds Bounds within the mosaic to draw the tile into. The tile
+     *               will be stretched to fit if it is of a different size.
+     * @throws IOException
+     */
+    public void add(StreamSource source, Format format, Rectangle bounds)
+            throws IOException {
+        final ImageReader reader = new ImageReader(source, format);
+        try {
+            final BufferedImage tile = reader.read();
+            if (image == null) {
+                image = new BufferedImage(size.width, size.height,
+                        tile.getColorModel().hasAlpha() ?
+                                BufferedImage.TYPE_INT_ARGB :
+                                BufferedImage.TYPE_INT_RGB);
+            }
+            final Graphics2D g2d = image.createGraphics();
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2d.drawImage(tile, bounds.x, bounds.y, bounds.width,
+                    bounds.height, null);
+            g2d.dispose();
+            tile.flush();
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * Scales the mosaic to the given size and writes it in the output format
+     * of the given operation list. No other operations in the list are
+     * applied.
+     *
+     * @param opList Operation list specifying the output format.
+     * @param outputSize Size of the output image.
+     * @param outputStream Stream to write to. Will not be closed.
+     * @throws IOException
+     */
+    public void write(OperationList opList, Dimension outputSize,
+                      OutputStream outputStream) throws IOException {
+        if (image == null) {
+            throw new IOException("No tiles have been added.");
+        }
+        BufferedImage outputImage = image;
+        if (!outputSize.equals(size)) {
+            outputImage = Java2dUtil.scaleImage(image,
+                    new Scale(outputSize.width, outputSize.height,
+                            Scale.Mode.NON_ASPECT_FILL));
+        }
+        new ImageWriter(opList).
+                write(outputImage, opList.getOutputFormat(), outputStream);
+        outputImage.flush();
+        image.flush();
+    }
+
+}
@@ -0,0 +1,104 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.util.ExpiringLruMap;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+
+/**
+ * <p>Bounded in-memory cache of video frames extracted by
+ * {@link FfmpegProcessor}, at native resolution, so that requests for
+ * different regions or sizes of the same frame (like tiles) can share one
+ * decode.</p>
+ *
+ * <p>Frames are keyed by source file, its last-modified time, and the time
+ * of the frame, so that frames of changed files are never returned.</p>
+ *
+ * <p>Frames are large (about 8MB for a 1080p frame), so the maximum size,
+ * {@link FfmpegProcessor#FRAME_CACHE_MAX_SIZE_CONFIG_KEY}, should be
+ * small. The cache is disabled when it is 0.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+final class VideoFrameCache {
+
+    private static final VideoFrameCache instance = new VideoFrameCache();
+
+    private final ExpiringLruMap<String,BufferedImage> frames =
+            new ExpiringLruMap<>(0);
+
+    /**
+     * @return The shared instance.
+     */
+    static VideoFrameCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param image Image to copy.
+     * @return Deep copy of the given image. The processing pipeline draws on
+     *         images in place, so cached frames must not be shared with it.
+     */
+    static BufferedImage copy(BufferedImage image) {
+        final ColorModel colorModel = image.getColorModel();
+        return new BufferedImage(colorModel, image.copyData(null),
+                colorModel.isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * @return Value of
+     *         {@link FfmpegProcessor#FRAME_CACHE_MAX_SIZE_CONFIG_KEY}.
+     */
+    private static int getMaxSize() {
+        return ConfigurationFactory.getInstance().getInt(
+                FfmpegProcessor.FRAME_CACHE_MAX_SIZE_CONFIG_KEY, 0);
+    }
+
+    private VideoFrameCache() {}
+
+    /**
+     * @param key Key from {@link FfmpegProcessor#getFrameKey}.
+     * @return Copy of the cached frame, or null if the cache is disabled or
+     *         there is no such frame.
+     */
+    BufferedImage get(String key) {
+        if (getMaxSize() < 1) {
+            return null;
+        }
+        final BufferedImage frame = frames.get(key);
+        return (frame != null) ? copy(frame) : null;
+    }
+
+    /**
+     * Caches a copy of the given frame. Does nothing if the cache is
+     * disabled.
+     *
+     * @param key Key from {@link FfmpegProcessor#getFrameKey}.
+     * @param frame Frame at native resolution.
+     */
+    void put(String key, BufferedImage frame) {
+        final int maxSize = getMaxSize();
+        if (maxSize < 1) {
+            purge();
+            return;
+        }
+        frames.setMaxSize(maxSize);
+        frames.put(key, copy(frame));
+    }
+
+    /**
+     * Removes all frames.
+     */
+    void purge() {
+        frames.clear();
+    }
+
+    /**
+     * @return Number of cached frames.
+     */
+    int size() {
+        return frames.size();
+    }
+
+}
@@ -0,0 +1,280 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.watermark.Position;
+import edu.illinois.library.cantaloupe.processor.imageio.ImageReader;
+import edu.illinois.library.cantaloupe.util.ExpiringLruMap;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Bounded in-memory cache of watermark imagery, shared across all
+ * processors that watermark via {@link Java2dUtil}.</p>
+ *
+ * <p>Image watermarks are decoded once and stored as
+ * {@link BufferedImage#TYPE_INT_ARGB_PRE premultiplied ARGB} images, which
+ * Java 2D can composite without conversion. They are keyed by file path and
+ * modification time, so a watermark file that is replaced on disk will be
+ * decoded again.</p>
+ *
+ * <p>String watermarks are laid out, stroked and filled once into a
+ * transparent {@link StringLayer layer} that only needs to be blitted onto
+ * each image.</p>
+ *
+ * <p>Cached images must not be modified. Instances are thread-safe.</p>
+ */
+final class WatermarkCache {
+
+    /**
+     * Pre-rendered block of text, drawn onto a transparent background.
+     */
+    static final class StringLayer {
+
+        private final int blockHeight;
+        private final int blockWidth;
+        private final BufferedImage image;
+        private final int padding;
+
+        StringLayer(BufferedImage image, int padding, int blockWidth,
+                    int blockHeight) {
+            this.image = image;
+            this.padding = padding;
+            this.blockWidth = blockWidth;
+            this.blockHeight = blockHeight;
+        }
+
+        /**
+         * @return Height of the text block, excluding {@link #getPadding()
+         *         padding}. This is the sum of the height of all lines.
+         */
+        int getBlockHeight() {
+            return blockHeight;
+        }
+
+        /**
+         * @return Width of the text block, excluding {@link #getPadding()
+         *         padding}. This is the width of the widest line.
+         */
+        int getBlockWidth() {
+            return blockWidth;
+        }
+
+        /**
+         * @return Layer image, which is larger than the text block by
+         *         {@link #getPadding()} on each side, to accommodate the
+         *         stroke and descenders.
+         */
+        BufferedImage getImage() {
+            return image;
+        }
+
+        /**
+         * @return Number of pixels on each side of the text block.
+         */
+        int getPadding() {
+            return padding;
+        }
+
+    }
+
+    /**
+     * Horizontal alignment of the lines within a text block.
+     */
+    enum Alignment {
+        LEFT, CENTER, RIGHT;
+
+        static Alignment forPosition(Position position) {
+            switch (position) {
+                case TOP_LEFT:
+                case LEFT_CENTER:
+                case BOTTOM_LEFT:
+                    return LEFT;
+                case TOP_CENTER:
+                case CENTER:
+                case BOTTOM_CENTER:
+                    return CENTER;
+                default:
+                    return RIGHT;
+            }
+        }
+    }
+
+    private static Logger logger = LoggerFactory.
+            getLogger(WatermarkCache.class);
+
+    static final int MAX_IMAGES = 16;
+    static final int MAX_STRING_LAYERS = 128;
+
+    private static final WatermarkCache instance = new WatermarkCache();
+
+    private final ExpiringLruMap<String, BufferedImage> images =
+            new ExpiringLruMap<>(MAX_IMAGES);
+
+    private final ExpiringLruMap<List<Object>, StringLayer> stringLayers =
+            new ExpiringLruMap<>(MAX_STRING_LAYERS);
+
+    /**
+     * @return The shared instance.
+     */
+    static WatermarkCache getInstance() {
+        return instance;
+    }
+
+    private WatermarkCache() {}
+
+    /**
+     * @param file PNG image file.
+     * @return Decoded image of type {@link BufferedImage#TYPE_INT_ARGB_PRE}.
+     * @throws IOException
+     */
+    BufferedImage getImage(File file) throws IOException {
+        final String key = file.getAbsolutePath() + ":" +
+                file.lastModified() + ":" + file.length();
+        BufferedImage image = images.get(key);
+        if (image == null) {
+            // Two threads may decode the same file concurrently the first
+            // time, which is harmless.
+            image = decode(file);
+            images.put(key, image);
+        }
+        return image;
+    }
+
+    private BufferedImage decode(File file) throws IOException {
+        logger.debug("decode(): decoding {}", file);
+        final ImageReader reader = new ImageReader(file, Format.PNG);
+        try {
+            final BufferedImage decodedImage = reader.read();
+            if (decodedImage.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+                return decodedImage;
+            }
+            final BufferedImage image = new BufferedImage(
+                    decodedImage.getWidth(), decodedImage.getHeight(),
+                    BufferedImage.TYPE_INT_ARGB_PRE);
+            final Graphics2D g2d = image.createGraphics();
+            g2d.drawImage(decodedImage, 0, 0, null);
+            g2d.dispose();
+            decodedImage.flush();
+            return image;
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    /**
+     * @param string Text, which may contain newlines.
+     * @param font Font of the text.
+     * @param fillColor Color of the text.
+     * @param strokeColor Color of the text outline.
+     * @param strokeWidth Width in pixels of the text outline.
+     * @param alignment Horizontal alignment of the lines.
+     * @return Pre-rendered layer.
+     */
+    StringLayer getStringLayer(String string, Font font, Color fillColor,
+                               Color strokeColor, float strokeWidth,
+                               Alignment alignment) {
+        final List<Object> key = Arrays.<Object>asList(string, font,
+                fillColor, strokeColor, strokeWidth, alignment);
+        StringLayer layer = stringLayers.get(key);
+        if (layer == null) {
+            layer = render(string, font, fillColor, strokeColor, strokeWidth,
+                    alignment);
+            stringLayers.put(key, layer);
+        }
+        return layer;
+    }
+
+    private StringLayer render(String string, Font font, Color fillColor,
+                               Color strokeColor, float strokeWidth,
+                               Alignment alignment) {
+        logger.debug("render(): rendering \"{}\"", string);
+
+        // Measure the text using a scratch graphics context that has the
+        // same rendering hints as the one that will draw it.
+        final BufferedImage scratch =
+                new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2d = scratch.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setFont(font);
+
+        // Graphics2D.drawString() does not understand newlines, so each
+        // line has to be drawn separately.
+        final String[] lines = StringUtils.split(string, "\n");
+        final FontMetrics fm = g2d.getFontMetrics();
+        g2d.dispose();
+        // The total height is the sum of the height of all lines.
+        final int lineHeight = fm.getHeight();
+        final int totalHeight = lineHeight * lines.length;
+        int maxWidth = 0;
+        final int[] lineWidths = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            lineWidths[i] = fm.stringWidth(lines[i]);
+            maxWidth = Math.max(maxWidth, lineWidths[i]);
+        }
+
+        final int padding = (int) Math.ceil(strokeWidth) + fm.getDescent();
+        final BufferedImage image = new BufferedImage(
+                Math.max(1, maxWidth + padding * 2),
+                Math.max(1, totalHeight + padding * 2),
+                BufferedImage.TYPE_INT_ARGB_PRE);
+        g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setFont(font);
+
+        for (int i = 0; i < lines.length; i++) {
+            int x = padding;
+            switch (alignment) {
+                case CENTER:
+                    x += (maxWidth - lineWidths[i]) / 2;
+                    break;
+                case RIGHT:
+                    x += maxWidth - lineWidths[i];
+                    break;
+            }
+            int y = padding + lineHeight * i;
+            y += lineHeight * 0.8; // TODO: this is arbitrary fudge
+
+            // Draw the text outline.
+            if (strokeWidth > 0.001f) {
+                final GlyphVector gv = font.createGlyphVector(
+                        g2d.getFontRenderContext(), lines[i]);
+                final Shape shape = gv.getOutline(x, y);
+                g2d.setStroke(new BasicStroke(strokeWidth));
+                g2d.setPaint(strokeColor);
+                g2d.draw(shape);
+            }
+
+            // Draw the text.
+            g2d.setPaint(fillColor);
+            g2d.drawString(lines[i], x, y);
+        }
+        g2d.dispose();
+        return new StringLayer(image, padding, maxWidth, totalHeight);
+    }
+
+    /**
+     * Removes all cached images and layers.
+     */
+    void purge() {
+        images.clear();
+        stringLayers.clear();
+    }
+
+}
@@ -90,14 +90,17 @@ abstract class AbstractImageReader {
     }
 
     protected void createReader() throws IOException {
-        Iterator<javax.imageio.ImageReader> it;
+        javax.imageio.ImageReader reader = null;
         if (format != null) {
-            it = ImageIO.getImageReadersByMIMEType(
-                    format.getPreferredMediaType().toString());
+            reader = ImageIOPool.getInstance().borrowReader(format);
         } else {
-            it = ImageIO.getImageReaders(inputStream);
+            final Iterator<javax.imageio.ImageReader> it =
+                    ImageIO.getImageReaders(inputStream);
+            if (it.hasNext()) {
+                reader = it.next();
+            }
         }
-        if (it.hasNext()) {
+        if (reader != null) {
             /*
             http://docs.oracle.com/javase/8/docs/api/javax/imageio/ImageReader.html#setInput(java.lang.Object,%20boolean,%20boolean)
             The ignoreMetadata parameter, if set to true, allows the reader
@@ -112,7 +115,7 @@ abstract class AbstractImageReader {
             logger.debug("createReader(): ignoring metadata? {}",
                     ignoreMetadata);
 
-            iioReader = it.next();
+            iioReader = reader;
             iioReader.setInput(inputStream, false, ignoreMetadata);
             logger.info("createReader(): using {}",
                     iioReader.getClass().getName());
@@ -123,14 +126,15 @@ abstract class AbstractImageReader {
     }
 
     /**
-     * Should be called when the reader is no longer needed.
+     * Should be called when the reader is no longer needed. The underlying
+     * ImageIO reader is returned to the {@link ImageIOPool}.
      */
     void dispose() {
         try {
             IOUtils.closeQuietly(inputStream);
         } finally {
             if (iioReader != null) {
-                iioReader.dispose();
+                ImageIOPool.getInstance().returnReader(iioReader);
                 iioReader = null;
             }
         }
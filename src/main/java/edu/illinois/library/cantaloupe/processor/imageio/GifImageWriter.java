@@ -17,7 +17,6 @@ import java.awt.image.BufferedImage;
 import java.awt.image.renderable.ParameterBlock;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Iterator;
 
 /**
  * GIF image writer using ImageIO, capable of taking both Java 2D
@@ -80,9 +79,8 @@ class GifImageWriter extends AbstractImageWriter {
      */
     void write(BufferedImage image, final OutputStream outputStream)
             throws IOException {
-        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(
-                Format.GIF.getPreferredMediaType().toString());
-        final ImageWriter writer = writers.next();
+        final ImageWriter writer =
+                ImageIOPool.getInstance().borrowWriter(Format.GIF);
         try {
             final ImageWriteParam writeParam =
                     writer.getDefaultWriteParam();
@@ -95,7 +93,7 @@ class GifImageWriter extends AbstractImageWriter {
             writer.write(iioImage);
             ios.flush();
         } finally {
-            writer.dispose();
+            ImageIOPool.getInstance().returnWriter(writer);
         }
     }
 
@@ -108,9 +106,8 @@ class GifImageWriter extends AbstractImageWriter {
      */
     void write(PlanarImage image, OutputStream outputStream)
             throws IOException {
-        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(
-                Format.GIF.getPreferredMediaType().toString());
-        final ImageWriter writer = writers.next();
+        final ImageWriter writer =
+                ImageIOPool.getInstance().borrowWriter(Format.GIF);
         try {
             // GIFWriter can't deal with a non-0,0 origin ("coordinate
             // out of bounds!")
@@ -131,7 +128,7 @@ class GifImageWriter extends AbstractImageWriter {
             writer.write(iioImage);
             os.flush(); // http://stackoverflow.com/a/14489406
         } finally {
-            writer.dispose();
+            ImageIOPool.getInstance().returnWriter(writer);
         }
     }
 
@@ -0,0 +1,253 @@
+package edu.illinois.library.cantaloupe.processor.imageio;
+
+import edu.illinois.library.cantaloupe.image.Format;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.spi.IIORegistry;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.spi.ImageReaderWriterSpi;
+import javax.imageio.spi.ImageWriterSpi;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * <p>Pool of ImageIO readers and writers, shared across all of the readers
+ * and writers in this package.</p>
+ *
+ * <p>Looking up a reader or writer via e.g.
+ * {@link javax.imageio.ImageIO#getImageWritersByMIMEType(String)} scans the
+ * service registry and instantiates a plugin every time. Instead, the
+ * provider for each format is looked up once, and instances that are
+ * returned to the pool are {@link ImageReader#reset() reset} and handed out
+ * again, up to {@link #MAX_IDLE_INSTANCES} idle instances per provider.</p>
+ *
+ * <p>A borrowed instance must be used by only one thread at a time, and must
+ * be returned (or disposed) when it is no longer needed. Instances are
+ * thread-safe.</p>
+ */
+final class ImageIOPool {
+
+    private static Logger logger = LoggerFactory.getLogger(ImageIOPool.class);
+
+    /**
+     * Maximum number of idle instances that will be retained per provider.
+     */
+    static final int MAX_IDLE_INSTANCES =
+            Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * Plugin class names of readers and writers that are preferred over
+     * others of the same format. The GeoSolutions TIFF plugins contain
+     * improvements over the Sun versions, namely support for BigTIFF.
+     */
+    private static final Map<Format, String[]> PREFERRED_PLUGINS =
+            new HashMap<>();
+
+    private static final ImageIOPool instance = new ImageIOPool();
+
+    static {
+        PREFERRED_PLUGINS.put(Format.TIF, new String[] {
+                "it.geosolutions.imageioimpl.plugins.tiff.TIFFImageReader",
+                "it.geosolutions.imageioimpl.plugins.tiff.TIFFImageWriter" });
+    }
+
+    private final Map<ImageReaderSpi, Deque<ImageReader>> idleReaders =
+            new HashMap<>();
+    private final Map<ImageWriterSpi, Deque<ImageWriter>> idleWriters =
+            new HashMap<>();
+    private final Map<Format, ImageReaderSpi> readerProviders =
+            new HashMap<>();
+    private final Map<Format, ImageWriterSpi> writerProviders =
+            new HashMap<>();
+
+    /**
+     * @return The shared instance.
+     */
+    static ImageIOPool getInstance() {
+        return instance;
+    }
+
+    private ImageIOPool() {}
+
+    /**
+     * @param format Format to read.
+     * @return Reader that is not in use by any other caller.
+     * @throws IOException If there is no reader for the given format.
+     */
+    ImageReader borrowReader(Format format) throws IOException {
+        final ImageReaderSpi provider;
+        synchronized (readerProviders) {
+            if (!readerProviders.containsKey(format)) {
+                readerProviders.put(format, findProvider(
+                        ImageReaderSpi.class, format, 0));
+            }
+            provider = readerProviders.get(format);
+        }
+        if (provider == null) {
+            throw new IOException("No reader available for " + format);
+        }
+        synchronized (idleReaders) {
+            final Deque<ImageReader> idle = idleReaders.get(provider);
+            if (idle != null && !idle.isEmpty()) {
+                return idle.pop();
+            }
+        }
+        return provider.createReaderInstance();
+    }
+
+    /**
+     * @param format Format to write.
+     * @return Writer that is not in use by any other caller.
+     * @throws IOException If there is no writer for the given format.
+     */
+    ImageWriter borrowWriter(Format format) throws IOException {
+        final ImageWriterSpi provider = getWriterProvider(format);
+        if (provider == null) {
+            throw new IOException("No writer available for " + format);
+        }
+        synchronized (idleWriters) {
+            final Deque<ImageWriter> idle = idleWriters.get(provider);
+            if (idle != null && !idle.isEmpty()) {
+                return idle.pop();
+            }
+        }
+        return provider.createWriterInstance();
+    }
+
+    /**
+     * @param format Format to write.
+     * @return Whether there is a writer for the given format. This is not a
+     *         given for formats like WebP, which are only supported by
+     *         optional plugins.
+     */
+    boolean canWrite(Format format) {
+        return getWriterProvider(format) != null;
+    }
+
+    /**
+     * @param format Format to write.
+     * @return Provider of writers for the given format, or null if there is
+     *         none.
+     */
+    private ImageWriterSpi getWriterProvider(Format format) {
+        synchronized (writerProviders) {
+            if (!writerProviders.containsKey(format)) {
+                writerProviders.put(format, findProvider(
+                        ImageWriterSpi.class, format, 1));
+            }
+            return writerProviders.get(format);
+        }
+    }
+
+    /**
+     * @param category Provider category.
+     * @param format Format to find a provider for.
+     * @param preferredIndex Index within {@link #PREFERRED_PLUGINS} of the
+     *                       preferred plugin class name.
+     * @return Preferred provider for the given format, or else the first one
+     *         in the order that {@link javax.imageio.ImageIO} would return it
+     *         in, or null if there is none.
+     */
+    private <T extends ImageReaderWriterSpi> T findProvider(Class<T> category,
+                                                            Format format,
+                                                            int preferredIndex) {
+        final String mediaType = format.getPreferredMediaType().toString();
+        final String[] preferred = PREFERRED_PLUGINS.get(format);
+        T match = null;
+        final Iterator<T> it = IIORegistry.getDefaultInstance().
+                getServiceProviders(category, true);
+        while (it.hasNext()) {
+            final T provider = it.next();
+            final String[] mimeTypes = provider.getMIMETypes();
+            if (mimeTypes == null) {
+                continue;
+            }
+            for (String mimeType : mimeTypes) {
+                if (mimeType.equals(mediaType)) {
+                    if (preferred != null && provider.getPluginClassName().
+                            equals(preferred[preferredIndex])) {
+                        match = provider;
+                    } else if (match == null) {
+                        match = provider;
+                    }
+                    break;
+                }
+            }
+        }
+        logger.debug("findProvider(): using {} for {}",
+                (match != null) ? match.getPluginClassName() : null, format);
+        return match;
+    }
+
+    /**
+     * Resets the given reader and makes it available to other callers. If
+     * there are already enough idle instances, or the reader cannot be reset,
+     * it is disposed instead.
+     *
+     * @param reader Reader that will not be used again by the caller.
+     */
+    void returnReader(ImageReader reader) {
+        try {
+            reader.reset();
+        } catch (RuntimeException e) {
+            logger.debug("returnReader(): {}", e.getMessage());
+            reader.dispose();
+            return;
+        }
+        final ImageReaderSpi provider = reader.getOriginatingProvider();
+        if (provider != null) {
+            synchronized (idleReaders) {
+                Deque<ImageReader> idle = idleReaders.get(provider);
+                if (idle == null) {
+                    idle = new ArrayDeque<>();
+                    idleReaders.put(provider, idle);
+                }
+                if (idle.size() < MAX_IDLE_INSTANCES) {
+                    idle.push(reader);
+                    return;
+                }
+            }
+        }
+        reader.dispose();
+    }
+
+    /**
+     * Resets the given writer and makes it available to other callers. If
+     * there are already enough idle instances, or the writer cannot be reset,
+     * it is disposed instead.
+     *
+     * @param writer Writer that will not be used again by the caller.
+     */
+    void returnWriter(ImageWriter writer) {
+        try {
+            writer.reset();
+        } catch (RuntimeException e) {
+            logger.debug("returnWriter(): {}", e.getMessage());
+            writer.dispose();
+            return;
+        }
+        final ImageWriterSpi provider = writer.getOriginatingProvider();
+        if (provider != null) {
+            synchronized (idleWriters) {
+                Deque<ImageWriter> idle = idleWriters.get(provider);
+                if (idle == null) {
+                    idle = new ArrayDeque<>();
+                    idleWriters.put(provider, idle);
+                }
+                if (idle.size() < MAX_IDLE_INSTANCES) {
+                    idle.push(writer);
+                    return;
+                }
+            }
+        }
+        writer.dispose();
+    }
+
+}
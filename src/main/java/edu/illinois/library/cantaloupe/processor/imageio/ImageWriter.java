@@ -1,5 +1,7 @@
 package edu.illinois.library.cantaloupe.processor.imageio;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.OperationList;
 
@@ -17,15 +19,54 @@ import java.util.Set;
  */
 public class ImageWriter {
 
+    /**
+     * Whether to write progressive JPEGs. Applies to all processors that
+     * write JPEGs via this class, as well as ImageMagick and GraphicsMagick.
+     */
+    public static final String JPG_PROGRESSIVE_CONFIG_KEY =
+            "processor.jpg.progressive";
+
+    /**
+     * Whether to write interlaced (Adam7) PNGs. Applies to all processors
+     * that write PNGs via this class, as well as ImageMagick and
+     * GraphicsMagick.
+     */
+    public static final String PNG_INTERLACE_CONFIG_KEY =
+            "processor.png.interlace";
+
     private OperationList opList;
     private Metadata sourceMetadata;
 
     /**
-     * @return Set of supported output formats.
+     * @return Set of supported output formats. WebP is included only if a
+     *         WebP ImageIO plugin is available.
      */
     public static Set<Format> supportedFormats() {
-        return new HashSet<>(Arrays.asList(Format.GIF, Format.JPG,
-                Format.PNG, Format.TIF));
+        final Set<Format> formats = new HashSet<>(Arrays.asList(Format.GIF,
+                Format.JPG, Format.PNG, Format.TIF));
+        if (ImageIOPool.getInstance().canWrite(Format.WEBP)) {
+            formats.add(Format.WEBP);
+        }
+        return formats;
+    }
+
+    /**
+     * @param format Output format.
+     * @return Whether images in the given format should be written
+     *         progressively or interlaced, according to
+     *         {@link #JPG_PROGRESSIVE_CONFIG_KEY} and
+     *         {@link #PNG_INTERLACE_CONFIG_KEY}.
+     */
+    public static boolean isProgressive(Format format) {
+        final Configuration config = ConfigurationFactory.getInstance();
+        switch (format) {
+            case JPG:
+                return config.getBoolean(JPG_PROGRESSIVE_CONFIG_KEY, false);
+            case PNG:
+                return config.getBoolean(PNG_INTERLACE_CONFIG_KEY, false);
+            default:
+                return false;
+        }
     }
 
     public ImageWriter(final OperationList opList) {
@@ -66,6 +107,10 @@ public class ImageWriter {
                 new TiffImageWriter(opList, sourceMetadata).
                         write(image, outputStream);
                 break;
+            case WEBP:
+                new WebpImageWriter(opList, sourceMetadata).
+                        write(image, outputStream);
+                break;
         }
     }
 
@@ -97,6 +142,10 @@ public class ImageWriter {
                 new TiffImageWriter(opList, sourceMetadata).
                         write(image, outputStream);
                 break;
+            case WEBP:
+                new WebpImageWriter(opList, sourceMetadata).
+                        write(image, outputStream);
+                break;
         }
     }
 
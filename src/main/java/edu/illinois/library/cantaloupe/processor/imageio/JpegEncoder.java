@@ -0,0 +1,38 @@
+package edu.illinois.library.cantaloupe.processor.imageio;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <p>Alternative to ImageIO for encoding JPEGs, for use by
+ * {@link JpegImageWriter}.</p>
+ *
+ * <p>Encoders are not expected to be able to embed metadata. When there is
+ * metadata to embed, or when no encoder is
+ * {@link JpegEncoderFactory#ENCODER_CONFIG_KEY configured} or
+ * {@link #isAvailable() available}, ImageIO is used instead.</p>
+ *
+ * <p>Implementations must be thread-safe and have a public no-argument
+ * constructor.</p>
+ */
+interface JpegEncoder {
+
+    /**
+     * @return Whether the encoder can be used in the current environment,
+     *         for example whether a native library that it depends on could
+     *         be loaded.
+     */
+    boolean isAvailable();
+
+    /**
+     * @param image Image to encode, which will not have an alpha channel.
+     * @param quality Quality between 0 and 1.
+     * @param progressive Whether to write a progressive JPEG.
+     * @param outputStream Stream to write the JPEG to. Will not be closed.
+     * @throws IOException
+     */
+    void encode(BufferedImage image, float quality, boolean progressive,
+                OutputStream outputStream) throws IOException;
+
+}
@@ -0,0 +1,72 @@
+package edu.illinois.library.cantaloupe.processor.imageio;
+
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides access to the {@link JpegEncoder} specified in the application
+ * configuration.
+ */
+abstract class JpegEncoderFactory {
+
+    private static Logger logger = LoggerFactory.
+            getLogger(JpegEncoderFactory.class);
+
+    /**
+     * Simple name of a {@link JpegEncoder} implementation in this package.
+     * When blank, ImageIO is used.
+     */
+    static final String ENCODER_CONFIG_KEY = "processor.jpg.encoder";
+
+    /** Instance of the encoder named by {@link #encoderName}, or null. */
+    private static JpegEncoder encoder;
+
+    /** Value of {@link #ENCODER_CONFIG_KEY} that was last resolved. */
+    private static String encoderName = "";
+
+    /**
+     * <p>This method respects live changes in application configuration.</p>
+     *
+     * @return The shared instance of the configured encoder, or null if none
+     *         is configured, or the configured one does not exist or is not
+     *         available, in which case ImageIO should be used.
+     */
+    static synchronized JpegEncoder getEncoder() {
+        final String name = ConfigurationFactory.getInstance().
+                getString(ENCODER_CONFIG_KEY, "");
+        if (!name.equals(encoderName)) {
+            encoderName = name;
+            encoder = newEncoder(name);
+        }
+        return encoder;
+    }
+
+    /**
+     * @param name Simple class name.
+     * @return New available instance, or null.
+     */
+    private static JpegEncoder newEncoder(String name) {
+        if (name.length() < 1) {
+            return null;
+        }
+        final String className = JpegEncoderFactory.class.getPackage().
+                getName() + "." + name;
+        try {
+            final Class<?> class_ = Class.forName(className);
+            final JpegEncoder newEncoder = (JpegEncoder) class_.newInstance();
+            if (newEncoder.isAvailable()) {
+                logger.info("newEncoder(): using {}", name);
+                return newEncoder;
+            }
+            logger.warn("newEncoder(): {} is not available; falling back " +
+                    "to ImageIO", name);
+        } catch (ClassNotFoundException | ClassCastException |
+                InstantiationException | IllegalAccessException e) {
+            logger.error("newEncoder(): unsupported value for {}: {}",
+                    ENCODER_CONFIG_KEY, name);
+        }
+        return null;
+    }
+
+}
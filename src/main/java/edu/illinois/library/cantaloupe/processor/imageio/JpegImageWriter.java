@@ -3,12 +3,15 @@ package edu.illinois.library.cantaloupe.processor.imageio;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
 import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.MetadataCopy;
 import edu.illinois.library.cantaloupe.image.OperationList;
 import edu.illinois.library.cantaloupe.processor.Java2dUtil;
+import edu.illinois.library.cantaloupe.util.Stopwatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.w3c.dom.Node;
 
 import javax.imageio.IIOImage;
-import javax.imageio.ImageIO;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.metadata.IIOMetadata;
@@ -21,14 +24,17 @@ import java.awt.image.BufferedImage;
 import java.awt.image.renderable.ParameterBlock;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Iterator;
 
 /**
- * JPEG image writer using ImageIO, capable of writing both Java 2D
- * {@link BufferedImage}s and JAI {@link PlanarImage}s as JPEGs.
+ * JPEG image writer using ImageIO, or a {@link JpegEncoder} if one is
+ * configured, capable of writing both Java 2D {@link BufferedImage}s and JAI
+ * {@link PlanarImage}s as JPEGs.
  */
 class JpegImageWriter extends AbstractImageWriter {
 
+    private static Logger logger = LoggerFactory.
+            getLogger(JpegImageWriter.class);
+
     static final String JAVA2D_JPG_QUALITY_CONFIG_KEY =
             "Java2dProcessor.jpg.quality";
     static final String JAI_JPG_QUALITY_CONFIG_KEY =
@@ -89,6 +95,26 @@ class JpegImageWriter extends AbstractImageWriter {
         }
     }
 
+    /**
+     * @return Encoder to use instead of ImageIO, or null if ImageIO should be
+     *         used.
+     */
+    private JpegEncoder getEncoder() {
+        // Encoders can't embed metadata.
+        if (sourceMetadata != null && opList.contains(MetadataCopy.class)) {
+            return null;
+        }
+        return JpegEncoderFactory.getEncoder();
+    }
+
+    /**
+     * @return Whether to write a progressive JPEG.
+     */
+    private boolean isProgressive() {
+        return edu.illinois.library.cantaloupe.processor.imageio.ImageWriter.
+                isProgressive(Format.JPG);
+    }
+
     private ImageWriteParam getJaiWriteParam(ImageWriter writer) {
         final Configuration config = ConfigurationFactory.getInstance();
         final ImageWriteParam writeParam = writer.getDefaultWriteParam();
@@ -96,6 +122,9 @@ class JpegImageWriter extends AbstractImageWriter {
         writeParam.setCompressionQuality(config.
                 getFloat(JAI_JPG_QUALITY_CONFIG_KEY, 0.7f));
         writeParam.setCompressionType("JPEG");
+        if (isProgressive()) {
+            writeParam.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
         return writeParam;
     }
 
@@ -106,6 +135,9 @@ class JpegImageWriter extends AbstractImageWriter {
         writeParam.setCompressionQuality(config.
                 getFloat(JAVA2D_JPG_QUALITY_CONFIG_KEY, 0.7f));
         writeParam.setCompressionType("JPEG");
+        if (isProgressive()) {
+            writeParam.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
         return writeParam;
     }
 
@@ -118,23 +150,38 @@ class JpegImageWriter extends AbstractImageWriter {
      */
     void write(BufferedImage image, final OutputStream outputStream)
             throws IOException {
-        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(
-                Format.JPG.getPreferredMediaType().toString());
-        final ImageWriter writer = writers.next();
+        final Stopwatch watch = new Stopwatch();
+        // JPEG doesn't support alpha, so convert to RGB or else the
+        // client will interpret as CMYK
+        image = Java2dUtil.removeAlpha(image);
+
+        final JpegEncoder encoder = getEncoder();
+        if (encoder != null) {
+            encoder.encode(image, ConfigurationFactory.getInstance().
+                    getFloat(JAVA2D_JPG_QUALITY_CONFIG_KEY, 0.7f),
+                    isProgressive(), outputStream);
+            logger.debug("write(): encoded {}x{} image with {} in {} msec",
+                    image.getWidth(), image.getHeight(),
+                    encoder.getClass().getSimpleName(), watch.timeElapsed());
+            return;
+        }
+
+        final ImageWriter writer =
+                ImageIOPool.getInstance().borrowWriter(Format.JPG);
         try {
-            // JPEG doesn't support alpha, so convert to RGB or else the
-            // client will interpret as CMYK
-            image = Java2dUtil.removeAlpha(image);
             final ImageWriteParam writeParam = getJava2dWriteParam(writer);
             final ImageOutputStream os =
-                    ImageIO.createImageOutputStream(outputStream);
+                    new StreamingImageOutputStream(outputStream);
             writer.setOutput(os);
             final IIOMetadata metadata = getMetadata(writer, writeParam,
                     image);
             final IIOImage iioImage = new IIOImage(image, null, metadata);
             writer.write(null, iioImage, writeParam);
+            os.flush();
+            logger.debug("write(): encoded {}x{} image with ImageIO in {} msec",
+                    image.getWidth(), image.getHeight(), watch.timeElapsed());
         } finally {
-            writer.dispose();
+            ImageIOPool.getInstance().returnWriter(writer);
         }
     }
 
@@ -148,20 +195,33 @@ class JpegImageWriter extends AbstractImageWriter {
     @SuppressWarnings({"deprecation"})
     void write(PlanarImage image, OutputStream outputStream)
             throws IOException {
-        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(
-                Format.JPG.getPreferredMediaType().toString());
-        final ImageWriter writer = writers.next();
+        final Stopwatch watch = new Stopwatch();
+        // JPEGImageWriter will interpret a >3-band image as CMYK.
+        // So, select only the first 3 bands.
+        if (OpImage.getExpandedNumBands(image.getSampleModel(),
+                image.getColorModel()) == 4) {
+            ParameterBlock pb = new ParameterBlock();
+            pb.addSource(image);
+            final int[] bands = {0, 1, 2};
+            pb.add(bands);
+            image = JAI.create("bandselect", pb, null);
+        }
+
+        final JpegEncoder encoder = getEncoder();
+        if (encoder != null) {
+            encoder.encode(image.getAsBufferedImage(),
+                    ConfigurationFactory.getInstance().
+                            getFloat(JAI_JPG_QUALITY_CONFIG_KEY, 0.7f),
+                    isProgressive(), outputStream);
+            logger.debug("write(): encoded {}x{} image with {} in {} msec",
+                    image.getWidth(), image.getHeight(),
+                    encoder.getClass().getSimpleName(), watch.timeElapsed());
+            return;
+        }
+
+        final ImageWriter writer =
+                ImageIOPool.getInstance().borrowWriter(Format.JPG);
         try {
-            // JPEGImageWriter will interpret a >3-band image as CMYK.
-            // So, select only the first 3 bands.
-            if (OpImage.getExpandedNumBands(image.getSampleModel(),
-                    image.getColorModel()) == 4) {
-                ParameterBlock pb = new ParameterBlock();
-                pb.addSource(image);
-                final int[] bands = {0, 1, 2};
-                pb.add(bands);
-                image = JAI.create("bandselect", pb, null);
-            }
             final ImageWriteParam writeParam = getJaiWriteParam(writer);
             final IIOMetadata metadata = getMetadata(writer, writeParam, image);
             // JPEGImageWriter doesn't like RenderedOps, so give it
@@ -169,11 +229,14 @@ class JpegImageWriter extends AbstractImageWriter {
             final IIOImage iioImage = new IIOImage(
                     image.getAsBufferedImage(), null, metadata);
             final ImageOutputStream os =
-                    ImageIO.createImageOutputStream(outputStream);
+                    new StreamingImageOutputStream(outputStream);
             writer.setOutput(os);
             writer.write(null, iioImage, writeParam);
+            os.flush();
+            logger.debug("write(): encoded {}x{} image with ImageIO in {} msec",
+                    image.getWidth(), image.getHeight(), watch.timeElapsed());
         } finally {
-            writer.dispose();
+            ImageIOPool.getInstance().returnWriter(writer);
         }
     }
 
@@ -5,17 +5,17 @@ import edu.illinois.library.cantaloupe.image.OperationList;
 import org.w3c.dom.NodeList;
 
 import javax.imageio.IIOImage;
-import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.metadata.IIOMetadataNode;
 import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 import javax.media.jai.PlanarImage;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Iterator;
 import java.util.List;
 import java.util.zip.DeflaterOutputStream;
 
@@ -106,6 +106,20 @@ class PngImageWriter extends AbstractImageWriter {
         return deflated.toByteArray();
     }
 
+    /**
+     * @param writer Writer to obtain parameters for.
+     * @return Write parameters respecting the application configuration.
+     */
+    private ImageWriteParam getWriteParam(ImageWriter writer) {
+        final ImageWriteParam writeParam = writer.getDefaultWriteParam();
+        if (edu.illinois.library.cantaloupe.processor.imageio.ImageWriter.
+                isProgressive(Format.PNG)) {
+            // Adam7 interlacing.
+            writeParam.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        }
+        return writeParam;
+    }
+
     /**
      * Writes a Java 2D {@link BufferedImage} to the given output stream.
      *
@@ -115,19 +129,23 @@ class PngImageWriter extends AbstractImageWriter {
      */
     void write(BufferedImage image,
                final OutputStream outputStream) throws IOException {
-        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(
-                Format.PNG.getPreferredMediaType().toString());
-        final ImageWriter writer = writers.next();
+        final ImageWriter writer =
+                ImageIOPool.getInstance().borrowWriter(Format.PNG);
         try {
+            final ImageWriteParam writeParam = getWriteParam(writer);
             final IIOMetadata metadata = getMetadata(
-                    writer, writer.getDefaultWriteParam(), image);
+                    writer, writeParam, image);
             final IIOImage iioImage = new IIOImage(image, null, metadata);
+            // The PNG writer flushes the stream after every IDAT chunk, so
+            // a MemoryCacheImageOutputStream will pass the image through to
+            // outputStream as it is being written.
             final ImageOutputStream os =
-                    ImageIO.createImageOutputStream(outputStream);
+                    new MemoryCacheImageOutputStream(outputStream);
             writer.setOutput(os);
-            writer.write(iioImage);
+            writer.write(null, iioImage, writeParam);
+            os.flush();
         } finally {
-            writer.dispose();
+            ImageIOPool.getInstance().returnWriter(writer);
         }
     }
 
@@ -140,19 +158,23 @@ class PngImageWriter extends AbstractImageWriter {
      */
     void write(PlanarImage image,
                OutputStream outputStream) throws IOException {
-        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByMIMEType(
-                Format.PNG.getPreferredMediaType().toString());
-        final ImageWriter writer = writers.next();
+        final ImageWriter writer =
+                ImageIOPool.getInstance().borrowWriter(Format.PNG);
         try {
+            final ImageWriteParam writeParam = getWriteParam(writer);
             final IIOMetadata metadata = getMetadata(
-                    writer, writer.getDefaultWriteParam(), image);
+                    writer, writeParam, image);
             final IIOImage iioImage = new IIOImage(image, null, metadata);
+            // The PNG writer flushes the stream after every IDAT chunk, so
+            // a MemoryCacheImageOutputStream will pass the image through to
+            // outputStream as it is being written.
             final ImageOutputStream os =
-                    ImageIO.createImageOutputStream(outputStream);
+                    new MemoryCacheImageOutputStream(outputStream);
             writer.setOutput(os);
-            writer.write(iioImage);
+            writer.write(null, iioImage, writeParam);
+            os.flush();
         } finally {
-            writer.dispose();
+            ImageIOPool.getInstance().returnWriter(writer);
         }
     }
 
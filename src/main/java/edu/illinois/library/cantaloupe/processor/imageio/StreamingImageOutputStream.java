@@ -0,0 +1,64 @@
+package edu.illinois.library.cantaloupe.processor.imageio;
+
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <p>Image output stream that passes data through to, and flushes, the
+ * underlying stream whenever at least a chunk's worth of it has accumulated.
+ * This enables clients to receive the beginning of an image, such as the
+ * first scans of a progressive JPEG, while the rest of it is still being
+ * encoded.</p>
+ *
+ * <p>(By contrast, {@link javax.imageio.ImageIO#createImageOutputStream}
+ * may return a stream that caches the whole image in a temporary file until
+ * it is flushed.)</p>
+ *
+ * <p>Flushed data can no longer be seeked to, so this stream must only be
+ * used with writers that never seek backward, such as the JPEG writer.</p>
+ */
+class StreamingImageOutputStream extends MemoryCacheImageOutputStream {
+
+    static final int DEFAULT_CHUNK_SIZE = 65536;
+
+    private final int chunkSize;
+
+    /**
+     * @param outputStream Stream to write to. Will not be closed.
+     */
+    StreamingImageOutputStream(OutputStream outputStream) {
+        this(outputStream, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param outputStream Stream to write to. Will not be closed.
+     * @param chunkSize Number of bytes to accumulate before passing them
+     *                  through.
+     */
+    StreamingImageOutputStream(OutputStream outputStream, int chunkSize) {
+        super(outputStream);
+        this.chunkSize = chunkSize;
+    }
+
+    private void flushChunk() throws IOException {
+        final long position = getStreamPosition();
+        if (position - getFlushedPosition() >= chunkSize) {
+            // This also flushes the underlying stream.
+            flushBefore(position);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        super.write(b);
+        flushChunk();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        flushChunk();
+    }
+
+}
@@ -15,14 +15,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.NodeList;
 
-import javax.imageio.ImageIO;
 import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.metadata.IIOMetadataNode;
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.Iterator;
 import java.util.Set;
 
 class TiffImageReader extends AbstractImageReader {
@@ -52,23 +50,11 @@ class TiffImageReader extends AbstractImageReader {
             throw new IOException("No source set.");
         }
 
-        Iterator<javax.imageio.ImageReader> it = ImageIO.getImageReadersByMIMEType(
-                Format.TIF.getPreferredMediaType().toString());
-        while (it.hasNext()) {
-            iioReader = it.next();
-            // This version contains improvements over the Sun version,
-            // namely support for BigTIFF.
-            if (iioReader instanceof it.geosolutions.imageioimpl.plugins.tiff.TIFFImageReader) {
-                break;
-            }
-        }
-        if (iioReader != null) {
-            iioReader.setInput(inputStream);
-            logger.info("createReader(): using {}", iioReader.getClass().getName());
-        } else {
-            throw new IOException("Unable to determine the format of the " +
-                    "source image.");
-        }
+        // The pool prefers the GeoSolutions reader, which contains
+        // improvements over the Sun version, namely support for BigTIFF.
+        iioReader = ImageIOPool.getInstance().borrowReader(Format.TIF);
+        iioReader.setInput(inputStream);
+        logger.info("createReader(): using {}", iioReader.getClass().getName());
     }
 
     @Override
@@ -22,7 +22,6 @@ import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Iterator;
 
 /**
  * TIFF image writer using ImageIO, capable of taking both Java 2D
@@ -159,25 +158,20 @@ class TiffImageWriter extends AbstractImageWriter {
      */
     void write(BufferedImage image, final OutputStream outputStream)
             throws IOException {
-        final Iterator<ImageWriter> it = ImageIO.getImageWritersByMIMEType(
-                Format.TIF.getPreferredMediaType().toString());
-        while (it.hasNext()) {
-            final ImageWriter writer = it.next();
-            if (writer instanceof it.geosolutions.imageioimpl.plugins.tiff.TIFFImageWriter) {
-                try {
-                    final ImageWriteParam writeParam = getJava2dWriteParam(writer);
-                    final IIOMetadata metadata = getMetadata(writer, writeParam, image);
-                    final IIOImage iioImage = new IIOImage(image, null, metadata);
-                    final ImageOutputStream ios =
-                            ImageIO.createImageOutputStream(outputStream);
-                    writer.setOutput(ios);
-                    writer.write(metadata, iioImage, writeParam);
-                    ios.flush(); // http://stackoverflow.com/a/14489406
-                } finally {
-                    writer.dispose();
-                }
-                break;
-            }
+        // The pool prefers the GeoSolutions writer, which supports BigTIFF.
+        final ImageWriter writer =
+                ImageIOPool.getInstance().borrowWriter(Format.TIF);
+        try {
+            final ImageWriteParam writeParam = getJava2dWriteParam(writer);
+            final IIOMetadata metadata = getMetadata(writer, writeParam, image);
+            final IIOImage iioImage = new IIOImage(image, null, metadata);
+            final ImageOutputStream ios =
+                    ImageIO.createImageOutputStream(outputStream);
+            writer.setOutput(ios);
+            writer.write(metadata, iioImage, writeParam);
+            ios.flush(); // http://stackoverflow.com/a/14489406
+        } finally {
+            ImageIOPool.getInstance().returnWriter(writer);
         }
     }
 
@@ -190,25 +184,20 @@ class TiffImageWriter extends AbstractImageWriter {
      */
     void write(PlanarImage image, OutputStream outputStream)
             throws IOException {
-        final Iterator<ImageWriter> it = ImageIO.getImageWritersByMIMEType(
-                Format.TIF.getPreferredMediaType().toString());
-        while (it.hasNext()) {
-            final ImageWriter writer = it.next();
-            if (writer instanceof it.geosolutions.imageioimpl.plugins.tiff.TIFFImageWriter) {
-                try {
-                    final ImageWriteParam writeParam = getJaiWriteParam(writer);
-                    final IIOMetadata metadata = getMetadata(writer, writeParam, image);
-                    final IIOImage iioImage = new IIOImage(image, null, metadata);
-                    final ImageOutputStream ios =
-                            ImageIO.createImageOutputStream(outputStream);
-                    writer.setOutput(ios);
-                    writer.write(null, iioImage, writeParam);
-                    ios.flush(); // http://stackoverflow.com/a/14489406
-                } finally {
-                    writer.dispose();
-                }
-                break;
-            }
+        // The pool prefers the GeoSolutions writer, which supports BigTIFF.
+        final ImageWriter writer =
+                ImageIOPool.getInstance().borrowWriter(Format.TIF);
+        try {
+            final ImageWriteParam writeParam = getJaiWriteParam(writer);
+            final IIOMetadata metadata = getMetadata(writer, writeParam, image);
+            final IIOImage iioImage = new IIOImage(image, null, metadata);
+            final ImageOutputStream ios =
+                    ImageIO.createImageOutputStream(outputStream);
+            writer.setOutput(ios);
+            writer.write(null, iioImage, writeParam);
+            ios.flush(); // http://stackoverflow.com/a/14489406
+        } finally {
+            ImageIOPool.getInstance().returnWriter(writer);
         }
     }
 
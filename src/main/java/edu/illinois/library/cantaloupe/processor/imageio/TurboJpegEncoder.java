@@ -0,0 +1,157 @@
+package edu.illinois.library.cantaloupe.processor.imageio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <p>Encodes JPEGs using the Java binding of
+ * <a href="http://libjpeg-turbo.org">libjpeg-turbo</a> (TurboJPEG), which
+ * compresses directly from the image raster using SIMD-accelerated code.</p>
+ *
+ * <p>The binding (<code>turbojpeg.jar</code>) is not a dependency of the
+ * application; it is accessed reflectively, and the encoder is only
+ * {@link #isAvailable() available} if both it and its native library
+ * (<code>libturbojpeg</code>, on the <code>java.library.path</code>) can be
+ * loaded.</p>
+ */
+class TurboJpegEncoder implements JpegEncoder {
+
+    private static Logger logger = LoggerFactory.
+            getLogger(TurboJpegEncoder.class);
+
+    private static final String COMPRESSOR_CLASS_NAME =
+            "org.libjpegturbo.turbojpeg.TJCompressor";
+    private static final String TJ_CLASS_NAME =
+            "org.libjpegturbo.turbojpeg.TJ";
+
+    /** Value of <code>TJ.FLAG_PROGRESSIVE</code>. */
+    private static final int FLAG_PROGRESSIVE = 16384;
+    /** Value of <code>TJ.SAMP_420</code>. */
+    private static final int SAMP_420 = 2;
+    /** Value of <code>TJ.SAMP_GRAY</code>. */
+    private static final int SAMP_GRAY = 3;
+
+    /**
+     * Image types that <code>TJCompressor.setSourceImage()</code> can read
+     * directly. Others are converted to {@link BufferedImage#TYPE_INT_RGB}.
+     */
+    private static final Set<Integer> SUPPORTED_IMAGE_TYPES =
+            new HashSet<>(Arrays.asList(
+                    BufferedImage.TYPE_3BYTE_BGR,
+                    BufferedImage.TYPE_BYTE_GRAY,
+                    BufferedImage.TYPE_INT_BGR,
+                    BufferedImage.TYPE_INT_RGB));
+
+    private static Class<?> compressorClass;
+    private static Method closeMethod;
+    private static Method compressMethod;
+    private static Method getCompressedSizeMethod;
+    private static Method setJPEGQualityMethod;
+    private static Method setSourceImageMethod;
+    private static Method setSubsampMethod;
+
+    private static Boolean isAvailable;
+
+    /**
+     * Loads the binding and its native library, and looks up the methods
+     * that will be needed.
+     *
+     * @return Whether this was successful.
+     */
+    private static synchronized boolean load() {
+        if (isAvailable == null) {
+            try {
+                // The TJ class loads the native library in its static
+                // initializer.
+                Class.forName(TJ_CLASS_NAME);
+                compressorClass = Class.forName(COMPRESSOR_CLASS_NAME);
+                setSourceImageMethod = compressorClass.getMethod(
+                        "setSourceImage", BufferedImage.class, int.class,
+                        int.class, int.class, int.class);
+                setSubsampMethod = compressorClass.getMethod(
+                        "setSubsamp", int.class);
+                setJPEGQualityMethod = compressorClass.getMethod(
+                        "setJPEGQuality", int.class);
+                compressMethod = compressorClass.getMethod(
+                        "compress", int.class);
+                getCompressedSizeMethod = compressorClass.getMethod(
+                        "getCompressedSize");
+                closeMethod = compressorClass.getMethod("close");
+                isAvailable = true;
+            } catch (ClassNotFoundException | NoSuchMethodException |
+                    LinkageError e) {
+                logger.info("load(): TurboJPEG is not available: {}",
+                        e.toString());
+                isAvailable = false;
+            }
+        }
+        return isAvailable;
+    }
+
+    /**
+     * @param image Image to encode.
+     * @return The given image, if TurboJPEG can read it directly, or else a
+     *         {@link BufferedImage#TYPE_INT_RGB} copy.
+     */
+    private static BufferedImage toSupportedImage(BufferedImage image) {
+        if (SUPPORTED_IMAGE_TYPES.contains(image.getType())) {
+            return image;
+        }
+        final BufferedImage rgbImage = new BufferedImage(image.getWidth(),
+                image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2d = rgbImage.createGraphics();
+        g2d.drawImage(image, 0, 0, null);
+        g2d.dispose();
+        return rgbImage;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return load();
+    }
+
+    @Override
+    public void encode(BufferedImage image, float quality,
+                       boolean progressive,
+                       OutputStream outputStream) throws IOException {
+        if (!load()) {
+            throw new IOException("TurboJPEG is not available.");
+        }
+        image = toSupportedImage(image);
+        final int intQuality =
+                Math.max(1, Math.min(100, Math.round(quality * 100)));
+        try {
+            final Object compressor = compressorClass.newInstance();
+            try {
+                setSourceImageMethod.invoke(compressor, image, 0, 0,
+                        image.getWidth(), image.getHeight());
+                setSubsampMethod.invoke(compressor,
+                        (image.getType() == BufferedImage.TYPE_BYTE_GRAY) ?
+                                SAMP_GRAY : SAMP_420);
+                setJPEGQualityMethod.invoke(compressor, intQuality);
+                final byte[] buffer = (byte[]) compressMethod.invoke(
+                        compressor, progressive ? FLAG_PROGRESSIVE : 0);
+                final int size =
+                        (Integer) getCompressedSizeMethod.invoke(compressor);
+                outputStream.write(buffer, 0, size);
+            } finally {
+                closeMethod.invoke(compressor);
+            }
+        } catch (InvocationTargetException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+}
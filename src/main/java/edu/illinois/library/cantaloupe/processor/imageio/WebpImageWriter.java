@@ -0,0 +1,147 @@
+package edu.illinois.library.cantaloupe.processor.imageio;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import javax.media.jai.PlanarImage;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * <p>WebP image writer using ImageIO, capable of taking both Java 2D
+ * {@link BufferedImage}s and JAI {@link PlanarImage}s and writing them as
+ * WebPs.</p>
+ *
+ * <p>The JDK does not include a WebP writer, so this class requires a WebP
+ * ImageIO plugin, such as
+ * <a href="https://github.com/lonnyj/webp-imageio">webp-imageio</a>, to be
+ * present on the classpath. WebP is only a supported output format when one
+ * is.</p>
+ */
+class WebpImageWriter extends AbstractImageWriter {
+
+    private static Logger logger = LoggerFactory.
+            getLogger(WebpImageWriter.class);
+
+    static final String JAI_WEBP_COMPRESSION_CONFIG_KEY =
+            "JaiProcessor.webp.compression";
+    static final String JAI_WEBP_QUALITY_CONFIG_KEY =
+            "JaiProcessor.webp.quality";
+    static final String JAVA2D_WEBP_COMPRESSION_CONFIG_KEY =
+            "Java2dProcessor.webp.compression";
+    static final String JAVA2D_WEBP_QUALITY_CONFIG_KEY =
+            "Java2dProcessor.webp.quality";
+
+    WebpImageWriter(OperationList opList) {
+        super(opList);
+    }
+
+    WebpImageWriter(OperationList opList,
+                    Metadata sourceMetadata) {
+        super(opList, sourceMetadata);
+    }
+
+    /**
+     * No-op; metadata is not embedded in WebPs.
+     */
+    @Override
+    protected void addMetadata(final IIOMetadataNode baseNode) {}
+
+    /**
+     * @param writer Writer to obtain parameters for.
+     * @param compressionKey Key of the compression type (e.g.
+     *                       <code>Lossy</code> or <code>Lossless</code>) in
+     *                       the application configuration.
+     * @param qualityKey Key of the quality in the application configuration.
+     * @return Write parameters respecting the application configuration.
+     */
+    private ImageWriteParam getWriteParam(ImageWriter writer,
+                                          String compressionKey,
+                                          String qualityKey) {
+        final ImageWriteParam writeParam = writer.getDefaultWriteParam();
+        if (!writeParam.canWriteCompressed()) {
+            return writeParam;
+        }
+        final Configuration config = ConfigurationFactory.getInstance();
+        writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+
+        final String compressionType = config.getString(compressionKey);
+        final String[] compressionTypes = writeParam.getCompressionTypes();
+        if (compressionType != null && compressionTypes != null) {
+            if (Arrays.asList(compressionTypes).contains(compressionType)) {
+                writeParam.setCompressionType(compressionType);
+            } else {
+                logger.warn("getWriteParam(): unsupported value for {}: {} " +
+                                "(supported values are {})", compressionKey,
+                        compressionType, Arrays.toString(compressionTypes));
+            }
+        }
+        if (writeParam.getCompressionType() == null &&
+                compressionTypes != null && compressionTypes.length > 0) {
+            writeParam.setCompressionType(compressionTypes[0]);
+        }
+        writeParam.setCompressionQuality(config.getFloat(qualityKey, 0.8f));
+        return writeParam;
+    }
+
+    /**
+     * Writes a Java 2D {@link BufferedImage} to the given output stream.
+     *
+     * @param image Image to write
+     * @param outputStream Stream to write the image to
+     * @throws IOException
+     */
+    void write(BufferedImage image, OutputStream outputStream)
+            throws IOException {
+        write(image, outputStream, JAVA2D_WEBP_COMPRESSION_CONFIG_KEY,
+                JAVA2D_WEBP_QUALITY_CONFIG_KEY);
+    }
+
+    /**
+     * Writes a JAI {@link PlanarImage} to the given output stream.
+     *
+     * @param image Image to write
+     * @param outputStream Stream to write the image to
+     * @throws IOException
+     */
+    void write(PlanarImage image, OutputStream outputStream)
+            throws IOException {
+        write(image, outputStream, JAI_WEBP_COMPRESSION_CONFIG_KEY,
+                JAI_WEBP_QUALITY_CONFIG_KEY);
+    }
+
+    private void write(RenderedImage image, OutputStream outputStream,
+                       String compressionKey, String qualityKey)
+            throws IOException {
+        final ImageWriter writer =
+                ImageIOPool.getInstance().borrowWriter(Format.WEBP);
+        try {
+            final ImageWriteParam writeParam =
+                    getWriteParam(writer, compressionKey, qualityKey);
+            final IIOImage iioImage = new IIOImage(image, null, null);
+            // Plugins may seek backward to fill in the RIFF chunk sizes, so
+            // the output is cached in memory until it has been written.
+            final ImageOutputStream os =
+                    new MemoryCacheImageOutputStream(outputStream);
+            writer.setOutput(os);
+            writer.write(null, iioImage, writeParam);
+            os.flush();
+        } finally {
+            ImageIOPool.getInstance().returnWriter(writer);
+        }
+    }
+
+}
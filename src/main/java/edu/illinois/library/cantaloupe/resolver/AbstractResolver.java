@@ -3,14 +3,84 @@ package edu.illinois.library.cantaloupe.resolver;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 
+import java.io.IOException;
+
 abstract class AbstractResolver {
 
     protected Identifier identifier;
     protected Format sourceFormat;
+    /**
+     * Source version of a {@link VersionedResolver}, if known. Subclasses
+     * should set it whenever they happen to obtain it, e.g. in
+     * {@link #readSourceFormat()}.
+     */
+    protected String sourceVersion;
+
+    /**
+     * Returns the source format, reading it with {@link #readSourceFormat()}
+     * the first time it is needed and recording it in the
+     * {@link ResolutionCache}.
+     *
+     * @see Resolver#getSourceFormat()
+     */
+    public Format getSourceFormat() throws IOException {
+        if (sourceFormat == null) {
+            sourceFormat = readSourceFormat();
+            putResolution();
+        }
+        return sourceFormat;
+    }
+
+    /**
+     * Records the source format and version in the {@link ResolutionCache}.
+     * {@link VersionedResolver}s that have to read the version separately
+     * should call this afterwards.
+     */
+    protected void putResolution() {
+        if (sourceFormat != null) {
+            ResolutionCache.getInstance().put(identifier,
+                    new ResolutionCache.Resolution(
+                            getClass().getSimpleName(), sourceFormat,
+                            sourceVersion));
+        }
+    }
+
+    /**
+     * Determines the format of the source image corresponding to the
+     * identifier, which must also involve checking that it exists and is
+     * accessible.
+     *
+     * @return Source format, or {@link Format#UNKNOWN} if unknown; never
+     *         null.
+     * @throws IOException See {@link Resolver#getSourceFormat()}.
+     */
+    protected abstract Format readSourceFormat() throws IOException;
 
     public void setIdentifier(Identifier identifier) {
         this.identifier = identifier;
         this.sourceFormat = null;
+        this.sourceVersion = null;
+    }
+
+    /**
+     * Sets a source format that is already known, e.g. from the
+     * {@link ResolutionCache}, so that {@link #getSourceFormat()} does not
+     * need to read it.
+     *
+     * @param sourceFormat
+     */
+    void setSourceFormat(Format sourceFormat) {
+        this.sourceFormat = sourceFormat;
+    }
+
+    /**
+     * Sets a source version that is already known, e.g. from the
+     * {@link ResolutionCache}.
+     *
+     * @param sourceVersion Source version, or null if unknown.
+     */
+    void setSourceVersion(String sourceVersion) {
+        this.sourceVersion = sourceVersion;
     }
 
 }
@@ -7,6 +7,7 @@ import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import edu.illinois.library.cantaloupe.config.Configuration;
@@ -15,6 +16,7 @@ import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.script.DelegateScriptDisabledException;
 import edu.illinois.library.cantaloupe.script.ScriptEngine;
 import edu.illinois.library.cantaloupe.script.ScriptEngineFactory;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,27 +38,101 @@ import java.io.IOException;
  * directly to S3 object keys. ScriptLookupStrategy invokes a delegate method
  * to retrieve object keys dynamically.</p>
  *
+ * <h3>Chunking</h3>
+ *
+ * <p>When {@link #CHUNKING_ENABLED_CONFIG_KEY} is <code>true</code>,
+ * {@link StreamSource#newImageInputStream()} will return a seekable stream
+ * that fetches objects in chunks using ranged GET requests, so that readers
+ * that support random access, such as the TIFF reader, need only download the
+ * parts of the object they need.</p>
+ *
  * @see <a href="http://docs.aws.amazon.com/AWSSdkDocsJava/latest/DeveloperGuide/welcome.html">
  *     AWS SDK for Java</a>
  */
-class AmazonS3Resolver extends AbstractResolver implements StreamResolver {
+class AmazonS3Resolver extends AbstractResolver
+        implements StreamResolver, VersionedResolver {
+
+    /**
+     * Reads byte ranges of an S3 object using ranged GET requests.
+     */
+    private static class AmazonS3RangeReader implements RangeReader {
+
+        private final String bucketName;
+        private final String objectKey;
+        private final long length;
+
+        AmazonS3RangeReader(String bucketName, String objectKey,
+                            long length) {
+            this.bucketName = bucketName;
+            this.objectKey = objectKey;
+            this.length = length;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public void read(long offset, byte[] buffer, int bufferOffset,
+                         int length) throws IOException {
+            final GetObjectRequest request =
+                    new GetObjectRequest(bucketName, objectKey);
+            request.setRange(offset, offset + length - 1);
+            try (S3ObjectInputStream is =
+                         getClientInstance().getObject(request).getObjectContent()) {
+                IOUtils.readFully(is, buffer, bufferOffset, length);
+            } catch (AmazonS3Exception e) {
+                throw new IOException(e);
+            }
+        }
 
-    private static class AmazonS3StreamSource implements StreamSource {
+    }
 
-        private final S3Object object;
+    private static class AmazonS3StreamSource implements RangedStreamSource {
 
-        AmazonS3StreamSource(S3Object object) {
-            this.object = object;
+        private final String bucketName;
+        private final String objectKey;
+        private final long length;
+
+        AmazonS3StreamSource(String bucketName, String objectKey,
+                             long length) {
+            this.bucketName = bucketName;
+            this.objectKey = objectKey;
+            this.length = length;
         }
 
+        /**
+         * @return If {@link #CHUNKING_ENABLED_CONFIG_KEY} is
+         *         <code>true</code>, a {@link RangedImageInputStream} that
+         *         fetches only the parts of the object that are actually
+         *         read. Otherwise, a stream wrapping
+         *         {@link #newInputStream()}.
+         */
         @Override
         public ImageInputStream newImageInputStream() throws IOException {
+            final Configuration config = ConfigurationFactory.getInstance();
+            if (config.getBoolean(CHUNKING_ENABLED_CONFIG_KEY, false)) {
+                final int chunkSize = config.getInt(
+                        CHUNK_SIZE_CONFIG_KEY, DEFAULT_CHUNK_SIZE) * 1024;
+                final int maxChunks = config.getInt(
+                        CHUNK_CACHE_MAX_CHUNKS_CONFIG_KEY,
+                        DEFAULT_CHUNK_CACHE_MAX_CHUNKS);
+                return new RangedImageInputStream(
+                        new AmazonS3RangeReader(bucketName, objectKey, length),
+                        chunkSize, maxChunks);
+            }
             return ImageIO.createImageInputStream(newInputStream());
         }
 
         @Override
         public S3ObjectInputStream newInputStream() throws IOException {
-            return object.getObjectContent();
+            return fetchObject(bucketName, objectKey).getObjectContent();
+        }
+
+        @Override
+        public RangeReader newRangeReader() {
+            return new AmazonS3RangeReader(bucketName, objectKey, length);
         }
 
     }
@@ -70,6 +146,12 @@ class AmazonS3Resolver extends AbstractResolver implements StreamResolver {
             "AmazonS3Resolver.bucket.name";
     static final String BUCKET_REGION_CONFIG_KEY =
             "AmazonS3Resolver.bucket.region";
+    static final String CHUNK_CACHE_MAX_CHUNKS_CONFIG_KEY =
+            "AmazonS3Resolver.chunking.cache.max_chunks";
+    static final String CHUNK_SIZE_CONFIG_KEY =
+            "AmazonS3Resolver.chunking.chunk_size";
+    static final String CHUNKING_ENABLED_CONFIG_KEY =
+            "AmazonS3Resolver.chunking.enabled";
     static final String ENDPOINT_CONFIG_KEY = "AmazonS3Resolver.endpoint";
     static final String LOOKUP_STRATEGY_CONFIG_KEY =
             "AmazonS3Resolver.lookup_strategy";
@@ -78,6 +160,10 @@ class AmazonS3Resolver extends AbstractResolver implements StreamResolver {
     static final String GET_KEY_DELEGATE_METHOD =
             "AmazonS3Resolver::get_object_key";
 
+    /** Default chunk size in kilobytes. */
+    private static final int DEFAULT_CHUNK_SIZE = 512;
+    private static final int DEFAULT_CHUNK_CACHE_MAX_CHUNKS = 32;
+
     private static AmazonS3 client;
 
     /** Lock object for synchronization */
@@ -123,20 +209,43 @@ class AmazonS3Resolver extends AbstractResolver implements StreamResolver {
     }
 
     @Override
-    public StreamSource getStreamSource()
-            throws IOException {
-        return new AmazonS3StreamSource(getObject());
+    public StreamSource getStreamSource() throws IOException {
+        final String objectKey = getObjectKey();
+        final ObjectMetadata metadata = getObjectMetadata(objectKey);
+        return new AmazonS3StreamSource(getBucketName(), objectKey,
+                metadata.getContentLength());
+    }
+
+    /**
+     * @return Last-modified time, length and ETag of the object, from the
+     *         metadata obtained by {@link #readSourceFormat()} or the
+     *         {@link ResolutionCache} if possible, and otherwise with a HEAD
+     *         request.
+     */
+    @Override
+    public String getSourceVersion() throws IOException {
+        if (sourceVersion == null) {
+            sourceVersion = getVersion(getObjectMetadata(getObjectKey()));
+            putResolution();
+        }
+        return sourceVersion;
     }
 
-    private S3Object getObject() throws IOException {
-        AmazonS3 s3 = getClientInstance();
+    private static String getVersion(ObjectMetadata metadata) {
+        return metadata.getLastModified() + ":" +
+                metadata.getContentLength() + ":" + metadata.getETag();
+    }
 
-        Configuration config = ConfigurationFactory.getInstance();
-        final String bucketName = config.getString(BUCKET_NAME_CONFIG_KEY);
-        logger.info("Using bucket: {}", bucketName);
-        final String objectKey = getObjectKey();
+    private static String getBucketName() {
+        final Configuration config = ConfigurationFactory.getInstance();
+        return config.getString(BUCKET_NAME_CONFIG_KEY);
+    }
+
+    private static S3Object fetchObject(String bucketName, String objectKey)
+            throws IOException {
+        final AmazonS3 s3 = getClientInstance();
         try {
-            logger.info("Requesting {}", objectKey);
+            logger.info("Requesting {} from bucket {}", objectKey, bucketName);
             return s3.getObject(new GetObjectRequest(bucketName, objectKey));
         } catch (AmazonS3Exception e) {
             if (e.getErrorCode().equals("NoSuchKey")) {
@@ -147,6 +256,32 @@ class AmazonS3Resolver extends AbstractResolver implements StreamResolver {
         }
     }
 
+    /**
+     * Issues a HEAD request for the object, which checks its existence
+     * without opening a stream to its content.
+     *
+     * @param objectKey Key of the object.
+     * @return Object metadata.
+     * @throws FileNotFoundException If the object does not exist.
+     * @throws IOException If there is some other issue.
+     */
+    private ObjectMetadata getObjectMetadata(String objectKey)
+            throws IOException {
+        final AmazonS3 s3 = getClientInstance();
+        final String bucketName = getBucketName();
+        try {
+            logger.info("Requesting metadata of {} from bucket {}",
+                    objectKey, bucketName);
+            return s3.getObjectMetadata(bucketName, objectKey);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                throw new FileNotFoundException(e.getMessage());
+            } else {
+                throw new IOException(e);
+            }
+        }
+    }
+
     private String getObjectKey() throws IOException {
         final Configuration config = ConfigurationFactory.getInstance();
         switch (config.getString(LOOKUP_STRATEGY_CONFIG_KEY)) {
@@ -185,20 +320,20 @@ class AmazonS3Resolver extends AbstractResolver implements StreamResolver {
     }
 
     @Override
-    public Format getSourceFormat() throws IOException {
-        if (sourceFormat == null) {
-            S3Object object = getObject();
-            String contentType = object.getObjectMetadata().getContentType();
-            // See if we can determine the format from the Content-Type header.
-            if (contentType != null) {
-                sourceFormat = Format.inferFormat(contentType);
-            }
-            if (sourceFormat == null || sourceFormat.equals(Format.UNKNOWN)) {
-                // Try to infer a format based on the identifier.
-                sourceFormat = Format.inferFormat(identifier);
-            }
+    protected Format readSourceFormat() throws IOException {
+        Format format = null;
+        final ObjectMetadata metadata = getObjectMetadata(getObjectKey());
+        sourceVersion = getVersion(metadata);
+        final String contentType = metadata.getContentType();
+        // See if we can determine the format from the Content-Type header.
+        if (contentType != null) {
+            format = Format.inferFormat(contentType);
+        }
+        if (format == null || format.equals(Format.UNKNOWN)) {
+            // Try to infer a format based on the identifier.
+            format = Format.inferFormat(identifier);
         }
-        return sourceFormat;
+        return format;
     }
 
 }
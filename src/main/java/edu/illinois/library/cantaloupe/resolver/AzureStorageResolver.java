@@ -3,6 +3,7 @@ package edu.illinois.library.cantaloupe.resolver;
 import com.microsoft.azure.storage.CloudStorageAccount;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.BlobInputStream;
+import com.microsoft.azure.storage.blob.BlobProperties;
 import com.microsoft.azure.storage.blob.CloudBlobClient;
 import com.microsoft.azure.storage.blob.CloudBlobContainer;
 import com.microsoft.azure.storage.blob.CloudBlockBlob;
@@ -18,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import javax.imageio.ImageIO;
 import javax.imageio.stream.ImageInputStream;
 import javax.script.ScriptException;
+import java.io.EOFException;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -35,12 +37,56 @@ import java.security.InvalidKeyException;
  * directly to blob keys. ScriptLookupStrategy invokes a delegate method to
  * retrieve blob keys dynamically.</p>
  *
+ * <h3>Chunking</h3>
+ *
+ * <p>When {@link #CHUNKING_ENABLED_CONFIG_KEY} is <code>true</code>,
+ * {@link StreamSource#newImageInputStream()} will return a seekable stream
+ * that fetches blobs in chunks using ranged GET requests, so that readers
+ * that support random access, such as the TIFF reader, need only download the
+ * parts of the blob they need.</p>
+ *
  * @see <a href="https://github.com/azure/azure-storage-java">
  *     Microsoft Azure Storage DSK for Java</a>
  */
-class AzureStorageResolver extends AbstractResolver implements StreamResolver {
+class AzureStorageResolver extends AbstractResolver
+        implements StreamResolver, VersionedResolver {
 
-    private static class AzureStorageStreamSource implements StreamSource {
+    /**
+     * Reads byte ranges of a blob using ranged GET requests.
+     */
+    private static class AzureStorageRangeReader implements RangeReader {
+
+        private final CloudBlockBlob blob;
+
+        AzureStorageRangeReader(CloudBlockBlob blob) {
+            this.blob = blob;
+        }
+
+        @Override
+        public long getLength() {
+            return blob.getProperties().getLength();
+        }
+
+        @Override
+        public void read(long offset, byte[] buffer, int bufferOffset,
+                         int length) throws IOException {
+            try {
+                final int numRead = blob.downloadRangeToByteArray(
+                        offset, (long) length, buffer, bufferOffset);
+                if (numRead < length) {
+                    throw new EOFException("Expected " + length +
+                            " bytes at offset " + offset + " but got " +
+                            numRead);
+                }
+            } catch (StorageException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+    }
+
+    private static class AzureStorageStreamSource
+            implements RangedStreamSource {
 
         private final CloudBlockBlob blob;
 
@@ -48,8 +94,25 @@ class AzureStorageResolver extends AbstractResolver implements StreamResolver {
             this.blob = blob;
         }
 
+        /**
+         * @return If {@link #CHUNKING_ENABLED_CONFIG_KEY} is
+         *         <code>true</code>, a {@link RangedImageInputStream} that
+         *         fetches only the parts of the blob that are actually read.
+         *         Otherwise, a stream wrapping {@link #newInputStream()}.
+         */
         @Override
         public ImageInputStream newImageInputStream() throws IOException {
+            final Configuration config = ConfigurationFactory.getInstance();
+            if (config.getBoolean(CHUNKING_ENABLED_CONFIG_KEY, false)) {
+                final int chunkSize = config.getInt(
+                        CHUNK_SIZE_CONFIG_KEY, DEFAULT_CHUNK_SIZE) * 1024;
+                final int maxChunks = config.getInt(
+                        CHUNK_CACHE_MAX_CHUNKS_CONFIG_KEY,
+                        DEFAULT_CHUNK_CACHE_MAX_CHUNKS);
+                return new RangedImageInputStream(
+                        new AzureStorageRangeReader(blob),
+                        chunkSize, maxChunks);
+            }
             return ImageIO.createImageInputStream(newInputStream());
         }
 
@@ -62,6 +125,11 @@ class AzureStorageResolver extends AbstractResolver implements StreamResolver {
             }
         }
 
+        @Override
+        public RangeReader newRangeReader() {
+            return new AzureStorageRangeReader(blob);
+        }
+
     }
 
     private static Logger logger = LoggerFactory.
@@ -71,6 +139,12 @@ class AzureStorageResolver extends AbstractResolver implements StreamResolver {
             "AzureStorageResolver.account_key";
     static final String ACCOUNT_NAME_CONFIG_KEY =
             "AzureStorageResolver.account_name";
+    static final String CHUNK_CACHE_MAX_CHUNKS_CONFIG_KEY =
+            "AzureStorageResolver.chunking.cache.max_chunks";
+    static final String CHUNK_SIZE_CONFIG_KEY =
+            "AzureStorageResolver.chunking.chunk_size";
+    static final String CHUNKING_ENABLED_CONFIG_KEY =
+            "AzureStorageResolver.chunking.enabled";
     static final String CONTAINER_NAME_CONFIG_KEY =
             "AzureStorageResolver.container_name";
     static final String LOOKUP_STRATEGY_CONFIG_KEY =
@@ -79,6 +153,10 @@ class AzureStorageResolver extends AbstractResolver implements StreamResolver {
     static final String GET_KEY_DELEGATE_METHOD =
             "AzureStorageResolver::get_blob_key";
 
+    /** Default chunk size in kilobytes. */
+    private static final int DEFAULT_CHUNK_SIZE = 512;
+    private static final int DEFAULT_CHUNK_CACHE_MAX_CHUNKS = 32;
+
     private static CloudBlobClient client;
 
     /** Lock object for synchronization */
@@ -114,6 +192,25 @@ class AzureStorageResolver extends AbstractResolver implements StreamResolver {
         return new AzureStorageStreamSource(getObject());
     }
 
+    /**
+     * @return Last-modified time, length and ETag of the blob, from the
+     *         properties obtained by {@link #readSourceFormat()} or the
+     *         {@link ResolutionCache} if possible.
+     */
+    @Override
+    public String getSourceVersion() throws IOException {
+        if (sourceVersion == null) {
+            sourceVersion = getVersion(getObject().getProperties());
+            putResolution();
+        }
+        return sourceVersion;
+    }
+
+    private static String getVersion(BlobProperties properties) {
+        return properties.getLastModified() + ":" +
+                properties.getLength() + ":" + properties.getEtag();
+    }
+
     private CloudBlockBlob getObject() throws IOException {
         final Configuration config = ConfigurationFactory.getInstance();
         final String containerName = config.getString(CONTAINER_NAME_CONFIG_KEY);
@@ -174,20 +271,20 @@ class AzureStorageResolver extends AbstractResolver implements StreamResolver {
     }
 
     @Override
-    public Format getSourceFormat() throws IOException {
-        if (sourceFormat == null) {
-            final CloudBlockBlob blob = getObject();
-            final String contentType = blob.getProperties().getContentType();
-            // See if we can determine the format from the Content-Type header.
-            if (contentType != null) {
-                sourceFormat = Format.inferFormat(contentType);
-            }
-            if (sourceFormat == null || sourceFormat.equals(Format.UNKNOWN)) {
-                // Try to infer a format based on the identifier.
-                sourceFormat = Format.inferFormat(identifier);
-            }
+    protected Format readSourceFormat() throws IOException {
+        Format format = null;
+        final CloudBlockBlob blob = getObject();
+        sourceVersion = getVersion(blob.getProperties());
+        final String contentType = blob.getProperties().getContentType();
+        // See if we can determine the format from the Content-Type header.
+        if (contentType != null) {
+            format = Format.inferFormat(contentType);
+        }
+        if (format == null || format.equals(Format.UNKNOWN)) {
+            // Try to infer a format based on the identifier.
+            format = Format.inferFormat(identifier);
         }
-        return sourceFormat;
+        return format;
     }
 
 }
@@ -0,0 +1,35 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Convenience class that provides a {@link StreamSource} for a byte array,
+ * which, unlike {@link InputStreamStreamSource}, can be read any number of
+ * times.
+ */
+public class ByteArrayStreamSource implements StreamSource {
+
+    private final byte[] bytes;
+
+    /**
+     * @param bytes Bytes to read. Must not be modified afterwards.
+     */
+    public ByteArrayStreamSource(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public ImageInputStream newImageInputStream() throws IOException {
+        return ImageIO.createImageInputStream(newInputStream());
+    }
+
+    @Override
+    public InputStream newInputStream() throws IOException {
+        return new ByteArrayInputStream(bytes);
+    }
+
+}
@@ -0,0 +1,34 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import javax.imageio.stream.FileImageInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Convenience class that provides a {@link StreamSource} for a {@link File},
+ * which is also available to processors that can make use of it directly.
+ */
+public class FileStreamSource implements StreamSource {
+
+    private final File file;
+
+    public FileStreamSource(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public FileImageInputStream newImageInputStream() throws IOException {
+        return new FileImageInputStream(file);
+    }
+
+    @Override
+    public FileInputStream newInputStream() throws IOException {
+        return new FileInputStream(file);
+    }
+
+}
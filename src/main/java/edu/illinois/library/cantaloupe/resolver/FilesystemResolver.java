@@ -12,10 +12,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.imageio.stream.FileImageInputStream;
 import javax.script.ScriptException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.AccessDeniedException;
@@ -44,26 +42,6 @@ import java.util.Collection;
 class FilesystemResolver extends AbstractResolver
         implements StreamResolver, FileResolver {
 
-    private static class FilesystemStreamSource implements StreamSource {
-
-        private final File file;
-
-        FilesystemStreamSource(File file) {
-            this.file = file;
-        }
-
-        @Override
-        public FileImageInputStream newImageInputStream() throws IOException {
-            return new FileImageInputStream(file);
-        }
-
-        @Override
-        public FileInputStream newInputStream() throws IOException {
-            return new FileInputStream(file);
-        }
-
-    }
-
     private static Logger logger = LoggerFactory.
             getLogger(FilesystemResolver.class);
 
@@ -83,7 +61,7 @@ class FilesystemResolver extends AbstractResolver
 
     @Override
     public StreamSource getStreamSource() throws IOException {
-        return new FilesystemStreamSource(getFile());
+        return new FileStreamSource(getFile());
     }
 
     @Override
@@ -161,16 +139,14 @@ class FilesystemResolver extends AbstractResolver
     }
 
     @Override
-    public Format getSourceFormat() throws IOException {
-        if (sourceFormat == null) {
-            final File file = new File(getPathname(File.separator));
-            checkAccess(file);
-            sourceFormat = Format.inferFormat(identifier);
-            if (sourceFormat.equals(Format.UNKNOWN)) {
-                sourceFormat = detectSourceFormat();
-            }
+    protected Format readSourceFormat() throws IOException {
+        final File file = new File(getPathname(File.separator));
+        checkAccess(file);
+        Format format = Format.inferFormat(identifier);
+        if (format.equals(Format.UNKNOWN)) {
+            format = detectSourceFormat();
         }
-        return sourceFormat;
+        return format;
     }
 
     private void checkAccess(File file)
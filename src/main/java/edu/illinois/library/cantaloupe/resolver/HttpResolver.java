@@ -7,13 +7,17 @@ import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.script.DelegateScriptDisabledException;
 import edu.illinois.library.cantaloupe.script.ScriptEngine;
 import edu.illinois.library.cantaloupe.script.ScriptEngineFactory;
+import org.apache.commons.io.IOUtils;
 import org.restlet.Client;
 import org.restlet.data.ChallengeScheme;
+import org.restlet.data.Header;
 import org.restlet.data.Protocol;
+import org.restlet.data.Range;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
 import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
+import org.restlet.util.Series;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,9 +50,53 @@ import java.util.Arrays;
  * concatenating a pre-defined URL prefix and/or suffix. ScriptLookupStrategy
  * invokes a delegate method to retrieve a URL dynamically.</p>
  */
-class HttpResolver extends AbstractResolver implements StreamResolver {
+class HttpResolver extends AbstractResolver
+        implements StreamResolver, VersionedResolver {
 
-    private static class HttpStreamSource implements StreamSource {
+    /**
+     * Reads byte ranges of a resource using GET requests with a Range header.
+     */
+    private static class HttpRangeReader implements RangeReader {
+
+        private final Client client;
+        private final long length;
+        private final Reference url;
+
+        HttpRangeReader(Client client, Reference url, long length) {
+            this.client = client;
+            this.url = url;
+            this.length = length;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public void read(long offset, byte[] buffer, int bufferOffset,
+                         int length) throws IOException {
+            final ClientResource resource = newClientResource(url);
+            resource.setNext(client);
+            resource.getRequest().getRanges().add(new Range(offset, length));
+            try (InputStream is = resource.get().getStream()) {
+                // A server that ignores the Range header would send the whole
+                // resource, which would be wrong.
+                if (!Status.SUCCESS_PARTIAL_CONTENT.equals(resource.getStatus())) {
+                    throw new IOException("Expected a 206 response from " +
+                            url + " but got " + resource.getStatus());
+                }
+                IOUtils.readFully(is, buffer, bufferOffset, length);
+            } catch (ResourceException e) {
+                throw new IOException(e.getMessage(), e);
+            } finally {
+                resource.release();
+            }
+        }
+
+    }
+
+    private static class HttpStreamSource implements RangedStreamSource {
 
         private final Client client;
         private final Reference url;
@@ -76,6 +124,35 @@ class HttpResolver extends AbstractResolver implements StreamResolver {
             }
         }
 
+        /**
+         * Issues a HEAD request to check whether the server supports range
+         * requests for the resource.
+         *
+         * @return New reader, or null if the server does not advertise
+         *         support for byte ranges, or does not report the length of
+         *         the resource.
+         */
+        @Override
+        public RangeReader newRangeReader() throws IOException {
+            ClientResource resource = newClientResource(url);
+            resource.setNext(client);
+            try {
+                final long length = resource.head().getSize();
+                final String acceptRanges = resource.getResponse().
+                        getHeaders().getFirstValue("Accept-Ranges", true);
+                if ("bytes".equals(acceptRanges) && length > 0) {
+                    return new HttpRangeReader(client, url, length);
+                }
+                logger.debug("newRangeReader(): {} does not support range " +
+                        "requests", url);
+                return null;
+            } catch (ResourceException e) {
+                throw new IOException(e.getMessage(), e);
+            } finally {
+                resource.release();
+            }
+        }
+
     }
 
     private static Logger logger = LoggerFactory.getLogger(HttpResolver.class);
@@ -124,8 +201,10 @@ class HttpResolver extends AbstractResolver implements StreamResolver {
         resource.setNext(client);
         try {
             // Issue an HTTP HEAD request to check whether the underlying
-            // resource is accessible.
+            // resource is accessible, and take the opportunity to record its
+            // version.
             resource.head();
+            sourceVersion = getVersion(resource.getResponse().getHeaders());
             return new HttpStreamSource(client, url);
         } catch (ResourceException e) {
             if (e.getStatus().equals(Status.CLIENT_ERROR_NOT_FOUND) ||
@@ -141,16 +220,53 @@ class HttpResolver extends AbstractResolver implements StreamResolver {
         }
     }
 
+    /**
+     * Issues an HTTP HEAD request for the resource, unless the version is
+     * already known from {@link #getStreamSource()} (which
+     * {@link #readSourceFormat()} invokes) or the {@link ResolutionCache}.
+     *
+     * @return Values of the <code>ETag</code>, <code>Last-Modified</code> and
+     *         <code>Content-Length</code> headers of the response, some of
+     *         which may be null.
+     */
     @Override
-    public Format getSourceFormat() throws IOException {
-        if (sourceFormat == null) {
-            sourceFormat = Format.inferFormat(identifier);
-            if (sourceFormat == Format.UNKNOWN) {
-                sourceFormat = getSourceFormatFromContentTypeHeader();
+    public String getSourceVersion() throws IOException {
+        if (sourceVersion != null) {
+            return sourceVersion;
+        }
+        final Reference url = getUrl();
+        final ClientResource resource = newClientResource(url);
+        resource.setNext(client);
+        try {
+            resource.head();
+            sourceVersion = getVersion(resource.getResponse().getHeaders());
+            putResolution();
+            return sourceVersion;
+        } catch (ResourceException e) {
+            if (e.getStatus().equals(Status.CLIENT_ERROR_NOT_FOUND) ||
+                    e.getStatus().equals(Status.CLIENT_ERROR_GONE)) {
+                throw new FileNotFoundException(e.getMessage());
             }
-            getStreamSource().newInputStream(); // throws IOException if not found etc.
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            resource.release();
         }
-        return sourceFormat;
+    }
+
+    private static String getVersion(Series<Header> headers) {
+        return headers.getFirstValue("ETag", true) + ":" +
+                headers.getFirstValue("Last-Modified", true) + ":" +
+                headers.getFirstValue("Content-Length", true);
+    }
+
+    @Override
+    protected Format readSourceFormat() throws IOException {
+        Format format = Format.inferFormat(identifier);
+        if (format == Format.UNKNOWN) {
+            format = getSourceFormatFromContentTypeHeader();
+        }
+        getStreamSource().newInputStream(); // throws IOException if not found etc.
+        return format;
     }
 
     public Reference getUrl() throws IOException {
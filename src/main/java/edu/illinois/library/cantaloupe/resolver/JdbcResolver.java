@@ -4,18 +4,24 @@ import com.zaxxer.hikari.HikariDataSource;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
 import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.script.DelegateScriptDisabledException;
 import edu.illinois.library.cantaloupe.script.ScriptEngine;
 import edu.illinois.library.cantaloupe.script.ScriptEngineFactory;
+import edu.illinois.library.cantaloupe.util.ExpiringLruMap;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.imageio.ImageIO;
 import javax.imageio.stream.ImageInputStream;
 import javax.script.ScriptException;
+import java.io.Closeable;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.sql.Blob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -28,31 +34,186 @@ import java.sql.SQLException;
  * delegate methods must be implemented in order to obtain the information
  * needed to run the SQL queries.</p>
  *
+ * <p>The BLOB is looked up with a single query, which may optionally select
+ * the media type as a second column, in which case no separate media type
+ * query is needed. When {@link ResolutionCache#ENABLED_CONFIG_KEY} is
+ * <code>true</code>, lookup results are cached per identifier, so that repeat
+ * requests need only one query to read the BLOB.</p>
+ *
  * <p>JDBC drivers are the client's responsibility. A JDBC driver is required
  * and not included.</p>
  */
-class JdbcResolver extends AbstractResolver implements StreamResolver {
+class JdbcResolver extends AbstractResolver
+        implements StreamResolver, VersionedResolver {
 
-    private static class JdbcStreamSource implements StreamSource {
+    /**
+     * Result of looking up the BLOB corresponding to an identifier.
+     */
+    private static class Lookup {
+
+        private final String databaseIdentifier;
+        private final long length;
+        private final String mediaType;
+        private final String sql;
+
+        /**
+         * @param sql Lookup SQL.
+         * @param databaseIdentifier Value to bind to the SQL parameter.
+         * @param length Length of the BLOB.
+         * @param mediaType Media type from the optional second column of the
+         *                  result, or null.
+         */
+        Lookup(String sql, String databaseIdentifier, long length,
+               String mediaType) {
+            this.sql = sql;
+            this.databaseIdentifier = databaseIdentifier;
+            this.length = length;
+            this.mediaType = mediaType;
+        }
 
-        private final int column;
+    }
+
+    /**
+     * Holds the result of executing a {@link Lookup} on its own pooled
+     * connection, and releases all of them when closed.
+     */
+    private static class LookupResult implements Closeable {
+
+        private final Blob blob;
+        private final Connection connection;
         private final ResultSet resultSet;
+        private final PreparedStatement statement;
+
+        LookupResult(Lookup lookup) throws IOException {
+            try {
+                connection = getConnection();
+                statement = connection.prepareStatement(lookup.sql);
+                statement.setString(1, lookup.databaseIdentifier);
+                resultSet = statement.executeQuery();
+                if (!resultSet.next()) {
+                    close();
+                    throw new FileNotFoundException(
+                            "Not found: " + lookup.databaseIdentifier);
+                }
+                blob = resultSet.getBlob(1);
+            } catch (SQLException e) {
+                close();
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                if (statement != null) {
+                    statement.close();
+                }
+                if (connection != null) {
+                    connection.close();
+                }
+            } catch (SQLException e) {
+                logger.warn("close(): {}", e.getMessage());
+            }
+        }
+
+    }
+
+    /**
+     * Reads byte ranges of a BLOB using {@link Blob#getBinaryStream(long,
+     * long)}. The BLOB is selected on first use, and its connection is held
+     * until the instance is closed.
+     */
+    private static class JdbcRangeReader implements RangeReader, Closeable {
+
+        private final Lookup lookup;
+        private LookupResult result;
+
+        JdbcRangeReader(Lookup lookup) {
+            this.lookup = lookup;
+        }
+
+        @Override
+        public void close() {
+            if (result != null) {
+                result.close();
+                result = null;
+            }
+        }
+
+        @Override
+        public long getLength() {
+            return lookup.length;
+        }
+
+        @Override
+        public void read(long offset, byte[] buffer, int bufferOffset,
+                         int length) throws IOException {
+            if (result == null) {
+                result = new LookupResult(lookup);
+            }
+            // Blob positions are 1-based.
+            try (InputStream is =
+                         result.blob.getBinaryStream(offset + 1, length)) {
+                IOUtils.readFully(is, buffer, bufferOffset, length);
+            } catch (SQLException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+    }
 
-        JdbcStreamSource(ResultSet resultSet, int column) {
-            this.resultSet = resultSet;
-            this.column = column;
+    private static class JdbcStreamSource implements StreamSource {
+
+        private final Lookup lookup;
+
+        JdbcStreamSource(Lookup lookup) {
+            this.lookup = lookup;
         }
 
+        /**
+         * @return If {@link #CHUNKING_ENABLED_CONFIG_KEY} is
+         *         <code>true</code>, a {@link RangedImageInputStream} that
+         *         reads only the parts of the BLOB that are actually read.
+         *         Otherwise, a stream wrapping {@link #newInputStream()}.
+         */
         @Override
         public ImageInputStream newImageInputStream() throws IOException {
+            final Configuration config = ConfigurationFactory.getInstance();
+            if (config.getBoolean(CHUNKING_ENABLED_CONFIG_KEY, false)) {
+                final int chunkSize = config.getInt(
+                        CHUNK_SIZE_CONFIG_KEY, DEFAULT_CHUNK_SIZE) * 1024;
+                final int maxChunks = config.getInt(
+                        CHUNK_CACHE_MAX_CHUNKS_CONFIG_KEY,
+                        DEFAULT_CHUNK_CACHE_MAX_CHUNKS);
+                return new RangedImageInputStream(
+                        new JdbcRangeReader(lookup), chunkSize, maxChunks);
+            }
             return ImageIO.createImageInputStream(newInputStream());
         }
 
+        /**
+         * @return Stream that reads the BLOB, and releases its connection
+         *         when closed.
+         */
         @Override
         public InputStream newInputStream() throws IOException {
+            final LookupResult result = new LookupResult(lookup);
             try {
-                return resultSet.getBinaryStream(column);
+                return new FilterInputStream(result.blob.getBinaryStream()) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            result.close();
+                        }
+                    }
+                };
             } catch (SQLException e) {
+                result.close();
                 throw new IOException(e.getMessage(), e);
             }
         }
@@ -61,6 +222,12 @@ class JdbcResolver extends AbstractResolver implements StreamResolver {
 
     private static Logger logger = LoggerFactory.getLogger(JdbcResolver.class);
 
+    static final String CHUNK_CACHE_MAX_CHUNKS_CONFIG_KEY =
+            "JdbcResolver.chunking.cache.max_chunks";
+    static final String CHUNK_SIZE_CONFIG_KEY =
+            "JdbcResolver.chunking.chunk_size";
+    static final String CHUNKING_ENABLED_CONFIG_KEY =
+            "JdbcResolver.chunking.enabled";
     static final String CONNECTION_TIMEOUT_CONFIG_KEY =
             "JdbcResolver.connection_timeout";
     static final String JDBC_URL_CONFIG_KEY = "JdbcResolver.url";
@@ -76,8 +243,40 @@ class JdbcResolver extends AbstractResolver implements StreamResolver {
     static final String GET_MEDIA_TYPE_DELEGATE_METHOD =
             "JdbcResolver::get_media_type";
 
+    /** Default chunk size in kilobytes. */
+    private static final int DEFAULT_CHUNK_SIZE = 512;
+    private static final int DEFAULT_CHUNK_CACHE_MAX_CHUNKS = 32;
+
     private static HikariDataSource dataSource;
 
+    /** Cached lookups, keyed by identifier. */
+    private static final ExpiringLruMap<Identifier, Lookup> lookups =
+            new ExpiringLruMap<>(ConfigurationFactory.getInstance().getInt(
+                    ResolutionCache.MAX_SIZE_CONFIG_KEY,
+                    ResolutionCache.DEFAULT_MAX_SIZE));
+
+    /** Lookup of the current identifier, performed at most once. */
+    private Lookup lookup;
+
+    /**
+     * Removes all cached lookups. Invoked by
+     * {@link ResolutionCache#purge()}.
+     */
+    static void purge() {
+        lookups.clear();
+    }
+
+    /**
+     * Removes the cached lookup of the given identifier, if any. Invoked by
+     * {@link ResolutionCache#purge(Identifier)}, so that a BLOB that has been
+     * replaced is looked up again, rather than read with a stale length.
+     *
+     * @param identifier
+     */
+    static void purge(Identifier identifier) {
+        lookups.remove(identifier);
+    }
+
     /**
      * @return Connection from the connection pool. Clients must
      * <code>close()</code> it when they are done with it.
@@ -115,64 +314,145 @@ class JdbcResolver extends AbstractResolver implements StreamResolver {
 
     @Override
     public StreamSource getStreamSource() throws IOException {
-        try (Connection connection = getConnection()) {
+        return new JdbcStreamSource(lookup());
+    }
+
+    /**
+     * @return Length of the BLOB, which is all that is known about it
+     *         without reading it. It comes from the {@link #lookup() lookup},
+     *         which is shared with {@link #readSourceFormat()} and
+     *         {@link #getStreamSource()}, or the {@link ResolutionCache}.
+     */
+    @Override
+    public String getSourceVersion() throws IOException {
+        if (sourceVersion == null) {
+            sourceVersion = Long.toString(lookup().length);
+            putResolution();
+        }
+        return sourceVersion;
+    }
+
+    @Override
+    public void setIdentifier(Identifier identifier) {
+        super.setIdentifier(identifier);
+        this.lookup = null;
+    }
+
+    /**
+     * Looks up the BLOB corresponding to the identifier with a single query,
+     * which also checks that it exists. The result is reused for the life of
+     * the instance, and also cached across instances if
+     * {@link ResolutionCache#ENABLED_CONFIG_KEY} is <code>true</code>.
+     *
+     * @return Lookup result.
+     * @throws FileNotFoundException If the lookup query returns no rows.
+     * @throws IOException
+     */
+    private Lookup lookup() throws IOException {
+        if (lookup == null) {
+            lookup = getCachedLookup(identifier);
+            if (lookup == null) {
+                lookup = readLookup();
+                putCachedLookup(identifier, lookup);
+            }
+        }
+        return lookup;
+    }
+
+    private Lookup readLookup() throws IOException {
+        Lookup lookup;
+        try {
             final String sql = getLookupSql();
             if (!sql.contains("?")) {
                 throw new IOException(GET_LOOKUP_SQL_DELEGATE_METHOD +
                         " implementation does not support prepared statements");
             }
+            final String databaseIdentifier = getDatabaseIdentifier();
             logger.debug(sql);
 
-            PreparedStatement statement = connection.prepareStatement(sql);
-            statement.setString(1, getDatabaseIdentifier());
-            ResultSet result = statement.executeQuery();
-            if (result.next()) {
-                return new JdbcStreamSource(result, 1);
+            try (Connection connection = getConnection();
+                 PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setString(1, databaseIdentifier);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new FileNotFoundException(
+                                "Not found: " + databaseIdentifier);
+                    }
+                    final long length = resultSet.getBlob(1).length();
+                    final String mediaType =
+                            (resultSet.getMetaData().getColumnCount() > 1) ?
+                                    resultSet.getString(2) : null;
+                    lookup = new Lookup(sql, databaseIdentifier, length,
+                            mediaType);
+                }
             }
         } catch (ScriptException | SQLException |
                 DelegateScriptDisabledException e) {
             throw new IOException(e.getMessage(), e);
         }
-        throw new FileNotFoundException();
+        return lookup;
+    }
+
+    private static Lookup getCachedLookup(Identifier identifier) {
+        if (!ResolutionCache.isEnabled()) {
+            return null;
+        }
+        final long ttlMsec = 1000 * ConfigurationFactory.getInstance().
+                getLong(ResolutionCache.TTL_CONFIG_KEY,
+                        ResolutionCache.DEFAULT_TTL_SECONDS);
+        return lookups.get(identifier, ttlMsec);
     }
 
+    private static void putCachedLookup(Identifier identifier, Lookup lookup) {
+        if (ResolutionCache.isEnabled()) {
+            lookups.put(identifier, lookup);
+        }
+    }
+
+    /**
+     * <p>If the {@link #GET_MEDIA_TYPE_DELEGATE_METHOD} method returns a
+     * media type, uses that. If it returns an SQL statement, executes it to
+     * obtain the media type. If it returns nil, looks up the BLOB (which will
+     * be reused by {@link #getStreamSource()}) and uses the media type in the
+     * second column of the result, if present; otherwise infers it from the
+     * identifier.</p>
+     */
     @Override
-    public Format getSourceFormat() throws IOException {
-        if (sourceFormat == null) {
-            try {
-                // JdbcResolver.function.media_type may contain a JavaScript
-                // function or null.
-                String functionResult = getMediaType();
-                String mediaType = null;
-                if (functionResult != null) {
-                    // the function result may be a media type, or an SQL
-                    // statement to look it up.
-                    if (functionResult.toUpperCase().contains("SELECT") &&
-                            functionResult.toUpperCase().contains("FROM")) {
-                        logger.debug(functionResult);
-                        try (Connection connection = getConnection()) {
-                            PreparedStatement statement = connection.
-                                    prepareStatement(functionResult);
-                            statement.setString(1, getDatabaseIdentifier());
-                            ResultSet resultSet = statement.executeQuery();
+    protected Format readSourceFormat() throws IOException {
+        try {
+            final String functionResult = getMediaType();
+            String mediaType = null;
+            if (functionResult != null) {
+                // the function result may be a media type, or an SQL
+                // statement to look it up.
+                if (functionResult.toUpperCase().contains("SELECT") &&
+                        functionResult.toUpperCase().contains("FROM")) {
+                    logger.debug(functionResult);
+                    try (Connection connection = getConnection();
+                         PreparedStatement statement = connection.
+                                 prepareStatement(functionResult)) {
+                        statement.setString(1, getDatabaseIdentifier());
+                        try (ResultSet resultSet = statement.executeQuery()) {
                             if (resultSet.next()) {
                                 mediaType = resultSet.getString(1);
                             }
                         }
-                    } else {
-                        mediaType = functionResult;
                     }
                 } else {
+                    mediaType = functionResult;
+                }
+            } else {
+                mediaType = lookup().mediaType;
+                if (mediaType == null) {
                     mediaType = Format.inferFormat(identifier).
                             getPreferredMediaType().toString();
                 }
-                sourceFormat = Format.inferFormat(mediaType);
-            } catch (ScriptException | SQLException |
-                    DelegateScriptDisabledException e) {
-                throw new IOException(e.getMessage(), e);
             }
+            return Format.inferFormat(mediaType);
+        } catch (ScriptException | SQLException |
+                DelegateScriptDisabledException e) {
+            throw new IOException(e.getMessage(), e);
         }
-        return sourceFormat;
     }
 
     /**
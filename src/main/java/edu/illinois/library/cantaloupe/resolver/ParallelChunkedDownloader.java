@@ -0,0 +1,175 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Downloads a source image into a file by reading fixed-size chunks from a
+ * {@link RangeReader} concurrently, and writing each one to its position in
+ * the file using positional {@link FileChannel} writes.</p>
+ *
+ * <p>At most the given number of chunks are downloaded at once, so memory use
+ * is bounded by the number of threads times the chunk size.</p>
+ *
+ * <p>Chunks of all downloads are downloaded by a shared pool of daemon
+ * threads, whose size is set by {@link #POOL_SIZE_CONFIG_KEY}. When more
+ * chunks than that are being downloaded across all images, the rest wait for
+ * a thread.</p>
+ */
+public class ParallelChunkedDownloader {
+
+    private static Logger logger = LoggerFactory.
+            getLogger(ParallelChunkedDownloader.class);
+
+    static final String POOL_SIZE_CONFIG_KEY =
+            "cache.source.parallel_download.pool_size";
+
+    private static final int DEFAULT_POOL_SIZE = 16;
+
+    private static ExecutorService executorService;
+
+    private final int chunkSize;
+    private final int numThreads;
+    private final RangeReader reader;
+
+    /**
+     * @param reader Reader from which to read chunks.
+     * @param chunkSize Size of each chunk in bytes.
+     * @param numThreads Maximum number of chunks to download concurrently.
+     */
+    public ParallelChunkedDownloader(RangeReader reader, int chunkSize,
+                                     int numThreads) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("numThreads must be positive");
+        }
+        this.reader = reader;
+        this.chunkSize = chunkSize;
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * @return Shared pool of download threads, created the first time it is
+     *         needed. Idle threads are retired after a minute.
+     */
+    private static synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            int poolSize = ConfigurationFactory.getInstance().getInt(
+                    POOL_SIZE_CONFIG_KEY, DEFAULT_POOL_SIZE);
+            if (poolSize < 1) {
+                poolSize = DEFAULT_POOL_SIZE;
+            }
+            logger.info("Using up to {} download threads", poolSize);
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        private final AtomicInteger count =
+                                new AtomicInteger(0);
+
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            final Thread thread = new Thread(runnable,
+                                    "download-" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            executorService = executor;
+        }
+        return executorService;
+    }
+
+    /**
+     * Downloads the whole source image into the given channel, blocking until
+     * done.
+     *
+     * @param channel Channel to write to, starting at position 0.
+     * @throws IOException If any chunk fails to download or write, in which
+     *                     case the contents of the channel are undefined.
+     */
+    public void download(final FileChannel channel) throws IOException {
+        final long length = reader.getLength();
+        if (length < 1) {
+            return;
+        }
+        // Preallocate the file by writing its last byte.
+        channel.write(ByteBuffer.wrap(new byte[1]), length - 1);
+
+        final long numChunks = (length + chunkSize - 1) / chunkSize;
+        final AtomicLong nextChunk = new AtomicLong(0);
+        final List<Future<Void>> futures = new ArrayList<>();
+        final ExecutorService executorService = getExecutorService();
+
+        logger.debug("download(): downloading {} bytes in {} chunks " +
+                "using {} threads", length, numChunks, numThreads);
+
+        for (int i = 0; i < Math.min(numThreads, numChunks); i++) {
+            futures.add(executorService.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    long index;
+                    while ((index = nextChunk.getAndIncrement()) < numChunks &&
+                            !Thread.currentThread().isInterrupted()) {
+                        final long offset = index * chunkSize;
+                        final int size =
+                                (int) Math.min(chunkSize, length - offset);
+                        final byte[] chunk = new byte[size];
+                        reader.read(offset, chunk, 0, size);
+                        final ByteBuffer buffer = ByteBuffer.wrap(chunk);
+                        long position = offset;
+                        while (buffer.hasRemaining()) {
+                            position += channel.write(buffer, position);
+                        }
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        try {
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    private static void cancelAll(List<Future<Void>> futures) {
+        for (Future<Void> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import java.io.IOException;
+
+/**
+ * Reads arbitrary byte ranges from a source image, typically by issuing
+ * ranged GET requests to a remote storage service.
+ *
+ * @see RangedImageInputStream
+ */
+public interface RangeReader {
+
+    /**
+     * @return Total length of the source image in bytes.
+     * @throws IOException If the length cannot be determined.
+     */
+    long getLength() throws IOException;
+
+    /**
+     * Reads exactly <code>length</code> bytes beginning at
+     * <code>offset</code> into the given buffer.
+     *
+     * @param offset Offset in the source image at which to start reading.
+     * @param buffer Buffer to read into.
+     * @param bufferOffset Offset in the buffer at which to start writing.
+     * @param length Number of bytes to read.
+     * @throws IOException If the range cannot be read in full.
+     */
+    void read(long offset, byte[] buffer, int bufferOffset, int length)
+            throws IOException;
+
+}
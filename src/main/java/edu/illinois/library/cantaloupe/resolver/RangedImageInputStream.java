@@ -0,0 +1,143 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Seekable {@link javax.imageio.stream.ImageInputStream} that reads its
+ * source in fixed-size chunks via a {@link RangeReader}, fetching only the
+ * chunks that are actually read. Fetched chunks are kept in a bounded LRU
+ * cache.</p>
+ *
+ * <p>This enables readers that seek around within a file, like the ImageIO
+ * TIFF reader, to read e.g. a single tile out of a large pyramidal image
+ * without downloading everything that precedes it.</p>
+ *
+ * <p>If the {@link RangeReader} is {@link Closeable}, it will be closed
+ * along with the instance.</p>
+ *
+ * <p>Like all ImageInputStreams, instances are not thread-safe.</p>
+ */
+class RangedImageInputStream extends ImageInputStreamImpl {
+
+    private static Logger logger = LoggerFactory.
+            getLogger(RangedImageInputStream.class);
+
+    private final int chunkSize;
+    private final long length;
+    private final RangeReader reader;
+    private final Map<Long, byte[]> chunks;
+    private int numChunkFetches = 0;
+
+    /**
+     * @param reader Reader from which to read chunks.
+     * @param chunkSize Size of each chunk in bytes.
+     * @param maxCachedChunks Maximum number of chunks to keep in memory.
+     * @throws IOException If the length of the source cannot be determined.
+     */
+    RangedImageInputStream(RangeReader reader, int chunkSize,
+                           final int maxCachedChunks) throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        if (maxCachedChunks < 1) {
+            throw new IllegalArgumentException(
+                    "maxCachedChunks must be positive");
+        }
+        this.reader = reader;
+        this.chunkSize = chunkSize;
+        this.length = reader.getLength();
+        this.chunks = new LinkedHashMap<Long, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > maxCachedChunks;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+        chunks.clear();
+        if (reader instanceof Closeable) {
+            ((Closeable) reader).close();
+        }
+        logger.debug("close(): fetched {} chunk(s) of {} bytes",
+                numChunkFetches, chunkSize);
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    /**
+     * @return Number of chunks that have been fetched from the
+     *         {@link RangeReader} over the lifetime of the instance.
+     */
+    int getNumChunkFetches() {
+        return numChunkFetches;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        if (streamPos >= length) {
+            return -1;
+        }
+        final byte[] chunk = getChunk(streamPos / chunkSize);
+        final int b = chunk[(int) (streamPos % chunkSize)] & 0xff;
+        streamPos++;
+        bitOffset = 0;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (streamPos >= length) {
+            return -1;
+        }
+        len = (int) Math.min(len, length - streamPos);
+        int numRead = 0;
+        while (numRead < len) {
+            final byte[] chunk = getChunk(streamPos / chunkSize);
+            final int chunkOffset = (int) (streamPos % chunkSize);
+            final int count = Math.min(len - numRead,
+                    chunk.length - chunkOffset);
+            System.arraycopy(chunk, chunkOffset, b, off + numRead, count);
+            numRead += count;
+            streamPos += count;
+        }
+        bitOffset = 0;
+        return numRead;
+    }
+
+    private byte[] getChunk(long index) throws IOException {
+        byte[] chunk = chunks.get(index);
+        if (chunk == null) {
+            final long start = index * chunkSize;
+            final int size = (int) Math.min(chunkSize, length - start);
+            chunk = new byte[size];
+            logger.debug("getChunk(): fetching bytes {}-{}",
+                    start, start + size - 1);
+            reader.read(start, chunk, 0, size);
+            numChunkFetches++;
+            chunks.put(index, chunk);
+        }
+        return chunk;
+    }
+
+}
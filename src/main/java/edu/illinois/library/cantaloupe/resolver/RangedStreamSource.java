@@ -0,0 +1,18 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import java.io.IOException;
+
+/**
+ * {@link StreamSource} whose underlying source image also supports reading
+ * arbitrary byte ranges.
+ */
+public interface RangedStreamSource extends StreamSource {
+
+    /**
+     * @return New reader for reading byte ranges of the source image, or null
+     *         if the source image turns out not to support ranged reads.
+     * @throws IOException If there is any issue creating the reader.
+     */
+    RangeReader newRangeReader() throws IOException;
+
+}
@@ -0,0 +1,152 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.util.ExpiringLruMap;
+
+/**
+ * <p>Bounded, time-limited in-memory cache of identifier resolutions, shared
+ * across all resolvers.</p>
+ *
+ * <p>A resolution records which resolver an identifier was resolved by, and
+ * the source format it was found to have. When an identifier has a non-expired
+ * resolution, {@link ResolverFactory#getResolver(Identifier)} will return an
+ * instance of the same resolver without consulting the delegate script, and
+ * {@link Resolver#getSourceFormat()} will return the cached format without
+ * performing any I/O.</p>
+ *
+ * <p>For {@link VersionedResolver}s, a resolution also records the source
+ * version, if it was known, so that
+ * {@link VersionedResolver#getSourceVersion()} doesn't need another
+ * metadata request either.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public final class ResolutionCache {
+
+    /**
+     * Immutable record of an identifier resolution.
+     */
+    static final class Resolution {
+
+        private final Format format;
+        private final String resolverName;
+        private final String version;
+
+        Resolution(String resolverName, Format format) {
+            this(resolverName, format, null);
+        }
+
+        Resolution(String resolverName, Format format, String version) {
+            this.resolverName = resolverName;
+            this.format = format;
+            this.version = version;
+        }
+
+        Format getFormat() {
+            return format;
+        }
+
+        String getResolverName() {
+            return resolverName;
+        }
+
+        /**
+         * @return Source version from
+         *         {@link VersionedResolver#getSourceVersion()}, or null if
+         *         unknown.
+         */
+        String getVersion() {
+            return version;
+        }
+
+    }
+
+    static final String ENABLED_CONFIG_KEY = "resolver.cache.enabled";
+    static final String MAX_SIZE_CONFIG_KEY = "resolver.cache.max_size";
+    static final String TTL_CONFIG_KEY = "resolver.cache.ttl_seconds";
+
+    static final int DEFAULT_MAX_SIZE = 10000;
+    static final int DEFAULT_TTL_SECONDS = 300;
+
+    private static final ResolutionCache instance = new ResolutionCache();
+
+    private final ExpiringLruMap<Identifier,Resolution> resolutions =
+            new ExpiringLruMap<>(DEFAULT_MAX_SIZE);
+
+    /**
+     * @return The shared instance.
+     */
+    public static ResolutionCache getInstance() {
+        return instance;
+    }
+
+    private ResolutionCache() {}
+
+    /**
+     * @return Whether {@link #ENABLED_CONFIG_KEY} is <code>true</code>.
+     */
+    static boolean isEnabled() {
+        return ConfigurationFactory.getInstance().
+                getBoolean(ENABLED_CONFIG_KEY, false);
+    }
+
+    /**
+     * @param identifier
+     * @return Non-expired resolution of the given identifier, or null if the
+     *         cache is disabled or there is no such resolution.
+     */
+    Resolution get(Identifier identifier) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final long ttlMsec = 1000 * ConfigurationFactory.getInstance().
+                getLong(TTL_CONFIG_KEY, DEFAULT_TTL_SECONDS);
+        return resolutions.get(identifier, ttlMsec);
+    }
+
+    /**
+     * Adds a resolution. Does nothing if the cache is disabled.
+     *
+     * @param identifier
+     * @param resolution
+     */
+    void put(Identifier identifier, Resolution resolution) {
+        if (!isEnabled()) {
+            return;
+        }
+        final Configuration config = ConfigurationFactory.getInstance();
+        resolutions.setMaxSize(
+                config.getInt(MAX_SIZE_CONFIG_KEY, DEFAULT_MAX_SIZE));
+        resolutions.put(identifier, resolution);
+    }
+
+    /**
+     * Removes all resolutions, and any lookups cached by resolvers.
+     */
+    public void purge() {
+        resolutions.clear();
+        JdbcResolver.purge();
+    }
+
+    /**
+     * Removes the resolution of the given identifier, if one exists, and any
+     * lookups of it cached by resolvers.
+     *
+     * @param identifier
+     */
+    public void purge(Identifier identifier) {
+        resolutions.remove(identifier);
+        JdbcResolver.purge(identifier);
+    }
+
+    /**
+     * @return Number of resolutions in the cache, including expired ones.
+     */
+    int size() {
+        return resolutions.size();
+    }
+
+}
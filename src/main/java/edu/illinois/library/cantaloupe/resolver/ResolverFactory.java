@@ -64,6 +64,10 @@ public abstract class ResolverFactory {
      */
     public static Resolver getResolver(Identifier identifier) throws Exception {
         final Configuration config = ConfigurationFactory.getInstance();
+        final Resolver cachedResolver = newCachedResolver(identifier);
+        if (cachedResolver != null) {
+            return cachedResolver;
+        }
         if (getSelectionStrategy().equals(SelectionStrategy.DELEGATE_SCRIPT)) {
             Resolver resolver = newDynamicResolver(identifier);
             logger.info("{}() returned a {} for {}",
@@ -106,6 +110,42 @@ public abstract class ResolverFactory {
         return newResolver(resolverName, identifier);
     }
 
+    /**
+     * @param identifier Identifier to return a resolver for.
+     * @return Instance of the resolver recorded in the
+     *         {@link ResolutionCache} for the given identifier, with its
+     *         identifier, source format and (if known) source version
+     *         already set, or null if there is no usable resolution.
+     * @throws Exception
+     */
+    private static Resolver newCachedResolver(Identifier identifier)
+            throws Exception {
+        final ResolutionCache.Resolution resolution =
+                ResolutionCache.getInstance().get(identifier);
+        if (resolution == null) {
+            return null;
+        }
+        // If the static resolver has been changed, the resolution is stale.
+        if (getSelectionStrategy().equals(SelectionStrategy.STATIC) &&
+                !resolution.getResolverName().equals(
+                        ConfigurationFactory.getInstance().
+                                getString(STATIC_RESOLVER_CONFIG_KEY))) {
+            ResolutionCache.getInstance().purge(identifier);
+            return null;
+        }
+        logger.debug("Using cached resolution of {}: {} ({})", identifier,
+                resolution.getResolverName(), resolution.getFormat());
+        final Resolver resolver =
+                newResolver(resolution.getResolverName(), identifier);
+        if (resolver instanceof AbstractResolver) {
+            ((AbstractResolver) resolver).
+                    setSourceFormat(resolution.getFormat());
+            ((AbstractResolver) resolver).
+                    setSourceVersion(resolution.getVersion());
+        }
+        return resolver;
+    }
+
     private static Resolver newResolver(String name, Identifier identifier)
             throws Exception {
         Class class_ = Class.forName(ResolverFactory.class.getPackage().getName() +
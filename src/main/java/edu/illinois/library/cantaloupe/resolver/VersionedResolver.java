@@ -0,0 +1,24 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+/**
+ * Interface to be implemented by resolvers that can cheaply report a version
+ * of the source image, i.e. something that changes when the image is
+ * replaced, without reading its content. It is used to derive the entity
+ * tags of derivative images.
+ */
+public interface VersionedResolver extends Resolver {
+
+    /**
+     * @return String that changes whenever the source image corresponding to
+     *         the identifier set with {@link #setIdentifier} changes, such as
+     *         its last-modified time and length; never null.
+     * @throws FileNotFoundException If the image corresponding to the given
+     *                               identifier does not exist.
+     * @throws IOException If there is some other issue accessing the image.
+     */
+    String getSourceVersion() throws IOException;
+
+}
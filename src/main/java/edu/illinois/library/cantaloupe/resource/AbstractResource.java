@@ -1,12 +1,13 @@
 package edu.illinois.library.cantaloupe.resource;
 
 import edu.illinois.library.cantaloupe.Application;
+import edu.illinois.library.cantaloupe.WebApplication;
+import edu.illinois.library.cantaloupe.cache.Cache;
 import edu.illinois.library.cantaloupe.cache.CacheException;
 import edu.illinois.library.cantaloupe.cache.CacheFactory;
 import edu.illinois.library.cantaloupe.cache.DerivativeCache;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
-import edu.illinois.library.cantaloupe.image.MetadataCopy;
 import edu.illinois.library.cantaloupe.image.Operation;
 import edu.illinois.library.cantaloupe.image.redaction.Redaction;
 import edu.illinois.library.cantaloupe.image.redaction.RedactionService;
@@ -18,19 +19,31 @@ import edu.illinois.library.cantaloupe.image.OperationList;
 import edu.illinois.library.cantaloupe.image.watermark.WatermarkService;
 import edu.illinois.library.cantaloupe.processor.Processor;
 import edu.illinois.library.cantaloupe.processor.ProcessorException;
+import edu.illinois.library.cantaloupe.resolver.FileResolver;
+import edu.illinois.library.cantaloupe.resolver.Resolver;
+import edu.illinois.library.cantaloupe.resolver.VersionedResolver;
 import edu.illinois.library.cantaloupe.script.DelegateScriptDisabledException;
 import edu.illinois.library.cantaloupe.script.ScriptEngine;
 import edu.illinois.library.cantaloupe.script.ScriptEngineFactory;
 import edu.illinois.library.cantaloupe.util.Stopwatch;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang3.StringUtils;
 import org.restlet.Request;
 import org.restlet.data.CacheDirective;
+import org.restlet.data.CharacterSet;
 import org.restlet.data.Disposition;
+import org.restlet.data.Encoding;
 import org.restlet.data.Header;
+import org.restlet.data.MediaType;
 import org.restlet.data.Parameter;
+import org.restlet.data.Preference;
 import org.restlet.data.Protocol;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
+import org.restlet.ext.jackson.JacksonRepresentation;
+import org.restlet.representation.ByteArrayRepresentation;
+import org.restlet.representation.EmptyRepresentation;
 import org.restlet.representation.OutputRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
@@ -43,8 +56,14 @@ import org.slf4j.LoggerFactory;
 
 import javax.script.ScriptException;
 import java.awt.Dimension;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -87,6 +106,29 @@ public abstract class AbstractResource extends ServerResource {
 
     private static final String FILENAME_CHARACTERS = "[^A-Za-z0-9._-]";
 
+    /**
+     * @param content Content of an entity.
+     * @return Strong entity tag derived from a digest of the given content.
+     */
+    public static Tag getEntityTag(byte[] content) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return new Tag(Hex.encodeHexString(digest.digest(content)), false);
+        } catch (NoSuchAlgorithmException e) {
+            // All Java platforms are required to support SHA-1.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param uniqueString String that uniquely identifies the content of an
+     *                     entity.
+     * @return Strong entity tag derived from a digest of the given string.
+     */
+    public static Tag getEntityTag(String uniqueString) {
+        return getEntityTag(uniqueString.getBytes(Charset.forName("UTF-8")));
+    }
+
     /**
      * @return Map of template variables common to most or all views, such as
      * variables that appear in a common header.
@@ -245,10 +287,7 @@ public abstract class AbstractResource extends ServerResource {
         }
 
         // Metadata copies
-        if (ConfigurationFactory.getInstance().
-                getBoolean(PRESERVE_METADATA_CONFIG_KEY, false)) {
-            opList.add(new MetadataCopy());
-        }
+        NonEndpointOperations.addRequestIndependentOperations(opList);
     }
 
     /**
@@ -433,6 +472,242 @@ public abstract class AbstractResource extends ServerResource {
         return getRequest().getClientInfo().getAddress();
     }
 
+    /**
+     * @param resolver Resolver of the source image.
+     * @return Last-modified time of the source image with second precision,
+     *         or null if it can't be obtained without additional I/O (i.e.
+     *         the resolver is not a {@link FileResolver}).
+     */
+    protected static Date getSourceLastModified(Resolver resolver) {
+        if (resolver instanceof FileResolver) {
+            try {
+                final long time = ((FileResolver) resolver).getFile().
+                        lastModified();
+                if (time > 0) {
+                    return new Date(time - time % 1000);
+                }
+            } catch (IOException e) {
+                logger.debug("getSourceLastModified(): {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param resolver Resolver of the source image.
+     * @return String that changes whenever the source image is replaced, or
+     *         null if the resolver can't provide one.
+     */
+    protected static String getSourceVersion(Resolver resolver) {
+        try {
+            if (resolver instanceof FileResolver) {
+                final File file = ((FileResolver) resolver).getFile();
+                return file.lastModified() + ":" + file.length();
+            } else if (resolver instanceof VersionedResolver) {
+                return ((VersionedResolver) resolver).getSourceVersion();
+            }
+        } catch (IOException e) {
+            logger.debug("getSourceVersion(): {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * <p>Returns the entity tag of a derivative image, which is derived from
+     * the string representation of its final operation list, i.e. after
+     * {@link #addNonEndpointOperations} and {@link OperationList#normalize}.
+     * The tag therefore differs between requests that receive different
+     * redactions or watermarks, which keeps clients and proxies from
+     * revalidating one against the other.</p>
+     *
+     * <p>If {@link Cache#RESOLVE_FIRST_CONFIG_KEY} is <code>true</code>, the
+     * {@link #getSourceVersion version of the source image} is mixed in. (If
+     * it is <code>false</code>, derivatives may be served from the cache
+     * without checking the source, so the operation list alone identifies
+     * the content.)</p>
+     *
+     * @param ops Final operation list of the derivative image.
+     * @param resolver Resolver of the source image. May be null if the
+     *                 source image has not been resolved.
+     * @return Entity tag.
+     */
+    protected static Tag getImageEntityTag(OperationList ops,
+                                           Resolver resolver) {
+        String uniqueString = ops.toString();
+        if (resolver != null && ConfigurationFactory.getInstance().
+                getBoolean(Cache.RESOLVE_FIRST_CONFIG_KEY, true)) {
+            final String version = getSourceVersion(resolver);
+            if (version != null) {
+                uniqueString += "@" + version;
+            }
+        }
+        return getEntityTag(uniqueString);
+    }
+
+    /**
+     * Sets an entity tag and, if available, a modification date on the given
+     * representation of a derivative image. Restlet uses these to respond to
+     * conditional requests with <code>304 Not Modified</code> without writing
+     * the representation, i.e. without processing or reading anything from
+     * the cache.
+     *
+     * @param rep Representation of a derivative image.
+     * @param tag Tag from {@link #getImageEntityTag}.
+     * @param sourceLastModified Last-modified time of the source image. May
+     *                           be null.
+     */
+    protected static void setImageValidators(Representation rep, Tag tag,
+                                             Date sourceLastModified) {
+        rep.setTag(tag);
+        if (sourceLastModified != null) {
+            rep.setModificationDate(sourceLastModified);
+        }
+    }
+
+    /**
+     * @param tag Entity tag of the representation.
+     * @param lastModified Modification date of the representation. May be
+     *                     null.
+     * @return Whether the conditions of the request (e.g.
+     *         <code>If-None-Match</code>) are such that Restlet will respond
+     *         with <code>304 Not Modified</code> instead of writing a
+     *         representation with the given validators.
+     */
+    protected final boolean isNotModified(Tag tag, Date lastModified) {
+        final Status status = getRequest().getConditions().getStatus(
+                getMethod(), true, tag, lastModified);
+        return Status.REDIRECTION_NOT_MODIFIED.equals(status);
+    }
+
+    /**
+     * Checks the conditions of the request before anything is done to
+     * produce a derivative image. This must only be called once the request
+     * has been authorized and validated.
+     *
+     * @param tag Tag from {@link #getImageEntityTag}.
+     * @param sourceLastModified Last-modified time of the source image. May
+     *                           be null.
+     * @return Empty representation carrying the given validators, for which
+     *         Restlet will respond with <code>304 Not Modified</code>; or
+     *         null if the request is not conditional or the client's copy is
+     *         out of date.
+     */
+    protected final Representation getNotModifiedRepresentation(
+            Tag tag, Date sourceLastModified) {
+        if (isNotModified(tag, sourceLastModified)) {
+            final Representation rep = new EmptyRepresentation();
+            setImageValidators(rep, tag, sourceLastModified);
+            return rep;
+        }
+        return null;
+    }
+
+    /**
+     * @param imageUri Image URI that will appear in the response.
+     * @param processor Processor that will produce the response.
+     * @return Serialized information response from the
+     *         {@link InformationResponseCache}, or null if there is none or
+     *         the cache is being bypassed.
+     */
+    protected final byte[] getCachedInformation(String imageUri,
+                                                Processor processor) {
+        if (isBypassingCache()) {
+            return null;
+        }
+        return InformationResponseCache.getInstance().get(
+                getClass().getName(), imageUri,
+                processor.getClass().getSimpleName());
+    }
+
+    /**
+     * Serializes an information response to JSON, and adds the result to the
+     * {@link InformationResponseCache} (unless the cache is being bypassed).
+     *
+     * @param identifier Identifier of the image described by the response.
+     * @param imageUri Image URI contained in the response.
+     * @param processor Processor that produced the response.
+     * @param info Information response instance.
+     * @return Serialized response.
+     * @throws IOException
+     */
+    protected final byte[] serializeInformation(Identifier identifier,
+                                                String imageUri,
+                                                Processor processor,
+                                                Object info)
+            throws IOException {
+        final JacksonRepresentation<Object> jacksonRep =
+                new JacksonRepresentation<>(info);
+        final byte[] json = jacksonRep.getObjectWriter().
+                writeValueAsBytes(info);
+        if (!isBypassingCache()) {
+            InformationResponseCache.getInstance().put(identifier,
+                    getClass().getName(), imageUri,
+                    processor.getClass().getSimpleName(), json);
+        }
+        return json;
+    }
+
+    /**
+     * <p>Returns a representation of a serialized information response with a
+     * strong entity tag derived from its content, so that Restlet can respond
+     * to conditional requests with <code>304 Not Modified</code>.</p>
+     *
+     * <p>If response compression is enabled and the client accepts gzip, the
+     * gzip-compressed variant stored in the {@link InformationResponseCache}
+     * is returned instead, if available. (Otherwise, the encoder service
+     * compresses the response as usual.)</p>
+     *
+     * @param imageUri Image URI contained in the response.
+     * @param processor Processor that produced the response.
+     * @param json Serialized information response.
+     * @param sourceLastModified Last-modified time of the source image. May
+     *                           be null.
+     * @return JSON or JSON-LD representation, depending on the client's
+     *         preference.
+     * @throws IOException
+     */
+    protected final Representation newInformationRepresentation(
+            String imageUri, Processor processor, byte[] json,
+            Date sourceLastModified) throws IOException {
+        // If the client has requested JSON-LD, set the content type to
+        // that; otherwise set it to JSON
+        MediaType mediaType = new MediaType("application/json");
+        List<Preference<MediaType>> preferences = this.getRequest().
+                getClientInfo().getAcceptedMediaTypes();
+        if (preferences.get(0) != null && preferences.get(0).toString().
+                startsWith("application/ld+json")) {
+            mediaType = new MediaType("application/ld+json");
+        }
+
+        byte[] gzippedJson = null;
+        if (ConfigurationFactory.getInstance().getBoolean(
+                WebApplication.COMPRESSION_ENABLED_CONFIG_KEY, false)) {
+            // The response will vary by Accept-Encoding.
+            getResponse().getDimensions().add(
+                    org.restlet.data.Dimension.ENCODING);
+            if (isAcceptingGzip() && !isBypassingCache()) {
+                gzippedJson = InformationResponseCache.getInstance().
+                        getGzipped(getClass().getName(), imageUri,
+                                processor.getClass().getSimpleName());
+            }
+        }
+
+        final Representation rep;
+        if (gzippedJson != null) {
+            rep = new ByteArrayRepresentation(gzippedJson, mediaType);
+            rep.getEncodings().add(Encoding.GZIP);
+            rep.setTag(getEntityTag(gzippedJson));
+        } else {
+            rep = new ByteArrayRepresentation(json, mediaType);
+            rep.setTag(getEntityTag(json));
+        }
+        rep.setCharacterSet(CharacterSet.UTF_8);
+        if (sourceLastModified != null) {
+            rep.setModificationDate(sourceLastModified);
+        }
+        return rep;
+    }
+
     protected ImageRepresentation getRepresentation(OperationList ops,
                                                     Format format,
                                                     Disposition disposition,
@@ -449,14 +724,99 @@ public abstract class AbstractResource extends ServerResource {
             throw new PayloadTooLargeException();
         }
 
-        return new ImageRepresentation(imageInfo, proc, ops, disposition,
-                isBypassingCache());
+        final RenderExecutor.Reservation reservation =
+                checkRenderAdmission(ops, format);
+
+        final ImageRepresentation rep = new ImageRepresentation(imageInfo,
+                proc, ops, disposition, isBypassingCache());
+        rep.setRenderReservation(reservation);
+        return rep;
+    }
+
+    /**
+     * Refuses requests that would need to be rendered when the
+     * {@link RenderExecutor} is saturated. Requests that can be fulfilled
+     * from the derivative cache or by streaming the source image through are
+     * not subject to admission control.
+     *
+     * @param ops
+     * @param format Format of the source image.
+     * @return Render slot reserved for the request, which must be handed to
+     *         the {@link ImageRepresentation} so that its render can't be
+     *         refused after the response status has been committed; or null
+     *         if no slot is needed.
+     * @throws ServiceUnavailableException If the request is refused, in which
+     *                                     case the <code>Retry-After</code>
+     *                                     response header will be set.
+     * @throws IOException
+     * @throws CacheException
+     */
+    private RenderExecutor.Reservation checkRenderAdmission(OperationList ops,
+                                                            Format format)
+            throws IOException, CacheException {
+        if (!RenderExecutor.isEnabled() || ops.isNoOp(format)) {
+            return null;
+        }
+        final RenderExecutor.Reservation reservation =
+                RenderExecutor.getInstance().reserve();
+        if (reservation != null) {
+            return reservation;
+        }
+        if (!isBypassingCache()) {
+            final DerivativeCache cache = CacheFactory.getDerivativeCache();
+            if (cache != null) {
+                try (InputStream inputStream = cache.getImageInputStream(ops)) {
+                    if (inputStream != null) {
+                        return null;
+                    }
+                }
+            }
+        }
+        logger.warn("checkRenderAdmission(): refusing {} with {} renders " +
+                "pending", ops, RenderExecutor.getInstance().getPendingCount());
+        getResponse().setRetryAfter(new Date(System.currentTimeMillis() +
+                1000 * RenderExecutor.getRetryAfterSeconds()));
+        throw new ServiceUnavailableException();
+    }
+
+    /**
+     * Brings an operation list derived from a request into the form under
+     * which its derivative image is cached, i.e. adds the
+     * {@link #addNonEndpointOperations non-endpoint operations} and
+     * {@link OperationList#normalize normalizes} it, using only image info
+     * that is available without reading the source image.
+     *
+     * @param ops Operation list derived from a request, which will be
+     *            modified. It should not be used for anything other than
+     *            looking up a cached derivative afterwards.
+     * @param cache Derivative cache.
+     * @return Full size of the source image, or null if it is not yet known,
+     *         in which case the operation list was not brought into
+     *         canonical form, and no derivative of the image is cached.
+     * @throws CacheException
+     */
+    protected final Dimension normalizeForCacheLookup(OperationList ops,
+                                                      DerivativeCache cache)
+            throws CacheException {
+        final Identifier identifier = ops.getIdentifier();
+        ImageInfo info = ImageInfoCache.getInstance().get(identifier);
+        if (info == null) {
+            info = cache.getImageInfo(identifier);
+            if (info == null) {
+                return null;
+            }
+            ImageInfoCache.getInstance().put(identifier, info);
+        }
+        final Dimension fullSize = info.getSize();
+        addNonEndpointOperations(ops, fullSize);
+        ops.normalize(fullSize);
+        return fullSize;
     }
 
     /**
      * Gets the image info corresponding to the given identifier, first by
-     * checking the cache and then, if necessary, by reading it from the image
-     * and caching the result.
+     * checking the {@link ImageInfoCache} and the derivative cache and then,
+     * if necessary, by reading it from the image and caching the result.
      *
      * @param identifier
      * @param proc
@@ -470,6 +830,12 @@ public abstract class AbstractResource extends ServerResource {
             throws ProcessorException, CacheException {
         ImageInfo info = null;
         if (!isBypassingCache()) {
+            info = ImageInfoCache.getInstance().get(identifier);
+            if (info != null) {
+                logger.debug("Retrieved dimensions of {} from memory",
+                        identifier);
+                return info;
+            }
             DerivativeCache cache = CacheFactory.getDerivativeCache();
             if (cache != null) {
                 final Stopwatch watch = new Stopwatch();
@@ -482,6 +848,10 @@ public abstract class AbstractResource extends ServerResource {
                     cache.putImageInfo(identifier, info);
                 }
             }
+            if (info == null) {
+                info = readInfo(identifier, proc);
+            }
+            ImageInfoCache.getInstance().put(identifier, info);
         }
         if (info == null) {
             info = readInfo(identifier, proc);
@@ -489,6 +859,57 @@ public abstract class AbstractResource extends ServerResource {
         return info;
     }
 
+    /**
+     * <p>Supports serving information requests from the derivative cache
+     * without resolving the source image first. This is possible only when
+     * {@link Cache#RESOLVE_FIRST_CONFIG_KEY} is <code>false</code>, the cache
+     * is not being bypassed, and the cached info records the format of the
+     * source image, which is needed to obtain a processor to describe it.</p>
+     *
+     * <p>When a non-null value is returned, a consistency check of the source
+     * image is scheduled via {@link SourceConsistencyChecker}.</p>
+     *
+     * @param identifier
+     * @return Cached info of the image with the given identifier, or null if
+     *         the above conditions are not met.
+     * @throws CacheException
+     */
+    protected final ImageInfo getCachedInfoWithoutResolving(
+            Identifier identifier) throws CacheException {
+        if (ConfigurationFactory.getInstance().
+                getBoolean(Cache.RESOLVE_FIRST_CONFIG_KEY, true) ||
+                isBypassingCache()) {
+            return null;
+        }
+        final DerivativeCache cache = CacheFactory.getDerivativeCache();
+        if (cache != null) {
+            final ImageInfo info = cache.getImageInfo(identifier);
+            if (info != null &&
+                    !Format.UNKNOWN.equals(info.getSourceFormat())) {
+                logger.debug("Serving info of {} from the cache without " +
+                        "resolving", identifier);
+                SourceConsistencyChecker.getInstance().check(identifier);
+                return info;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Whether the client accepts gzip-encoded responses.
+     */
+    private boolean isAcceptingGzip() {
+        for (Preference<Encoding> pref :
+                getRequest().getClientInfo().getAcceptedEncodings()) {
+            if ((Encoding.GZIP.equals(pref.getMetadata()) ||
+                    Encoding.ALL.equals(pref.getMetadata())) &&
+                    pref.getQuality() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @return Whether there is a <var>cache</var> query parameter set to
      *         <code>false</code> in the URI.
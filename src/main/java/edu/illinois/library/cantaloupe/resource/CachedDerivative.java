@@ -0,0 +1,109 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.CacheException;
+import edu.illinois.library.cantaloupe.cache.DerivativeCache;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.resolver.ByteArrayStreamSource;
+import edu.illinois.library.cantaloupe.resolver.StreamSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * <p>Renders intermediate derivative images, such as the grid tiles of
+ * {@link TileAssembler} and the rungs of {@link SizeLadder}, through the
+ * derivative cache.</p>
+ *
+ * <p>Derivatives that are rendered are buffered in memory, so that they can
+ * be used right away even if the derivative cache discards them, as it does
+ * when another thread is caching the same derivative.</p>
+ */
+final class CachedDerivative {
+
+    /**
+     * Stream source of a derivative that is being read from the derivative
+     * cache.
+     */
+    private static class CacheStreamSource implements StreamSource {
+
+        private final DerivativeCache cache;
+        private final OperationList ops;
+
+        CacheStreamSource(DerivativeCache cache, OperationList ops) {
+            this.cache = cache;
+            this.ops = ops;
+        }
+
+        @Override
+        public ImageInputStream newImageInputStream() throws IOException {
+            return ImageIO.createImageInputStream(newInputStream());
+        }
+
+        @Override
+        public InputStream newInputStream() throws IOException {
+            try {
+                final InputStream inputStream = cache.getImageInputStream(ops);
+                if (inputStream == null) {
+                    throw new IOException("Derivative is no longer cached: " +
+                            ops);
+                }
+                return inputStream;
+            } catch (CacheException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+    }
+
+    private static Logger logger =
+            LoggerFactory.getLogger(CachedDerivative.class);
+
+    /**
+     * @param ops Operation list of the derivative.
+     * @param info Info of the source image.
+     * @param processor Processor to render the derivative with if it is not
+     *                  cached. Its source must be set.
+     * @param cache Derivative cache to read and write the derivative from and
+     *              to.
+     * @return Source of the derivative image, which is either the cached
+     *         derivative or, if it is not cached, a newly rendered one that
+     *         has been written to the cache.
+     */
+    static StreamSource getStreamSource(OperationList ops, ImageInfo info,
+                                        Processor processor,
+                                        DerivativeCache cache)
+            throws Exception {
+        try (InputStream inputStream = cache.getImageInputStream(ops)) {
+            if (inputStream != null) {
+                return new CacheStreamSource(cache, ops);
+            }
+        }
+        logger.debug("getStreamSource(): rendering {}", ops);
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        processor.process(ops, info, buffer);
+        final byte[] image = buffer.toByteArray();
+        // If the derivative is being written by another thread, the cache
+        // will discard this copy, which doesn't matter as it is served from
+        // the buffer.
+        try (OutputStream outputStream = cache.getImageOutputStream(ops)) {
+            outputStream.write(image);
+        } catch (IOException | CacheException e) {
+            logger.warn("getStreamSource(): failed to cache {}: {}",
+                    ops, e.getMessage());
+            // The cached derivative may have been incompletely written.
+            cache.purge(ops);
+        }
+        return new ByteArrayStreamSource(image);
+    }
+
+    private CachedDerivative() {}
+
+}
@@ -37,6 +37,17 @@ public class CachedImageRepresentation extends OutputRepresentation {
         setDisposition(disposition);
     }
 
+    /**
+     * Closes the cache stream. This is called by Restlet after writing, and
+     * also when the representation is not written at all, as in the case of
+     * a <code>304 Not Modified</code> response.
+     */
+    @Override
+    public void release() {
+        IOUtils.closeQuietly(inputStream);
+        super.release();
+    }
+
     /**
      * Writes the source image to the given output stream.
      *
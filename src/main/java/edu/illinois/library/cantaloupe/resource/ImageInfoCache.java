@@ -0,0 +1,113 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.Cache;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+import edu.illinois.library.cantaloupe.util.ExpiringLruMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Bounded in-memory cache of {@link ImageInfo}s, keyed by identifier,
+ * which is consulted before the derivative cache's info by
+ * {@link AbstractResource#getOrReadInfo}.</p>
+ *
+ * <p>Reading info can be expensive, particularly for processors that have to
+ * invoke an external program (like ImageMagick's <code>identify</code>) to
+ * do it; and image requests need it, too, so without a derivative cache, it
+ * would otherwise be read for every tile.</p>
+ *
+ * <p>Entries expire after {@link Cache#TTL_CONFIG_KEY}, and are removed when
+ * their image is purged via the API.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public final class ImageInfoCache {
+
+    private static Logger logger = LoggerFactory.
+            getLogger(ImageInfoCache.class);
+
+    static final String ENABLED_CONFIG_KEY =
+            "cache.server.image_info.enabled";
+    static final String MAX_SIZE_CONFIG_KEY =
+            "cache.server.image_info.max_size";
+
+    private static final int DEFAULT_MAX_SIZE = 10000;
+
+    private static final ImageInfoCache instance = new ImageInfoCache();
+
+    private final ExpiringLruMap<Identifier,ImageInfo> infos =
+            new ExpiringLruMap<>(DEFAULT_MAX_SIZE);
+
+    /**
+     * @return The shared instance.
+     */
+    public static ImageInfoCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return Whether {@link #ENABLED_CONFIG_KEY} is <code>true</code>.
+     */
+    static boolean isEnabled() {
+        return ConfigurationFactory.getInstance().
+                getBoolean(ENABLED_CONFIG_KEY, false);
+    }
+
+    private ImageInfoCache() {}
+
+    /**
+     * @param identifier Identifier of the image.
+     * @return Non-expired info, or null if the cache is disabled or there is
+     *         no such info. The instance is shared and must not be modified.
+     */
+    ImageInfo get(Identifier identifier) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final long ttlMsec = 1000 * ConfigurationFactory.getInstance().
+                getLong(Cache.TTL_CONFIG_KEY, 0);
+        return infos.get(identifier, ttlMsec);
+    }
+
+    /**
+     * Adds info. Does nothing if the cache is disabled.
+     *
+     * @param identifier Identifier of the image.
+     * @param info Info of the image. Must not be modified afterwards.
+     */
+    public void put(Identifier identifier, ImageInfo info) {
+        if (!isEnabled()) {
+            return;
+        }
+        infos.setMaxSize(ConfigurationFactory.getInstance().
+                getInt(MAX_SIZE_CONFIG_KEY, DEFAULT_MAX_SIZE));
+        infos.put(identifier, info);
+    }
+
+    /**
+     * Removes all info.
+     */
+    public void purge() {
+        infos.clear();
+    }
+
+    /**
+     * Removes the info of the image with the given identifier.
+     *
+     * @param identifier
+     */
+    public void purge(Identifier identifier) {
+        infos.remove(identifier);
+        logger.debug("purge(): purged {}", identifier);
+    }
+
+    /**
+     * @return Number of infos in the cache, including expired ones.
+     */
+    int size() {
+        return infos.size();
+    }
+
+}
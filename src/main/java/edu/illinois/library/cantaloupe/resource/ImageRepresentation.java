@@ -16,11 +16,13 @@ import org.restlet.representation.OutputRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.awt.Dimension;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.Callable;
 
 /**
  * Restlet representation for images.
@@ -34,6 +36,7 @@ public class ImageRepresentation extends OutputRepresentation {
     private ImageInfo imageInfo;
     private OperationList opList;
     private Processor processor;
+    private volatile RenderExecutor.Reservation reservation;
 
     /**
      * @param imageInfo
@@ -57,6 +60,33 @@ public class ImageRepresentation extends OutputRepresentation {
         this.setDisposition(disposition);
     }
 
+    /**
+     * Releases the render reservation, if it has not been used.
+     */
+    @Override
+    public void release() {
+        releaseRenderReservation();
+        super.release();
+    }
+
+    private void releaseRenderReservation() {
+        final RenderExecutor.Reservation reservation = this.reservation;
+        if (reservation != null) {
+            reservation.release();
+            this.reservation = null;
+        }
+    }
+
+    /**
+     * @param reservation Slot in the {@link RenderExecutor} reserved at
+     *                    admission time, which will be used to render the
+     *                    image or released if it turns out not to be needed.
+     *                    May be null.
+     */
+    void setRenderReservation(RenderExecutor.Reservation reservation) {
+        this.reservation = reservation;
+    }
+
     /**
      * Writes the image requested in the constructor to the given output
      * stream, either retrieving it from the derivative cache, or getting it
@@ -78,6 +108,7 @@ public class ImageRepresentation extends OutputRepresentation {
                     if (inputStream != null) {
                         // The image is available in the cache; write it to the
                         // response output stream.
+                        releaseRenderReservation();
                         IOUtils.copy(inputStream, outputStream);
                     } else {
                         // Create a TeeOutputStream to write to the response
@@ -127,7 +158,7 @@ public class ImageRepresentation extends OutputRepresentation {
      *                     pseudo-simultaneously. Will not be closed.
      * @throws Exception
      */
-    private void doWrite(OutputStream outputStream) throws Exception {
+    private void doWrite(final OutputStream outputStream) throws Exception {
         final Stopwatch watch = new Stopwatch();
         // If the operations are effectively a no-op, the source image can be
         // streamed through with no processing.
@@ -148,8 +179,35 @@ public class ImageRepresentation extends OutputRepresentation {
             }
             logger.debug("Streamed with no processing in {} msec: {}",
                     watch.timeElapsed(), opList);
+            releaseRenderReservation();
         } else {
-            processor.process(opList, imageInfo, outputStream);
+            final Callable<Void> render = new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    render(outputStream);
+                    return null;
+                }
+            };
+            if (RenderExecutor.isEnabled()) {
+                // Render in the render pool, giving priority to smaller
+                // images. The request was admitted before the response
+                // status was committed, so the render must not be refused
+                // now: it uses the slot reserved at admission time, or a
+                // forced one if none was needed then (i.e. the image was in
+                // the cache but has since been purged).
+                final RenderExecutor executor = RenderExecutor.getInstance();
+                RenderExecutor.Reservation reservation = this.reservation;
+                this.reservation = null;
+                if (reservation == null) {
+                    reservation = executor.forceReserve();
+                }
+                final Dimension size =
+                        opList.getResultingSize(imageInfo.getSize());
+                executor.render(render, (long) size.width * size.height,
+                        reservation);
+            } else {
+                render.call();
+            }
 
             logger.debug("{} processed in {} msec: {}",
                     processor.getClass().getSimpleName(),
@@ -157,4 +215,28 @@ public class ImageRepresentation extends OutputRepresentation {
         }
     }
 
+    /**
+     * Renders the image, deriving it from the nearest {@link SizeLadder}
+     * rung or assembling it from tiles via {@link TileAssembler} if possible,
+     * and otherwise from the source image.
+     *
+     * @param outputStream Stream to write to. Will not be closed.
+     * @throws Exception
+     */
+    private void render(OutputStream outputStream) throws Exception {
+        final DerivativeCache cache =
+                bypassCache ? null : CacheFactory.getDerivativeCache();
+        if (cache != null) {
+            if (SizeLadder.isEnabled() && new SizeLadder(imageInfo).
+                    render(opList, processor, cache, outputStream)) {
+                return;
+            }
+            if (TileAssembler.isEnabled() && new TileAssembler(imageInfo).
+                    render(opList, processor, cache, outputStream)) {
+                return;
+            }
+        }
+        processor.process(opList, imageInfo, outputStream);
+    }
+
 }
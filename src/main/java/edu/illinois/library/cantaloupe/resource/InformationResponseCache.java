@@ -0,0 +1,209 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.Cache;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.util.ExpiringLruMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>Bounded in-memory cache of serialized information response bodies,
+ * keyed by identifier, image URI (which incorporates the base URI), endpoint
+ * and processor. This enables information requests to be served without
+ * rebuilding and re-serializing the response.</p>
+ *
+ * <p>Gzip-compressed variants of response bodies are created on demand and
+ * stored alongside them, so that each body is compressed only once.</p>
+ *
+ * <p>Neither bodies nor their variants are persisted in the
+ * {@link edu.illinois.library.cantaloupe.cache.DerivativeCache}, which
+ * stores the {@link edu.illinois.library.cantaloupe.processor.ImageInfo}
+ * that bodies are built from. Bodies also depend on the base URI, endpoint,
+ * processor and delegate script, so persisting them would require a new kind
+ * of entry, keyed like this cache, in every derivative cache implementation
+ * (and a new table for {@link edu.illinois.library.cantaloupe.cache.JdbcCache}).
+ * And after a restart or eviction, rebuilding and compressing a body of a
+ * few kilobytes from the persisted info costs less than reading it back from
+ * a remote cache would.</p>
+ *
+ * <p>Entries expire after {@link Cache#TTL_CONFIG_KEY}, and are removed when
+ * their image is purged via the API.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public final class InformationResponseCache {
+
+    private static final class Entry {
+
+        private final byte[] content;
+        private byte[] gzippedContent;
+        private final Identifier identifier;
+
+        Entry(Identifier identifier, byte[] content) {
+            this.identifier = identifier;
+            this.content = content;
+        }
+
+        /**
+         * @return Gzip-compressed content, which is compressed on the first
+         *         call and retained for subsequent ones.
+         */
+        synchronized byte[] getGzippedContent() throws IOException {
+            if (gzippedContent == null) {
+                gzippedContent = gzip(content);
+            }
+            return gzippedContent;
+        }
+
+    }
+
+    private static Logger logger = LoggerFactory.
+            getLogger(InformationResponseCache.class);
+
+    static final String ENABLED_CONFIG_KEY =
+            "cache.server.info_response.enabled";
+    static final String MAX_SIZE_CONFIG_KEY =
+            "cache.server.info_response.max_size";
+
+    private static final int DEFAULT_MAX_SIZE = 10000;
+
+    private static final InformationResponseCache instance =
+            new InformationResponseCache();
+
+    private final ExpiringLruMap<String,Entry> entries =
+            new ExpiringLruMap<>(DEFAULT_MAX_SIZE);
+
+    /**
+     * @return The shared instance.
+     */
+    public static InformationResponseCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return Whether {@link #ENABLED_CONFIG_KEY} is <code>true</code>.
+     */
+    static boolean isEnabled() {
+        return ConfigurationFactory.getInstance().
+                getBoolean(ENABLED_CONFIG_KEY, false);
+    }
+
+    /**
+     * @param content
+     * @return Gzip-compressed content.
+     * @throws IOException
+     */
+    static byte[] gzip(byte[] content) throws IOException {
+        final ByteArrayOutputStream os =
+                new ByteArrayOutputStream(content.length / 4 + 32);
+        try (GZIPOutputStream gzos = new GZIPOutputStream(os)) {
+            gzos.write(content);
+        }
+        return os.toByteArray();
+    }
+
+    private static String getKey(String endpoint, String imageUri,
+                                 String processorName) {
+        return endpoint + "\n" + imageUri + "\n" + processorName;
+    }
+
+    private InformationResponseCache() {}
+
+    /**
+     * @param endpoint Name of the endpoint that produced the response.
+     * @param imageUri Image URI contained in the response.
+     * @param processorName Name of the processor that produced the response.
+     * @return Non-expired response body, or null if the cache is disabled or
+     *         there is no such body.
+     */
+    byte[] get(String endpoint, String imageUri, String processorName) {
+        final Entry entry = getEntry(endpoint, imageUri, processorName);
+        return (entry != null) ? entry.content : null;
+    }
+
+    /**
+     * @param endpoint Name of the endpoint that produced the response.
+     * @param imageUri Image URI contained in the response.
+     * @param processorName Name of the processor that produced the response.
+     * @return Gzip-compressed variant of the non-expired response body, or
+     *         null if the cache is disabled or there is no such body.
+     * @throws IOException
+     */
+    byte[] getGzipped(String endpoint, String imageUri, String processorName)
+            throws IOException {
+        final Entry entry = getEntry(endpoint, imageUri, processorName);
+        return (entry != null) ? entry.getGzippedContent() : null;
+    }
+
+    private Entry getEntry(String endpoint, String imageUri,
+                           String processorName) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final long ttlMsec = 1000 * ConfigurationFactory.getInstance().
+                getLong(Cache.TTL_CONFIG_KEY, 0);
+        return entries.get(getKey(endpoint, imageUri, processorName),
+                ttlMsec);
+    }
+
+    /**
+     * Adds a response body. Does nothing if the cache is disabled.
+     *
+     * @param identifier Identifier of the image described by the response.
+     * @param endpoint Name of the endpoint that produced the response.
+     * @param imageUri Image URI contained in the response.
+     * @param processorName Name of the processor that produced the response.
+     * @param content Response body. Must not be modified afterwards.
+     */
+    void put(Identifier identifier, String endpoint, String imageUri,
+             String processorName, byte[] content) {
+        if (!isEnabled()) {
+            return;
+        }
+        final Configuration config = ConfigurationFactory.getInstance();
+        entries.setMaxSize(
+                config.getInt(MAX_SIZE_CONFIG_KEY, DEFAULT_MAX_SIZE));
+        entries.put(getKey(endpoint, imageUri, processorName),
+                new Entry(identifier, content));
+    }
+
+    /**
+     * Removes all response bodies.
+     */
+    public void purge() {
+        entries.clear();
+    }
+
+    /**
+     * Removes all response bodies describing the image with the given
+     * identifier.
+     *
+     * @param identifier
+     */
+    public void purge(final Identifier identifier) {
+        final int count = entries.removeIf(new Predicate<Entry>() {
+            @Override
+            public boolean test(Entry entry) {
+                return entry.identifier.equals(identifier);
+            }
+        });
+        logger.debug("purge(): purged {} response(s) for {}",
+                count, identifier);
+    }
+
+    /**
+     * @return Number of response bodies in the cache, including expired
+     *         ones.
+     */
+    int size() {
+        return entries.size();
+    }
+
+}
@@ -0,0 +1,38 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.MetadataCopy;
+import edu.illinois.library.cantaloupe.image.OperationList;
+
+/**
+ * <p>Operations that are added to every operation list by the application
+ * rather than by an endpoint's request parameters. (See
+ * {@link AbstractResource#addNonEndpointOperations}.)</p>
+ *
+ * <p>Redactions and watermarks depend on the request, so only
+ * {@link AbstractResource} can add them. The rest, which depend only on the
+ * configuration, are added here, so that callers that construct operation
+ * lists outside of a request, like the identifier warmer, produce the same
+ * lists (and therefore the same derivative cache keys) as the image
+ * endpoints.</p>
+ */
+public final class NonEndpointOperations {
+
+    /**
+     * Adds the non-endpoint operations that don't depend on the request,
+     * which currently consist of a {@link MetadataCopy} when
+     * {@link AbstractResource#PRESERVE_METADATA_CONFIG_KEY} is
+     * <code>true</code>.
+     *
+     * @param opList Operation list to add to.
+     */
+    public static void addRequestIndependentOperations(OperationList opList) {
+        if (ConfigurationFactory.getInstance().getBoolean(
+                AbstractResource.PRESERVE_METADATA_CONFIG_KEY, false)) {
+            opList.add(new MetadataCopy());
+        }
+    }
+
+    private NonEndpointOperations() {}
+
+}
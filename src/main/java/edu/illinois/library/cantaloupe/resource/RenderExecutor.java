@@ -0,0 +1,224 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Bounded, priority-aware pool of threads that perform image rendering
+ * (decoding, processing, and encoding) on behalf of request threads.</p>
+ *
+ * <p>Restlet's Servlet adapter does not support asynchronous request
+ * processing, so request threads wait for their renders to complete. But
+ * because only a fixed number of renders can run at once, and renders
+ * beyond {@link #MAX_QUEUED_CONFIG_KEY} are refused up front, there is a
+ * bound on the number of request threads that can be tied up by expensive
+ * renders, leaving the rest free to serve cache hits.</p>
+ *
+ * <p>Queued renders with smaller output pixel areas (e.g. tiles and
+ * thumbnails) run before larger ones.</p>
+ *
+ * <p>A slot in the pool can be {@link #reserve() reserved} when a request is
+ * admitted, so that the render it eventually submits, possibly after the
+ * response status has been committed, can't be refused.</p>
+ */
+final class RenderExecutor {
+
+    /**
+     * Slot in the pool, counted as pending from the time it is obtained
+     * until it is released, either by {@link #render(Callable, long,
+     * Reservation)} or by its holder if it goes unused.
+     */
+    final class Reservation {
+
+        private final AtomicBoolean isReleased = new AtomicBoolean(false);
+
+        private Reservation() {}
+
+        /**
+         * Releases the slot. Subsequent calls have no effect.
+         */
+        void release() {
+            if (isReleased.compareAndSet(false, true)) {
+                pendingCount.decrementAndGet();
+            }
+        }
+
+    }
+
+    /**
+     * Render task that is ordered by ascending priority value and then by
+     * order of submission.
+     */
+    private static class RenderTask extends FutureTask<Void>
+            implements Comparable<RenderTask> {
+
+        private final long priority;
+        private final long sequence;
+
+        RenderTask(Callable<Void> callable, long priority, long sequence) {
+            super(callable);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(RenderTask other) {
+            if (priority != other.priority) {
+                return (priority < other.priority) ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+
+    }
+
+    private static Logger logger = LoggerFactory.getLogger(RenderExecutor.class);
+
+    static final String ENABLED_CONFIG_KEY = "render_executor.enabled";
+    static final String MAX_QUEUED_CONFIG_KEY = "render_executor.max_queued";
+    static final String RETRY_AFTER_CONFIG_KEY =
+            "render_executor.retry_after_seconds";
+    static final String THREADS_CONFIG_KEY = "render_executor.threads";
+
+    private static final int DEFAULT_MAX_QUEUED = 50;
+    private static final int DEFAULT_RETRY_AFTER_SECONDS = 5;
+
+    private static RenderExecutor instance;
+
+    /** Number of renders that are either queued or running. */
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+    private final AtomicLong sequence = new AtomicLong(0);
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @return The shared instance.
+     */
+    static synchronized RenderExecutor getInstance() {
+        if (instance == null) {
+            instance = new RenderExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * @return Whether {@link #ENABLED_CONFIG_KEY} is <code>true</code>.
+     */
+    static boolean isEnabled() {
+        return ConfigurationFactory.getInstance().
+                getBoolean(ENABLED_CONFIG_KEY, false);
+    }
+
+    /**
+     * @return Value of {@link #RETRY_AFTER_CONFIG_KEY}.
+     */
+    static int getRetryAfterSeconds() {
+        return ConfigurationFactory.getInstance().
+                getInt(RETRY_AFTER_CONFIG_KEY, DEFAULT_RETRY_AFTER_SECONDS);
+    }
+
+    private RenderExecutor() {
+        int numThreads = ConfigurationFactory.getInstance().getInt(
+                THREADS_CONFIG_KEY, 0);
+        if (numThreads < 1) {
+            numThreads = Runtime.getRuntime().availableProcessors();
+        }
+        logger.info("Starting {} render threads", numThreads);
+        executor = new ThreadPoolExecutor(numThreads, numThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        final Thread thread = new Thread(runnable,
+                                "render-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * @return Maximum number of renders that may be queued or running.
+     */
+    private int getMaxPendingCount() {
+        final int maxQueued = ConfigurationFactory.getInstance().
+                getInt(MAX_QUEUED_CONFIG_KEY, DEFAULT_MAX_QUEUED);
+        return executor.getMaximumPoolSize() + maxQueued;
+    }
+
+    /**
+     * @return New reservation, or null if the queue is full.
+     */
+    Reservation reserve() {
+        final int maxPendingCount = getMaxPendingCount();
+        while (true) {
+            final int count = pendingCount.get();
+            if (count >= maxPendingCount) {
+                return null;
+            }
+            if (pendingCount.compareAndSet(count, count + 1)) {
+                return new Reservation();
+            }
+        }
+    }
+
+    /**
+     * @return New reservation, obtained regardless of whether the queue is
+     *         full.
+     */
+    Reservation forceReserve() {
+        pendingCount.incrementAndGet();
+        return new Reservation();
+    }
+
+    /**
+     * @return Number of renders that are queued or running.
+     */
+    int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Runs the given render in the pool, using a slot that has already been
+     * reserved, and waits for it to complete.
+     *
+     * @param render Render to run.
+     * @param priority Lower values run first.
+     * @param reservation Reservation, which will be released.
+     * @throws Exception Any exception thrown by the render.
+     */
+    void render(Callable<Void> render, long priority,
+                Reservation reservation) throws Exception {
+        final RenderTask task =
+                new RenderTask(render, priority, sequence.incrementAndGet());
+        try {
+            executor.execute(task);
+            task.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            throw e;
+        } finally {
+            reservation.release();
+        }
+    }
+
+}
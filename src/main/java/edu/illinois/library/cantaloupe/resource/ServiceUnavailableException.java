@@ -0,0 +1,14 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import org.restlet.data.Status;
+import org.restlet.resource.ResourceException;
+
+class ServiceUnavailableException extends ResourceException {
+
+    ServiceUnavailableException() {
+        super(Status.SERVER_ERROR_SERVICE_UNAVAILABLE,
+                "The server is too busy to render the requested image. " +
+                        "Please try again later.");
+    }
+
+}
@@ -0,0 +1,255 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.DerivativeCache;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Crop;
+import edu.illinois.library.cantaloupe.image.MetadataCopy;
+import edu.illinois.library.cantaloupe.image.Operation;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.image.Scale;
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
+import edu.illinois.library.cantaloupe.processor.StreamProcessor;
+import edu.illinois.library.cantaloupe.processor.UnsupportedSourceFormatException;
+import edu.illinois.library.cantaloupe.resolver.StreamSource;
+import edu.illinois.library.cantaloupe.resource.iiif.ImageInfoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Dimension;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Ladder of downscaled full-region derivatives ("rungs") of a source
+ * image, at the same 2^n series of sizes that is advertised in the
+ * <code>sizes</code> key of IIIF Image API 2.x information responses.</p>
+ *
+ * <p>When {@link #ENABLED_CONFIG_KEY} is <code>true</code>, a request for a
+ * downscaled full-region image that is not present in the derivative cache
+ * is fulfilled by downscaling the nearest larger rung instead of the source
+ * image. Rungs that are not already cached are rendered from the source
+ * image and cached first, so that any number of arbitrary sizes will require
+ * the source image to be decoded at most once per rung. (See
+ * {@link CachedDerivative}.)</p>
+ *
+ * <p>Only requests whose operations commute with downscaling are eligible:
+ * apart from a scale and metadata copy, all of their operations must be
+ * no-ops, so there can be no cropping, rotation, transposition, color
+ * transform, sharpening, redaction, or watermark.</p>
+ */
+public final class SizeLadder {
+
+    private static Logger logger = LoggerFactory.getLogger(SizeLadder.class);
+
+    public static final String ENABLED_CONFIG_KEY =
+            "cache.server.size_ladder.enabled";
+
+    /**
+     * @see edu.illinois.library.cantaloupe.resource.iiif.v2.ImageInfoFactory
+     */
+    private static final int MIN_SIZE = 64;
+
+    private final ImageInfo info;
+
+    /**
+     * @return Whether {@link #ENABLED_CONFIG_KEY} is <code>true</code>.
+     */
+    public static boolean isEnabled() {
+        return ConfigurationFactory.getInstance().
+                getBoolean(ENABLED_CONFIG_KEY, false);
+    }
+
+    /**
+     * @param info Info of the source image.
+     */
+    public SizeLadder(ImageInfo info) {
+        this.info = info;
+    }
+
+    /**
+     * @param ops Eligible operation list to derive the rung from.
+     * @param width Width of the rung.
+     * @return Normalized operation list of the rung.
+     */
+    private OperationList newRung(OperationList ops, int width) {
+        final OperationList rung = new OperationList();
+        rung.setIdentifier(ops.getIdentifier());
+        rung.setOutputFormat(ops.getOutputFormat());
+        rung.getOptions().putAll(ops.getOptions());
+        // The other operations in an eligible list are all no-ops.
+        final Crop crop = new Crop();
+        crop.setFull(true);
+        rung.add(crop);
+        rung.add(new Scale(width, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        if (ops.contains(MetadataCopy.class)) {
+            rung.add(new MetadataCopy());
+        }
+        rung.normalize(info.getSize());
+        return rung;
+    }
+
+    /**
+     * @return Widths of all rungs, smallest first.
+     */
+    List<Integer> getRungWidths() {
+        final List<Integer> widths = new ArrayList<>();
+        final Dimension fullSize = info.getSize();
+        final int maxReductionFactor =
+                ImageInfoUtil.maxReductionFactor(fullSize, MIN_SIZE);
+        for (double i = 2; i <= Math.pow(2, maxReductionFactor); i *= 2) {
+            final int width = (int) Math.round(fullSize.width / i);
+            final int height = (int) Math.round(fullSize.height / i);
+            if (width < MIN_SIZE || height < MIN_SIZE) {
+                break;
+            }
+            widths.add(0, width);
+        }
+        return widths;
+    }
+
+    /**
+     * @param ops Operation list, typically a full-size one, to derive the
+     *            rungs from.
+     * @return Operation lists of all rungs, smallest first, or an empty list
+     *         if the given operation list is not eligible to be served from
+     *         the ladder.
+     */
+    public List<OperationList> getRungs(OperationList ops) {
+        final List<OperationList> rungs = new ArrayList<>();
+        if (isEligible(ops)) {
+            for (int width : getRungWidths()) {
+                rungs.add(newRung(ops, width));
+            }
+        }
+        return rungs;
+    }
+
+    /**
+     * @param ops Requested operation list.
+     * @return Operation list of the smallest rung that is at least as large
+     *         as the image requested by <var>ops</var>, or null if there is no
+     *         such rung or <var>ops</var> is not eligible to be served from
+     *         the ladder.
+     */
+    OperationList getNearestRung(OperationList ops) {
+        if (!isEligible(ops) || !hasScale(ops)) {
+            return null;
+        }
+        final Dimension requestedSize = ops.getResultingSize(info.getSize());
+        for (int width : getRungWidths()) {
+            final OperationList rung = newRung(ops, width);
+            final Dimension rungSize = rung.getResultingSize(info.getSize());
+            if (rungSize.width >= requestedSize.width &&
+                    rungSize.height >= requestedSize.height) {
+                return rung.equals(ops) ? null : rung;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param ops Requested operation list.
+     * @param rung Rung operation list.
+     * @return Operation list to apply to the rung image in order to produce
+     *         the image requested by <var>ops</var>.
+     */
+    OperationList getRungOperations(OperationList ops, OperationList rung) {
+        final Dimension size = ops.getResultingSize(info.getSize());
+        final OperationList rungOps = new OperationList();
+        rungOps.setIdentifier(rung.getIdentifier());
+        rungOps.setOutputFormat(ops.getOutputFormat());
+        rungOps.add(new Scale(size.width, size.height,
+                Scale.Mode.NON_ASPECT_FILL));
+        if (ops.contains(MetadataCopy.class)) {
+            // The rung carries a copy of the source image's metadata.
+            rungOps.add(new MetadataCopy());
+        }
+        return rungOps;
+    }
+
+    /**
+     * @return Whether the given operation list contains a scale that is not a
+     *         no-op.
+     */
+    private boolean hasScale(OperationList ops) {
+        for (Operation op : ops) {
+            if (op instanceof Scale && !op.isNoOp()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param ops
+     * @return Whether the image requested by the given operation list can be
+     *         derived from a rung.
+     */
+    boolean isEligible(OperationList ops) {
+        // Rungs are computed in terms of the stored size, which will differ
+        // from the orientation-aware size when it is rotated 90 or 270
+        // degrees.
+        if (!info.getOrientationSize().equals(info.getSize())) {
+            return false;
+        }
+        int numScales = 0;
+        for (Operation op : ops) {
+            if (op instanceof Scale) {
+                numScales++;
+            } else if (!(op instanceof MetadataCopy) && !op.isNoOp()) {
+                return false;
+            }
+        }
+        if (numScales != 1) {
+            return false;
+        }
+        // The rung will be in the requested output format, so it must be
+        // readable by the derivative processor.
+        try {
+            final StreamProcessor proc = ProcessorFactory.
+                    getDerivativeProcessor(ops.getOutputFormat());
+            return proc.getAvailableOutputFormats().
+                    contains(ops.getOutputFormat());
+        } catch (UnsupportedSourceFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the image requested by the given operation list by downscaling
+     * the nearest larger rung, rendering and caching that rung first if
+     * necessary.
+     *
+     * @param ops Requested operation list.
+     * @param processor Processor to render the rung with, if it is not
+     *                  already cached. Its source must be set.
+     * @param cache Derivative cache to read and write rungs from and to.
+     * @param outputStream Stream to write the requested image to.
+     * @return Whether the image was written. If <code>false</code>, the
+     *         request is not eligible, and nothing was written.
+     * @throws Exception
+     */
+    boolean render(OperationList ops, Processor processor,
+                   DerivativeCache cache, OutputStream outputStream)
+            throws Exception {
+        final OperationList rung = getNearestRung(ops);
+        if (rung == null) {
+            return false;
+        }
+        final StreamSource rungSource =
+                CachedDerivative.getStreamSource(rung, info, processor, cache);
+        final Dimension rungSize = rung.getResultingSize(info.getSize());
+        final StreamProcessor rungProcessor =
+                ProcessorFactory.getDerivativeProcessor(rung.getOutputFormat());
+        rungProcessor.setStreamSource(rungSource);
+        rungProcessor.process(getRungOperations(ops, rung),
+                new ImageInfo(rungSize, rung.getOutputFormat()),
+                outputStream);
+        logger.debug("render(): derived {} from rung {}", ops, rung);
+        return true;
+    }
+
+}
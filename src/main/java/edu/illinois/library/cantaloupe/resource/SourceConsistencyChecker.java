@@ -0,0 +1,155 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.Cache;
+import edu.illinois.library.cantaloupe.cache.CacheFactory;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.resolver.ResolutionCache;
+import edu.illinois.library.cantaloupe.resolver.Resolver;
+import edu.illinois.library.cantaloupe.resolver.ResolverFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Asynchronously confirms that the source images of content served from
+ * the derivative cache without resolving first (i.e. when
+ * {@link Cache#RESOLVE_FIRST_CONFIG_KEY} is <code>false</code>) still exist,
+ * and purges all cached content relating to those that don't.</p>
+ *
+ * <p>Each identifier is checked at most once per
+ * {@link #INTERVAL_CONFIG_KEY}. Checks are performed one at a time in a
+ * background thread; if they can't keep up, excess checks are discarded.</p>
+ */
+public final class SourceConsistencyChecker {
+
+    private static Logger logger = LoggerFactory.
+            getLogger(SourceConsistencyChecker.class);
+
+    static final String ENABLED_CONFIG_KEY =
+            "cache.server.consistency_check.enabled";
+    static final String INTERVAL_CONFIG_KEY =
+            "cache.server.consistency_check.interval_seconds";
+
+    /** Maximum number of checks that may be awaiting execution. */
+    private static final int MAX_QUEUE_SIZE = 1000;
+
+    /** Maximum number of identifiers whose last check time is retained. */
+    private static final int MAX_TRACKED_IDENTIFIERS = 10000;
+
+    private static final SourceConsistencyChecker instance =
+            new SourceConsistencyChecker();
+
+    private final ThreadPoolExecutor executor;
+
+    /** Map of identifiers to the time they were last checked. */
+    private final Map<Identifier,Long> checkTimes =
+            new LinkedHashMap<Identifier,Long>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Identifier,Long> eldest) {
+                    return size() > MAX_TRACKED_IDENTIFIERS;
+                }
+            };
+
+    /**
+     * @return The shared instance.
+     */
+    public static SourceConsistencyChecker getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return Whether {@link #ENABLED_CONFIG_KEY} is <code>true</code>.
+     */
+    static boolean isEnabled() {
+        return ConfigurationFactory.getInstance().
+                getBoolean(ENABLED_CONFIG_KEY, false);
+    }
+
+    private SourceConsistencyChecker() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(MAX_QUEUE_SIZE),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        final Thread thread = new Thread(runnable,
+                                "SourceConsistencyChecker");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Schedules a check of the source image with the given identifier, unless
+     * checking is disabled or the source image has been checked recently.
+     *
+     * @param identifier
+     */
+    public void check(final Identifier identifier) {
+        if (!isEnabled()) {
+            return;
+        }
+        final long intervalMsec = 1000 * ConfigurationFactory.getInstance().
+                getLong(INTERVAL_CONFIG_KEY, 3600);
+        final long now = System.currentTimeMillis();
+        synchronized (checkTimes) {
+            final Long lastCheckTime = checkTimes.get(identifier);
+            if (lastCheckTime != null && now - lastCheckTime < intervalMsec) {
+                return;
+            }
+            checkTimes.put(identifier, now);
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                checkNow(identifier);
+            }
+        });
+    }
+
+    /**
+     * Checks the source image with the given identifier synchronously,
+     * purging all cached content relating to it if it is missing.
+     *
+     * @param identifier
+     * @return Whether the source image is known to be missing.
+     */
+    boolean checkNow(Identifier identifier) {
+        // Make sure the resolver actually performs a lookup.
+        ResolutionCache.getInstance().purge(identifier);
+        try {
+            final Resolver resolver = ResolverFactory.getResolver(identifier);
+            resolver.getSourceFormat();
+            return false;
+        } catch (FileNotFoundException e) {
+            logger.info("checkNow(): source image of {} is missing; " +
+                    "purging it from the cache", identifier);
+            try {
+                final Cache cache = CacheFactory.getDerivativeCache();
+                if (cache != null) {
+                    cache.purgeImage(identifier);
+                }
+            } catch (Exception e2) {
+                logger.error("checkNow(): {}", e2.getMessage());
+            }
+            InformationResponseCache.getInstance().purge(identifier);
+            ImageInfoCache.getInstance().purge(identifier);
+            return true;
+        } catch (Exception e) {
+            logger.warn("checkNow(): failed to check {}: {}",
+                    identifier, e.getMessage());
+            return false;
+        }
+    }
+
+}
@@ -4,6 +4,7 @@ import edu.illinois.library.cantaloupe.cache.CacheException;
 import edu.illinois.library.cantaloupe.cache.CacheFactory;
 import edu.illinois.library.cantaloupe.cache.SourceCache;
 import edu.illinois.library.cantaloupe.cache.SourceCacheDisabledException;
+import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.processor.FileProcessor;
@@ -11,19 +12,24 @@ import edu.illinois.library.cantaloupe.processor.IncompatibleResolverException;
 import edu.illinois.library.cantaloupe.processor.Processor;
 import edu.illinois.library.cantaloupe.processor.StreamProcessor;
 import edu.illinois.library.cantaloupe.resolver.FileResolver;
-import edu.illinois.library.cantaloupe.resolver.InputStreamStreamSource;
+import edu.illinois.library.cantaloupe.resolver.FileStreamSource;
+import edu.illinois.library.cantaloupe.resolver.ParallelChunkedDownloader;
+import edu.illinois.library.cantaloupe.resolver.RangeReader;
+import edu.illinois.library.cantaloupe.resolver.RangedStreamSource;
 import edu.illinois.library.cantaloupe.resolver.Resolver;
 import edu.illinois.library.cantaloupe.resolver.StreamResolver;
 import edu.illinois.library.cantaloupe.resolver.StreamSource;
+import edu.illinois.library.cantaloupe.util.Stopwatch;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 /**
  * Establishes the best connection between a processor and a resolver.
@@ -37,6 +43,12 @@ public class SourceImageWrangler {
     private static final Logger logger = LoggerFactory.
             getLogger(SourceImageWrangler.class);
 
+    static final String PARALLEL_DOWNLOAD_CHUNK_SIZE_CONFIG_KEY =
+            "cache.source.parallel_download.chunk_size";
+    static final String PARALLEL_DOWNLOAD_ENABLED_CONFIG_KEY =
+            "cache.source.parallel_download.enabled";
+    static final String PARALLEL_DOWNLOAD_THREADS_CONFIG_KEY =
+            "cache.source.parallel_download.threads";
     static final String STREAMPROCESSOR_RETRIEVAL_STRATEGY_CONFIG_KEY =
             "StreamProcessor.retrieval_strategy";
 
@@ -92,7 +104,10 @@ public class SourceImageWrangler {
      *             and the processor will read the file returned by
      *             {@link SourceCache#getImageFile(Identifier)}. This will
      *             block, and other threads trying to access the same source
-     *             image will wait for it to download.</li>
+     *             image will wait for it to download. If
+     *             {@link #PARALLEL_DOWNLOAD_ENABLED_CONFIG_KEY} is
+     *             <code>true</code> and the resolver supports ranged reads,
+     *             the image will be downloaded in chunks concurrently.</li>
      *             <li>Otherwise, an {@link IncompatibleResolverException}
      *             will be thrown.</li>
      *         </ul>
@@ -180,22 +195,65 @@ public class SourceImageWrangler {
         if (processor instanceof FileProcessor) {
             ((FileProcessor) processor).setSourceFile(sourceFile);
         } else {
-            InputStream inputStream = new FileInputStream(sourceFile);
-            StreamSource streamSource = new InputStreamStreamSource(inputStream);
-            ((StreamProcessor) processor).setStreamSource(streamSource);
+            ((StreamProcessor) processor).setStreamSource(
+                    new FileStreamSource(sourceFile));
         }
     }
 
     private void downloadToSourceCache(SourceCache sourceCache)
             throws IOException, CacheException {
+        final StreamSource streamSource =
+                ((StreamResolver) resolver).getStreamSource();
         // Download to the SourceCache and then read from it.
-        try (InputStream inputStream = ((StreamResolver) resolver).
-                getStreamSource().newInputStream();
-             OutputStream outputStream =
+        try (OutputStream outputStream =
                      sourceCache.getImageOutputStream(identifier)) {
-            logger.info("Downloading {} to the source cache", identifier);
-            IOUtils.copy(inputStream, outputStream);
+            if (isParallelDownloadEnabled() &&
+                    streamSource instanceof RangedStreamSource &&
+                    outputStream instanceof FileOutputStream) {
+                final RangeReader reader =
+                        ((RangedStreamSource) streamSource).newRangeReader();
+                if (reader != null) {
+                    downloadToSourceCacheInParallel(reader,
+                            ((FileOutputStream) outputStream).getChannel());
+                    return;
+                }
+            }
+            try (InputStream inputStream = streamSource.newInputStream()) {
+                logger.info("Downloading {} to the source cache", identifier);
+                IOUtils.copy(inputStream, outputStream);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Closing the output stream has committed whatever was written
+            // to the cache: a truncated image, or, in the case of a parallel
+            // download, a full-size file with zero-filled holes. It is
+            // corrupt, so it must be purged.
+            logger.warn("downloadToSourceCache(): failed to download {}: {}",
+                    identifier, e.getMessage());
+            sourceCache.purgeImage(identifier);
+            throw e;
         }
     }
 
+    private void downloadToSourceCacheInParallel(RangeReader reader,
+                                                 FileChannel channel)
+            throws IOException {
+        final Configuration config = ConfigurationFactory.getInstance();
+        final int chunkSize = 1024 * config.getInt(
+                PARALLEL_DOWNLOAD_CHUNK_SIZE_CONFIG_KEY, 4096);
+        final int numThreads = config.getInt(
+                PARALLEL_DOWNLOAD_THREADS_CONFIG_KEY, 4);
+        logger.info("Downloading {} to the source cache in {} KB chunks " +
+                "using {} threads", identifier, chunkSize / 1024, numThreads);
+        final Stopwatch watch = new Stopwatch();
+        new ParallelChunkedDownloader(reader, chunkSize, numThreads).
+                download(channel);
+        logger.debug("Downloaded {} in {} msec", identifier,
+                watch.timeElapsed());
+    }
+
+    private static boolean isParallelDownloadEnabled() {
+        return ConfigurationFactory.getInstance().getBoolean(
+                PARALLEL_DOWNLOAD_ENABLED_CONFIG_KEY, false);
+    }
+
 }
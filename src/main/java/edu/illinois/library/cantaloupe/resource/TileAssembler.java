@@ -0,0 +1,262 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.DerivativeCache;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Crop;
+import edu.illinois.library.cantaloupe.image.Operation;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.image.Scale;
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.processor.ReductionFactor;
+import edu.illinois.library.cantaloupe.processor.TileMosaic;
+import edu.illinois.library.cantaloupe.resolver.StreamSource;
+import edu.illinois.library.cantaloupe.resource.iiif.ImageInfoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Assembles images of arbitrary regions from the aligned grid of tiles
+ * that is advertised in the <code>tiles</code> key of IIIF Image API 2.x
+ * information responses.</p>
+ *
+ * <p>When {@link #ENABLED_CONFIG_KEY} is <code>true</code>, a request for a
+ * region that is not present in the derivative cache is fulfilled by
+ * compositing the grid tiles that intersect it, at the reduction factor
+ * matching the requested scale, and then cropping and scaling the result.
+ * Tiles that are not already cached are rendered from the source image and
+ * cached first (see {@link CachedDerivative}). The tiles are identical to
+ * those that a client following the first advertised grid would request, so
+ * they are shared with such clients.</p>
+ *
+ * <p>Only requests whose operations are a crop and a scale are eligible; all
+ * other operations, including metadata copying, must be no-ops. Requests
+ * that would need more than {@link #MAX_TILES} tiles are not eligible.</p>
+ */
+public final class TileAssembler {
+
+    private static Logger logger = LoggerFactory.getLogger(TileAssembler.class);
+
+    public static final String ENABLED_CONFIG_KEY =
+            "cache.server.tile_assembly.enabled";
+
+    /**
+     * Maximum number of tiles that a request may be assembled from.
+     */
+    static final int MAX_TILES = 16;
+
+    /**
+     * @see edu.illinois.library.cantaloupe.resource.iiif.v2.ImageInfoFactory
+     */
+    private static final String MIN_TILE_SIZE_CONFIG_KEY =
+            "endpoint.iiif.min_tile_size";
+
+    /**
+     * @see edu.illinois.library.cantaloupe.resource.iiif.v2.ImageInfoFactory
+     */
+    private static final int MIN_SIZE = 64;
+
+    private final ImageInfo info;
+
+    /**
+     * @return Whether {@link #ENABLED_CONFIG_KEY} is <code>true</code>.
+     */
+    public static boolean isEnabled() {
+        return ConfigurationFactory.getInstance().
+                getBoolean(ENABLED_CONFIG_KEY, false);
+    }
+
+    /**
+     * @param info Info of the source image.
+     */
+    public TileAssembler(ImageInfo info) {
+        this.info = info;
+    }
+
+    /**
+     * @param ops Requested operation list.
+     * @return Crop of the given operation list, or null if there is none.
+     */
+    private Crop getCrop(OperationList ops) {
+        for (Operation op : ops) {
+            if (op instanceof Crop) {
+                return (Crop) op;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param ops Requested operation list.
+     * @return Reduction factor of the grid that the request will be
+     *         assembled from, which is the largest one whose tiles are at
+     *         least as large as the requested scale.
+     */
+    int getReductionFactor(OperationList ops) {
+        final Dimension fullSize = info.getSize();
+        final Dimension regionSize = getCrop(ops).getResultingSize(fullSize);
+        final Dimension outputSize = ops.getResultingSize(fullSize);
+        final double scale = Math.max(
+                outputSize.width / (double) regionSize.width,
+                outputSize.height / (double) regionSize.height);
+        final int maxFactor =
+                ImageInfoUtil.maxReductionFactor(fullSize, MIN_SIZE);
+        if (scale >= 1 || maxFactor < 1) {
+            return 0;
+        }
+        return ReductionFactor.forScale(scale, maxFactor).factor;
+    }
+
+    /**
+     * @return Size of the tiles of the first grid advertised in the
+     *         information response, at full scale.
+     */
+    Dimension getTileSize() {
+        final int minTileSize = ConfigurationFactory.getInstance().
+                getInt(MIN_TILE_SIZE_CONFIG_KEY, 1024);
+        return ImageInfoUtil.getTileSize(info, minTileSize);
+    }
+
+    /**
+     * @param ops Requested operation list.
+     * @return Normalized operation lists of all of the grid tiles that
+     *         intersect the requested region, in row-major order; or an empty
+     *         list if the request is not eligible to be assembled from tiles.
+     */
+    List<OperationList> getTiles(OperationList ops) {
+        final List<OperationList> tiles = new ArrayList<>();
+        if (!isEligible(ops)) {
+            return tiles;
+        }
+        final Dimension fullSize = info.getSize();
+        final Rectangle region = getCrop(ops).getRectangle(fullSize);
+        final int scaleFactor = (int) Math.pow(2, getReductionFactor(ops));
+        final Dimension tileSize = getTileSize();
+        final int cellWidth = tileSize.width * scaleFactor;
+        final int cellHeight = tileSize.height * scaleFactor;
+
+        final int minX = (region.x / cellWidth) * cellWidth;
+        final int minY = (region.y / cellHeight) * cellHeight;
+        for (int y = minY; y < region.y + region.height; y += cellHeight) {
+            for (int x = minX; x < region.x + region.width; x += cellWidth) {
+                final int w = Math.min(cellWidth, fullSize.width - x);
+                final int h = Math.min(cellHeight, fullSize.height - y);
+                final OperationList tile = new OperationList();
+                tile.setIdentifier(ops.getIdentifier());
+                tile.setOutputFormat(ops.getOutputFormat());
+                tile.getOptions().putAll(ops.getOptions());
+                tile.add(new Crop(x, y, w, h));
+                tile.add(new Scale((int) Math.ceil(w / (double) scaleFactor),
+                        null, Scale.Mode.ASPECT_FIT_WIDTH));
+                tile.normalize(fullSize);
+                tiles.add(tile);
+                if (tiles.size() > MAX_TILES) {
+                    tiles.clear();
+                    return tiles;
+                }
+            }
+        }
+        // If the request is for a single grid tile, there is nothing to
+        // assemble.
+        if (tiles.size() == 1 && tiles.get(0).equals(ops)) {
+            tiles.clear();
+        }
+        return tiles;
+    }
+
+    /**
+     * @param ops
+     * @return Whether the image requested by the given operation list can be
+     *         assembled from tiles.
+     */
+    boolean isEligible(OperationList ops) {
+        // The grid is computed in terms of the stored size, which will differ
+        // from the orientation-aware size when it is rotated 90 or 270
+        // degrees.
+        if (!info.getOrientationSize().equals(info.getSize()) ||
+                !TileMosaic.isSupported(ops.getOutputFormat())) {
+            return false;
+        }
+        int numCrops = 0, numScales = 0;
+        for (Operation op : ops) {
+            if (op instanceof Crop) {
+                if (op.isNoOp()) {
+                    return false;
+                }
+                numCrops++;
+            } else if (op instanceof Scale) {
+                numScales++;
+            } else if (!op.isNoOp()) {
+                return false;
+            }
+        }
+        if (numCrops != 1 || numScales > 1) {
+            return false;
+        }
+        final Dimension regionSize =
+                getCrop(ops).getResultingSize(info.getSize());
+        return regionSize.width > 0 && regionSize.height > 0;
+    }
+
+    /**
+     * Writes the image requested by the given operation list by assembling
+     * it from grid tiles, rendering and caching any of them that are missing
+     * first.
+     *
+     * @param ops Requested operation list.
+     * @param processor Processor to render missing tiles with. Its source
+     *                  must be set.
+     * @param cache Derivative cache to read and write tiles from and to.
+     * @param outputStream Stream to write the requested image to.
+     * @return Whether the image was written. If <code>false</code>, the
+     *         request is not eligible, and nothing was written.
+     * @throws Exception
+     */
+    boolean render(OperationList ops, Processor processor,
+                   DerivativeCache cache, OutputStream outputStream)
+            throws Exception {
+        final List<OperationList> tiles = getTiles(ops);
+        if (tiles.isEmpty()) {
+            return false;
+        }
+        final List<StreamSource> tileSources = new ArrayList<>(tiles.size());
+        for (OperationList tile : tiles) {
+            tileSources.add(CachedDerivative.getStreamSource(tile, info,
+                    processor, cache));
+        }
+
+        final Dimension fullSize = info.getSize();
+        final Rectangle region = getCrop(ops).getRectangle(fullSize);
+        final double scale = Math.pow(0.5, getReductionFactor(ops));
+        final TileMosaic mosaic = new TileMosaic(new Dimension(
+                (int) Math.max(1, Math.round(region.width * scale)),
+                (int) Math.max(1, Math.round(region.height * scale))));
+        for (int i = 0; i < tiles.size(); i++) {
+            final OperationList tile = tiles.get(i);
+            // Map the tile's full-scale bounds into the mosaic, which covers
+            // only the requested region.
+            final Rectangle tileRegion =
+                    getCrop(tile).getRectangle(fullSize);
+            final int x1 = (int) Math.round((tileRegion.x - region.x) * scale);
+            final int y1 = (int) Math.round((tileRegion.y - region.y) * scale);
+            final int x2 = (int) Math.round(
+                    (tileRegion.x + tileRegion.width - region.x) * scale);
+            final int y2 = (int) Math.round(
+                    (tileRegion.y + tileRegion.height - region.y) * scale);
+            mosaic.add(tileSources.get(i),
+                    tile.getOutputFormat(),
+                    new Rectangle(x1, y1, x2 - x1, y2 - y1));
+        }
+        mosaic.write(ops, ops.getResultingSize(fullSize), outputStream);
+        logger.debug("render(): assembled {} from {} tiles", ops,
+                tiles.size());
+        return true;
+    }
+
+}
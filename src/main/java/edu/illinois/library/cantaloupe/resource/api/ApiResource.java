@@ -6,8 +6,12 @@ import edu.illinois.library.cantaloupe.cache.CacheFactory;
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
 import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.image.redaction.RedactionCache;
+import edu.illinois.library.cantaloupe.resolver.ResolutionCache;
 import edu.illinois.library.cantaloupe.resource.AbstractResource;
 import edu.illinois.library.cantaloupe.resource.EndpointDisabledException;
+import edu.illinois.library.cantaloupe.resource.ImageInfoCache;
+import edu.illinois.library.cantaloupe.resource.InformationResponseCache;
 import org.restlet.data.Reference;
 import org.restlet.data.Status;
 import org.restlet.ext.jackson.JacksonRepresentation;
@@ -45,13 +49,18 @@ public class ApiResource extends AbstractResource {
      */
     @Delete
     public Representation doPurge() throws Exception {
+        final String idStr = (String) this.getRequest().getAttributes().
+                get("identifier");
+        final Identifier identifier =
+                new Identifier(decodeSlashes(Reference.decode(idStr)));
+
+        ResolutionCache.getInstance().purge(identifier);
+        InformationResponseCache.getInstance().purge(identifier);
+        ImageInfoCache.getInstance().purge(identifier);
+        RedactionCache.getInstance().purge(identifier);
+
         final Cache cache = CacheFactory.getDerivativeCache();
         if (cache != null) {
-            final String idStr = (String) this.getRequest().getAttributes().
-                    get("identifier");
-            final Identifier identifier =
-                    new Identifier(decodeSlashes(Reference.decode(idStr)));
-
             cache.purgeImage(identifier);
         }
         return new EmptyRepresentation();
@@ -0,0 +1,296 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import edu.illinois.library.cantaloupe.WebApplication;
+import edu.illinois.library.cantaloupe.cache.CacheException;
+import edu.illinois.library.cantaloupe.cache.CacheFactory;
+import edu.illinois.library.cantaloupe.cache.DerivativeCache;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+import edu.illinois.library.cantaloupe.processor.MultiFrameProcessor;
+import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
+import edu.illinois.library.cantaloupe.processor.UnsupportedOutputFormatException;
+import edu.illinois.library.cantaloupe.processor.imageio.ImageWriter;
+import edu.illinois.library.cantaloupe.resolver.Resolver;
+import edu.illinois.library.cantaloupe.resolver.ResolverFactory;
+import edu.illinois.library.cantaloupe.resource.AbstractResource;
+import edu.illinois.library.cantaloupe.resource.EndpointDisabledException;
+import edu.illinois.library.cantaloupe.resource.SourceImageWrangler;
+import edu.illinois.library.cantaloupe.resource.iiif.v2.Parameters;
+import edu.illinois.library.cantaloupe.util.Stopwatch;
+import org.restlet.data.Form;
+import org.restlet.data.Reference;
+import org.restlet.data.Status;
+import org.restlet.representation.OutputRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.representation.StringRepresentation;
+import org.restlet.resource.Get;
+import org.restlet.resource.ResourceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Renders several frames of a video, or pages of a document, in one pass,
+ * and responds with a sprite sheet of them, which is useful for building
+ * scrubbers and contact sheets.</p>
+ *
+ * <p>The frames are requested with a GET to
+ * {@link WebApplication#FRAMES_PATH}<code>/{identifier}</code> with either a
+ * <code>times</code> (<code>hh:mm:ss</code>) or a <code>pages</code> query
+ * argument containing a comma-separated list, and optional
+ * <code>size</code> (in IIIF Image API 2.x syntax; default
+ * <code>200,</code>), <code>format</code> (default <code>jpg</code>), and
+ * <code>columns</code> (default <code>ceil(sqrt(number of frames))</code>)
+ * arguments. The frames are laid out from left to right and top to bottom in
+ * equal-sized cells, so that clients can locate them by dividing up the
+ * sheet.</p>
+ *
+ * <p>Each frame is equivalent to an IIIF Image API 2.x request for the full
+ * region at the given size with a <code>time</code> or <code>page</code>
+ * query argument, and is written into the derivative cache, from which such
+ * requests can then be served. The sheet as a whole is subject to
+ * {@link #MAX_PIXELS_CONFIG_KEY}, like each frame.</p>
+ *
+ * @see MultiFrameProcessor
+ */
+public class FramesResource extends AbstractResource {
+
+    private static Logger logger = LoggerFactory.
+            getLogger(FramesResource.class);
+
+    static final String MAX_FRAMES_CONFIG_KEY = "endpoint.api.frames.max";
+
+    private static final String DEFAULT_FORMAT = "jpg";
+    private static final String DEFAULT_SIZE = "200,";
+
+    /**
+     * @param value Comma-separated list.
+     * @return Non-empty elements of the list.
+     */
+    static List<String> toList(String value) {
+        final List<String> list = new ArrayList<>();
+        if (value != null) {
+            for (String part : value.split(",")) {
+                part = part.trim();
+                if (!part.isEmpty()) {
+                    list.add(part);
+                }
+            }
+        }
+        return list;
+    }
+
+    @Override
+    protected void doInit() throws ResourceException {
+        if (!ConfigurationFactory.getInstance().
+                getBoolean(ApiResource.ENABLED_CONFIG_KEY, true)) {
+            throw new EndpointDisabledException();
+        }
+        super.doInit();
+    }
+
+    /**
+     * @return Sprite sheet of the requested frames.
+     * @throws Exception
+     */
+    @Get
+    public Representation doGet() throws Exception {
+        final Stopwatch watch = new Stopwatch();
+        final String idStr = (String) getRequest().getAttributes().
+                get("identifier");
+        final Identifier identifier =
+                new Identifier(decodeSlashes(Reference.decode(idStr)));
+
+        final Form query = getReference().getQueryAsForm(true);
+        final List<String> times = toList(query.getFirstValue("times"));
+        final List<String> pages = toList(query.getFirstValue("pages"));
+        if (times.isEmpty() == pages.isEmpty()) {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST,
+                    "Exactly one of times or pages is required");
+        }
+        // These are the names of the options that select a frame or page in
+        // the image endpoints.
+        final String optionName = times.isEmpty() ? "page" : "time";
+        final List<String> optionValues = times.isEmpty() ? pages : times;
+        final int maxFrames = ConfigurationFactory.getInstance().
+                getInt(MAX_FRAMES_CONFIG_KEY, 100);
+        if (optionValues.size() > maxFrames) {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST,
+                    "No more than " + maxFrames + " frames may be requested");
+        }
+        int columns = 0;
+        try {
+            columns = Integer.parseInt(query.getFirstValue("columns", "0"));
+        } catch (NumberFormatException e) {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST,
+                    "Invalid columns");
+        }
+
+        final Resolver resolver = ResolverFactory.getResolver(identifier);
+        final Format sourceFormat = resolver.getSourceFormat();
+        final Processor processor = ProcessorFactory.getProcessor(sourceFormat);
+        if (!(processor instanceof MultiFrameProcessor)) {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST,
+                    processor.getClass().getSimpleName() + " can't render " +
+                            "multiple frames of " + identifier);
+        }
+        new SourceImageWrangler(resolver, processor, identifier).wrangle();
+
+        final ImageInfo info = getOrReadInfo(identifier, processor);
+        final Dimension fullSize = info.getSize();
+        final long maxPixels = ConfigurationFactory.getInstance().
+                getLong(MAX_PIXELS_CONFIG_KEY, 0);
+
+        final List<OperationList> opLists = new ArrayList<>();
+        final List<Dimension> sizes = new ArrayList<>();
+        for (String value : optionValues) {
+            final Parameters params = new Parameters("placeholder", "full",
+                    query.getFirstValue("size", DEFAULT_SIZE), "0",
+                    "default", query.getFirstValue("format", DEFAULT_FORMAT));
+            params.setIdentifier(identifier);
+            final OperationList ops = params.toOperationList();
+            ops.getOptions().put(optionName, value);
+
+            // Subject each frame to the same checks and operations as an
+            // image request for it.
+            final StringRepresentation redirectingRep =
+                    checkAuthorization(ops, fullSize);
+            if (redirectingRep != null) {
+                return redirectingRep;
+            }
+            checkRequest(ops, fullSize);
+            addNonEndpointOperations(ops, fullSize);
+            ops.normalize(fullSize);
+
+            if (!processor.getAvailableOutputFormats().
+                    contains(ops.getOutputFormat())) {
+                throw new UnsupportedOutputFormatException(String.format(
+                        "%s does not support the \"%s\" output format",
+                        processor.getClass().getSimpleName(),
+                        ops.getOutputFormat().getPreferredExtension()));
+            }
+            final Dimension size = ops.getResultingSize(fullSize);
+            if (maxPixels > 0 && size.width * size.height > maxPixels) {
+                throw new ResourceException(Status.CLIENT_ERROR_FORBIDDEN,
+                        "The requested image pixel area exceeds the " +
+                                "threshold set in the configuration.");
+            }
+            opLists.add(ops);
+            sizes.add(size);
+        }
+        // The sheet is itself an image, which is subject to the same limit.
+        if (maxPixels > 0 &&
+                SpriteSheet.getNumPixels(sizes, columns) > maxPixels) {
+            throw new ResourceException(Status.CLIENT_ERROR_FORBIDDEN,
+                    "The requested image pixel area exceeds the " +
+                            "threshold set in the configuration.");
+        }
+
+        final List<BufferedImage> frames = renderFrames(
+                (MultiFrameProcessor) processor, info, opLists);
+        final BufferedImage sheet = SpriteSheet.compose(frames, columns);
+        logger.debug("doGet(): rendered {} frames of {} in {} msec",
+                frames.size(), identifier, watch.timeElapsed());
+
+        final Format outputFormat = opLists.get(0).getOutputFormat();
+        return new OutputRepresentation(
+                outputFormat.getPreferredMediaType()) {
+            @Override
+            public void write(OutputStream outputStream) throws IOException {
+                new ImageWriter(new OperationList(identifier, outputFormat)).
+                        write(sheet, outputFormat, outputStream);
+            }
+        };
+    }
+
+    /**
+     * Renders all of the frames that are not already in the derivative
+     * cache with a single invocation of the processor, writing them into the
+     * cache at the same time. Rendered frames are used as they are, rather
+     * than decoded again after having been encoded for the cache.
+     *
+     * @return Frames, in the same order as the operation lists.
+     */
+    private List<BufferedImage> renderFrames(MultiFrameProcessor processor,
+                                             ImageInfo info,
+                                             List<OperationList> opLists)
+            throws Exception {
+        final DerivativeCache cache = isBypassingCache() ?
+                null : CacheFactory.getDerivativeCache();
+
+        final BufferedImage[] frames = new BufferedImage[opLists.size()];
+        final List<Integer> uncachedIndices = new ArrayList<>();
+        final List<OperationList> uncachedOpLists = new ArrayList<>();
+        final List<OutputStream> outputStreams = new ArrayList<>();
+        final List<OutputStream> cacheOutputStreams = new ArrayList<>();
+        boolean succeeded = false;
+        try {
+            for (int i = 0; i < opLists.size(); i++) {
+                final OperationList ops = opLists.get(i);
+                if (cache != null) {
+                    try (InputStream inputStream =
+                                 cache.getImageInputStream(ops)) {
+                        if (inputStream != null) {
+                            frames[i] = ImageIO.read(inputStream);
+                            if (frames[i] == null) {
+                                throw new IOException(
+                                        "Unable to read a cached frame");
+                            }
+                            continue;
+                        }
+                    }
+                    final OutputStream cacheOutputStream =
+                            cache.getImageOutputStream(ops);
+                    cacheOutputStreams.add(cacheOutputStream);
+                    outputStreams.add(cacheOutputStream);
+                } else {
+                    // Without a cache, the frames don't need to be encoded.
+                    outputStreams.add(null);
+                }
+                uncachedIndices.add(i);
+                uncachedOpLists.add(ops);
+            }
+            if (!uncachedOpLists.isEmpty()) {
+                final List<BufferedImage> renderedFrames = processor.process(
+                        uncachedOpLists, info, outputStreams);
+                for (int i = 0; i < renderedFrames.size(); i++) {
+                    frames[uncachedIndices.get(i)] = renderedFrames.get(i);
+                }
+            }
+            succeeded = true;
+        } finally {
+            for (OutputStream outputStream : cacheOutputStreams) {
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    logger.error("renderFrames(): {}", e.getMessage());
+                }
+            }
+            // The cached images may have been incompletely written.
+            if (!succeeded && cache != null) {
+                for (OperationList ops : uncachedOpLists) {
+                    try {
+                        cache.purge(ops);
+                    } catch (CacheException e) {
+                        logger.error("renderFrames(): {}", e.getMessage());
+                    }
+                }
+            }
+        }
+        return Arrays.asList(frames);
+    }
+
+}
@@ -0,0 +1,264 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import edu.illinois.library.cantaloupe.cache.CacheException;
+import edu.illinois.library.cantaloupe.cache.CacheFactory;
+import edu.illinois.library.cantaloupe.cache.DerivativeCache;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.image.redaction.RedactionService;
+import edu.illinois.library.cantaloupe.image.watermark.WatermarkService;
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+import edu.illinois.library.cantaloupe.processor.Processor;
+import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
+import edu.illinois.library.cantaloupe.resolver.Resolver;
+import edu.illinois.library.cantaloupe.resolver.ResolverFactory;
+import edu.illinois.library.cantaloupe.resource.AbstractResource;
+import edu.illinois.library.cantaloupe.resource.ImageInfoCache;
+import edu.illinois.library.cantaloupe.resource.NonEndpointOperations;
+import edu.illinois.library.cantaloupe.resource.SizeLadder;
+import edu.illinois.library.cantaloupe.resource.SourceImageWrangler;
+import edu.illinois.library.cantaloupe.resource.iiif.ImageInfoUtil;
+import edu.illinois.library.cantaloupe.resource.iiif.v2.Parameters;
+import edu.illinois.library.cantaloupe.util.Stopwatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Dimension;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>Performs all of the work that the first request for an image would
+ * otherwise pay for: resolving its identifier; reading its info; staging it
+ * in the source cache (if the resolver and processor call for it); and
+ * rendering a configurable set of derivatives into the derivative cache.</p>
+ *
+ * <p>The derivatives are the IIIF Image API 2.x requests that a typical
+ * viewer would make first:</p>
+ *
+ * <ul>
+ *     <li>Full-region images at each of the widths in
+ *     {@link #THUMBNAIL_WIDTHS_CONFIG_KEY};</li>
+ *     <li>Every rung of the {@link SizeLadder}, if it is enabled;</li>
+ *     <li>Every tile in the {@link #TILE_LEVELS_CONFIG_KEY} lowest-resolution
+ *     levels of the tile pyramid advertised in the information response.</li>
+ * </ul>
+ *
+ * <p>Derivatives are not rendered when redactions or watermarks are enabled,
+ * as these vary per request, which would cause the rendered images to never
+ * be served.</p>
+ */
+class IdentifierWarmer {
+
+    private static Logger logger = LoggerFactory.
+            getLogger(IdentifierWarmer.class);
+
+    static final String FORMAT_CONFIG_KEY = "endpoint.api.warmup.format";
+    static final String THUMBNAIL_WIDTHS_CONFIG_KEY =
+            "endpoint.api.warmup.thumbnail_widths";
+    static final String TILE_LEVELS_CONFIG_KEY =
+            "endpoint.api.warmup.tile_levels";
+
+    /**
+     * @see edu.illinois.library.cantaloupe.resource.iiif.v2.ImageInfoFactory
+     */
+    private static final String MIN_TILE_SIZE_CONFIG_KEY =
+            "endpoint.iiif.min_tile_size";
+
+    /**
+     * @see edu.illinois.library.cantaloupe.resource.iiif.v2.ImageInfoFactory
+     */
+    private static final int MIN_SIZE = 64;
+
+    private final Identifier identifier;
+
+    /**
+     * @param value Configuration value, which may be a collection or a comma-
+     *              or space-separated string.
+     * @return List of the integers in the value.
+     */
+    static List<Integer> toIntegerList(Object value) {
+        final List<Integer> ints = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object element : (Collection) value) {
+                ints.addAll(toIntegerList(element));
+            }
+        } else if (value != null) {
+            for (String part : value.toString().split("[,\\s]+")) {
+                if (!part.isEmpty()) {
+                    ints.add(Integer.parseInt(part));
+                }
+            }
+        }
+        return ints;
+    }
+
+    IdentifierWarmer(Identifier identifier) {
+        this.identifier = identifier;
+    }
+
+    /**
+     * @param info Info of the source image.
+     * @return Normalized operation lists of the derivatives to render, in
+     *         the same form as the IIIF Image API 2.x endpoint would produce
+     *         for the corresponding requests.
+     */
+    List<OperationList> getDerivativeOperations(ImageInfo info) {
+        final Configuration config = ConfigurationFactory.getInstance();
+        final String format = config.getString(FORMAT_CONFIG_KEY, "jpg");
+        final List<OperationList> opLists = new ArrayList<>();
+
+        // Thumbnails
+        for (int width : toIntegerList(
+                config.getProperty(THUMBNAIL_WIDTHS_CONFIG_KEY))) {
+            opLists.add(newOperationList("full", width + ",", format));
+        }
+
+        // Size ladder rungs
+        if (SizeLadder.isEnabled()) {
+            opLists.addAll(new SizeLadder(info).getRungs(
+                    newOperationList("full", "full", format)));
+        }
+
+        // Tiles in the lowest-resolution levels of the pyramid
+        final int numLevels = config.getInt(TILE_LEVELS_CONFIG_KEY, 0);
+        if (numLevels > 0) {
+            final Dimension fullSize = info.getOrientationSize();
+            final Dimension tileSize = ImageInfoUtil.getTileSize(info,
+                    config.getInt(MIN_TILE_SIZE_CONFIG_KEY, 1024));
+            final int maxReductionFactor =
+                    ImageInfoUtil.maxReductionFactor(fullSize, MIN_SIZE);
+            final int minReductionFactor =
+                    Math.max(0, maxReductionFactor - numLevels + 1);
+            for (int rf = maxReductionFactor; rf >= minReductionFactor; rf--) {
+                final int scaleFactor = (int) Math.pow(2, rf);
+                final int regionWidth = tileSize.width * scaleFactor;
+                final int regionHeight = tileSize.height * scaleFactor;
+                for (int y = 0; y < fullSize.height; y += regionHeight) {
+                    for (int x = 0; x < fullSize.width; x += regionWidth) {
+                        final int w = Math.min(regionWidth, fullSize.width - x);
+                        final int h = Math.min(regionHeight, fullSize.height - y);
+                        final String region = (w == fullSize.width &&
+                                h == fullSize.height) ?
+                                "full" : x + "," + y + "," + w + "," + h;
+                        final int scaledWidth =
+                                (int) Math.ceil(w / (double) scaleFactor);
+                        opLists.add(newOperationList(region,
+                                scaledWidth + ",", format));
+                    }
+                }
+            }
+        }
+        for (OperationList ops : opLists) {
+            ops.normalize(info.getSize());
+        }
+        return opLists;
+    }
+
+    private OperationList newOperationList(String region, String size,
+                                           String format) {
+        final Parameters params = new Parameters(
+                "placeholder", region, size, "0", "default", format);
+        params.setIdentifier(identifier);
+        final OperationList ops = params.toOperationList();
+        NonEndpointOperations.addRequestIndependentOperations(ops);
+        return ops;
+    }
+
+    /**
+     * @return Whether derivatives will be affected by request-dependent
+     *         operations that can't be replicated here.
+     */
+    private boolean isRenderingPossible() {
+        return !RedactionService.isEnabled() &&
+                !new WatermarkService().isEnabled();
+    }
+
+    /**
+     * Warms up the identifier.
+     *
+     * @return Number of derivatives that were rendered.
+     * @throws Exception
+     */
+    int warm() throws Exception {
+        final Stopwatch watch = new Stopwatch();
+
+        final Resolver resolver = ResolverFactory.getResolver(identifier);
+        final Format format = resolver.getSourceFormat();
+        final Processor processor = ProcessorFactory.getProcessor(format);
+        new SourceImageWrangler(resolver, processor, identifier).wrangle();
+
+        final DerivativeCache cache = CacheFactory.getDerivativeCache();
+        if (cache == null) {
+            ImageInfoCache.getInstance().put(identifier,
+                    processor.getImageInfo());
+            logger.debug("warm(): derivative cache is disabled; warmed {} " +
+                    "in {} msec", identifier, watch.timeElapsed());
+            return 0;
+        }
+
+        ImageInfo info = cache.getImageInfo(identifier);
+        if (info == null) {
+            info = processor.getImageInfo();
+            cache.putImageInfo(identifier, info);
+        }
+
+        int count = 0;
+        if (isRenderingPossible()) {
+            final long maxPixels = ConfigurationFactory.getInstance().
+                    getLong(AbstractResource.MAX_PIXELS_CONFIG_KEY, 0);
+            for (OperationList ops : getDerivativeOperations(info)) {
+                if (!processor.getAvailableOutputFormats().
+                        contains(ops.getOutputFormat())) {
+                    continue;
+                }
+                final Dimension size = ops.getResultingSize(info.getSize());
+                if (maxPixels > 0 && size.width * size.height > maxPixels) {
+                    continue;
+                }
+                if (render(cache, processor, info, ops)) {
+                    count++;
+                }
+            }
+        } else {
+            logger.debug("warm(): redactions or watermarks are enabled; " +
+                    "skipping derivatives of {}", identifier);
+        }
+        logger.debug("warm(): warmed {} ({} derivatives) in {} msec",
+                identifier, count, watch.timeElapsed());
+        return count;
+    }
+
+    /**
+     * @return Whether the derivative was rendered, as opposed to already
+     *         existing in the cache.
+     */
+    private boolean render(DerivativeCache cache, Processor processor,
+                           ImageInfo info, OperationList ops)
+            throws Exception {
+        try (InputStream inputStream = cache.getImageInputStream(ops)) {
+            if (inputStream != null) {
+                return false;
+            }
+        }
+        try (OutputStream outputStream = cache.getImageOutputStream(ops)) {
+            processor.process(ops, info, outputStream);
+        } catch (Exception e) {
+            // The cached image may have been incompletely written.
+            try {
+                cache.purge(ops);
+            } catch (CacheException e2) {
+                logger.error("render(): {}", e2.getMessage());
+            }
+            throw e;
+        }
+        return true;
+    }
+
+}
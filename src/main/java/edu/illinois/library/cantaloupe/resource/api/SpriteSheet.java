@@ -0,0 +1,100 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lays out images in a grid of equal-sized cells, from left to right and top
+ * to bottom. The cells are as large as the largest image, and each image is
+ * drawn in the top left corner of its cell.
+ */
+final class SpriteSheet {
+
+    /**
+     * @param numImages Number of images in the sheet.
+     * @param requestedColumns Requested number of columns, or 0 for
+     *                         automatic.
+     * @return Number of columns to use: the requested number, if any, but no
+     *         more than the number of images; or else enough to make the
+     *         grid roughly square.
+     */
+    static int getNumColumns(int numImages, int requestedColumns) {
+        if (requestedColumns > 0) {
+            return Math.min(requestedColumns, numImages);
+        }
+        return (int) Math.ceil(Math.sqrt(numImages));
+    }
+
+    /**
+     * @param sizes Sizes of the images in the sheet. Must not be empty.
+     * @return Size of a cell of the sheet, which is the size of the largest
+     *         image.
+     */
+    static Dimension getCellSize(List<Dimension> sizes) {
+        final Dimension cellSize = new Dimension();
+        for (Dimension size : sizes) {
+            cellSize.width = Math.max(cellSize.width, size.width);
+            cellSize.height = Math.max(cellSize.height, size.height);
+        }
+        return cellSize;
+    }
+
+    /**
+     * @param sizes Sizes of the images in the sheet. Must not be empty.
+     * @param requestedColumns Requested number of columns, or 0 for
+     *                         automatic.
+     * @return Number of pixels in the sheet, which may be too many to fit
+     *         in an image.
+     */
+    static long getNumPixels(List<Dimension> sizes, int requestedColumns) {
+        final Dimension cellSize = getCellSize(sizes);
+        final int numColumns = getNumColumns(sizes.size(), requestedColumns);
+        final int numRows = getNumRows(sizes.size(), numColumns);
+        return (long) cellSize.width * numColumns *
+                (long) cellSize.height * numRows;
+    }
+
+    private static int getNumRows(int numImages, int numColumns) {
+        return (int) Math.ceil(numImages / (double) numColumns);
+    }
+
+    /**
+     * @param images Images to lay out. Must not be empty.
+     * @param requestedColumns Requested number of columns, or 0 for
+     *                         automatic.
+     * @return New sprite sheet.
+     */
+    static BufferedImage compose(List<BufferedImage> images,
+                                 int requestedColumns) {
+        final List<Dimension> sizes = new ArrayList<>(images.size());
+        boolean hasAlpha = false;
+        for (BufferedImage image : images) {
+            sizes.add(new Dimension(image.getWidth(), image.getHeight()));
+            hasAlpha = hasAlpha || image.getColorModel().hasAlpha();
+        }
+        final Dimension cellSize = getCellSize(sizes);
+        final int cellWidth = cellSize.width;
+        final int cellHeight = cellSize.height;
+        final int numColumns =
+                getNumColumns(images.size(), requestedColumns);
+        final int numRows = getNumRows(images.size(), numColumns);
+
+        final BufferedImage sheet = new BufferedImage(
+                cellWidth * numColumns, cellHeight * numRows,
+                hasAlpha ? BufferedImage.TYPE_INT_ARGB :
+                        BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2d = sheet.createGraphics();
+        for (int i = 0; i < images.size(); i++) {
+            g2d.drawImage(images.get(i), (i % numColumns) * cellWidth,
+                    (i / numColumns) * cellHeight, null);
+        }
+        g2d.dispose();
+        return sheet;
+    }
+
+    private SpriteSheet() {}
+
+}
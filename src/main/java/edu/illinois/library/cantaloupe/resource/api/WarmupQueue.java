@@ -0,0 +1,134 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Runs {@link WarmupTask}s on a bounded pool of worker threads, each of
+ * which warms up one identifier at a time using an
+ * {@link IdentifierWarmer}. Identifiers from all tasks share a single queue
+ * with a maximum size of {@link #QUEUE_SIZE_CONFIG_KEY}.</p>
+ *
+ * <p>The most recent {@link #MAX_TASKS} tasks are retained for progress
+ * reporting.</p>
+ */
+class WarmupQueue {
+
+    private static Logger logger = LoggerFactory.getLogger(WarmupQueue.class);
+
+    static final String QUEUE_SIZE_CONFIG_KEY =
+            "endpoint.api.warmup.queue_size";
+    static final String THREADS_CONFIG_KEY = "endpoint.api.warmup.threads";
+
+    /** Maximum number of tasks to retain for progress reporting. */
+    static final int MAX_TASKS = 1000;
+
+    private static WarmupQueue instance;
+
+    private final ThreadPoolExecutor executor;
+    private final LinkedBlockingQueue<Runnable> queue;
+    private final Map<String,WarmupTask> tasks =
+            new LinkedHashMap<String,WarmupTask>() {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String,WarmupTask> eldest) {
+                    return size() > MAX_TASKS;
+                }
+            };
+
+    /**
+     * @return Shared instance, configured at the time of first access.
+     */
+    static synchronized WarmupQueue getInstance() {
+        if (instance == null) {
+            final Configuration config = ConfigurationFactory.getInstance();
+            instance = new WarmupQueue(
+                    config.getInt(THREADS_CONFIG_KEY, 2),
+                    config.getInt(QUEUE_SIZE_CONFIG_KEY, 10000));
+        }
+        return instance;
+    }
+
+    /**
+     * @param numThreads Number of worker threads.
+     * @param queueSize Maximum number of identifiers awaiting a worker.
+     */
+    WarmupQueue(int numThreads, int queueSize) {
+        final AtomicInteger threadCount = new AtomicInteger(0);
+        queue = new LinkedBlockingQueue<>(queueSize);
+        executor = new ThreadPoolExecutor(numThreads, numThreads,
+                0L, TimeUnit.MILLISECONDS, queue, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        final Thread thread = new Thread(runnable,
+                                "warmup-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * @param id Task ID.
+     * @return Task with the given ID, or null if there is no such task.
+     */
+    WarmupTask getTask(String id) {
+        synchronized (tasks) {
+            return tasks.get(id);
+        }
+    }
+
+    /**
+     * Queues all of the identifiers in the given task.
+     *
+     * @param task Task to queue.
+     * @throws RejectedExecutionException If the queue does not have room for
+     *                                    all of the task's identifiers.
+     */
+    void submit(final WarmupTask task) {
+        if (queue.remainingCapacity() < task.getIdentifiers().size()) {
+            throw new RejectedExecutionException("The warm-up queue is full.");
+        }
+        synchronized (tasks) {
+            tasks.put(task.getId(), task);
+        }
+        for (final Identifier identifier : task.getIdentifiers()) {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        task.identifierStarted();
+                        try {
+                            task.addDerivatives(
+                                    new IdentifierWarmer(identifier).warm());
+                            task.identifierSucceeded();
+                        } catch (Exception e) {
+                            logger.warn("Failed to warm up {}: {}",
+                                    identifier, e.getMessage());
+                            task.identifierFailed(identifier,
+                                    e.getClass().getSimpleName() + ": " +
+                                            e.getMessage());
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Another task filled up the queue in the meantime.
+                task.identifierFailed(identifier, e.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.illinois.library.cantaloupe.WebApplication;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.resource.AbstractResource;
+import edu.illinois.library.cantaloupe.resource.EndpointDisabledException;
+import org.restlet.data.Reference;
+import org.restlet.data.Status;
+import org.restlet.ext.jackson.JacksonRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.resource.Get;
+import org.restlet.resource.Post;
+import org.restlet.resource.ResourceException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * <p>Accepts batches of identifiers to warm up asynchronously, and reports
+ * on their progress.</p>
+ *
+ * <p>A batch is submitted by POSTing a JSON object with an
+ * <code>identifiers</code> array to {@link WebApplication#WARMUP_PATH}. The
+ * response is <code>202 Accepted</code> with a <code>Location</code> header
+ * pointing to the task's status, which can be polled with GET.</p>
+ *
+ * @see IdentifierWarmer
+ */
+public class WarmupResource extends AbstractResource {
+
+    @Override
+    protected void doInit() throws ResourceException {
+        if (!ConfigurationFactory.getInstance().
+                getBoolean(ApiResource.ENABLED_CONFIG_KEY, true)) {
+            throw new EndpointDisabledException();
+        }
+        super.doInit();
+    }
+
+    /**
+     * @return JSON representation of the task with the ID in the URI.
+     * @throws Exception
+     */
+    @Get("application/json")
+    public Representation getTask() throws Exception {
+        final String id = (String) getRequest().getAttributes().get("task");
+        final WarmupTask task = WarmupQueue.getInstance().getTask(id);
+        if (task == null) {
+            throw new ResourceException(Status.CLIENT_ERROR_NOT_FOUND);
+        }
+        return new JacksonRepresentation<>(task.toMap());
+    }
+
+    /**
+     * @param rep POSTed JSON object containing an <code>identifiers</code>
+     *            array.
+     * @return JSON representation of the new task.
+     * @throws Exception
+     */
+    @Post("application/json")
+    public Representation submitTask(Representation rep) throws Exception {
+        final Map payload = new ObjectMapper().readValue(
+                rep.getStream(), HashMap.class);
+        final Object idsObj = payload.get("identifiers");
+        if (!(idsObj instanceof List) || ((List) idsObj).isEmpty()) {
+            throw new ResourceException(Status.CLIENT_ERROR_BAD_REQUEST,
+                    "Missing or empty identifiers array");
+        }
+        final List<Identifier> identifiers = new ArrayList<>();
+        for (Object idObj : (List) idsObj) {
+            identifiers.add(new Identifier(idObj.toString()));
+        }
+
+        final WarmupTask task = new WarmupTask(identifiers);
+        try {
+            WarmupQueue.getInstance().submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ResourceException(
+                    Status.SERVER_ERROR_SERVICE_UNAVAILABLE, e.getMessage());
+        }
+
+        getResponse().setStatus(Status.SUCCESS_ACCEPTED);
+        getResponse().setLocationRef(new Reference(
+                getPublicRootRef(getRequest()) + WebApplication.WARMUP_PATH +
+                        "/" + task.getId()));
+        return new JacksonRepresentation<>(task.toMap());
+    }
+
+}
@@ -0,0 +1,129 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import edu.illinois.library.cantaloupe.image.Identifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch of identifiers to warm up, which tracks the progress of the work
+ * performed on them by {@link WarmupQueue}. Instances are thread-safe.
+ */
+class WarmupTask {
+
+    enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final long creationTime = System.currentTimeMillis();
+    private final Map<String,String> errors = new LinkedHashMap<>();
+    private final List<Identifier> identifiers;
+    private final String id = UUID.randomUUID().toString();
+    private final AtomicInteger numDerivatives = new AtomicInteger(0);
+    private final AtomicInteger numFailed = new AtomicInteger(0);
+    private final AtomicInteger numStarted = new AtomicInteger(0);
+    private final AtomicInteger numSucceeded = new AtomicInteger(0);
+    private volatile long endTime = 0;
+
+    /**
+     * @param identifiers Identifiers to warm up.
+     */
+    WarmupTask(List<Identifier> identifiers) {
+        this.identifiers = Collections.unmodifiableList(
+                new ArrayList<>(identifiers));
+    }
+
+    /**
+     * @param count Number of derivative images that were rendered into the
+     *              derivative cache.
+     */
+    void addDerivatives(int count) {
+        numDerivatives.addAndGet(count);
+    }
+
+    String getId() {
+        return id;
+    }
+
+    List<Identifier> getIdentifiers() {
+        return identifiers;
+    }
+
+    int getNumFailed() {
+        return numFailed.get();
+    }
+
+    int getNumSucceeded() {
+        return numSucceeded.get();
+    }
+
+    Status getStatus() {
+        if (numSucceeded.get() + numFailed.get() >= identifiers.size()) {
+            return (numFailed.get() > 0) ? Status.FAILED : Status.SUCCEEDED;
+        } else if (numStarted.get() > 0) {
+            return Status.RUNNING;
+        }
+        return Status.QUEUED;
+    }
+
+    /**
+     * To be called when work on an identifier has begun.
+     */
+    void identifierStarted() {
+        numStarted.incrementAndGet();
+    }
+
+    /**
+     * To be called when work on an identifier has completed successfully.
+     */
+    void identifierSucceeded() {
+        numSucceeded.incrementAndGet();
+        checkCompletion();
+    }
+
+    /**
+     * To be called when work on an identifier has failed.
+     *
+     * @param identifier
+     * @param message Error message.
+     */
+    void identifierFailed(Identifier identifier, String message) {
+        synchronized (errors) {
+            errors.put(identifier.toString(), message);
+        }
+        numFailed.incrementAndGet();
+        checkCompletion();
+    }
+
+    private void checkCompletion() {
+        if (numSucceeded.get() + numFailed.get() >= identifiers.size()) {
+            endTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * @return Map representation of the task, suitable for serializing to
+     *         JSON.
+     */
+    Map<String,Object> toMap() {
+        final Map<String,Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        map.put("status", getStatus().toString().toLowerCase());
+        map.put("total", identifiers.size());
+        map.put("succeeded", numSucceeded.get());
+        map.put("failed", numFailed.get());
+        map.put("derivatives", numDerivatives.get());
+        map.put("created", creationTime);
+        map.put("completed", (endTime > 0) ? endTime : null);
+        synchronized (errors) {
+            map.put("errors", new LinkedHashMap<>(errors));
+        }
+        return map;
+    }
+
+}
@@ -1,9 +1,55 @@
 package edu.illinois.library.cantaloupe.resource.iiif;
 
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+
 import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.List;
 
 public class ImageInfoUtil {
 
+    /**
+     * @param info Info of the source image.
+     * @param minDimension Minimum allowed dimension.
+     * @return IIIF Image API 2.x size of the tiles of the grid that is
+     *         derived from the first (full-resolution) image of the source
+     *         image, which is always the first of {@link #getTileSizes}.
+     */
+    public static Dimension getTileSize(final ImageInfo info,
+                                        final int minDimension) {
+        return getTileSizes(info, minDimension).get(0);
+    }
+
+    /**
+     * @param info Info of the source image.
+     * @param minDimension Minimum allowed dimension.
+     * @return Distinct IIIF Image API 2.x sizes of the tiles advertised in
+     *         the information response, in the order of the images
+     *         (resolutions) of the source image that they are derived from.
+     */
+    public static List<Dimension> getTileSizes(final ImageInfo info,
+                                               final int minDimension) {
+        final Dimension fullSize = info.getOrientationSize();
+        final List<ImageInfo.Image> images = info.getImages();
+        final List<Dimension> tileSizes = new ArrayList<>();
+        // If the image is not tiled, calculate a tile size close to
+        // minDimension. Otherwise, use the smallest multiple of the tile
+        // size of each resolution above it.
+        if (images.size() == 1 &&
+                images.get(0).getOrientationTileSize().equals(fullSize)) {
+            tileSizes.add(smallestTileSize(fullSize, minDimension));
+        } else {
+            for (ImageInfo.Image image : images) {
+                final Dimension tileSize = smallestTileSize(fullSize,
+                        image.getOrientationTileSize(), minDimension);
+                if (!tileSizes.contains(tileSize)) {
+                    tileSizes.add(tileSize);
+                }
+            }
+        }
+        return tileSizes;
+    }
+
     /**
      * @param fullSize Full size of the source image.
      * @param minDimension Minimum allowed dimension.
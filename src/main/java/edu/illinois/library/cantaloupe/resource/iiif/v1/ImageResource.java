@@ -13,10 +13,13 @@ import edu.illinois.library.cantaloupe.processor.UnsupportedSourceFormatExceptio
 import edu.illinois.library.cantaloupe.resolver.Resolver;
 import edu.illinois.library.cantaloupe.resolver.ResolverFactory;
 import edu.illinois.library.cantaloupe.resource.CachedImageRepresentation;
+import edu.illinois.library.cantaloupe.resource.ImageInfoCache;
+import edu.illinois.library.cantaloupe.resource.SourceConsistencyChecker;
 import edu.illinois.library.cantaloupe.resource.SourceImageWrangler;
 import org.apache.commons.lang3.StringUtils;
 import org.restlet.data.Disposition;
 import org.restlet.data.Reference;
+import org.restlet.data.Tag;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
 import org.restlet.representation.Variant;
@@ -27,6 +30,7 @@ import java.awt.Dimension;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -63,6 +67,22 @@ public class ImageResource extends Iiif1Resource {
                 new Identifier(Reference.decode((String) attrs.get("identifier")));
         identifier = decodeSlashes(identifier);
 
+        // Extract the quality and format from the URI
+        final String[] qualityAndFormat = StringUtils.
+                split((String) attrs.get("quality_format"), ".");
+
+        // If the URI specifies the output format, the cache can be checked
+        // without resolving, which saves a trip to the source.
+        if (qualityAndFormat.length > 1 && !ConfigurationFactory.
+                getInstance().getBoolean(Cache.RESOLVE_FIRST_CONFIG_KEY, true)) {
+            final Representation rep = getCachedRepresentation(identifier,
+                    qualityAndFormat[0],
+                    qualityAndFormat[qualityAndFormat.length - 1]);
+            if (rep != null) {
+                return rep;
+            }
+        }
+
         final Resolver resolver = ResolverFactory.getResolver(identifier);
 
         // Determine the format of the source image
@@ -77,6 +97,7 @@ public class ImageResource extends Iiif1Resource {
                 if (cache != null) {
                     cache.purgeImage(identifier);
                 }
+                ImageInfoCache.getInstance().purge(identifier);
             }
             throw e;
         }
@@ -86,14 +107,9 @@ public class ImageResource extends Iiif1Resource {
         // are any issues.
         final Processor processor = ProcessorFactory.getProcessor(format);
 
-        new SourceImageWrangler(resolver, processor, identifier).wrangle();
-
         final Set<Format> availableOutputFormats =
                 processor.getAvailableOutputFormats();
 
-        // Extract the quality and format from the URI
-        String[] qualityAndFormat = StringUtils.
-                split((String) attrs.get("quality_format"), ".");
         // If a format is present, try to use that. Otherwise, guess it based
         // on the Accept header per Image API 1.1 spec section 4.5.
         String outputFormat;
@@ -105,36 +121,24 @@ public class ImageResource extends Iiif1Resource {
         }
 
         // Assemble the URI parameters into an OperationList instance
-        final OperationList ops = new Parameters(
-                (String) attrs.get("identifier"),
-                (String) attrs.get("region"),
-                (String) attrs.get("size"),
-                (String) attrs.get("rotation"),
-                qualityAndFormat[0],
-                outputFormat).toOperationList();
-        ops.setIdentifier(identifier);
-        ops.getOptions().putAll(
-                this.getReference().getQueryAsForm(true).getValuesMap());
+        final OperationList ops =
+                newOperationList(identifier, qualityAndFormat[0], outputFormat);
 
         final Disposition disposition = getRepresentationDisposition(
                 ops.getIdentifier(), ops.getOutputFormat());
 
-        // If we don't need to resolve first, and are using a cache, and the
-        // cache contains an image matching the request, skip all the setup and
-        // just return the cached image.
-        if (!ConfigurationFactory.getInstance().
-                getBoolean(Cache.RESOLVE_FIRST_CONFIG_KEY, true)) {
-            DerivativeCache cache = CacheFactory.getDerivativeCache();
-            if (cache != null) {
-                InputStream inputStream = cache.getImageInputStream(ops);
-                if (inputStream != null) {
-                    return new CachedImageRepresentation(
-                            ops.getOutputFormat().getPreferredMediaType(),
-                            disposition, inputStream);
-                }
+        // Now that the output format is known, check the cache if it hasn't
+        // been checked already.
+        if (qualityAndFormat.length <= 1) {
+            final Representation rep = getCachedRepresentation(identifier,
+                    qualityAndFormat[0], outputFormat);
+            if (rep != null) {
+                return rep;
             }
         }
 
+        new SourceImageWrangler(resolver, processor, identifier).wrangle();
+
         final ComplianceLevel complianceLevel = ComplianceLevel.getLevel(
                 processor.getSupportedFeatures(),
                 processor.getSupportedIiif1_1Qualities(),
@@ -154,6 +158,10 @@ public class ImageResource extends Iiif1Resource {
 
         addNonEndpointOperations(ops, fullSize);
 
+        // Reduce the operations to a canonical form so that equivalent
+        // requests share the same derivative cache entry.
+        ops.normalize(fullSize);
+
         // Find out whether the processor supports that source format by
         // asking it whether it offers any output formats for it
         if (!availableOutputFormats.contains(ops.getOutputFormat())) {
@@ -164,7 +172,111 @@ public class ImageResource extends Iiif1Resource {
             throw new UnsupportedSourceFormatException(msg);
         }
 
-        return getRepresentation(ops, format, disposition, processor);
+        // Respond to a conditional request before processing anything. This
+        // happens only now because the tag depends on the final operation
+        // list, and a 304 must not be returned to an unauthorized client.
+        final Tag tag = getImageEntityTag(ops, resolver);
+        final Date sourceLastModified = getSourceLastModified(resolver);
+        final Representation notModifiedRep =
+                getNotModifiedRepresentation(tag, sourceLastModified);
+        if (notModifiedRep != null) {
+            return notModifiedRep;
+        }
+
+        final Representation rep =
+                getRepresentation(ops, format, disposition, processor);
+        setImageValidators(rep, tag, sourceLastModified);
+        return rep;
+    }
+
+    /**
+     * If we don't need to resolve first, and are using a cache, and the cache
+     * contains an image matching the request, skips all the setup and just
+     * returns the cached image.
+     *
+     * @param identifier Decoded identifier.
+     * @param quality Quality from the URI.
+     * @param outputFormat Output format extension.
+     * @return Representation of the cached image; a redirecting
+     *         representation if the authorization delegate method requests
+     *         a redirect; or null if the cache can't or doesn't contain the
+     *         image.
+     * @throws Exception
+     */
+    private Representation getCachedRepresentation(Identifier identifier,
+                                                   String quality,
+                                                   String outputFormat)
+            throws Exception {
+        if (!ConfigurationFactory.getInstance().
+                getBoolean(Cache.RESOLVE_FIRST_CONFIG_KEY, true)) {
+            DerivativeCache cache = CacheFactory.getDerivativeCache();
+            final OperationList ops =
+                    newOperationList(identifier, quality, outputFormat);
+            // Derivatives are cached under the canonical form of their
+            // operation list, which is built separately so that the
+            // authorization delegate receives the operations as requested.
+            final OperationList cacheOps =
+                    newOperationList(identifier, quality, outputFormat);
+            final Dimension fullSize = (cache != null) ?
+                    normalizeForCacheLookup(cacheOps, cache) : null;
+            if (fullSize != null) {
+                InputStream inputStream = cache.getImageInputStream(cacheOps);
+                if (inputStream != null) {
+                    // A cached derivative may only be served (or validated)
+                    // to a client that is authorized to see it.
+                    final StringRepresentation redirectingRep;
+                    try {
+                        redirectingRep = checkAuthorization(ops, fullSize);
+                    } catch (Exception e) {
+                        inputStream.close();
+                        throw e;
+                    }
+                    if (redirectingRep != null) {
+                        inputStream.close();
+                        return redirectingRep;
+                    }
+                    SourceConsistencyChecker.getInstance().
+                            check(ops.getIdentifier());
+                    final Representation rep = new CachedImageRepresentation(
+                            ops.getOutputFormat().getPreferredMediaType(),
+                            getRepresentationDisposition(ops.getIdentifier(),
+                                    ops.getOutputFormat()),
+                            inputStream);
+                    final Tag tag = getImageEntityTag(cacheOps, null);
+                    setImageValidators(rep, tag, null);
+                    if (isNotModified(tag, null)) {
+                        // Restlet will respond with 304 and won't write rep,
+                        // so close the cache stream now.
+                        rep.release();
+                    }
+                    return rep;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param identifier Decoded identifier.
+     * @param quality Quality from the URI.
+     * @param outputFormat Output format extension.
+     * @return Operation list assembled from the URI parameters.
+     */
+    private OperationList newOperationList(Identifier identifier,
+                                           String quality,
+                                           String outputFormat) {
+        final Map<String,Object> attrs = this.getRequest().getAttributes();
+        final OperationList ops = new Parameters(
+                (String) attrs.get("identifier"),
+                (String) attrs.get("region"),
+                (String) attrs.get("size"),
+                (String) attrs.get("rotation"),
+                quality,
+                outputFormat).toOperationList();
+        ops.setIdentifier(identifier);
+        ops.getOptions().putAll(
+                this.getReference().getQueryAsForm(true).getValuesMap());
+        return ops;
     }
 
     /**
@@ -197,9 +309,22 @@ public class ImageResource extends Iiif1Resource {
      * Accept header.
      */
     private Format getPreferredOutputFormat(Set<Format> limitToFormats) {
+        // The response varies by the Accept header.
+        getResponse().getDimensions().add(
+                org.restlet.data.Dimension.MEDIA_TYPE);
+
+        // Variants that the client likes equally well (e.g. via */*) are
+        // resolved in favor of the earliest one, so list the default format
+        // first, and the rest in a stable order. This way, formats like WebP
+        // are only returned to clients that ask for them.
         List<Variant> variants = new ArrayList<>();
-        for (Format format : limitToFormats) {
-            variants.add(new Variant(format.getPreferredMediaType()));
+        if (limitToFormats.contains(DEFAULT_FORMAT)) {
+            variants.add(new Variant(DEFAULT_FORMAT.getPreferredMediaType()));
+        }
+        for (Format format : Format.values()) {
+            if (format != DEFAULT_FORMAT && limitToFormats.contains(format)) {
+                variants.add(new Variant(format.getPreferredMediaType()));
+            }
         }
         Variant preferred = getPreferredVariant(variants);
         if (preferred != null) {
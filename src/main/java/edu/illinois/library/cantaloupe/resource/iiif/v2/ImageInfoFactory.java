@@ -94,36 +94,14 @@ abstract class ImageInfoFactory {
         // tiles -- this is not a canonical listing of tiles that are
         // actually encoded in the image, but rather a hint to the client as
         // to what can be delivered efficiently.
-        final Set<Dimension> uniqueTileSizes = new HashSet<>();
-
         final int minTileSize = ConfigurationFactory.getInstance().
                 getInt(MIN_TILE_SIZE_CONFIG_KEY, 1024);
 
-        // Find a tile width and height. If the image is not tiled,
-        // calculate a tile size close to MIN_TILE_SIZE_CONFIG_KEY pixels.
-        // Otherwise, use the smallest multiple of the tile size above that
-        // of image resolution 0.
         final List<ImageInfo.Tile> tiles = new ArrayList<>();
         imageInfo.put("tiles", tiles);
 
-        final edu.illinois.library.cantaloupe.processor.ImageInfo.Image firstImage =
-                cacheInfo.getImages().get(0);
-
-        // Find the virtual tile size based on the virtual full image size.
-        final Dimension virtualTileSize = firstImage.getOrientationTileSize();
-
-        if (cacheInfo.getImages().size() == 1 &&
-                virtualTileSize.equals(virtualSize)) {
-            uniqueTileSizes.add(
-                    ImageInfoUtil.smallestTileSize(virtualSize, minTileSize));
-        } else {
-            for (edu.illinois.library.cantaloupe.processor.ImageInfo.Image image : cacheInfo.getImages()) {
-                uniqueTileSizes.add(
-                        ImageInfoUtil.smallestTileSize(virtualSize,
-                                image.getOrientationTileSize(), minTileSize));
-            }
-        }
-        for (Dimension uniqueTileSize : uniqueTileSizes) {
+        for (Dimension uniqueTileSize :
+                ImageInfoUtil.getTileSizes(cacheInfo, minTileSize)) {
             final ImageInfo.Tile tile = new ImageInfo.Tile();
             tile.width = uniqueTileSize.width;
             tile.height = uniqueTileSize.height;
@@ -14,9 +14,12 @@ import edu.illinois.library.cantaloupe.processor.UnsupportedOutputFormatExceptio
 import edu.illinois.library.cantaloupe.resolver.Resolver;
 import edu.illinois.library.cantaloupe.resolver.ResolverFactory;
 import edu.illinois.library.cantaloupe.resource.CachedImageRepresentation;
+import edu.illinois.library.cantaloupe.resource.ImageInfoCache;
+import edu.illinois.library.cantaloupe.resource.SourceConsistencyChecker;
 import edu.illinois.library.cantaloupe.resource.SourceImageWrangler;
 import edu.illinois.library.cantaloupe.resource.iiif.SizeRestrictedException;
 import org.restlet.data.Disposition;
+import org.restlet.data.Tag;
 import org.restlet.representation.Representation;
 import org.restlet.representation.StringRepresentation;
 import org.restlet.resource.Get;
@@ -25,6 +28,7 @@ import org.restlet.resource.ResourceException;
 import java.awt.Dimension;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -65,11 +69,8 @@ public class ImageResource extends Iiif2Resource {
                 (String) attrs.get("rotation"),
                 (String) attrs.get("quality"),
                 (String) attrs.get("format"));
-        final OperationList ops = params.toOperationList();
-        final Identifier identifier = decodeSlashes(ops.getIdentifier());
-        ops.setIdentifier(identifier);
-        ops.getOptions().putAll(
-                this.getReference().getQueryAsForm(true).getValuesMap());
+        final OperationList ops = newOperationList(params);
+        final Identifier identifier = ops.getIdentifier();
 
         final Disposition disposition = getRepresentationDisposition(
                 ops.getIdentifier(), ops.getOutputFormat());
@@ -80,13 +81,42 @@ public class ImageResource extends Iiif2Resource {
         if (!ConfigurationFactory.getInstance().
                 getBoolean(Cache.RESOLVE_FIRST_CONFIG_KEY, true)) {
             DerivativeCache cache = CacheFactory.getDerivativeCache();
-            if (cache != null) {
-                InputStream inputStream = cache.getImageInputStream(ops);
+            // Derivatives are cached under the canonical form of their
+            // operation list, which is built separately so that ops can be
+            // processed as usual in case of a miss.
+            final OperationList cacheOps = newOperationList(params);
+            final Dimension fullSize = (cache != null) ?
+                    normalizeForCacheLookup(cacheOps, cache) : null;
+            if (fullSize != null) {
+                InputStream inputStream = cache.getImageInputStream(cacheOps);
                 if (inputStream != null) {
+                    // A cached derivative may only be served (or validated)
+                    // to a client that is authorized to see it.
+                    final StringRepresentation redirectingRep;
+                    try {
+                        redirectingRep = checkAuthorization(ops, fullSize);
+                    } catch (Exception e) {
+                        inputStream.close();
+                        throw e;
+                    }
+                    if (redirectingRep != null) {
+                        inputStream.close();
+                        return redirectingRep;
+                    }
+                    SourceConsistencyChecker.getInstance().
+                            check(ops.getIdentifier());
                     this.addLinkHeader(params);
-                    return new CachedImageRepresentation(
+                    final Representation rep = new CachedImageRepresentation(
                             params.getOutputFormat().getPreferredMediaType(),
                             disposition, inputStream);
+                    final Tag tag = getImageEntityTag(cacheOps, null);
+                    setImageValidators(rep, tag, null);
+                    if (isNotModified(tag, null)) {
+                        // Restlet will respond with 304 and won't write rep,
+                        // so close the cache stream now.
+                        rep.release();
+                    }
+                    return rep;
                 }
             }
         }
@@ -104,6 +134,7 @@ public class ImageResource extends Iiif2Resource {
                 if (cache != null) {
                     cache.purgeImage(ops.getIdentifier());
                 }
+                ImageInfoCache.getInstance().purge(ops.getIdentifier());
             }
             throw e;
         }
@@ -146,6 +177,10 @@ public class ImageResource extends Iiif2Resource {
 
         addNonEndpointOperations(ops, fullSize);
 
+        // Reduce the operations to a canonical form so that equivalent
+        // requests share the same derivative cache entry.
+        ops.normalize(fullSize);
+
         // Find out whether the processor supports that source format by
         // asking it whether it offers any output formats for it
         Set<Format> availableOutputFormats = processor.getAvailableOutputFormats();
@@ -157,9 +192,36 @@ public class ImageResource extends Iiif2Resource {
             throw new UnsupportedOutputFormatException(msg);
         }
 
+        // Respond to a conditional request before processing anything. This
+        // happens only now because the tag depends on the final operation
+        // list, and a 304 must not be returned to an unauthorized client.
+        final Tag tag = getImageEntityTag(ops, resolver);
+        final Date sourceLastModified = getSourceLastModified(resolver);
+        final Representation notModifiedRep =
+                getNotModifiedRepresentation(tag, sourceLastModified);
+        if (notModifiedRep != null) {
+            return notModifiedRep;
+        }
+
         this.addLinkHeader(params);
 
-        return getRepresentation(ops, format, disposition, processor);
+        final Representation rep =
+                getRepresentation(ops, format, disposition, processor);
+        setImageValidators(rep, tag, sourceLastModified);
+        return rep;
+    }
+
+    /**
+     * @param params Parameters from the URI.
+     * @return New operation list assembled from the URI parameters and query
+     *         arguments, with a decoded identifier.
+     */
+    private OperationList newOperationList(Parameters params) {
+        final OperationList ops = params.toOperationList();
+        ops.setIdentifier(decodeSlashes(ops.getIdentifier()));
+        ops.getOptions().putAll(
+                this.getReference().getQueryAsForm(true).getValuesMap());
+        return ops;
     }
 
     private void addLinkHeader(Parameters params) {
@@ -1,10 +1,8 @@
 package edu.illinois.library.cantaloupe.resource.iiif.v2;
 
 import java.io.FileNotFoundException;
-import java.util.List;
 import java.util.Map;
 
-import com.fasterxml.jackson.databind.SerializationFeature;
 import edu.illinois.library.cantaloupe.cache.Cache;
 import edu.illinois.library.cantaloupe.cache.CacheFactory;
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
@@ -15,12 +13,10 @@ import edu.illinois.library.cantaloupe.processor.Processor;
 import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
 import edu.illinois.library.cantaloupe.resolver.Resolver;
 import edu.illinois.library.cantaloupe.resolver.ResolverFactory;
+import edu.illinois.library.cantaloupe.resource.ImageInfoCache;
+import edu.illinois.library.cantaloupe.resource.InformationResponseCache;
 import edu.illinois.library.cantaloupe.resource.SourceImageWrangler;
-import org.restlet.data.CharacterSet;
-import org.restlet.data.MediaType;
-import org.restlet.data.Preference;
 import org.restlet.data.Reference;
-import org.restlet.ext.jackson.JacksonRepresentation;
 import org.restlet.representation.EmptyRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.resource.Get;
@@ -61,8 +57,8 @@ public class InformationResource extends Iiif2Resource {
     /**
      * Responds to information requests.
      *
-     * @return JacksonRepresentation that will write an {@link ImageInfo}
-     *         instance to JSON.
+     * @return Representation of an {@link ImageInfo} instance serialized to
+     *         JSON.
      * @throws Exception
      */
     @Get
@@ -72,6 +68,23 @@ public class InformationResource extends Iiif2Resource {
                 Reference.decode((String) attrs.get("identifier")));
         identifier = decodeSlashes(identifier);
 
+        // If we don't need to resolve first, and the cache contains the info
+        // of the source image, build the response from that.
+        final edu.illinois.library.cantaloupe.processor.ImageInfo cachedInfo =
+                getCachedInfoWithoutResolving(identifier);
+        if (cachedInfo != null) {
+            final Processor processor =
+                    ProcessorFactory.getProcessor(cachedInfo.getSourceFormat());
+            final String imageUri = getImageUri(identifier);
+            byte[] json = getCachedInformation(imageUri, processor);
+            if (json == null) {
+                json = newInformation(imageUri, identifier, processor,
+                        cachedInfo);
+            }
+            return newInformationRepresentation(imageUri, processor, json,
+                    null);
+        }
+
         // Get the resolver
         Resolver resolver = ResolverFactory.getResolver(identifier);
         // Determine the format of the source image
@@ -87,6 +100,8 @@ public class InformationResource extends Iiif2Resource {
                 if (cache != null) {
                     cache.purgeImage(identifier);
                 }
+                InformationResponseCache.getInstance().purge(identifier);
+                ImageInfoCache.getInstance().purge(identifier);
             }
             throw e;
         }
@@ -95,31 +110,37 @@ public class InformationResource extends Iiif2Resource {
         // the config file
         Processor processor = ProcessorFactory.getProcessor(format);
 
-        new SourceImageWrangler(resolver, processor, identifier).wrangle();
+        final String imageUri = getImageUri(identifier);
+        // A cached response needs nothing from the source image, so check
+        // for one before wrangling it and reading its info.
+        byte[] json = getCachedInformation(imageUri, processor);
+        if (json == null) {
+            new SourceImageWrangler(resolver, processor, identifier).wrangle();
+            json = newInformation(imageUri, identifier, processor,
+                    getOrReadInfo(identifier, processor));
+        }
+        return newInformationRepresentation(imageUri, processor, json,
+                getSourceLastModified(resolver));
+    }
 
+    /**
+     * @param imageUri
+     * @param identifier
+     * @param processor
+     * @param cacheInfo Info of the source image.
+     * @return Newly serialized information response, which has also been
+     *         added to the {@link InformationResponseCache}.
+     * @throws Exception
+     */
+    private byte[] newInformation(
+            String imageUri, Identifier identifier, Processor processor,
+            edu.illinois.library.cantaloupe.processor.ImageInfo cacheInfo)
+            throws Exception {
         // Get an ImageInfo instance corresponding to the source image
         ImageInfo imageInfo = ImageInfoFactory.newImageInfo(
-                identifier, getImageUri(identifier), processor,
-                getOrReadInfo(identifier, processor));
-
-        JacksonRepresentation rep = new JacksonRepresentation<>(imageInfo);
-
-        // 7. If the client has requested JSON-LD, set the content type to
-        // that; otherwise set it to JSON
-        List<Preference<MediaType>> preferences = this.getRequest().
-                getClientInfo().getAcceptedMediaTypes();
-        if (preferences.get(0) != null && preferences.get(0).toString().
-                startsWith("application/ld+json")) {
-            rep.setMediaType(new MediaType("application/ld+json"));
-        } else {
-            rep.setMediaType(new MediaType("application/json"));
-        }
-
-        rep.getObjectWriter().
-                without(SerializationFeature.WRITE_NULL_MAP_VALUES).
-                without(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS);
-        rep.setCharacterSet(CharacterSet.UTF_8);
-        return rep;
+                identifier, imageUri, processor, cacheInfo);
+        return serializeInformation(identifier, imageUri, processor,
+                imageInfo);
     }
 
     /**
@@ -18,7 +18,7 @@ import java.io.IOException;
  * @see <a href="http://iiif.io/api/request/2.0/#request-request-parameters">IIIF
  *      Image API 2.0</a>
  */
-class Parameters implements ParameterList, Comparable<Parameters> {
+public class Parameters implements ParameterList, Comparable<Parameters> {
 
     private static Logger logger = LoggerFactory.getLogger(Parameters.class);
 
@@ -0,0 +1,154 @@
+package edu.illinois.library.cantaloupe.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * <p>Bounded map whose entries expire after a given time, and from which the
+ * least recently accessed entry is evicted when it grows beyond its maximum
+ * size. It is intended as the storage of in-memory caches (like
+ * {@link edu.illinois.library.cantaloupe.resolver.ResolutionCache}), which
+ * decide for themselves whether they are enabled, and how large and
+ * long-lived their entries may be.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+public final class ExpiringLruMap<K,V> {
+
+    private static final class Entry<V> {
+
+        private final long creationTime = System.currentTimeMillis();
+        private final V value;
+
+        Entry(V value) {
+            this.value = value;
+        }
+
+        boolean isExpired(long ttlMsec) {
+            return ttlMsec > 0 &&
+                    System.currentTimeMillis() - creationTime > ttlMsec;
+        }
+
+    }
+
+    private volatile int maxSize;
+
+    private final Map<K,Entry<V>> entries =
+            new LinkedHashMap<K,Entry<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<K,Entry<V>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+
+    /**
+     * @param maxSize Maximum number of entries.
+     */
+    public ExpiringLruMap(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @param key
+     * @return Value of the entry with the given key, or null if there is
+     *         none. Equivalent to {@link #get(Object, long)} with a TTL of 0,
+     *         for maps whose entries never expire.
+     */
+    public V get(K key) {
+        return get(key, 0);
+    }
+
+    /**
+     * @param key
+     * @param ttlMsec Time after which entries expire, or 0 for never.
+     * @return Value of the non-expired entry with the given key, or null if
+     *         there is none. An expired entry is removed.
+     */
+    public V get(K key, long ttlMsec) {
+        synchronized (entries) {
+            final Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.isExpired(ttlMsec)) {
+                    entries.remove(key);
+                } else {
+                    return entry.value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds an entry, replacing any existing one with the same key, and
+     * evicting the least recently accessed one if the map is full.
+     *
+     * @param key
+     * @param value
+     */
+    public void put(K key, V value) {
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value));
+        }
+    }
+
+    /**
+     * @param key Key of the entry to remove.
+     */
+    public void remove(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * @param filter Filter matching the values of the entries to remove.
+     * @return Number of entries removed.
+     */
+    public int removeIf(Predicate<? super V> filter) {
+        int count = 0;
+        synchronized (entries) {
+            final Iterator<Entry<V>> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (filter.test(it.next().value)) {
+                    it.remove();
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param maxSize Maximum number of entries. If the map contains more, the
+     *                least recently accessed ones will be evicted as more are
+     *                added.
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return Number of entries, including expired ones.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+}
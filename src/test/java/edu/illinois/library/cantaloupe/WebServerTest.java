@@ -19,6 +19,15 @@ public class WebServerTest {
         instance = new WebServer();
     }
 
+    @Test
+    public void testGetAcceptQueueSize() {
+        // default
+        assertEquals(0, instance.getAcceptQueueSize());
+        // explicitly set
+        instance.setAcceptQueueSize(100);
+        assertEquals(100, instance.getAcceptQueueSize());
+    }
+
     @Test
     public void testGetHttpHost() {
         // default
@@ -91,6 +100,51 @@ public class WebServerTest {
         assertEquals(5000, instance.getHttpsPort());
     }
 
+    @Test
+    public void testGetMaxThreads() {
+        // default
+        assertEquals(200, instance.getMaxThreads());
+        // explicitly set
+        instance.setMaxThreads(50);
+        assertEquals(50, instance.getMaxThreads());
+    }
+
+    @Test
+    public void testGetMinThreads() {
+        // default
+        assertEquals(8, instance.getMinThreads());
+        // explicitly set
+        instance.setMinThreads(4);
+        assertEquals(4, instance.getMinThreads());
+    }
+
+    @Test
+    public void testGetOutputBufferSize() {
+        // default
+        assertEquals(32768, instance.getOutputBufferSize());
+        // explicitly set
+        instance.setOutputBufferSize(65536);
+        assertEquals(65536, instance.getOutputBufferSize());
+    }
+
+    @Test
+    public void testGetSelectors() {
+        // default
+        assertEquals(-1, instance.getSelectors());
+        // explicitly set
+        instance.setSelectors(2);
+        assertEquals(2, instance.getSelectors());
+    }
+
+    @Test
+    public void testIsHttp2Enabled() {
+        // default
+        assertFalse(instance.isHttp2Enabled());
+        // explicitly set
+        instance.setHttp2Enabled(true);
+        assertTrue(instance.isHttp2Enabled());
+    }
+
     @Test
     public void testIsHttpEnabled() {
         // default
@@ -100,6 +154,15 @@ public class WebServerTest {
         assertTrue(instance.isHttpEnabled());
     }
 
+    @Test
+    public void testIsHttps2Enabled() {
+        // default
+        assertFalse(instance.isHttps2Enabled());
+        // explicitly set
+        instance.setHttps2Enabled(true);
+        assertTrue(instance.isHttps2Enabled());
+    }
+
     @Test
     public void testIsHttpsEnabled() {
         // default
@@ -0,0 +1,41 @@
+package edu.illinois.library.cantaloupe.image;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HashKeyTest {
+
+    @Test
+    public void testCompareTo() {
+        HashKey key1 = HashKey.of("cats");
+        HashKey key2 = HashKey.of("dogs");
+        HashKey key3 = HashKey.of("cats");
+        assertEquals(0, key1.compareTo(key3));
+        assertEquals(-key1.compareTo(key2), key2.compareTo(key1));
+        assertNotEquals(0, key1.compareTo(key2));
+    }
+
+    @Test
+    public void testEquals() {
+        assertTrue(HashKey.of("cats").equals(HashKey.of("cats")));
+        assertFalse(HashKey.of("cats").equals(HashKey.of("dogs")));
+        assertFalse(HashKey.of("cats").equals("cats"));
+    }
+
+    @Test
+    public void testHashCode() {
+        assertEquals(HashKey.of("cats").hashCode(),
+                HashKey.of("cats").hashCode());
+    }
+
+    @Test
+    public void testToString() {
+        // MD5 of "cats"
+        assertEquals("0832c1202da8d382318e329a7c133ea0",
+                HashKey.of("cats").toString());
+        assertEquals("d41d8cd98f00b204e9800998ecf8427e",
+                HashKey.of("").toString());
+    }
+
+}
@@ -31,6 +31,15 @@ public class IdentifierTest {
         assertFalse(id.equals("dogs"));
     }
 
+    @Test
+    public void testGetKey() {
+        Identifier id1 = new Identifier("cats");
+        Identifier id2 = new Identifier("cats");
+        Identifier id3 = new Identifier("dogs");
+        assertEquals(id1.getKey(), id2.getKey());
+        assertNotEquals(id1.getKey(), id3.getKey());
+    }
+
     @Test
     public void testHashCode() {
         Identifier id1 = new Identifier("cats");
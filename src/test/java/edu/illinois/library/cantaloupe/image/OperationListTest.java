@@ -118,6 +118,31 @@ public class OperationListTest {
         assertFalse(ops1.equals(ops2));
     }
 
+    /* getKey() */
+
+    @Test
+    public void testGetKey() {
+        OperationList ops1 = TestUtil.newOperationList();
+        OperationList ops2 = TestUtil.newOperationList();
+        assertEquals(ops1.getKey(), ops2.getKey());
+        assertEquals(HashKey.of(ops1.toString()), ops1.getKey());
+    }
+
+    @Test
+    public void testGetKeyIsResetByMutators() {
+        final HashKey key = ops.getKey();
+        ops.add(new Rotate(90));
+        assertNotEquals(key, ops.getKey());
+
+        final HashKey key2 = ops.getKey();
+        ops.setOutputFormat(Format.PNG);
+        assertNotEquals(key2, ops.getKey());
+
+        final HashKey key3 = ops.getKey();
+        ops.setIdentifier(new Identifier("other.jpg"));
+        assertNotEquals(key3, ops.getKey());
+    }
+
     /* getResultingSize(Dimension) */
 
     @Test
@@ -144,6 +169,15 @@ public class OperationListTest {
         assertEquals(new Dimension(75, 50), ops.getResultingSize(fullSize));
     }
 
+    /* hashCode() */
+
+    @Test
+    public void testHashCode() {
+        OperationList ops1 = TestUtil.newOperationList();
+        OperationList ops2 = TestUtil.newOperationList();
+        assertEquals(ops1.hashCode(), ops2.hashCode());
+    }
+
     /* isNoOp() */
 
     @Test
@@ -337,6 +371,104 @@ public class OperationListTest {
         assertEquals(3, count);
     }
 
+    /* normalize() */
+
+    private static OperationList newOperationList(Operation... operations) {
+        OperationList ops = new OperationList(new Identifier("cats"),
+                Format.JPG);
+        for (Operation op : operations) {
+            ops.add(op);
+        }
+        return ops;
+    }
+
+    @Test
+    public void testNormalizeWithFullExtentCrop() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        Crop crop = new Crop();
+        crop.setWidth(1000);
+        crop.setHeight(800);
+        OperationList ops1 = newOperationList(crop);
+        ops1.normalize(fullSize);
+
+        Crop fullCrop = new Crop();
+        fullCrop.setFull(true);
+        OperationList ops2 = newOperationList(fullCrop);
+        ops2.normalize(fullSize);
+
+        assertEquals(ops2, ops1);
+        assertTrue(crop.isFull());
+    }
+
+    @Test
+    public void testNormalizeWithPartialCrop() {
+        Crop crop = new Crop();
+        crop.setWidth(500);
+        crop.setHeight(800);
+        newOperationList(crop).normalize(new Dimension(1000, 800));
+        assertFalse(crop.isFull());
+    }
+
+    @Test
+    public void testNormalizeWithEquivalentScales() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        // !500,500 and 500, and 50% and 500,400
+        OperationList ops1 = newOperationList(
+                new Scale(500, 500, Scale.Mode.ASPECT_FIT_INSIDE));
+        OperationList ops2 = newOperationList(
+                new Scale(500, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        OperationList ops3 = newOperationList(new Scale(0.5f));
+        OperationList ops4 = newOperationList(
+                new Scale(500, 400, Scale.Mode.NON_ASPECT_FILL));
+        for (OperationList ops : new OperationList[] { ops1, ops2, ops3, ops4 }) {
+            ops.normalize(fullSize);
+        }
+        assertEquals(ops2, ops1);
+        assertEquals(ops2, ops3);
+        assertEquals(ops2, ops4);
+        assertEquals(new Dimension(500, 400), ops1.getResultingSize(fullSize));
+    }
+
+    @Test
+    public void testNormalizeWithNonAspectScale() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        OperationList ops = newOperationList(
+                new Scale(500, 500, Scale.Mode.NON_ASPECT_FILL));
+        ops.normalize(fullSize);
+        assertEquals(new Dimension(500, 500), ops.getResultingSize(fullSize));
+    }
+
+    @Test
+    public void testNormalizeWithFullSizeScale() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        OperationList ops1 = newOperationList(
+                new Scale(1000, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        ops1.normalize(fullSize);
+        assertTrue(ops1.isNoOp(Format.JPG));
+    }
+
+    @Test
+    public void testNormalizeAppliesScaleToCroppedSize() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        Crop crop = new Crop();
+        crop.setWidth(500);
+        crop.setHeight(400);
+        OperationList ops = newOperationList(crop,
+                new Scale(500, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        ops.normalize(fullSize);
+        assertEquals(new Dimension(500, 400), ops.getResultingSize(fullSize));
+        assertEquals("cats_crop:0,0,500,400.jpg", ops.toString());
+    }
+
+    @Test
+    public void testNormalizeWith360DegreeRotation() {
+        final Dimension fullSize = new Dimension(1000, 800);
+        OperationList ops1 = newOperationList(new Rotate(360));
+        ops1.normalize(fullSize);
+        OperationList ops2 = newOperationList(new Rotate(0));
+        assertEquals(ops2, ops1);
+    }
+
     /* toMap() */
 
     @Test
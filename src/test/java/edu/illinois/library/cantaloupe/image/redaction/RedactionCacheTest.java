@@ -0,0 +1,102 @@
+package edu.illinois.library.cantaloupe.image.redaction;
+
+import edu.illinois.library.cantaloupe.cache.Cache;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RedactionCacheTest {
+
+    private static final Identifier IDENTIFIER = new Identifier("cats");
+    private static final List<Redaction> REDACTIONS = Collections.singletonList(
+            new Redaction(new Rectangle(0, 10, 50, 70)));
+
+    private RedactionCache instance;
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty(RedactionCache.ENABLED_CONFIG_KEY, true);
+
+        instance = RedactionCache.getInstance();
+        instance.purge();
+    }
+
+    @Test
+    public void testGetWithHit() {
+        instance.put(IDENTIFIER, REDACTIONS);
+        final List<Redaction> redactions = instance.get(IDENTIFIER);
+        assertEquals(1, redactions.size());
+        assertEquals(new Rectangle(0, 10, 50, 70),
+                redactions.get(0).getRegion());
+    }
+
+    @Test
+    public void testGetWithHitOfNoRedactions() {
+        instance.put(IDENTIFIER, Collections.<Redaction>emptyList());
+        assertTrue(instance.get(IDENTIFIER).isEmpty());
+    }
+
+    @Test
+    public void testGetWithMiss() {
+        instance.put(IDENTIFIER, REDACTIONS);
+        assertNull(instance.get(new Identifier("dogs")));
+    }
+
+    @Test
+    public void testGetReturnsNewInstances() {
+        instance.put(IDENTIFIER, REDACTIONS);
+        instance.get(IDENTIFIER).get(0).getRegion().x = 20;
+        assertNotSame(REDACTIONS.get(0), instance.get(IDENTIFIER).get(0));
+        assertEquals(0, instance.get(IDENTIFIER).get(0).getRegion().x);
+    }
+
+    @Test
+    public void testGetWithExpiredEntry() throws Exception {
+        ConfigurationFactory.getInstance().setProperty(Cache.TTL_CONFIG_KEY, 1);
+        instance.put(IDENTIFIER, REDACTIONS);
+        Thread.sleep(1100);
+        assertNull(instance.get(IDENTIFIER));
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testGetAndPutWhenDisabled() {
+        ConfigurationFactory.getInstance().setProperty(
+                RedactionCache.ENABLED_CONFIG_KEY, false);
+        instance.put(IDENTIFIER, REDACTIONS);
+        assertEquals(0, instance.size());
+        assertNull(instance.get(IDENTIFIER));
+    }
+
+    @Test
+    public void testMaxSize() {
+        ConfigurationFactory.getInstance().setProperty(
+                RedactionCache.MAX_SIZE_CONFIG_KEY, 2);
+        for (int i = 0; i < 3; i++) {
+            instance.put(new Identifier("cats" + i), REDACTIONS);
+        }
+        assertEquals(2, instance.size());
+        assertNull(instance.get(new Identifier("cats0")));
+    }
+
+    @Test
+    public void testPurgeWithIdentifier() {
+        instance.put(IDENTIFIER, REDACTIONS);
+        instance.put(new Identifier("dogs"), REDACTIONS);
+        instance.purge(IDENTIFIER);
+        assertEquals(1, instance.size());
+        assertNull(instance.get(IDENTIFIER));
+    }
+
+}
@@ -8,6 +8,8 @@ import edu.illinois.library.cantaloupe.test.TestUtil;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.Rectangle;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +29,8 @@ public class RedactionServiceTest {
         config.setProperty(ScriptEngineFactory.DELEGATE_SCRIPT_PATHNAME_CONFIG_KEY,
                 TestUtil.getFixture("delegates.rb").getAbsolutePath());
         config.setProperty(RedactionService.REDACTION_ENABLED_CONFIG_KEY, true);
+
+        RedactionCache.getInstance().purge();
     }
 
     @Test
@@ -45,6 +49,30 @@ public class RedactionServiceTest {
         assertEquals(70, redactions.get(0).getRegion().height);
     }
 
+    @Test
+    public void testRedactionsForWithCache() throws Exception {
+        ConfigurationFactory.getInstance().
+                setProperty(RedactionCache.ENABLED_CONFIG_KEY, true);
+        final Identifier identifier = new Identifier("cats");
+        final Map<String,String> requestHeaders = new HashMap<>();
+        final String clientIp = "";
+        final Map<String,String> cookies = new HashMap<>();
+
+        // The delegate script's redactions are cached...
+        RedactionService.redactionsFor(
+                identifier, requestHeaders, clientIp, cookies);
+        assertEquals(1, RedactionCache.getInstance().size());
+
+        // ...and cached redactions take precedence over them.
+        RedactionCache.getInstance().put(identifier, Collections.singletonList(
+                new Redaction(new Rectangle(5, 5, 10, 10))));
+        List<Redaction> redactions = RedactionService.redactionsFor(
+                identifier, requestHeaders, clientIp, cookies);
+        assertEquals(1, redactions.size());
+        assertEquals(new Rectangle(5, 5, 10, 10),
+                redactions.get(0).getRegion());
+    }
+
     @Test
     public void testIsEnabled() {
         Configuration config = ConfigurationFactory.getInstance();
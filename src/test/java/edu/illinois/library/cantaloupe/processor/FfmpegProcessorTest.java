@@ -11,15 +11,20 @@ import edu.illinois.library.cantaloupe.test.TestUtil;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-
+import java.util.List;
 import java.util.Set;
 
 import static edu.illinois.library.cantaloupe.processor.FfmpegProcessor.DOWNSCALE_FILTER_CONFIG_KEY;
+import static edu.illinois.library.cantaloupe.processor.FfmpegProcessor.FRAME_CACHE_MAX_SIZE_CONFIG_KEY;
+import static edu.illinois.library.cantaloupe.processor.FfmpegProcessor.SNAP_TO_KEYFRAMES_CONFIG_KEY;
 import static edu.illinois.library.cantaloupe.processor.FfmpegProcessor.UPSCALE_FILTER_CONFIG_KEY;
 import static org.junit.Assert.*;
 
@@ -124,6 +129,59 @@ public class FfmpegProcessorTest extends ProcessorTest {
                 instance.getImageInfo().toString());
     }
 
+    @Test
+    public void testGetImageInfoWithKeyframeSnapping() throws Exception {
+        ConfigurationFactory.getInstance().
+                setProperty(SNAP_TO_KEYFRAMES_CONFIG_KEY, true);
+        final List<Double> keyframeTimes =
+                instance.getImageInfo().getKeyframeTimes();
+        assertFalse(keyframeTimes.isEmpty());
+        for (int i = 1; i < keyframeTimes.size(); i++) {
+            assertTrue(keyframeTimes.get(i) > keyframeTimes.get(i - 1));
+        }
+    }
+
+    @Test
+    public void testGetFrameTime() throws Exception {
+        final ImageInfo imageInfo = new ImageInfo(640, 360, Format.MPG);
+        imageInfo.setKeyframeTimes(Arrays.asList(0.0, 4.0, 8.0));
+        final OperationList ops = TestUtil.newOperationList();
+        assertNull(instance.getFrameTime(ops, imageInfo));
+
+        ops.getOptions().put("time", "00:00:05");
+        assertEquals(5.0, instance.getFrameTime(ops, imageInfo), 0.0);
+
+        ConfigurationFactory.getInstance().
+                setProperty(SNAP_TO_KEYFRAMES_CONFIG_KEY, true);
+        assertEquals(4.0, instance.getFrameTime(ops, imageInfo), 0.0);
+
+        ops.getOptions().put("time", "bogus");
+        assertNull(instance.getFrameTime(ops, imageInfo));
+    }
+
+    @Test
+    public void testGetNearestKeyframeTime() {
+        final List<Double> times = Arrays.asList(0.0, 4.0, 8.0);
+        assertEquals(0.0, FfmpegProcessor.getNearestKeyframeTime(times, 0), 0.0);
+        assertEquals(0.0, FfmpegProcessor.getNearestKeyframeTime(times, 1.5), 0.0);
+        assertEquals(0.0, FfmpegProcessor.getNearestKeyframeTime(times, 2), 0.0);
+        assertEquals(4.0, FfmpegProcessor.getNearestKeyframeTime(times, 2.5), 0.0);
+        assertEquals(4.0, FfmpegProcessor.getNearestKeyframeTime(times, 4), 0.0);
+        assertEquals(8.0, FfmpegProcessor.getNearestKeyframeTime(times, 30), 0.0);
+        assertEquals(5.0, FfmpegProcessor.getNearestKeyframeTime(
+                new ArrayList<Double>(), 5), 0.0);
+        assertEquals(5.0, FfmpegProcessor.getNearestKeyframeTime(null, 5), 0.0);
+    }
+
+    @Test
+    public void testParseTime() {
+        assertEquals(3723.0, FfmpegProcessor.parseTime("01:02:03"), 0.0);
+        assertNull(FfmpegProcessor.parseTime("1:02:03"));
+        assertNull(FfmpegProcessor.parseTime("00:60:00"));
+        assertNull(FfmpegProcessor.parseTime("00:00:05; rm -rf /"));
+        assertNull(FfmpegProcessor.parseTime(null));
+    }
+
     @Test
     public void testGetSupportedFeatures() throws Exception {
         instance.setSourceFormat(getAnySupportedSourceFormat(instance));
@@ -163,6 +221,56 @@ public class FfmpegProcessorTest extends ProcessorTest {
         assertFalse(Arrays.equals(frame1, frame2));
     }
 
+    @Test
+    public void testProcessMultipleFrames() throws Exception {
+        final ImageInfo imageInfo = instance.getImageInfo();
+
+        final List<OperationList> opLists = new ArrayList<>();
+        final List<OutputStream> outputStreams = new ArrayList<>();
+        for (String time : Arrays.asList(null, "00:00:05", "00:00:05")) {
+            OperationList ops = TestUtil.newOperationList();
+            if (time != null) {
+                ops.getOptions().put("time", time);
+            }
+            opLists.add(ops);
+            outputStreams.add(new ByteArrayOutputStream());
+        }
+        final List<BufferedImage> frames =
+                instance.process(opLists, imageInfo, outputStreams);
+        assertEquals(3, frames.size());
+
+        final byte[] frame1 =
+                ((ByteArrayOutputStream) outputStreams.get(0)).toByteArray();
+        final byte[] frame2 =
+                ((ByteArrayOutputStream) outputStreams.get(1)).toByteArray();
+        final byte[] frame3 =
+                ((ByteArrayOutputStream) outputStreams.get(2)).toByteArray();
+        assertTrue(frame1.length > 0);
+        assertFalse(Arrays.equals(frame1, frame2));
+        assertArrayEquals(frame2, frame3);
+    }
+
+    @Test
+    public void testProcessWithFrameCache() throws Exception {
+        ConfigurationFactory.getInstance().
+                setProperty(FRAME_CACHE_MAX_SIZE_CONFIG_KEY, 2);
+        VideoFrameCache.getInstance().purge();
+        final ImageInfo imageInfo = instance.getImageInfo();
+        final OperationList ops = TestUtil.newOperationList();
+        ops.getOptions().put("time", "00:00:05");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        instance.process(ops, imageInfo, outputStream);
+        final byte[] frame1 = outputStream.toByteArray();
+        assertEquals(1, VideoFrameCache.getInstance().size());
+
+        // The second time, the frame comes from the cache.
+        outputStream = new ByteArrayOutputStream();
+        instance.process(ops, imageInfo, outputStream);
+        assertArrayEquals(frame1, outputStream.toByteArray());
+        assertEquals(1, VideoFrameCache.getInstance().size());
+    }
+
     @Test
     @Override
     public void testGetSupportedIiif11Qualities() throws Exception {
@@ -0,0 +1,92 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GraphicsMagickBatchPoolTest {
+
+    /**
+     * @return Worker running a shell script that mimics <code>gm batch</code>:
+     *         it fails commands starting with <code>fail</code>, after
+     *         writing an error to standard error; hangs on commands starting
+     *         with <code>hang</code>; and passes all others.
+     */
+    private static GraphicsMagickBatchPool.Worker newFakeWorker()
+            throws Exception {
+        return new GraphicsMagickBatchPool.Worker(Arrays.asList("sh", "-c",
+                "while read line; do case \"$line\" in " +
+                "fail*) echo \"oops\" >&2; echo FAIL;; " +
+                "hang*) read never;; " +
+                "*) echo PASS;; esac; done"));
+    }
+
+    @Test
+    public void testToCommandLine() {
+        assertEquals("convert jpg:/tmp/in.jpg -resize 50.0% -crop 10x10+0+0 " +
+                        "-resize 64x56! png:/tmp/out.png",
+                GraphicsMagickBatchPool.toCommandLine(Arrays.asList(
+                        "convert", "jpg:/tmp/in.jpg", "-resize", "50.0%",
+                        "-crop", "10x10+0+0", "-resize", "64x56!",
+                        "png:/tmp/out.png")));
+    }
+
+    @Test
+    public void testToCommandLineQuotesArguments() {
+        assertEquals("-background \"rgb(0, 0, 255)\" \"a \\\"b\\\" \\\\c\"",
+                GraphicsMagickBatchPool.toCommandLine(Arrays.asList(
+                        "-background", "rgb(0, 0, 255)", "a \"b\" \\c")));
+    }
+
+    @Test
+    public void testWorkerExecute() throws Exception {
+        final GraphicsMagickBatchPool.Worker worker = newFakeWorker();
+        try {
+            assertTrue(worker.execute(Arrays.asList("convert", "a", "b"),
+                    10000));
+            assertNull(worker.getLastError());
+            assertEquals(1, worker.getNumJobs());
+        } finally {
+            worker.destroy();
+        }
+    }
+
+    @Test
+    public void testWorkerExecuteWithFailingCommand() throws Exception {
+        final GraphicsMagickBatchPool.Worker worker = newFakeWorker();
+        try {
+            // The error is read before the feedback line, every time.
+            for (int i = 0; i < 20; i++) {
+                assertFalse(worker.execute(Arrays.asList("fail"), 10000));
+                assertEquals("oops", worker.getLastError());
+            }
+            assertTrue(worker.execute(Arrays.asList("convert"), 10000));
+            assertNull(worker.getLastError());
+        } finally {
+            worker.destroy();
+        }
+    }
+
+    @Test
+    public void testWorkerExecuteWithTimeout() throws Exception {
+        final GraphicsMagickBatchPool.Worker worker = newFakeWorker();
+        final long start = System.currentTimeMillis();
+        try {
+            worker.execute(Arrays.asList("hang"), 200);
+            fail("Expected exception");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("timed out"));
+        } finally {
+            worker.destroy();
+        }
+        assertTrue(System.currentTimeMillis() - start < 10000);
+        for (int i = 0; i < 100 && worker.isAlive(); i++) {
+            Thread.sleep(50);
+        }
+        assertFalse(worker.isAlive());
+    }
+
+}
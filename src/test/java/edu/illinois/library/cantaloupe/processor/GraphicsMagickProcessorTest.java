@@ -6,6 +6,7 @@ import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.OperationList;
 import edu.illinois.library.cantaloupe.image.Rotate;
+import edu.illinois.library.cantaloupe.resolver.FileStreamSource;
 import edu.illinois.library.cantaloupe.resolver.StreamSource;
 import edu.illinois.library.cantaloupe.test.TestUtil;
 import org.apache.commons.io.output.ByteArrayOutputStream;
@@ -15,8 +16,11 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
@@ -137,4 +141,69 @@ public class GraphicsMagickProcessorTest extends MagickProcessorTest {
         assertEquals(0, blue);
     }
 
+    @Test
+    public void testProcessInBatchMode() throws Exception {
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty(GraphicsMagickProcessor.BATCH_ENABLED_CONFIG_KEY, true);
+        config.setProperty(GraphicsMagickProcessor.BATCH_MAX_JOBS_CONFIG_KEY, 2);
+
+        OperationList ops = new OperationList();
+        ops.setIdentifier(new Identifier("bla"));
+        ops.add(new Rotate(90));
+        ops.setOutputFormat(Format.PNG);
+
+        ImageInfo imageInfo = new ImageInfo(64, 56);
+        final StreamProcessor instance = newInstance();
+        instance.setSourceFormat(Format.JPG);
+        instance.setStreamSource(new TestStreamSource(
+                TestUtil.getImage("jpg-rgb-64x56x8-baseline.jpg")));
+
+        // Process more times than a worker is allowed to, to exercise
+        // recycling.
+        for (int i = 0; i < 3; i++) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            instance.process(ops, imageInfo, outputStream);
+            final BufferedImage image = ImageIO.read(
+                    new ByteArrayInputStream(outputStream.toByteArray()));
+            assertEquals(56, image.getWidth());
+            assertEquals(64, image.getHeight());
+        }
+    }
+
+    @Test
+    public void testProcessInBatchModeWithFileStreamSource() throws Exception {
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty(GraphicsMagickProcessor.BATCH_ENABLED_CONFIG_KEY, true);
+
+        // Like a source cache file, this has no extension.
+        final File sourceFile = File.createTempFile("cantaloupe-test", null);
+        try {
+            Files.copy(TestUtil.getImage("jpg-rgb-64x56x8-baseline.jpg").toPath(),
+                    sourceFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            OperationList ops = new OperationList();
+            ops.setIdentifier(new Identifier("bla"));
+            ops.add(new Rotate(90));
+            ops.setOutputFormat(Format.PNG);
+
+            ImageInfo imageInfo = new ImageInfo(64, 56);
+            final StreamProcessor instance = newInstance();
+            instance.setSourceFormat(Format.JPG);
+            instance.setStreamSource(new FileStreamSource(sourceFile));
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            instance.process(ops, imageInfo, outputStream);
+            final BufferedImage image = ImageIO.read(
+                    new ByteArrayInputStream(outputStream.toByteArray()));
+            assertEquals(56, image.getWidth());
+            assertEquals(64, image.getHeight());
+            // The file is read in place, not consumed.
+            assertTrue(sourceFile.exists());
+        } finally {
+            sourceFile.delete();
+        }
+    }
+
 }
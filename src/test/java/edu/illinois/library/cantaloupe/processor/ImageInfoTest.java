@@ -50,6 +50,18 @@ public class ImageInfoTest {
         assertEquals(info.toString(), instance.toString());
     }
 
+    @Test
+    public void testFromJsonWithKeyframeTimes() throws Exception {
+        instance.setKeyframeTimes(Arrays.asList(0.0, 2.002, 4.004));
+        ImageInfo info = ImageInfo.fromJson(instance.toJson());
+        assertEquals(Arrays.asList(0.0, 2.002, 4.004), info.getKeyframeTimes());
+    }
+
+    @Test
+    public void testToJsonWithoutKeyframeTimes() throws Exception {
+        assertFalse(instance.toJson().contains("keyframeTimes"));
+    }
+
     @Test
     public void testEquals() {
         // equal
@@ -17,6 +17,7 @@ import org.junit.Test;
 
 import javax.imageio.ImageIO;
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
@@ -88,6 +89,51 @@ public class Java2dUtilTest {
         assertEquals(0, blue);
     }
 
+    @Test
+    public void testApplyRedactionsToScaledImage() throws Exception {
+        final BufferedImage image = ImageIO.read(
+                TestUtil.getImage("bmp-rgb-64x56x8.bmp"));
+        final BufferedImage scaledImage =
+                Java2dUtil.scaleImage(image, new Scale(0.5f));
+        final List<Rectangle> regions = new ArrayList<>();
+        regions.add(new Rectangle(20, 20, 10, 10));
+
+        Java2dUtil.applyRedactions(scaledImage,
+                new Dimension(image.getWidth(), image.getHeight()),
+                Scale.Filter.BOX, regions);
+
+        // The scaled region is 10,10/5x5, padded by 2 for the box filter.
+        assertEquals(0, scaledImage.getRGB(8, 8) & 0xffffff);
+        assertEquals(0, scaledImage.getRGB(16, 16) & 0xffffff);
+        assertTrue((scaledImage.getRGB(0, 0) & 0xffffff) != 0);
+        assertTrue((scaledImage.getRGB(20, 20) & 0xffffff) != 0);
+    }
+
+    @Test
+    public void testGetRedactedRegions() {
+        final Dimension imageSize = new Dimension(64, 56);
+        final List<Redaction> redactions = new ArrayList<>();
+        redactions.add(new Redaction(new Rectangle(0, 0, 20, 20)));
+        redactions.add(new Redaction(new Rectangle(100, 100, 20, 20)));
+
+        final List<Rectangle> regions = Java2dUtil.getRedactedRegions(
+                imageSize, new Crop(10, 10, 64, 56), new ReductionFactor(1),
+                redactions);
+        assertEquals(1, regions.size());
+        assertEquals(new Rectangle(-5, -5, 10, 10), regions.get(0));
+    }
+
+    @Test
+    public void testGetRedactedRegionsWithNoIntersectingRedactions() {
+        final Dimension imageSize = new Dimension(64, 56);
+        final List<Redaction> redactions = new ArrayList<>();
+        redactions.add(new Redaction(new Rectangle(0, 0, 20, 20)));
+
+        assertTrue(Java2dUtil.getRedactedRegions(imageSize,
+                new Crop(30, 30, 20, 20), new ReductionFactor(0),
+                redactions).isEmpty());
+    }
+
     @Test
     public void testApplyWatermarkWithImageWatermark() throws Exception {
         // read the base image into a BufferedImage
@@ -10,9 +10,15 @@ import edu.illinois.library.cantaloupe.test.TestUtil;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static edu.illinois.library.cantaloupe.processor.PdfBoxProcessor.DOWNSCALE_FILTER_CONFIG_KEY;
@@ -161,4 +167,61 @@ public class PdfBoxProcessorTest extends ProcessorTest {
         assertTrue(Arrays.equals(page1, pageCats));
     }
 
+    @Test
+    public void testProcessMultipleFrames() throws Exception {
+        instance.setSourceFile(TestUtil.getImage("pdf-multipage.pdf"));
+        final ImageInfo imageInfo = instance.getImageInfo();
+
+        final List<OperationList> opLists = new ArrayList<>();
+        final List<OutputStream> outputStreams = new ArrayList<>();
+        for (String page : Arrays.asList("1", "2", "1")) {
+            OperationList ops = TestUtil.newOperationList();
+            ops.getOptions().put("page", page);
+            opLists.add(ops);
+            outputStreams.add(new ByteArrayOutputStream());
+        }
+        instance.process(opLists, imageInfo, outputStreams);
+
+        // The results should be the same as those of individual requests.
+        for (int i = 0; i < opLists.size(); i++) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            instance.process(opLists.get(i), imageInfo, outputStream);
+            assertArrayEquals(outputStream.toByteArray(),
+                    ((ByteArrayOutputStream) outputStreams.get(i)).toByteArray());
+        }
+        assertFalse(Arrays.equals(
+                ((ByteArrayOutputStream) outputStreams.get(0)).toByteArray(),
+                ((ByteArrayOutputStream) outputStreams.get(1)).toByteArray()));
+    }
+
+    @Test
+    public void testProcessMultipleFramesWithoutOutputStreams()
+            throws Exception {
+        instance.setSourceFile(TestUtil.getImage("pdf-multipage.pdf"));
+        final ImageInfo imageInfo = instance.getImageInfo();
+
+        final List<OperationList> opLists = new ArrayList<>();
+        final List<OutputStream> outputStreams = new ArrayList<>();
+        for (String page : Arrays.asList("1", "2")) {
+            OperationList ops = TestUtil.newOperationList();
+            ops.getOptions().put("page", page);
+            opLists.add(ops);
+            outputStreams.add(null);
+        }
+        final List<BufferedImage> frames =
+                instance.process(opLists, imageInfo, outputStreams);
+        assertEquals(2, frames.size());
+
+        // The frames should be the same size as the results of individual
+        // requests.
+        for (int i = 0; i < opLists.size(); i++) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            instance.process(opLists.get(i), imageInfo, outputStream);
+            BufferedImage expected = ImageIO.read(
+                    new ByteArrayInputStream(outputStream.toByteArray()));
+            assertEquals(expected.getWidth(), frames.get(i).getWidth());
+            assertEquals(expected.getHeight(), frames.get(i).getHeight());
+        }
+    }
+
 }
@@ -148,4 +148,13 @@ public class ProcessorFactoryTest {
         }
     }
 
+    @Test
+    public void testWarmUpWithUnknownProcessor() {
+        Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty("processor.jpg", "AmazingFakeProcessor");
+        config.setProperty("processor.fallback", "Java2dProcessor");
+        // Failures are logged, not thrown.
+        ProcessorFactory.warmUp();
+    }
+
 }
@@ -0,0 +1,82 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+public class VideoFrameCacheTest {
+
+    private static final String KEY = "/videos/cats.mp4#0#5.000000";
+
+    private VideoFrameCache instance;
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty(FfmpegProcessor.FRAME_CACHE_MAX_SIZE_CONFIG_KEY, 2);
+
+        instance = VideoFrameCache.getInstance();
+        instance.purge();
+    }
+
+    private BufferedImage newFrame() {
+        return new BufferedImage(8, 6, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Test
+    public void testGetWithHit() {
+        final BufferedImage frame = newFrame();
+        frame.setRGB(1, 1, 0xff0000);
+        instance.put(KEY, frame);
+
+        final BufferedImage cachedFrame = instance.get(KEY);
+        assertEquals(8, cachedFrame.getWidth());
+        assertEquals(6, cachedFrame.getHeight());
+        assertEquals(0xff0000, cachedFrame.getRGB(1, 1) & 0xffffff);
+    }
+
+    @Test
+    public void testGetWithMiss() {
+        instance.put(KEY, newFrame());
+        assertNull(instance.get("/videos/dogs.mp4#0#5.000000"));
+    }
+
+    @Test
+    public void testGetReturnsCopies() {
+        final BufferedImage frame = newFrame();
+        instance.put(KEY, frame);
+        // Neither the original nor returned frames affect the cached one.
+        frame.setRGB(0, 0, 0xffffff);
+        instance.get(KEY).setRGB(0, 1, 0xffffff);
+
+        final BufferedImage cachedFrame = instance.get(KEY);
+        assertEquals(0, cachedFrame.getRGB(0, 0) & 0xffffff);
+        assertEquals(0, cachedFrame.getRGB(0, 1) & 0xffffff);
+    }
+
+    @Test
+    public void testGetAndPutWhenDisabled() {
+        ConfigurationFactory.getInstance().setProperty(
+                FfmpegProcessor.FRAME_CACHE_MAX_SIZE_CONFIG_KEY, 0);
+        instance.put(KEY, newFrame());
+        assertEquals(0, instance.size());
+        assertNull(instance.get(KEY));
+    }
+
+    @Test
+    public void testMaxSize() {
+        for (int i = 0; i < 3; i++) {
+            instance.put(KEY + i, newFrame());
+        }
+        assertEquals(2, instance.size());
+        assertNull(instance.get(KEY + 0));
+    }
+
+}
@@ -0,0 +1,88 @@
+package edu.illinois.library.cantaloupe.processor;
+
+import edu.illinois.library.cantaloupe.image.watermark.Position;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class WatermarkCacheTest {
+
+    private WatermarkCache instance;
+
+    @Before
+    public void setUp() {
+        instance = WatermarkCache.getInstance();
+        instance.purge();
+    }
+
+    @Test
+    public void testAlignmentForPosition() {
+        assertEquals(WatermarkCache.Alignment.LEFT,
+                WatermarkCache.Alignment.forPosition(Position.BOTTOM_LEFT));
+        assertEquals(WatermarkCache.Alignment.CENTER,
+                WatermarkCache.Alignment.forPosition(Position.TOP_CENTER));
+        assertEquals(WatermarkCache.Alignment.RIGHT,
+                WatermarkCache.Alignment.forPosition(Position.BOTTOM_RIGHT));
+    }
+
+    @Test
+    public void testGetImage() throws Exception {
+        final File file = TestUtil.getImage("png-rgb-1x1x8.png");
+        final BufferedImage image = instance.getImage(file);
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, image.getType());
+        assertEquals(1, image.getWidth());
+        assertEquals(0xff000000, image.getRGB(0, 0));
+    }
+
+    @Test
+    public void testGetImageReturnsCachedImage() throws Exception {
+        final File file = TestUtil.getImage("png-rgb-1x1x8.png");
+        assertSame(instance.getImage(file), instance.getImage(file));
+    }
+
+    @Test
+    public void testGetStringLayer() {
+        final Font font = new Font("Helvetica", Font.PLAIN, 12);
+        final WatermarkCache.StringLayer layer = instance.getStringLayer(
+                "cats\ndogs and cats", font, Color.black, Color.white, 2f,
+                WatermarkCache.Alignment.LEFT);
+        final BufferedImage image = layer.getImage();
+        assertEquals(BufferedImage.TYPE_INT_ARGB_PRE, image.getType());
+        assertTrue(layer.getBlockWidth() > 0);
+        assertTrue(layer.getBlockHeight() > 0);
+        assertEquals(layer.getBlockWidth() + layer.getPadding() * 2,
+                image.getWidth());
+        assertEquals(layer.getBlockHeight() + layer.getPadding() * 2,
+                image.getHeight());
+        // The corners are transparent.
+        assertEquals(0, image.getRGB(0, 0) >>> 24);
+    }
+
+    @Test
+    public void testGetStringLayerReturnsCachedLayer() {
+        final Font font = new Font("Helvetica", Font.PLAIN, 12);
+        final WatermarkCache.StringLayer layer = instance.getStringLayer(
+                "cats", font, Color.black, Color.white, 2f,
+                WatermarkCache.Alignment.LEFT);
+        assertSame(layer, instance.getStringLayer("cats", font, Color.black,
+                Color.white, 2f, WatermarkCache.Alignment.LEFT));
+        assertNotSame(layer, instance.getStringLayer("cats", font,
+                Color.black, Color.white, 3f, WatermarkCache.Alignment.LEFT));
+    }
+
+    @Test
+    public void testPurge() throws Exception {
+        final File file = TestUtil.getImage("png-rgb-1x1x8.png");
+        final BufferedImage image = instance.getImage(file);
+        instance.purge();
+        assertNotSame(image, instance.getImage(file));
+    }
+
+}
@@ -0,0 +1,88 @@
+package edu.illinois.library.cantaloupe.processor.imageio;
+
+import edu.illinois.library.cantaloupe.image.Format;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ImageIOPoolTest {
+
+    private ImageIOPool instance;
+
+    @Before
+    public void setUp() {
+        instance = ImageIOPool.getInstance();
+    }
+
+    @Test
+    public void testBorrowReader() throws Exception {
+        final ImageReader reader = instance.borrowReader(Format.PNG);
+        assertTrue(reader.getOriginatingProvider().getMIMETypes()[0].
+                contains("png"));
+        instance.returnReader(reader);
+    }
+
+    @Test
+    public void testBorrowReaderReturnsReturnedReader() throws Exception {
+        final ImageReader reader = instance.borrowReader(Format.JPG);
+        instance.returnReader(reader);
+        assertSame(reader, instance.borrowReader(Format.JPG));
+        instance.returnReader(reader);
+    }
+
+    @Test
+    public void testBorrowReaderDoesNotReturnBorrowedReader()
+            throws Exception {
+        final ImageReader reader1 = instance.borrowReader(Format.GIF);
+        final ImageReader reader2 = instance.borrowReader(Format.GIF);
+        assertNotSame(reader1, reader2);
+        instance.returnReader(reader1);
+        instance.returnReader(reader2);
+    }
+
+    @Test
+    public void testBorrowWriterReturnsReturnedWriter() throws Exception {
+        final ImageWriter writer = instance.borrowWriter(Format.PNG);
+        instance.returnWriter(writer);
+        assertSame(writer, instance.borrowWriter(Format.PNG));
+        instance.returnWriter(writer);
+    }
+
+    @Test
+    public void testCanWrite() {
+        assertTrue(instance.canWrite(Format.PNG));
+        assertFalse(instance.canWrite(Format.UNKNOWN));
+    }
+
+    @Test
+    public void testReturnedWriterIsReset() throws Exception {
+        final BufferedImage image =
+                new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < 2; i++) {
+            final ImageWriter writer = instance.borrowWriter(Format.PNG);
+            try {
+                assertNull(writer.getOutput());
+                final ByteArrayOutputStream os = new ByteArrayOutputStream();
+                final ImageOutputStream ios =
+                        ImageIO.createImageOutputStream(os);
+                writer.setOutput(ios);
+                writer.write(image);
+                ios.close();
+                assertEquals(4, ImageIO.read(
+                        new ByteArrayInputStream(os.toByteArray())).getWidth());
+            } finally {
+                instance.returnWriter(writer);
+            }
+        }
+    }
+
+}
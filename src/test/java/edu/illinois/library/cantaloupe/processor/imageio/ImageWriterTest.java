@@ -1,9 +1,12 @@
 package edu.illinois.library.cantaloupe.processor.imageio;
 
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
 import edu.illinois.library.cantaloupe.image.Format;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.imageio.ImageIO;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -16,13 +19,33 @@ public class ImageWriterTest {
 
     @Before
     public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        ConfigurationFactory.getInstance().clear();
+
         instance = new ImageWriter(null);
     }
 
+    @Test
+    public void testIsProgressive() {
+        final Configuration config = ConfigurationFactory.getInstance();
+        assertFalse(ImageWriter.isProgressive(Format.JPG));
+        assertFalse(ImageWriter.isProgressive(Format.PNG));
+
+        config.setProperty(ImageWriter.JPG_PROGRESSIVE_CONFIG_KEY, true);
+        config.setProperty(ImageWriter.PNG_INTERLACE_CONFIG_KEY, true);
+        assertTrue(ImageWriter.isProgressive(Format.JPG));
+        assertTrue(ImageWriter.isProgressive(Format.PNG));
+        assertFalse(ImageWriter.isProgressive(Format.GIF));
+    }
+
     @Test
     public void testSupportedFormats() {
         Set<Format> outputFormats = new HashSet<>(Arrays.asList(
                 Format.GIF, Format.JPG, Format.PNG, Format.TIF));
+        // WebP requires an optional plugin.
+        if (ImageIO.getImageWritersByMIMEType("image/webp").hasNext()) {
+            outputFormats.add(Format.WEBP);
+        }
         assertEquals(outputFormats, ImageWriter.supportedFormats());
     }
 
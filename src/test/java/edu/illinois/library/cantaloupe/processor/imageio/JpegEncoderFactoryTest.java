@@ -0,0 +1,112 @@
+package edu.illinois.library.cantaloupe.processor.imageio;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.Assert.*;
+
+public class JpegEncoderFactoryTest {
+
+    /**
+     * Encoder that writes a single byte, and counts its invocations.
+     */
+    public static class MockJpegEncoder implements JpegEncoder {
+
+        static int numInvocations = 0;
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void encode(BufferedImage image, float quality,
+                           boolean progressive,
+                           OutputStream outputStream) throws IOException {
+            numInvocations++;
+            outputStream.write(0xff);
+        }
+
+    }
+
+    /**
+     * Encoder that is never available.
+     */
+    public static class UnavailableJpegEncoder implements JpegEncoder {
+
+        @Override
+        public boolean isAvailable() {
+            return false;
+        }
+
+        @Override
+        public void encode(BufferedImage image, float quality,
+                           boolean progressive,
+                           OutputStream outputStream) throws IOException {
+            throw new IOException("Not available");
+        }
+
+    }
+
+    static final String MOCK_ENCODER_NAME =
+            JpegEncoderFactoryTest.class.getSimpleName() + "$MockJpegEncoder";
+
+    private Configuration config;
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        config = ConfigurationFactory.getInstance();
+        config.clear();
+    }
+
+    @Test
+    public void testGetEncoderWithBlankValue() {
+        config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY, "");
+        assertNull(JpegEncoderFactory.getEncoder());
+    }
+
+    @Test
+    public void testGetEncoderWithAvailableEncoder() {
+        config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY,
+                MOCK_ENCODER_NAME);
+        final JpegEncoder encoder = JpegEncoderFactory.getEncoder();
+        assertTrue(encoder instanceof MockJpegEncoder);
+        assertSame(encoder, JpegEncoderFactory.getEncoder());
+    }
+
+    @Test
+    public void testGetEncoderWithUnavailableEncoder() {
+        config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY,
+                JpegEncoderFactoryTest.class.getSimpleName() +
+                        "$UnavailableJpegEncoder");
+        assertNull(JpegEncoderFactory.getEncoder());
+    }
+
+    @Test
+    public void testGetEncoderWithUnsupportedValue() {
+        config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY, "bogus");
+        assertNull(JpegEncoderFactory.getEncoder());
+
+        config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY,
+                "JpegImageWriter");
+        assertNull(JpegEncoderFactory.getEncoder());
+    }
+
+    @Test
+    public void testGetEncoderRespectsConfigurationChanges() {
+        config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY,
+                MOCK_ENCODER_NAME);
+        assertNotNull(JpegEncoderFactory.getEncoder());
+
+        config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY, "");
+        assertNull(JpegEncoderFactory.getEncoder());
+    }
+
+}
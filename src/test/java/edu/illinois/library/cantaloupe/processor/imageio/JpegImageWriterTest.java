@@ -39,6 +39,49 @@ public class JpegImageWriterTest {
         ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
     }
 
+    @Test
+    public void testWriteWithBufferedImageAndEncoder() throws Exception {
+        final Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY,
+                JpegEncoderFactoryTest.MOCK_ENCODER_NAME);
+        try {
+            final BufferedImage image =
+                    new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+            final int numInvocations =
+                    JpegEncoderFactoryTest.MockJpegEncoder.numInvocations;
+
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            getWriter(null).write(image, os);
+            assertEquals(1, os.size());
+            assertEquals(numInvocations + 1,
+                    JpegEncoderFactoryTest.MockJpegEncoder.numInvocations);
+        } finally {
+            config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY, "");
+        }
+    }
+
+    @Test
+    public void testWriteWithBufferedImageAndEncoderAndMetadata()
+            throws Exception {
+        final Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(AbstractResource.PRESERVE_METADATA_CONFIG_KEY, true);
+        config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY,
+                JpegEncoderFactoryTest.MOCK_ENCODER_NAME);
+        try {
+            final File fixture = TestUtil.getImage("jpg-exif.jpg");
+            final JpegImageReader reader = new JpegImageReader(fixture);
+            final Metadata metadata = reader.getMetadata(0);
+            final BufferedImage image = reader.read();
+
+            // Encoders can't embed metadata, so ImageIO should be used.
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            getWriter(metadata).write(image, os);
+            checkForExifMetadata(os.toByteArray());
+        } finally {
+            config.setProperty(JpegEncoderFactory.ENCODER_CONFIG_KEY, "");
+        }
+    }
+
     @Test
     public void testWriteWithBufferedImageAndExifMetadata() throws Exception {
         final Configuration config = ConfigurationFactory.getInstance();
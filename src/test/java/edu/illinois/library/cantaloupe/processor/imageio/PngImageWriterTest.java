@@ -183,6 +183,41 @@ public class PngImageWriterTest {
         }
     }
 
+    @Test
+    public void testWriteWithInterlacing() throws Exception {
+        final Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(ImageWriter.PNG_INTERLACE_CONFIG_KEY, true);
+        try {
+            final File fixture = TestUtil.getImage("png-xmp.png");
+            final PngImageReader reader = new PngImageReader(fixture);
+            final Metadata metadata = reader.getMetadata(0);
+            final BufferedImage image = reader.read();
+
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            getWriter(metadata).write(image, os);
+            final IIOMetadataNode tree = getNativeMetadata(os.toByteArray());
+            final IIOMetadataNode ihdr =
+                    (IIOMetadataNode) tree.getElementsByTagName("IHDR").item(0);
+            assertEquals("adam7", ihdr.getAttribute("interlaceMethod"));
+        } finally {
+            config.setProperty(ImageWriter.PNG_INTERLACE_CONFIG_KEY, false);
+        }
+    }
+
+    private IIOMetadataNode getNativeMetadata(byte[] png) throws IOException {
+        final Iterator<ImageReader> it = ImageIO.getImageReadersByFormatName("PNG");
+        final ImageReader reader = it.next();
+        try (ImageInputStream iis = ImageIO.createImageInputStream(
+                new ByteArrayInputStream(png))) {
+            reader.setInput(iis);
+            final IIOMetadata metadata = reader.getImageMetadata(0);
+            return (IIOMetadataNode) metadata.getAsTree(
+                    metadata.getNativeMetadataFormatName());
+        } finally {
+            reader.dispose();
+        }
+    }
+
     private PngImageWriter getWriter(Metadata metadata) throws IOException {
         OperationList opList = new OperationList();
         if (ConfigurationFactory.getInstance().
@@ -0,0 +1,82 @@
+package edu.illinois.library.cantaloupe.processor.imageio;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class StreamingImageOutputStreamTest {
+
+    /**
+     * Counts the number of times it has been flushed.
+     */
+    private static class CountingOutputStream extends ByteArrayOutputStream {
+
+        int numFlushes = 0;
+
+        @Override
+        public void flush() throws IOException {
+            numFlushes++;
+            super.flush();
+        }
+
+    }
+
+    private static final int CHUNK_SIZE = 16;
+
+    private CountingOutputStream outputStream;
+    private StreamingImageOutputStream instance;
+
+    @Before
+    public void setUp() {
+        outputStream = new CountingOutputStream();
+        instance = new StreamingImageOutputStream(outputStream, CHUNK_SIZE);
+    }
+
+    @Test
+    public void testWriteBelowChunkSizeIsNotPassedThrough() throws Exception {
+        instance.write(new byte[CHUNK_SIZE - 2]);
+        instance.write(1);
+        assertEquals(0, outputStream.size());
+        assertEquals(0, outputStream.numFlushes);
+    }
+
+    @Test
+    public void testWriteAtChunkSizeIsPassedThrough() throws Exception {
+        instance.write(new byte[CHUNK_SIZE - 1]);
+        instance.write(1);
+        instance.write(2);
+        assertEquals(CHUNK_SIZE, outputStream.size());
+        assertEquals(1, outputStream.numFlushes);
+        assertEquals(CHUNK_SIZE, instance.getFlushedPosition());
+    }
+
+    @Test
+    public void testWriteMultipleChunks() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            instance.write(new byte[CHUNK_SIZE]);
+        }
+        assertEquals(CHUNK_SIZE * 4, outputStream.size());
+        assertEquals(4, outputStream.numFlushes);
+    }
+
+    @Test
+    public void testFlushPassesThroughRemainder() throws Exception {
+        instance.write(new byte[CHUNK_SIZE + 3]);
+        instance.write(new byte[5]);
+        instance.flush();
+        assertEquals(CHUNK_SIZE + 8, outputStream.size());
+    }
+
+    @Test
+    public void testCloseDoesNotCloseUnderlyingStream() throws Exception {
+        instance.write(new byte[3]);
+        instance.close();
+        outputStream.write(1);
+        assertEquals(4, outputStream.size());
+    }
+
+}
@@ -6,12 +6,15 @@ import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.script.ScriptEngineFactory;
 import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.imageio.stream.ImageInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 
@@ -103,6 +106,65 @@ public class JdbcResolverTest {
         }
     }
 
+    @Test
+    public void testGetStreamSourceReadsBlob() throws IOException {
+        final long expectedLength =
+                TestUtil.getImage(IDENTIFIER.toString()).length();
+        instance.setIdentifier(new Identifier("jpg.jpg"));
+        StreamSource source = instance.getStreamSource();
+
+        try (InputStream is = source.newInputStream()) {
+            assertEquals(expectedLength, IOUtils.toByteArray(is).length);
+        }
+
+        ConfigurationFactory.getInstance().
+                setProperty(JdbcResolver.CHUNKING_ENABLED_CONFIG_KEY, true);
+        ConfigurationFactory.getInstance().
+                setProperty(JdbcResolver.CHUNK_SIZE_CONFIG_KEY, 1);
+        ImageInputStream iis = source.newImageInputStream();
+        try {
+            assertEquals(expectedLength, iis.length());
+            assertEquals(0xff, iis.read());
+            assertEquals(0xd8, iis.read());
+        } finally {
+            iis.close();
+        }
+    }
+
+    @Test
+    public void testGetStreamSourceAfterPurge() throws Exception {
+        ConfigurationFactory.getInstance().
+                setProperty(ResolutionCache.ENABLED_CONFIG_KEY, true);
+        final Identifier identifier = new Identifier("jpg.jpg");
+        instance.setIdentifier(identifier);
+        instance.getStreamSource(); // caches the lookup
+
+        // Replace the BLOB.
+        try (Connection conn = JdbcResolver.getConnection();
+             PreparedStatement statement = conn.prepareStatement(
+                     "UPDATE items SET image = ? WHERE filename = ?")) {
+            statement.setBytes(1, new byte[] { 1, 2, 3 });
+            statement.setString(2, "jpg.jpg");
+            statement.executeUpdate();
+        }
+        ResolutionCache.getInstance().purge(identifier);
+
+        instance = new JdbcResolver();
+        instance.setIdentifier(identifier);
+        try (InputStream is = instance.getStreamSource().newInputStream()) {
+            assertEquals(3, IOUtils.toByteArray(is).length);
+        }
+        ConfigurationFactory.getInstance().
+                setProperty(JdbcResolver.CHUNKING_ENABLED_CONFIG_KEY, true);
+        ImageInputStream iis =
+                instance.getStreamSource().newImageInputStream();
+        try {
+            assertEquals(3, iis.length());
+        } finally {
+            iis.close();
+        }
+    }
+
     @Test
     public void testGetDatabaseIdentifier() throws Exception {
         instance.setIdentifier(new Identifier("cats.jpg"));
@@ -0,0 +1,122 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ParallelChunkedDownloaderTest {
+
+    private static class ByteArrayRangeReader implements RangeReader {
+
+        private final byte[] bytes;
+        private final AtomicInteger numReads = new AtomicInteger(0);
+
+        ByteArrayRangeReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public long getLength() {
+            return bytes.length;
+        }
+
+        @Override
+        public void read(long offset, byte[] buffer, int bufferOffset,
+                         int length) throws IOException {
+            if (offset + length > bytes.length) {
+                throw new IOException("Out of range");
+            }
+            System.arraycopy(bytes, (int) offset, buffer, bufferOffset, length);
+            numReads.incrementAndGet();
+        }
+
+    }
+
+    private byte[] bytes;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        bytes = new byte[100000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i % 251);
+        }
+        file = File.createTempFile("ParallelChunkedDownloaderTest", "tmp");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testDownload() throws IOException {
+        ByteArrayRangeReader reader = new ByteArrayRangeReader(bytes);
+        try (FileOutputStream os = new FileOutputStream(file)) {
+            new ParallelChunkedDownloader(reader, 3000, 4).
+                    download(os.getChannel());
+        }
+        assertArrayEquals(bytes, Files.readAllBytes(file.toPath()));
+        assertEquals(34, reader.numReads.get());
+    }
+
+    @Test
+    public void testDownloadWithSingleThread() throws IOException {
+        ByteArrayRangeReader reader = new ByteArrayRangeReader(bytes);
+        try (FileOutputStream os = new FileOutputStream(file)) {
+            new ParallelChunkedDownloader(reader, 100000, 1).
+                    download(os.getChannel());
+        }
+        assertArrayEquals(bytes, Files.readAllBytes(file.toPath()));
+        assertEquals(1, reader.numReads.get());
+    }
+
+    @Test
+    public void testDownloadUsesDaemonThreads() throws IOException {
+        final AtomicInteger numNonDaemonReads = new AtomicInteger(0);
+        ByteArrayRangeReader reader = new ByteArrayRangeReader(bytes) {
+            @Override
+            public void read(long offset, byte[] buffer, int bufferOffset,
+                             int length) throws IOException {
+                if (!Thread.currentThread().isDaemon()) {
+                    numNonDaemonReads.incrementAndGet();
+                }
+                super.read(offset, buffer, bufferOffset, length);
+            }
+        };
+        try (FileOutputStream os = new FileOutputStream(file)) {
+            new ParallelChunkedDownloader(reader, 3000, 4).
+                    download(os.getChannel());
+        }
+        assertEquals(0, numNonDaemonReads.get());
+    }
+
+    @Test
+    public void testDownloadPropagatesReadFailures() throws IOException {
+        RangeReader reader = new ByteArrayRangeReader(bytes) {
+            @Override
+            public void read(long offset, byte[] buffer, int bufferOffset,
+                             int length) throws IOException {
+                throw new IOException("Read failed");
+            }
+        };
+        try (FileOutputStream os = new FileOutputStream(file)) {
+            new ParallelChunkedDownloader(reader, 3000, 4).
+                    download(os.getChannel());
+            fail("Expected exception");
+        } catch (IOException e) {
+            assertEquals("Read failed", e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class RangedImageInputStreamTest {
+
+    private static class ByteArrayRangeReader implements RangeReader {
+
+        private final byte[] bytes;
+        private int numReads = 0;
+
+        ByteArrayRangeReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public long getLength() {
+            return bytes.length;
+        }
+
+        @Override
+        public void read(long offset, byte[] buffer, int bufferOffset,
+                         int length) {
+            System.arraycopy(bytes, (int) offset, buffer, bufferOffset, length);
+            numReads++;
+        }
+
+    }
+
+    private static final int CHUNK_SIZE = 10;
+
+    private byte[] bytes;
+    private ByteArrayRangeReader reader;
+    private RangedImageInputStream instance;
+
+    @Before
+    public void setUp() throws IOException {
+        bytes = new byte[95];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        reader = new ByteArrayRangeReader(bytes);
+        instance = new RangedImageInputStream(reader, CHUNK_SIZE, 3);
+    }
+
+    @Test
+    public void testLength() {
+        assertEquals(95, instance.length());
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(i, instance.read());
+        }
+        assertEquals(-1, instance.read());
+        assertEquals(10, reader.numReads);
+    }
+
+    @Test
+    public void testReadWithByteArrayAcrossChunks() throws IOException {
+        byte[] buffer = new byte[25];
+        instance.seek(5);
+        assertEquals(25, instance.read(buffer, 0, buffer.length));
+        for (int i = 0; i < buffer.length; i++) {
+            assertEquals(i + 5, buffer[i]);
+        }
+        assertEquals(30, instance.getStreamPosition());
+        assertEquals(3, instance.getNumChunkFetches());
+    }
+
+    @Test
+    public void testReadWithByteArrayAtEnd() throws IOException {
+        byte[] buffer = new byte[20];
+        instance.seek(90);
+        assertEquals(5, instance.read(buffer, 0, buffer.length));
+        assertEquals(94, buffer[4]);
+        assertEquals(-1, instance.read(buffer, 0, buffer.length));
+    }
+
+    @Test
+    public void testSeekFetchesOnlyNeededChunks() throws IOException {
+        instance.seek(85);
+        assertEquals(85, instance.read());
+        instance.seek(0);
+        assertEquals(0, instance.read());
+        assertEquals(2, instance.getNumChunkFetches());
+    }
+
+    @Test
+    public void testChunksAreCached() throws IOException {
+        instance.seek(42);
+        instance.read();
+        instance.seek(47);
+        instance.read();
+        instance.seek(40);
+        instance.read();
+        assertEquals(1, instance.getNumChunkFetches());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedChunksAreEvicted() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            instance.seek(i * CHUNK_SIZE);
+            instance.read();
+        }
+        assertEquals(4, instance.getNumChunkFetches());
+        // chunk 0 should have been evicted
+        instance.seek(0);
+        instance.read();
+        assertEquals(5, instance.getNumChunkFetches());
+        // chunk 3 should still be cached
+        instance.seek(3 * CHUNK_SIZE);
+        instance.read();
+        assertEquals(5, instance.getNumChunkFetches());
+    }
+
+    @Test
+    public void testReadInt() throws IOException {
+        instance.seek(8);
+        assertEquals(0x08090a0b, instance.readInt());
+    }
+
+}
@@ -0,0 +1,105 @@
+package edu.illinois.library.cantaloupe.resolver;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ResolutionCacheTest {
+
+    private static final Identifier IDENTIFIER = new Identifier("cats.jpg");
+
+    private ResolutionCache instance;
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty(ResolutionCache.ENABLED_CONFIG_KEY, true);
+
+        instance = ResolutionCache.getInstance();
+        instance.purge();
+    }
+
+    @Test
+    public void testGetWithHit() {
+        instance.put(IDENTIFIER,
+                new ResolutionCache.Resolution("HttpResolver", Format.JPG));
+        ResolutionCache.Resolution resolution = instance.get(IDENTIFIER);
+        assertEquals("HttpResolver", resolution.getResolverName());
+        assertEquals(Format.JPG, resolution.getFormat());
+        assertNull(resolution.getVersion());
+    }
+
+    @Test
+    public void testGetWithVersion() {
+        instance.put(IDENTIFIER, new ResolutionCache.Resolution(
+                "HttpResolver", Format.JPG, "etag:date:length"));
+        assertEquals("etag:date:length",
+                instance.get(IDENTIFIER).getVersion());
+    }
+
+    @Test
+    public void testGetWithMiss() {
+        assertNull(instance.get(IDENTIFIER));
+    }
+
+    @Test
+    public void testGetWhenDisabled() {
+        instance.put(IDENTIFIER,
+                new ResolutionCache.Resolution("HttpResolver", Format.JPG));
+        ConfigurationFactory.getInstance().
+                setProperty(ResolutionCache.ENABLED_CONFIG_KEY, false);
+        assertNull(instance.get(IDENTIFIER));
+    }
+
+    @Test
+    public void testGetWithExpiredResolution() throws Exception {
+        ConfigurationFactory.getInstance().
+                setProperty(ResolutionCache.TTL_CONFIG_KEY, 1);
+        instance.put(IDENTIFIER,
+                new ResolutionCache.Resolution("HttpResolver", Format.JPG));
+        Thread.sleep(1100);
+        assertNull(instance.get(IDENTIFIER));
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testPutWhenDisabled() {
+        ConfigurationFactory.getInstance().
+                setProperty(ResolutionCache.ENABLED_CONFIG_KEY, false);
+        instance.put(IDENTIFIER,
+                new ResolutionCache.Resolution("HttpResolver", Format.JPG));
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testPutRespectsMaxSize() {
+        ConfigurationFactory.getInstance().
+                setProperty(ResolutionCache.MAX_SIZE_CONFIG_KEY, 2);
+        for (int i = 0; i < 3; i++) {
+            instance.put(new Identifier("image" + i),
+                    new ResolutionCache.Resolution("HttpResolver", Format.JPG));
+        }
+        assertEquals(2, instance.size());
+        assertNull(instance.get(new Identifier("image0")));
+        assertNotNull(instance.get(new Identifier("image2")));
+    }
+
+    @Test
+    public void testPurgeWithIdentifier() {
+        instance.put(IDENTIFIER,
+                new ResolutionCache.Resolution("HttpResolver", Format.JPG));
+        instance.put(new Identifier("dogs.jpg"),
+                new ResolutionCache.Resolution("HttpResolver", Format.JPG));
+        instance.purge(IDENTIFIER);
+        assertNull(instance.get(IDENTIFIER));
+        assertEquals(1, instance.size());
+    }
+
+}
@@ -2,6 +2,7 @@ package edu.illinois.library.cantaloupe.resolver;
 
 import edu.illinois.library.cantaloupe.config.Configuration;
 import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.script.ScriptEngineFactory;
 import edu.illinois.library.cantaloupe.test.TestUtil;
@@ -67,6 +68,57 @@ public class ResolverFactoryTest {
                 instanceof FilesystemResolver);
     }
 
+    @Test
+    public void testGetResolverUsesResolutionCache() throws Exception {
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty(ResolutionCache.ENABLED_CONFIG_KEY, true);
+        config.setProperty(ResolverFactory.STATIC_RESOLVER_CONFIG_KEY,
+                "FilesystemResolver");
+        config.setProperty(FilesystemResolver.LOOKUP_STRATEGY_CONFIG_KEY,
+                "BasicLookupStrategy");
+        config.setProperty(FilesystemResolver.PATH_PREFIX_CONFIG_KEY,
+                TestUtil.getFixturePath() + "/images/");
+        ResolutionCache.getInstance().purge();
+
+        final Identifier identifier =
+                new Identifier("jpg-rgb-64x56x8-baseline.jpg");
+        assertEquals(Format.JPG,
+                ResolverFactory.getResolver(identifier).getSourceFormat());
+
+        // The format should now come from the cache, so it should not matter
+        // that the resolver can no longer find the image.
+        config.setProperty(FilesystemResolver.PATH_PREFIX_CONFIG_KEY, "/bogus/");
+        Resolver resolver = ResolverFactory.getResolver(identifier);
+        assertTrue(resolver instanceof FilesystemResolver);
+        assertEquals(Format.JPG, resolver.getSourceFormat());
+
+        // Changing the static resolver should invalidate the resolution.
+        config.setProperty(ResolverFactory.STATIC_RESOLVER_CONFIG_KEY,
+                "HttpResolver");
+        assertTrue(ResolverFactory.getResolver(identifier) instanceof HttpResolver);
+    }
+
+    @Test
+    public void testGetResolverRestoresCachedSourceVersion() throws Exception {
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty(ResolutionCache.ENABLED_CONFIG_KEY, true);
+        config.setProperty(ResolverFactory.STATIC_RESOLVER_CONFIG_KEY,
+                "HttpResolver");
+        ResolutionCache.getInstance().purge();
+
+        final Identifier identifier = new Identifier("cats.jpg");
+        ResolutionCache.getInstance().put(identifier,
+                new ResolutionCache.Resolution("HttpResolver", Format.JPG,
+                        "etag:date:length"));
+
+        // No URL is configured, so the version can only come from the cache.
+        final HttpResolver resolver =
+                (HttpResolver) ResolverFactory.getResolver(identifier);
+        assertEquals("etag:date:length", resolver.getSourceVersion());
+    }
+
     @Test
     public void testGetSelectionStrategy() {
         Configuration config = ConfigurationFactory.getInstance();
@@ -0,0 +1,81 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.Cache;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ImageInfoCacheTest {
+
+    private static final Identifier IDENTIFIER = new Identifier("cats");
+    private static final ImageInfo INFO = new ImageInfo(100, 80);
+
+    private ImageInfoCache instance;
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty(ImageInfoCache.ENABLED_CONFIG_KEY, true);
+
+        instance = ImageInfoCache.getInstance();
+        instance.purge();
+    }
+
+    @Test
+    public void testGetWithHit() {
+        instance.put(IDENTIFIER, INFO);
+        assertSame(INFO, instance.get(IDENTIFIER));
+    }
+
+    @Test
+    public void testGetWithMiss() {
+        instance.put(IDENTIFIER, INFO);
+        assertNull(instance.get(new Identifier("dogs")));
+    }
+
+    @Test
+    public void testGetWithExpiredEntry() throws Exception {
+        ConfigurationFactory.getInstance().setProperty(Cache.TTL_CONFIG_KEY, 1);
+        instance.put(IDENTIFIER, INFO);
+        Thread.sleep(1100);
+        assertNull(instance.get(IDENTIFIER));
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testGetAndPutWhenDisabled() {
+        ConfigurationFactory.getInstance().setProperty(
+                ImageInfoCache.ENABLED_CONFIG_KEY, false);
+        instance.put(IDENTIFIER, INFO);
+        assertEquals(0, instance.size());
+        assertNull(instance.get(IDENTIFIER));
+    }
+
+    @Test
+    public void testMaxSize() {
+        ConfigurationFactory.getInstance().setProperty(
+                ImageInfoCache.MAX_SIZE_CONFIG_KEY, 2);
+        for (int i = 0; i < 3; i++) {
+            instance.put(new Identifier("cats" + i), INFO);
+        }
+        assertEquals(2, instance.size());
+        assertNull(instance.get(new Identifier("cats0")));
+    }
+
+    @Test
+    public void testPurgeWithIdentifier() {
+        instance.put(IDENTIFIER, INFO);
+        instance.put(new Identifier("dogs"), INFO);
+        instance.purge(IDENTIFIER);
+        assertEquals(1, instance.size());
+        assertNull(instance.get(IDENTIFIER));
+    }
+
+}
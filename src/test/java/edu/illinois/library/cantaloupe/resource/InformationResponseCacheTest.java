@@ -0,0 +1,112 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.Cache;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class InformationResponseCacheTest {
+
+    private static final Identifier IDENTIFIER = new Identifier("cats");
+    private static final String ENDPOINT = "v2";
+    private static final String IMAGE_URI = "http://example.org/iiif/2/cats";
+    private static final String PROCESSOR = "Java2dProcessor";
+    private static final byte[] CONTENT = "{}".getBytes();
+
+    private InformationResponseCache instance;
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty(InformationResponseCache.ENABLED_CONFIG_KEY, true);
+
+        instance = InformationResponseCache.getInstance();
+        instance.purge();
+    }
+
+    @Test
+    public void testGetWithHit() {
+        instance.put(IDENTIFIER, ENDPOINT, IMAGE_URI, PROCESSOR, CONTENT);
+        assertArrayEquals(CONTENT, instance.get(ENDPOINT, IMAGE_URI, PROCESSOR));
+    }
+
+    @Test
+    public void testGetWithMiss() {
+        instance.put(IDENTIFIER, ENDPOINT, IMAGE_URI, PROCESSOR, CONTENT);
+        assertNull(instance.get("v1", IMAGE_URI, PROCESSOR));
+        assertNull(instance.get(ENDPOINT, "http://example.com/iiif/2/cats",
+                PROCESSOR));
+        assertNull(instance.get(ENDPOINT, IMAGE_URI, "JaiProcessor"));
+    }
+
+    @Test
+    public void testGetGzipped() throws Exception {
+        instance.put(IDENTIFIER, ENDPOINT, IMAGE_URI, PROCESSOR, CONTENT);
+        final byte[] gzipped = instance.getGzipped(ENDPOINT, IMAGE_URI,
+                PROCESSOR);
+        try (InputStream is = new GZIPInputStream(
+                new ByteArrayInputStream(gzipped))) {
+            assertArrayEquals(CONTENT, IOUtils.toByteArray(is));
+        }
+        // The compressed variant is retained.
+        assertSame(gzipped, instance.getGzipped(ENDPOINT, IMAGE_URI,
+                PROCESSOR));
+    }
+
+    @Test
+    public void testGetGzippedWithMiss() throws Exception {
+        assertNull(instance.getGzipped(ENDPOINT, IMAGE_URI, PROCESSOR));
+    }
+
+    @Test
+    public void testGetWithExpiredEntry() throws Exception {
+        ConfigurationFactory.getInstance().setProperty(Cache.TTL_CONFIG_KEY, 1);
+        instance.put(IDENTIFIER, ENDPOINT, IMAGE_URI, PROCESSOR, CONTENT);
+        Thread.sleep(1100);
+        assertNull(instance.get(ENDPOINT, IMAGE_URI, PROCESSOR));
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testGetAndPutWhenDisabled() {
+        ConfigurationFactory.getInstance().setProperty(
+                InformationResponseCache.ENABLED_CONFIG_KEY, false);
+        instance.put(IDENTIFIER, ENDPOINT, IMAGE_URI, PROCESSOR, CONTENT);
+        assertEquals(0, instance.size());
+        assertNull(instance.get(ENDPOINT, IMAGE_URI, PROCESSOR));
+    }
+
+    @Test
+    public void testMaxSize() {
+        ConfigurationFactory.getInstance().setProperty(
+                InformationResponseCache.MAX_SIZE_CONFIG_KEY, 2);
+        for (int i = 0; i < 3; i++) {
+            instance.put(IDENTIFIER, ENDPOINT, IMAGE_URI + i, PROCESSOR,
+                    CONTENT);
+        }
+        assertEquals(2, instance.size());
+        assertNull(instance.get(ENDPOINT, IMAGE_URI + 0, PROCESSOR));
+    }
+
+    @Test
+    public void testPurgeWithIdentifier() {
+        instance.put(IDENTIFIER, "v1", IMAGE_URI, PROCESSOR, CONTENT);
+        instance.put(IDENTIFIER, "v2", IMAGE_URI, PROCESSOR, CONTENT);
+        instance.put(new Identifier("dogs"), ENDPOINT,
+                "http://example.org/iiif/2/dogs", PROCESSOR, CONTENT);
+        instance.purge(IDENTIFIER);
+        assertEquals(1, instance.size());
+    }
+
+}
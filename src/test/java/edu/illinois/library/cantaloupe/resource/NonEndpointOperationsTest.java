@@ -0,0 +1,37 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.MetadataCopy;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NonEndpointOperationsTest {
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        ConfigurationFactory.getInstance().clear();
+    }
+
+    @Test
+    public void testAddRequestIndependentOperations() {
+        OperationList ops = new OperationList();
+        NonEndpointOperations.addRequestIndependentOperations(ops);
+        assertFalse(ops.iterator().hasNext());
+    }
+
+    @Test
+    public void testAddRequestIndependentOperationsWithMetadataPreserved() {
+        Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(AbstractResource.PRESERVE_METADATA_CONFIG_KEY, true);
+
+        OperationList ops = new OperationList();
+        NonEndpointOperations.addRequestIndependentOperations(ops);
+        assertTrue(ops.iterator().next() instanceof MetadataCopy);
+    }
+
+}
@@ -0,0 +1,159 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class RenderExecutorTest {
+
+    private RenderExecutor instance;
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty(RenderExecutor.ENABLED_CONFIG_KEY, true);
+
+        instance = RenderExecutor.getInstance();
+    }
+
+    @Test
+    public void testRender() throws Exception {
+        final AtomicBoolean rendered = new AtomicBoolean(false);
+        instance.render(new Callable<Void>() {
+            @Override
+            public Void call() {
+                rendered.set(true);
+                return null;
+            }
+        }, 1, instance.reserve());
+        assertTrue(rendered.get());
+        assertEquals(0, instance.getPendingCount());
+    }
+
+    @Test
+    public void testRenderRethrowsExceptions() throws Exception {
+        try {
+            instance.render(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    throw new IOException("oops");
+                }
+            }, 1, instance.reserve());
+            fail("Expected exception");
+        } catch (IOException e) {
+            // The reservation is released anyway.
+            assertEquals(0, instance.getPendingCount());
+        }
+    }
+
+    @Test
+    public void testReserve() throws Exception {
+        ConfigurationFactory.getInstance().setProperty(
+                RenderExecutor.MAX_QUEUED_CONFIG_KEY, 0);
+        final List<RenderExecutor.Reservation> reservations = new ArrayList<>();
+        RenderExecutor.Reservation reservation;
+        while ((reservation = instance.reserve()) != null) {
+            reservations.add(reservation);
+        }
+        assertFalse(reservations.isEmpty());
+        assertNull(instance.reserve());
+        assertEquals(reservations.size(), instance.getPendingCount());
+
+        // A reserved render is not refused even though the queue is full.
+        final AtomicBoolean rendered = new AtomicBoolean(false);
+        instance.render(new Callable<Void>() {
+            @Override
+            public Void call() {
+                rendered.set(true);
+                return null;
+            }
+        }, 1, reservations.get(0));
+        assertTrue(rendered.get());
+        assertEquals(reservations.size() - 1, instance.getPendingCount());
+
+        // Releasing is idempotent.
+        for (RenderExecutor.Reservation r : reservations) {
+            r.release();
+            r.release();
+        }
+        assertEquals(0, instance.getPendingCount());
+
+        reservation = instance.reserve();
+        assertNotNull(reservation);
+        reservation.release();
+    }
+
+    @Test
+    public void testReserveWhileRendering() throws Exception {
+        ConfigurationFactory.getInstance().setProperty(
+                RenderExecutor.MAX_QUEUED_CONFIG_KEY, 0);
+
+        // Occupy all of the render threads.
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Callable<Void> blockingRender = new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                latch.await();
+                return null;
+            }
+        };
+        for (int i = 0; i < 256; i++) {
+            final RenderExecutor.Reservation reservation = instance.reserve();
+            if (reservation == null) {
+                break;
+            }
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        instance.render(blockingRender, 1, reservation);
+                    } catch (Exception e) {
+                        // ignore
+                    }
+                }
+            }.start();
+        }
+        assertNull(instance.reserve());
+
+        latch.countDown();
+        for (int i = 0; i < 100 && instance.getPendingCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, instance.getPendingCount());
+
+        final RenderExecutor.Reservation reservation = instance.reserve();
+        assertNotNull(reservation);
+        reservation.release();
+    }
+
+    @Test
+    public void testForceReserve() {
+        ConfigurationFactory.getInstance().setProperty(
+                RenderExecutor.MAX_QUEUED_CONFIG_KEY, 0);
+        final List<RenderExecutor.Reservation> reservations = new ArrayList<>();
+        RenderExecutor.Reservation reservation;
+        while ((reservation = instance.reserve()) != null) {
+            reservations.add(reservation);
+        }
+        reservations.add(instance.forceReserve());
+        assertEquals(reservations.size(), instance.getPendingCount());
+
+        for (RenderExecutor.Reservation r : reservations) {
+            r.release();
+        }
+        assertEquals(0, instance.getPendingCount());
+    }
+
+}
@@ -0,0 +1,175 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.Cache;
+import edu.illinois.library.cantaloupe.cache.CacheFactory;
+import edu.illinois.library.cantaloupe.cache.DerivativeCache;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Crop;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.image.Rotate;
+import edu.illinois.library.cantaloupe.image.Scale;
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
+import edu.illinois.library.cantaloupe.processor.StreamProcessor;
+import edu.illinois.library.cantaloupe.resolver.ByteArrayStreamSource;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SizeLadderTest {
+
+    private SizeLadder instance;
+
+    private static OperationList newOperationList(Scale scale) {
+        OperationList ops = new OperationList();
+        ops.setIdentifier(new Identifier("cats"));
+        Crop crop = new Crop();
+        crop.setFull(true);
+        ops.add(crop);
+        ops.add(scale);
+        ops.add(new Rotate(0));
+        ops.setOutputFormat(Format.JPG);
+        return ops;
+    }
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        ConfigurationFactory.getInstance().clear();
+
+        instance = new SizeLadder(new ImageInfo(1000, 800, Format.JPG));
+    }
+
+    @Test
+    public void testGetNearestRung() {
+        OperationList ops = newOperationList(
+                new Scale(200, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        OperationList rung = instance.getNearestRung(ops);
+        assertEquals(new Dimension(250, 200),
+                rung.getResultingSize(new Dimension(1000, 800)));
+    }
+
+    @Test
+    public void testGetNearestRungWithRequestLargerThanAllRungs() {
+        OperationList ops = newOperationList(
+                new Scale(600, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        assertNull(instance.getNearestRung(ops));
+    }
+
+    @Test
+    public void testGetNearestRungWithRungRequest() {
+        OperationList ops = newOperationList(
+                new Scale(250, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        ops.normalize(new Dimension(1000, 800));
+        assertNull(instance.getNearestRung(ops));
+    }
+
+    @Test
+    public void testGetNearestRungWithIneligibleRequest() {
+        OperationList ops = newOperationList(
+                new Scale(200, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        ops.add(new Rotate(90));
+        assertNull(instance.getNearestRung(ops));
+    }
+
+    @Test
+    public void testRender() throws Exception {
+        final File cacheFolder =
+                new File(TestUtil.getTempFolder(), "size_ladder_cache");
+        Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(CacheFactory.DERIVATIVE_CACHE_CONFIG_KEY,
+                "FilesystemCache");
+        config.setProperty("FilesystemCache.pathname",
+                cacheFolder.getAbsolutePath());
+        config.setProperty(Cache.TTL_CONFIG_KEY, 0);
+        final DerivativeCache cache = CacheFactory.getDerivativeCache();
+        try {
+            final String fixture = "jpg-rgb-594x522x8-baseline.jpg";
+            final StreamProcessor processor =
+                    ProcessorFactory.getDerivativeProcessor(Format.JPG);
+            processor.setStreamSource(new ByteArrayStreamSource(
+                    Files.readAllBytes(TestUtil.getImage(fixture).toPath())));
+            final ImageInfo info = processor.getImageInfo();
+            instance = new SizeLadder(info);
+
+            final OperationList ops = newOperationList(
+                    new Scale(100, null, Scale.Mode.ASPECT_FIT_WIDTH));
+            ops.setIdentifier(new Identifier(fixture));
+            ops.normalize(info.getSize());
+            final OperationList rung = instance.getNearestRung(ops);
+            assertNotNull(rung);
+
+            final ByteArrayOutputStream outputStream =
+                    new ByteArrayOutputStream();
+            assertTrue(instance.render(ops, processor, cache, outputStream));
+
+            final BufferedImage image = ImageIO.read(
+                    new ByteArrayInputStream(outputStream.toByteArray()));
+            assertEquals(ops.getResultingSize(info.getSize()),
+                    new Dimension(image.getWidth(), image.getHeight()));
+            // The rung has been cached.
+            try (InputStream inputStream = cache.getImageInputStream(rung)) {
+                assertNotNull(inputStream);
+            }
+        } finally {
+            FileUtils.deleteDirectory(cacheFolder);
+        }
+    }
+
+    @Test
+    public void testGetRungOperations() {
+        OperationList ops = newOperationList(
+                new Scale(200, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        OperationList rung = instance.getNearestRung(ops);
+        OperationList rungOps = instance.getRungOperations(ops, rung);
+        assertEquals(new Dimension(200, 160),
+                rungOps.getResultingSize(new Dimension(250, 200)));
+        assertEquals(Format.JPG, rungOps.getOutputFormat());
+    }
+
+    @Test
+    public void testGetRungs() {
+        List<OperationList> rungs =
+                instance.getRungs(newOperationList(new Scale()));
+        assertEquals(3, rungs.size());
+        assertEquals(new Dimension(125, 100),
+                rungs.get(0).getResultingSize(new Dimension(1000, 800)));
+        assertEquals(new Dimension(500, 400),
+                rungs.get(2).getResultingSize(new Dimension(1000, 800)));
+    }
+
+    @Test
+    public void testGetRungWidths() {
+        assertEquals(Arrays.asList(125, 250, 500), instance.getRungWidths());
+    }
+
+    @Test
+    public void testIsEligible() {
+        OperationList ops = newOperationList(
+                new Scale(200, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        assertTrue(instance.isEligible(ops));
+
+        ops = newOperationList(
+                new Scale(200, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        ops.add(new Crop(0, 0, 50, 50));
+        assertFalse(instance.isEligible(ops));
+    }
+
+}
@@ -0,0 +1,49 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SourceConsistencyCheckerTest {
+
+    private SourceConsistencyChecker instance;
+
+    @Before
+    public void setUp() throws Exception {
+        ResourceTest.resetConfiguration();
+        Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(SourceConsistencyChecker.ENABLED_CONFIG_KEY, true);
+        config.setProperty(InformationResponseCache.ENABLED_CONFIG_KEY, true);
+
+        InformationResponseCache.getInstance().purge();
+        instance = SourceConsistencyChecker.getInstance();
+    }
+
+    @Test
+    public void testCheckNowWithPresentImage() {
+        final Identifier identifier =
+                new Identifier("jpg-rgb-64x56x8-baseline.jpg");
+        InformationResponseCache.getInstance().put(identifier, "v2",
+                "http://example.org/" + identifier, "Java2dProcessor",
+                new byte[0]);
+
+        assertFalse(instance.checkNow(identifier));
+        assertEquals(1, InformationResponseCache.getInstance().size());
+    }
+
+    @Test
+    public void testCheckNowWithMissingImage() {
+        final Identifier identifier = new Identifier("bogus");
+        InformationResponseCache.getInstance().put(identifier, "v2",
+                "http://example.org/" + identifier, "Java2dProcessor",
+                new byte[0]);
+
+        assertTrue(instance.checkNow(identifier));
+        assertEquals(0, InformationResponseCache.getInstance().size());
+    }
+
+}
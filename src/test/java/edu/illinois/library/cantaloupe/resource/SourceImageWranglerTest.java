@@ -12,6 +12,8 @@ import edu.illinois.library.cantaloupe.processor.Processor;
 import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
 import edu.illinois.library.cantaloupe.processor.StreamProcessor;
 import edu.illinois.library.cantaloupe.resolver.FileResolver;
+import edu.illinois.library.cantaloupe.resolver.RangeReader;
+import edu.illinois.library.cantaloupe.resolver.RangedStreamSource;
 import edu.illinois.library.cantaloupe.resolver.Resolver;
 import edu.illinois.library.cantaloupe.resolver.ResolverFactory;
 import edu.illinois.library.cantaloupe.resolver.StreamResolver;
@@ -22,6 +24,7 @@ import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.imageio.stream.ImageInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -184,6 +187,92 @@ public class SourceImageWranglerTest {
         }
     }
 
+    @Test
+    public void testWrangleWithStreamResolverAndFileProcessorPurgesFailedDownloads()
+            throws Exception {
+        final File cacheFolder = TestUtil.getTempFolder();
+        identifier = new Identifier("jp2");
+        try {
+            Configuration config = ConfigurationFactory.getInstance();
+            config.setProperty(CacheFactory.SOURCE_CACHE_CONFIG_KEY,
+                    "FilesystemCache");
+            config.setProperty("FilesystemCache.pathname",
+                    cacheFolder.getAbsolutePath());
+            config.setProperty(
+                    SourceImageWrangler.PARALLEL_DOWNLOAD_ENABLED_CONFIG_KEY,
+                    true);
+            config.setProperty(
+                    SourceImageWrangler.PARALLEL_DOWNLOAD_CHUNK_SIZE_CONFIG_KEY,
+                    1);
+            config.setProperty(ProcessorFactory.FALLBACK_PROCESSOR_CONFIG_KEY,
+                    "OpenJpegProcessor");
+
+            // Resolver of a 4 KB image whose last chunk fails to download.
+            final Resolver resolver = new StreamResolver() {
+                @Override
+                public StreamSource getStreamSource() {
+                    return new RangedStreamSource() {
+                        @Override
+                        public RangeReader newRangeReader() {
+                            return new RangeReader() {
+                                @Override
+                                public long getLength() {
+                                    return 4096;
+                                }
+
+                                @Override
+                                public void read(long offset, byte[] buffer,
+                                                 int bufferOffset, int length)
+                                        throws IOException {
+                                    if (offset >= 3072) {
+                                        throw new IOException("Read failed");
+                                    }
+                                    Arrays.fill(buffer, bufferOffset,
+                                            bufferOffset + length, (byte) 1);
+                                }
+                            };
+                        }
+
+                        @Override
+                        public ImageInputStream newImageInputStream() {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        public InputStream newInputStream() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public Format getSourceFormat() {
+                    return Format.JP2;
+                }
+
+                @Override
+                public void setIdentifier(Identifier identifier) {}
+            };
+            final Processor processor = ProcessorFactory.getProcessor(Format.JP2);
+
+            try {
+                new SourceImageWrangler(resolver, processor, identifier).wrangle();
+                fail("Expected exception");
+            } catch (IOException e) {
+                assertEquals("Read failed", e.getMessage());
+            }
+
+            // The incomplete image must not be left in the cache.
+            assertNull(CacheFactory.getSourceCache().getImageFile(identifier));
+        } finally {
+            try {
+                recursiveDeleteOnExit(cacheFolder);
+            } catch (IOException e) {
+                System.out.println(e);
+            }
+        }
+    }
+
     @Test
     public void testWrangleWithStreamResolverAndStreamProcessorWithStreamStrategy()
             throws Exception {
@@ -0,0 +1,183 @@
+package edu.illinois.library.cantaloupe.resource;
+
+import edu.illinois.library.cantaloupe.cache.Cache;
+import edu.illinois.library.cantaloupe.cache.CacheFactory;
+import edu.illinois.library.cantaloupe.cache.DerivativeCache;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Crop;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.image.Rotate;
+import edu.illinois.library.cantaloupe.image.Scale;
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+import edu.illinois.library.cantaloupe.processor.ProcessorFactory;
+import edu.illinois.library.cantaloupe.processor.StreamProcessor;
+import edu.illinois.library.cantaloupe.resolver.ByteArrayStreamSource;
+import edu.illinois.library.cantaloupe.test.TestUtil;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TileAssemblerTest {
+
+    private TileAssembler instance;
+
+    private static OperationList newOperationList(Crop crop, Scale scale) {
+        OperationList ops = new OperationList();
+        ops.setIdentifier(new Identifier("cats"));
+        ops.add(crop);
+        ops.add(scale);
+        ops.add(new Rotate(0));
+        ops.setOutputFormat(Format.JPG);
+        ops.normalize(new Dimension(1000, 800));
+        return ops;
+    }
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty("endpoint.iiif.min_tile_size", 200);
+
+        instance = new TileAssembler(new ImageInfo(1000, 800, Format.JPG));
+    }
+
+    @Test
+    public void testGetReductionFactor() {
+        OperationList ops = newOperationList(new Crop(100, 100, 300, 300),
+                new Scale());
+        assertEquals(0, instance.getReductionFactor(ops));
+
+        ops = newOperationList(new Crop(100, 100, 300, 300),
+                new Scale(150, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        assertEquals(1, instance.getReductionFactor(ops));
+
+        ops = newOperationList(new Crop(100, 100, 300, 300),
+                new Scale(50, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        assertEquals(2, instance.getReductionFactor(ops));
+    }
+
+    @Test
+    public void testGetTileSize() {
+        assertEquals(new Dimension(250, 200), instance.getTileSize());
+    }
+
+    @Test
+    public void testGetTiles() {
+        OperationList ops = newOperationList(new Crop(400, 300, 300, 300),
+                new Scale());
+        List<OperationList> tiles = instance.getTiles(ops);
+        assertEquals(4, tiles.size());
+        assertEquals(newOperationList(new Crop(250, 200, 250, 200),
+                new Scale()), tiles.get(0));
+        assertEquals(newOperationList(new Crop(500, 400, 250, 200),
+                new Scale()), tiles.get(3));
+    }
+
+    @Test
+    public void testGetTilesAtReducedScale() {
+        OperationList ops = newOperationList(new Crop(100, 100, 300, 300),
+                new Scale(150, null, Scale.Mode.ASPECT_FIT_WIDTH));
+        List<OperationList> tiles = instance.getTiles(ops);
+        assertEquals(1, tiles.size());
+        assertEquals(newOperationList(new Crop(0, 0, 500, 400),
+                new Scale(250, null, Scale.Mode.ASPECT_FIT_WIDTH)),
+                tiles.get(0));
+    }
+
+    @Test
+    public void testGetTilesWithGridTileRequest() {
+        OperationList ops = newOperationList(new Crop(0, 0, 250, 200),
+                new Scale());
+        assertTrue(instance.getTiles(ops).isEmpty());
+    }
+
+    @Test
+    public void testGetTilesWithTooManyTiles() {
+        ConfigurationFactory.getInstance().
+                setProperty("endpoint.iiif.min_tile_size", 64);
+        instance = new TileAssembler(new ImageInfo(1000, 800, Format.JPG));
+        OperationList ops = newOperationList(new Crop(10, 10, 900, 700),
+                new Scale());
+        assertTrue(instance.getTiles(ops).isEmpty());
+    }
+
+    @Test
+    public void testRender() throws Exception {
+        final File cacheFolder =
+                new File(TestUtil.getTempFolder(), "tile_assembler_cache");
+        Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(CacheFactory.DERIVATIVE_CACHE_CONFIG_KEY,
+                "FilesystemCache");
+        config.setProperty("FilesystemCache.pathname",
+                cacheFolder.getAbsolutePath());
+        config.setProperty(Cache.TTL_CONFIG_KEY, 0);
+        final DerivativeCache cache = CacheFactory.getDerivativeCache();
+        try {
+            final String fixture = "jpg-rgb-594x522x8-baseline.jpg";
+            final StreamProcessor processor =
+                    ProcessorFactory.getDerivativeProcessor(Format.JPG);
+            processor.setStreamSource(new ByteArrayStreamSource(
+                    Files.readAllBytes(TestUtil.getImage(fixture).toPath())));
+            final ImageInfo info = processor.getImageInfo();
+            instance = new TileAssembler(info);
+
+            final OperationList ops = new OperationList(
+                    new Identifier(fixture), Format.JPG);
+            ops.add(new Crop(100, 100, 300, 300));
+            ops.add(new Scale());
+            ops.normalize(info.getSize());
+            final List<OperationList> tiles = instance.getTiles(ops);
+            assertFalse(tiles.isEmpty());
+
+            final ByteArrayOutputStream outputStream =
+                    new ByteArrayOutputStream();
+            assertTrue(instance.render(ops, processor, cache, outputStream));
+
+            final BufferedImage image = ImageIO.read(
+                    new ByteArrayInputStream(outputStream.toByteArray()));
+            assertEquals(300, image.getWidth());
+            assertEquals(300, image.getHeight());
+            // The tiles have been cached.
+            for (OperationList tile : tiles) {
+                try (InputStream inputStream = cache.getImageInputStream(tile)) {
+                    assertNotNull(inputStream);
+                }
+            }
+        } finally {
+            FileUtils.deleteDirectory(cacheFolder);
+        }
+    }
+
+    @Test
+    public void testIsEligible() {
+        OperationList ops = newOperationList(new Crop(100, 100, 300, 300),
+                new Scale());
+        assertTrue(instance.isEligible(ops));
+
+        Crop crop = new Crop();
+        crop.setFull(true);
+        ops = newOperationList(crop, new Scale());
+        assertFalse(instance.isEligible(ops));
+
+        ops = newOperationList(new Crop(100, 100, 300, 300), new Scale());
+        ops.add(new Rotate(90));
+        assertFalse(instance.isEligible(ops));
+    }
+
+}
@@ -0,0 +1,132 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import edu.illinois.library.cantaloupe.WebApplication;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.resource.AbstractResource;
+import edu.illinois.library.cantaloupe.resource.ResourceTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.restlet.data.ChallengeResponse;
+import org.restlet.data.ChallengeScheme;
+import org.restlet.data.MediaType;
+import org.restlet.data.Status;
+import org.restlet.representation.Representation;
+import org.restlet.resource.ClientResource;
+import org.restlet.resource.ResourceException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+/**
+ * Functional test of FramesResource.
+ */
+public class FramesResourceTest extends ResourceTest {
+
+    private static final String USERNAME = "admin";
+    private static final String SECRET = "secret";
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+
+        final Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(ApiResource.ENABLED_CONFIG_KEY, true);
+        config.setProperty(WebApplication.API_USERNAME_CONFIG_KEY, USERNAME);
+        config.setProperty(WebApplication.API_SECRET_CONFIG_KEY, SECRET);
+        config.setProperty("processor.pdf", "PdfBoxProcessor");
+
+        webServer.start();
+    }
+
+    private ClientResource getAuthenticatedClient(String path) {
+        ClientResource client = getClientForUriPath(path);
+        client.setChallengeResponse(
+                new ChallengeResponse(ChallengeScheme.HTTP_BASIC, USERNAME, SECRET));
+        return client;
+    }
+
+    @Test
+    public void testGetWithNoCredentials() {
+        ClientResource client = getClientForUriPath(
+                WebApplication.FRAMES_PATH + "/pdf-multipage.pdf?pages=1,2");
+        try {
+            client.get();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_UNAUTHORIZED, client.getStatus());
+        }
+    }
+
+    @Test
+    public void testGetWithNoTimesOrPages() {
+        ClientResource client = getAuthenticatedClient(
+                WebApplication.FRAMES_PATH + "/pdf-multipage.pdf");
+        try {
+            client.get();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_BAD_REQUEST, client.getStatus());
+        }
+    }
+
+    @Test
+    public void testGetWithTooManyFrames() {
+        ConfigurationFactory.getInstance().
+                setProperty(FramesResource.MAX_FRAMES_CONFIG_KEY, 1);
+        ClientResource client = getAuthenticatedClient(
+                WebApplication.FRAMES_PATH + "/pdf-multipage.pdf?pages=1,2");
+        try {
+            client.get();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_BAD_REQUEST, client.getStatus());
+        }
+    }
+
+    @Test
+    public void testGetWithSheetExceedingMaxPixels() {
+        // Each 50x44 frame is within the limit, but the 100x44 sheet isn't.
+        ConfigurationFactory.getInstance().
+                setProperty(AbstractResource.MAX_PIXELS_CONFIG_KEY, 3000);
+        ClientResource client = getAuthenticatedClient(
+                WebApplication.FRAMES_PATH +
+                        "/pdf-multipage.pdf?pages=1,2&size=50,");
+        try {
+            client.get();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_FORBIDDEN, client.getStatus());
+        }
+    }
+
+    @Test
+    public void testGetWithSingleFrameSource() {
+        ClientResource client = getAuthenticatedClient(
+                WebApplication.FRAMES_PATH + "/" + IMAGE + "?pages=1,2");
+        try {
+            client.get();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_BAD_REQUEST, client.getStatus());
+        }
+    }
+
+    @Test
+    public void testGetWithPages() throws Exception {
+        ClientResource client = getAuthenticatedClient(
+                WebApplication.FRAMES_PATH +
+                        "/pdf-multipage.pdf?pages=1,2&size=50,&columns=2");
+        Representation rep = client.get();
+        assertEquals(Status.SUCCESS_OK, client.getStatus());
+        assertEquals(MediaType.IMAGE_JPEG, rep.getMediaType());
+
+        // Two 50-pixel-wide frames side by side
+        BufferedImage sheet = ImageIO.read(rep.getStream());
+        assertEquals(100, sheet.getWidth());
+    }
+
+}
@@ -0,0 +1,122 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.image.Crop;
+import edu.illinois.library.cantaloupe.image.Format;
+import edu.illinois.library.cantaloupe.image.Identifier;
+import edu.illinois.library.cantaloupe.image.Operation;
+import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.image.Scale;
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IdentifierWarmerTest {
+
+    private static final Identifier IDENTIFIER = new Identifier("cats");
+
+    private IdentifierWarmer instance;
+
+    @Before
+    public void setUp() {
+        System.setProperty(ConfigurationFactory.CONFIG_VM_ARGUMENT, "memory");
+        Configuration config = ConfigurationFactory.getInstance();
+        config.clear();
+        config.setProperty("endpoint.iiif.min_tile_size", 256);
+
+        instance = new IdentifierWarmer(IDENTIFIER);
+    }
+
+    private static Crop getCrop(OperationList ops) {
+        for (Operation op : ops) {
+            if (op instanceof Crop) {
+                return (Crop) op;
+            }
+        }
+        return null;
+    }
+
+    private static Scale getScale(OperationList ops) {
+        for (Operation op : ops) {
+            if (op instanceof Scale) {
+                return (Scale) op;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testGetDerivativeOperationsWithNoDerivativesConfigured() {
+        assertTrue(instance.getDerivativeOperations(
+                new ImageInfo(2000, 1000)).isEmpty());
+    }
+
+    @Test
+    public void testGetDerivativeOperationsWithThumbnails() {
+        ConfigurationFactory.getInstance().setProperty(
+                IdentifierWarmer.THUMBNAIL_WIDTHS_CONFIG_KEY, "100, 200");
+        List<OperationList> opLists =
+                instance.getDerivativeOperations(new ImageInfo(2000, 1000));
+        assertEquals(2, opLists.size());
+
+        OperationList ops = opLists.get(1);
+        assertEquals(IDENTIFIER, ops.getIdentifier());
+        assertEquals(Format.JPG, ops.getOutputFormat());
+        assertTrue(getCrop(ops).isFull());
+        assertEquals(new Dimension(200, 100),
+                ops.getResultingSize(new Dimension(2000, 1000)));
+    }
+
+    @Test
+    public void testGetDerivativeOperationsWithTiles() {
+        // The tile size will be 1000x500 and the scale factors 1-8.
+        ConfigurationFactory.getInstance().setProperty(
+                IdentifierWarmer.TILE_LEVELS_CONFIG_KEY, 4);
+        List<OperationList> opLists =
+                instance.getDerivativeOperations(new ImageInfo(2000, 1000));
+        // 1 tile each at scale factors 8, 4, and 2, and 4 at 1
+        assertEquals(7, opLists.size());
+
+        // scale factor 8
+        OperationList ops = opLists.get(0);
+        assertTrue(getCrop(ops).isFull());
+        assertEquals(250, (int) getScale(ops).getWidth());
+
+        // last tile at scale factor 1
+        ops = opLists.get(6);
+        Crop crop = getCrop(ops);
+        assertEquals(1000, crop.getX(), 0.0001f);
+        assertEquals(500, crop.getY(), 0.0001f);
+        assertEquals(1000, crop.getWidth(), 0.0001f);
+        assertEquals(500, crop.getHeight(), 0.0001f);
+        // The scale to the region size is normalized to a no-op.
+        assertTrue(getScale(ops).isNoOp());
+    }
+
+    @Test
+    public void testGetDerivativeOperationsWithFormat() {
+        Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(IdentifierWarmer.THUMBNAIL_WIDTHS_CONFIG_KEY, "100");
+        config.setProperty(IdentifierWarmer.FORMAT_CONFIG_KEY, "png");
+        List<OperationList> opLists =
+                instance.getDerivativeOperations(new ImageInfo(2000, 1000));
+        assertEquals(Format.PNG, opLists.get(0).getOutputFormat());
+    }
+
+    @Test
+    public void testToIntegerList() {
+        assertEquals(Arrays.asList(1, 2, 3),
+                IdentifierWarmer.toIntegerList("1, 2 3"));
+        assertEquals(Arrays.asList(1, 2),
+                IdentifierWarmer.toIntegerList(Arrays.asList("1", "2")));
+        assertTrue(IdentifierWarmer.toIntegerList(null).isEmpty());
+    }
+
+}
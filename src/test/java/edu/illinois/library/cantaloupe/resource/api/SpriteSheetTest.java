@@ -0,0 +1,75 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SpriteSheetTest {
+
+    @Test
+    public void testGetNumColumns() {
+        assertEquals(1, SpriteSheet.getNumColumns(1, 0));
+        assertEquals(2, SpriteSheet.getNumColumns(4, 0));
+        assertEquals(3, SpriteSheet.getNumColumns(5, 0));
+        assertEquals(4, SpriteSheet.getNumColumns(10, 4));
+        assertEquals(3, SpriteSheet.getNumColumns(3, 10));
+    }
+
+    @Test
+    public void testGetNumPixels() {
+        final List<Dimension> sizes = Arrays.asList(
+                new Dimension(20, 10), new Dimension(20, 10),
+                new Dimension(16, 12));
+        // Cells are 20x12, in 2 columns and 2 rows.
+        assertEquals(40 * 24, SpriteSheet.getNumPixels(sizes, 2));
+        // 3 columns and 1 row
+        assertEquals(60 * 12, SpriteSheet.getNumPixels(sizes, 3));
+    }
+
+    @Test
+    public void testGetNumPixelsWithHugeSheet() {
+        final List<Dimension> sizes = Arrays.asList(
+                new Dimension(100000, 100000), new Dimension(100000, 100000));
+        assertEquals(20000000000L, SpriteSheet.getNumPixels(sizes, 0));
+    }
+
+    @Test
+    public void testCompose() {
+        final BufferedImage red =
+                new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB);
+        red.setRGB(0, 0, 0xff0000);
+        final BufferedImage green =
+                new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB);
+        green.setRGB(0, 0, 0x00ff00);
+        final BufferedImage blue =
+                new BufferedImage(16, 12, BufferedImage.TYPE_INT_RGB);
+        blue.setRGB(0, 0, 0x0000ff);
+        final List<BufferedImage> images = Arrays.asList(red, green, blue);
+
+        final BufferedImage sheet = SpriteSheet.compose(images, 2);
+        // Cells are 20x12, in 2 columns and 2 rows.
+        assertEquals(40, sheet.getWidth());
+        assertEquals(24, sheet.getHeight());
+        assertFalse(sheet.getColorModel().hasAlpha());
+        assertEquals(0xff0000, sheet.getRGB(0, 0) & 0xffffff);
+        assertEquals(0x00ff00, sheet.getRGB(20, 0) & 0xffffff);
+        assertEquals(0x0000ff, sheet.getRGB(0, 12) & 0xffffff);
+    }
+
+    @Test
+    public void testComposeWithAlpha() {
+        final List<BufferedImage> images = Arrays.asList(
+                new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB),
+                new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB));
+        final BufferedImage sheet = SpriteSheet.compose(images, 0);
+        assertEquals(20, sheet.getWidth());
+        assertEquals(10, sheet.getHeight());
+        assertTrue(sheet.getColorModel().hasAlpha());
+    }
+
+}
@@ -0,0 +1,121 @@
+package edu.illinois.library.cantaloupe.resource.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.illinois.library.cantaloupe.WebApplication;
+import edu.illinois.library.cantaloupe.config.Configuration;
+import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
+import edu.illinois.library.cantaloupe.resource.ResourceTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.restlet.data.ChallengeResponse;
+import org.restlet.data.ChallengeScheme;
+import org.restlet.data.MediaType;
+import org.restlet.data.Status;
+import org.restlet.resource.ClientResource;
+import org.restlet.resource.ResourceException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Functional test of WarmupResource.
+ */
+public class WarmupResourceTest extends ResourceTest {
+
+    private static final String USERNAME = "admin";
+    private static final String SECRET = "secret";
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+
+        final Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(ApiResource.ENABLED_CONFIG_KEY, true);
+        config.setProperty(WebApplication.API_USERNAME_CONFIG_KEY, USERNAME);
+        config.setProperty(WebApplication.API_SECRET_CONFIG_KEY, SECRET);
+
+        webServer.start();
+    }
+
+    private ClientResource getAuthenticatedClient(String path) {
+        ClientResource client = getClientForUriPath(path);
+        client.setChallengeResponse(
+                new ChallengeResponse(ChallengeScheme.HTTP_BASIC, USERNAME, SECRET));
+        return client;
+    }
+
+    private String newEntity(Object identifiers) throws Exception {
+        Map<String,Object> entityMap = new HashMap<>();
+        entityMap.put("identifiers", identifiers);
+        return new ObjectMapper().writer().writeValueAsString(entityMap);
+    }
+
+    @Test
+    public void testSubmitTaskWithNoCredentials() throws Exception {
+        ClientResource client = getClientForUriPath(WebApplication.WARMUP_PATH);
+        try {
+            client.post(newEntity(Collections.singletonList(IMAGE)),
+                    MediaType.APPLICATION_JSON);
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_UNAUTHORIZED, client.getStatus());
+        }
+    }
+
+    @Test
+    public void testSubmitTaskWithNoIdentifiers() throws Exception {
+        ClientResource client = getAuthenticatedClient(WebApplication.WARMUP_PATH);
+        try {
+            client.post(newEntity(Collections.emptyList()),
+                    MediaType.APPLICATION_JSON);
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_BAD_REQUEST, client.getStatus());
+        }
+    }
+
+    @Test
+    public void testSubmitTaskAndGetTask() throws Exception {
+        ClientResource client = getAuthenticatedClient(WebApplication.WARMUP_PATH);
+        client.post(newEntity(Collections.singletonList(IMAGE)),
+                MediaType.APPLICATION_JSON);
+        assertEquals(Status.SUCCESS_ACCEPTED, client.getStatus());
+
+        final String location = client.getLocationRef().toString();
+        assertTrue(location.contains(WebApplication.WARMUP_PATH + "/"));
+
+        // Poll until the task has completed.
+        final String path = location.substring(location.indexOf(
+                WebApplication.WARMUP_PATH));
+        Map task = null;
+        for (int i = 0; i < 50; i++) {
+            client = getAuthenticatedClient(path);
+            task = new ObjectMapper().readValue(
+                    client.get().getStream(), HashMap.class);
+            if (!"queued".equals(task.get("status")) &&
+                    !"running".equals(task.get("status"))) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertEquals("succeeded", task.get("status"));
+        assertEquals(1, task.get("succeeded"));
+    }
+
+    @Test
+    public void testGetTaskWithUnknownId() {
+        ClientResource client = getAuthenticatedClient(
+                WebApplication.WARMUP_PATH + "/bogus");
+        try {
+            client.get();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_NOT_FOUND, client.getStatus());
+        }
+    }
+
+}
@@ -1,13 +1,59 @@
 package edu.illinois.library.cantaloupe.resource.iiif;
 
+import edu.illinois.library.cantaloupe.processor.ImageInfo;
 import org.junit.Test;
 
 import java.awt.Dimension;
+import java.util.Arrays;
 
 import static org.junit.Assert.*;
 
 public class ImageInfoUtilTest {
 
+    @Test
+    public void testGetTileSizeWithMultiResolutionImage() {
+        ImageInfo info = new ImageInfo(2000, 1000, 512, 512);
+        ImageInfo.Image image = new ImageInfo.Image();
+        image.width = 1000;
+        image.height = 500;
+        image.tileWidth = 100;
+        image.tileHeight = 100;
+        info.getImages().add(image);
+        assertEquals(new Dimension(512, 512),
+                ImageInfoUtil.getTileSize(info, 300));
+    }
+
+    @Test
+    public void testGetTileSizes() {
+        // untiled image
+        ImageInfo info = new ImageInfo(1024, 1024);
+        assertEquals(Arrays.asList(new Dimension(128, 128)),
+                ImageInfoUtil.getTileSizes(info, 100));
+
+        // tiled image
+        info = new ImageInfo(1024, 1024, 64, 64);
+        assertEquals(Arrays.asList(new Dimension(128, 128)),
+                ImageInfoUtil.getTileSizes(info, 100));
+    }
+
+    @Test
+    public void testGetTileSizesWithMultiResolutionImage() {
+        ImageInfo info = new ImageInfo(2000, 1000, 512, 512);
+        for (int tileSize : new int[] { 256, 100 }) {
+            ImageInfo.Image image = new ImageInfo.Image();
+            image.width = 1000;
+            image.height = 500;
+            image.tileWidth = tileSize;
+            image.tileHeight = tileSize;
+            info.getImages().add(image);
+        }
+        // The 256x256 tiles of the second image round up to the same size as
+        // those of the first.
+        assertEquals(Arrays.asList(new Dimension(512, 512),
+                new Dimension(400, 400)),
+                ImageInfoUtil.getTileSizes(info, 300));
+    }
+
     @Test
     public void testMaxReductionFactor() {
         Dimension fullSize = new Dimension(1024, 1024);
@@ -18,7 +18,9 @@ import org.junit.Test;
 import org.restlet.data.CacheDirective;
 import org.restlet.data.ChallengeResponse;
 import org.restlet.data.ChallengeScheme;
+import org.restlet.data.Dimension;
 import org.restlet.data.Disposition;
+import org.restlet.data.MediaType;
 import org.restlet.data.Status;
 import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
@@ -63,6 +65,29 @@ public class ImageResourceTest extends ResourceTest {
         assertEquals("http://example.org/", client.getLocationRef().toString());
     }
 
+    @Test
+    public void testAcceptHeaderNegotiation() throws Exception {
+        webServer.start();
+        ClientResource client = getClientForUriPath("/" + IMAGE + "/full/full/0/native");
+        client.accept(MediaType.IMAGE_PNG);
+        client.get();
+        assertEquals(MediaType.IMAGE_PNG,
+                client.getResponseEntity().getMediaType());
+        assertTrue(client.getResponse().getDimensions().
+                contains(Dimension.MEDIA_TYPE));
+    }
+
+    @Test
+    public void testAcceptHeaderNegotiationPrefersDefaultFormat()
+            throws Exception {
+        webServer.start();
+        ClientResource client = getClientForUriPath("/" + IMAGE + "/full/full/0/native");
+        client.accept(MediaType.ALL);
+        client.get();
+        assertEquals(MediaType.IMAGE_JPEG,
+                client.getResponseEntity().getMediaType());
+    }
+
     @Test
     public void testBasicAuthentication() throws Exception {
         webServer.start();
@@ -10,6 +10,7 @@ import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.image.redaction.RedactionService;
 import edu.illinois.library.cantaloupe.resource.AbstractResource;
 import edu.illinois.library.cantaloupe.resource.ResourceTest;
 import edu.illinois.library.cantaloupe.test.TestUtil;
@@ -21,10 +22,12 @@ import org.restlet.data.ChallengeScheme;
 import org.restlet.data.Disposition;
 import org.restlet.data.Header;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
 
 import java.io.File;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -195,6 +198,54 @@ public class ImageResourceTest extends ResourceTest {
         assertEquals(1, FileUtils.listFiles(imageCacheFolder, null, true).size());
     }
 
+    @Test
+    public void testCacheWithNonCanonicalRequestWhenNotResolvingFirst()
+            throws Exception {
+        webServer.start();
+        File cacheFolder = TestUtil.getTempFolder();
+        cacheFolder = new File(cacheFolder.getAbsolutePath() + "/cache");
+        File imageCacheFolder = new File(cacheFolder.getAbsolutePath() + "/image");
+        if (cacheFolder.exists()) {
+            FileUtils.cleanDirectory(cacheFolder);
+        } else {
+            cacheFolder.mkdir();
+        }
+
+        Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty(CacheFactory.DERIVATIVE_CACHE_CONFIG_KEY,
+                "FilesystemCache");
+        config.setProperty("FilesystemCache.pathname",
+                cacheFolder.getAbsolutePath());
+        config.setProperty(Cache.TTL_CONFIG_KEY, 10);
+        config.setProperty(Cache.RESOLVE_FIRST_CONFIG_KEY, false);
+
+        // request an image to cache it
+        final String path = "/" + IMAGE + "/full/!32,32/0/default.jpg";
+        ClientResource client = getClientForUriPath(path);
+        client.get();
+        final Tag tag = client.getResponseEntity().getTag();
+        assertEquals(1, FileUtils.listFiles(imageCacheFolder, null, true).size());
+
+        File tempImage = File.createTempFile("temp", ".jpg");
+        File image = TestUtil.getImage(IMAGE);
+        try {
+            // move the source image out of the way, so that the request can
+            // only succeed if it is served from the cache
+            if (tempImage.exists()) {
+                tempImage.delete();
+            }
+            FileUtils.moveFile(image, tempImage);
+
+            client = getClientForUriPath(path);
+            client.get();
+            assertEquals(Status.SUCCESS_OK, client.getStatus());
+            assertEquals(tag, client.getResponseEntity().getTag());
+            assertEquals(1, FileUtils.listFiles(imageCacheFolder, null, true).size());
+        } finally {
+            FileUtils.moveFile(tempImage, image);
+        }
+    }
+
     @Test
     public void testCacheWhenDerviativeCachingIsEnabledButNegativeCacheQueryArgumentIsSupplied()
             throws Exception {
@@ -229,6 +280,118 @@ public class ImageResourceTest extends ResourceTest {
         assertFalse(imageCacheFolder.exists());
     }
 
+    @Test
+    public void testConditionalGetWithEntityTag() throws Exception {
+        webServer.start();
+        ClientResource client = getClientForUriPath(
+                "/" + IMAGE + "/full/full/0/default.png");
+        client.get();
+        final Tag tag = client.getResponseEntity().getTag();
+        assertNotNull(tag);
+        assertFalse(tag.isWeak());
+
+        // The tag of an identical request should be the same.
+        client = getClientForUriPath("/" + IMAGE + "/full/full/0/default.png");
+        client.get();
+        assertEquals(tag, client.getResponseEntity().getTag());
+
+        // The tag of a different request should be different.
+        client = getClientForUriPath("/" + IMAGE + "/full/full/0/default.jpg");
+        client.get();
+        assertNotEquals(tag, client.getResponseEntity().getTag());
+
+        client = getClientForUriPath("/" + IMAGE + "/full/full/0/default.png");
+        client.getConditions().getNoneMatch().add(tag);
+        client.get();
+        assertEquals(Status.REDIRECTION_NOT_MODIFIED, client.getStatus());
+    }
+
+    @Test
+    public void testConditionalGetWithEntityTagAndRedactions()
+            throws Exception {
+        ConfigurationFactory.getInstance().setProperty(
+                RedactionService.REDACTION_ENABLED_CONFIG_KEY, true);
+        webServer.start();
+        final String path = "/" + IMAGE + "/full/full/0/default.png";
+
+        ClientResource client = getClientForUriPath(path);
+        client.get();
+        final Tag tag = client.getResponseEntity().getTag();
+
+        // The delegate script redacts the image for clients sending this
+        // cookie, so they must not be able to revalidate the unredacted
+        // image...
+        client = getClientForUriPath(path);
+        client.getCookies().add("redact", "true");
+        client.getConditions().getNoneMatch().add(tag);
+        client.get();
+        assertEquals(Status.SUCCESS_OK, client.getStatus());
+        final Tag redactedTag = client.getResponseEntity().getTag();
+        assertNotEquals(tag, redactedTag);
+
+        // ...and vice versa.
+        client = getClientForUriPath(path);
+        client.getConditions().getNoneMatch().add(redactedTag);
+        client.get();
+        assertEquals(Status.SUCCESS_OK, client.getStatus());
+        assertEquals(tag, client.getResponseEntity().getTag());
+    }
+
+    @Test
+    public void testConditionalGetWithForbiddenImage() throws Exception {
+        webServer.start();
+        final String path = "/forbidden.jpg/full/full/0/default.jpg";
+        ClientResource client = getClientForUriPath(path);
+        client.getConditions().getNoneMatch().add(Tag.ALL);
+        try {
+            client.get();
+            fail("Expected exception");
+        } catch (ResourceException e) {
+            assertEquals(Status.CLIENT_ERROR_FORBIDDEN, client.getStatus());
+        }
+    }
+
+    @Test
+    public void testConditionalGetWithLastModified() throws Exception {
+        webServer.start();
+        ClientResource client = getClientForUriPath(
+                "/" + IMAGE + "/full/full/0/default.png");
+        client.get();
+        final Date lastModified =
+                client.getResponseEntity().getModificationDate();
+        assertNotNull(lastModified);
+
+        client = getClientForUriPath("/" + IMAGE + "/full/full/0/default.png");
+        client.getConditions().setModifiedSince(lastModified);
+        client.get();
+        assertEquals(Status.REDIRECTION_NOT_MODIFIED, client.getStatus());
+    }
+
+    @Test
+    public void testConditionalGetWithEntityTagAfterSourceChanged()
+            throws Exception {
+        webServer.start();
+        final File image = TestUtil.getImage(IMAGE);
+        final long lastModified = image.lastModified();
+        try {
+            ClientResource client = getClientForUriPath(
+                    "/" + IMAGE + "/full/full/0/default.png");
+            client.get();
+            final Tag tag = client.getResponseEntity().getTag();
+
+            image.setLastModified(lastModified - 60000);
+
+            client = getClientForUriPath(
+                    "/" + IMAGE + "/full/full/0/default.png");
+            client.getConditions().getNoneMatch().add(tag);
+            client.get();
+            assertEquals(Status.SUCCESS_OK, client.getStatus());
+            assertNotEquals(tag, client.getResponseEntity().getTag());
+        } finally {
+            image.setLastModified(lastModified);
+        }
+    }
+
     @Test
     public void testContentDispositionHeader() throws Exception {
         webServer.start();
@@ -10,13 +10,16 @@ import edu.illinois.library.cantaloupe.config.ConfigurationFactory;
 import edu.illinois.library.cantaloupe.image.Format;
 import edu.illinois.library.cantaloupe.image.Identifier;
 import edu.illinois.library.cantaloupe.image.OperationList;
+import edu.illinois.library.cantaloupe.resolver.ResolutionCache;
 import edu.illinois.library.cantaloupe.resource.AbstractResource;
+import edu.illinois.library.cantaloupe.resource.InformationResponseCache;
 import edu.illinois.library.cantaloupe.resource.ResourceTest;
 import edu.illinois.library.cantaloupe.test.TestUtil;
 import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 import org.restlet.data.CacheDirective;
 import org.restlet.data.Status;
+import org.restlet.data.Tag;
 import org.restlet.resource.ClientResource;
 import org.restlet.resource.ResourceException;
 
@@ -77,6 +80,29 @@ public class InformationResourceTest extends ResourceTest {
         }
     }
 
+    @Test
+    public void testConditionalGetWithEntityTag() throws Exception {
+        webServer.start();
+        ClientResource client = getClientForUriPath("/" + IMAGE + "/info.json");
+        client.get();
+        final Tag tag = client.getResponseEntity().getTag();
+        assertNotNull(tag);
+        assertFalse(tag.isWeak());
+
+        client = getClientForUriPath("/" + IMAGE + "/info.json");
+        client.getConditions().getNoneMatch().add(tag);
+        client.get();
+        assertEquals(Status.REDIRECTION_NOT_MODIFIED, client.getStatus());
+
+        // A different base URI changes the content, and therefore the tag.
+        ConfigurationFactory.getInstance().setProperty(
+                AbstractResource.BASE_URI_CONFIG_KEY, "https://example.org/");
+        client = getClientForUriPath("/" + IMAGE + "/info.json");
+        client.getConditions().getNoneMatch().add(tag);
+        client.get();
+        assertEquals(Status.SUCCESS_OK, client.getStatus());
+    }
+
     @Test
     public void testCacheWhenDerviativeCachingIsEnabled() throws Exception {
         webServer.start();
@@ -144,6 +170,42 @@ public class InformationResourceTest extends ResourceTest {
         assertFalse(infoCacheFolder.exists());
     }
 
+    @Test
+    public void testInformationResponseCacheHitDoesNotReadSource()
+            throws Exception {
+        Configuration config = ConfigurationFactory.getInstance();
+        config.setProperty("cache.server.info_response.enabled", true);
+        config.setProperty("resolver.cache.enabled", true);
+        InformationResponseCache.getInstance().purge();
+        ResolutionCache.getInstance().purge();
+        webServer.start();
+
+        // request the info to cache the response
+        final String path = "/" + IMAGE + "/info.json";
+        ClientResource client = getClientForUriPath(path);
+        client.get();
+        final String json = client.getResponse().getEntityAsText();
+
+        File tempImage = File.createTempFile("temp", ".jpg");
+        File image = TestUtil.getImage(IMAGE);
+        try {
+            // move the source image out of the way, so that the request can
+            // only succeed if neither the resolver nor the processor touches
+            // it
+            if (tempImage.exists()) {
+                tempImage.delete();
+            }
+            FileUtils.moveFile(image, tempImage);
+
+            client = getClientForUriPath(path);
+            client.get();
+            assertEquals(Status.SUCCESS_OK, client.getStatus());
+            assertEquals(json, client.getResponse().getEntityAsText());
+        } finally {
+            FileUtils.moveFile(tempImage, image);
+        }
+    }
+
     @Test
     public void testEndpointDisabled() throws Exception {
         webServer.start();
@@ -0,0 +1,108 @@
+package edu.illinois.library.cantaloupe.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class ExpiringLruMapTest {
+
+    private ExpiringLruMap<String,String> instance;
+
+    @Before
+    public void setUp() {
+        instance = new ExpiringLruMap<>(100);
+    }
+
+    @Test
+    public void testClear() {
+        instance.put("cats", "meow");
+        instance.put("dogs", "woof");
+        instance.clear();
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testGetWithoutTtl() throws Exception {
+        instance.put("cats", "meow");
+        Thread.sleep(10);
+        assertEquals("meow", instance.get("cats"));
+        assertNull(instance.get("dogs"));
+    }
+
+    @Test
+    public void testGetWithHit() {
+        instance.put("cats", "meow");
+        assertEquals("meow", instance.get("cats", 0));
+    }
+
+    @Test
+    public void testGetWithMiss() {
+        instance.put("cats", "meow");
+        assertNull(instance.get("dogs", 0));
+    }
+
+    @Test
+    public void testGetWithExpiredEntry() throws Exception {
+        instance.put("cats", "meow");
+        Thread.sleep(60);
+        assertNull(instance.get("cats", 50));
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void testGetWithZeroTtl() throws Exception {
+        instance.put("cats", "meow");
+        Thread.sleep(10);
+        assertEquals("meow", instance.get("cats", 0));
+    }
+
+    @Test
+    public void testPutReplacesEntry() {
+        instance.put("cats", "meow");
+        instance.put("cats", "purr");
+        assertEquals(1, instance.size());
+        assertEquals("purr", instance.get("cats", 0));
+    }
+
+    @Test
+    public void testPutEvictsLeastRecentlyAccessedEntry() {
+        instance.setMaxSize(2);
+        instance.put("cats", "meow");
+        instance.put("dogs", "woof");
+        instance.get("cats", 0);
+        instance.put("cows", "moo");
+        assertEquals(2, instance.size());
+        assertEquals("meow", instance.get("cats", 0));
+        assertNull(instance.get("dogs", 0));
+        assertEquals("moo", instance.get("cows", 0));
+    }
+
+    @Test
+    public void testRemove() {
+        instance.put("cats", "meow");
+        instance.put("dogs", "woof");
+        instance.remove("cats");
+        assertEquals(1, instance.size());
+        assertNull(instance.get("cats", 0));
+    }
+
+    @Test
+    public void testRemoveIf() {
+        instance.put("cats", "meow");
+        instance.put("kittens", "meow");
+        instance.put("dogs", "woof");
+        final int count = instance.removeIf(new Predicate<String>() {
+            @Override
+            public boolean test(String value) {
+                return "meow".equals(value);
+            }
+        });
+        assertEquals(2, count);
+        assertEquals(1, instance.size());
+        assertEquals("woof", instance.get("dogs", 0));
+    }
+
+}
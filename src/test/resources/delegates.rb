@@ -91,6 +91,8 @@ module Cantaloupe
     redactions = []
     if identifier == 'cats'
       redactions << { 'x' => 0, 'y' => 10, 'width' => 50, 'height' => 70 }
+    elsif cookies['redact'] == 'true'
+      redactions << { 'x' => 0, 'y' => 0, 'width' => 20, 'height' => 20 }
     end
     redactions
   end